@@ -0,0 +1,40 @@
+package com.group17.flightticket.api;
+
+import com.group17.flightticket.entity.Flight;
+import com.group17.flightticket.entity.Passenger;
+import com.group17.flightticket.entity.Reservation;
+import com.group17.flightticket.identity.FlightKey;
+import com.group17.flightticket.identity.Registries;
+
+/**
+ * Finds the entities named by API requests in the {@link Registries}.
+ */
+final class ApiLookups {
+
+    private ApiLookups() {
+    }
+
+    static Passenger passenger(long passengerId) {
+        Passenger passenger = Registries.passengers().get(passengerId);
+        if (passenger == null) {
+            throw new NotFoundException("No passenger " + passengerId);
+        }
+        return passenger;
+    }
+
+    static Flight flight(String flightKey) {
+        Flight flight = Registries.flights().get(FlightKey.parse(flightKey));
+        if (flight == null) {
+            throw new NotFoundException("No flight " + flightKey);
+        }
+        return flight;
+    }
+
+    static Reservation reservation(Passenger passenger, Flight flight) {
+        Reservation reservation = passenger.findReservation(flight);
+        if (reservation == null) {
+            throw new NotFoundException("Passenger " + passenger.getPassengerId() + " has no reservation on " + flight.getFlightKey());
+        }
+        return reservation;
+    }
+}
@@ -0,0 +1,149 @@
+package com.group17.flightticket.api;
+
+import com.group17.flightticket.boarding.BoardingGroup;
+import com.group17.flightticket.boarding.BoardingSession;
+import com.group17.flightticket.boarding.ScanResult;
+import com.group17.flightticket.entity.Flight;
+import com.group17.flightticket.entity.Passenger;
+import com.group17.flightticket.entity.Reservation;
+import com.group17.flightticket.enums.SeatCategory;
+import com.group17.flightticket.inventory.SeatPreference;
+import com.group17.flightticket.pricing.FareQuote;
+
+/**
+ * The request and response bodies of the HTTP API. Responses are flat views of the entities,
+ * so the API never serializes the entity graph itself.
+ */
+public final class ApiModels {
+
+    private ApiModels() {
+    }
+
+    /**
+     * Creates a passenger.
+     *
+     * @param name    The name of the passenger.
+     * @param balance The opening balance.
+     */
+    public record PassengerRequest(String name, double balance) {
+    }
+
+    /**
+     * A passenger and their balance.
+     *
+     * @param passengerId The id of the passenger.
+     * @param name        The name of the passenger.
+     * @param balance     The current balance.
+     */
+    public record PassengerView(long passengerId, String name, double balance) {
+        static PassengerView of(Passenger passenger) {
+            return new PassengerView(passenger.getPassengerId(), passenger.getName(), passenger.getBalance());
+        }
+    }
+
+    /**
+     * A fare offered by a flight search.
+     *
+     * @param flightKey    The key of the flight, "airline/flightNumber/yyyy-MM-dd".
+     * @param category     The seat category quoted.
+     * @param fare         The current fare.
+     * @param maxAmountDue The most the searching passenger pays once their points are redeemed.
+     * @param seatsLeft    The seats left in the category.
+     */
+    public record FareView(String flightKey, SeatCategory category, double fare, double maxAmountDue, int seatsLeft) {
+        static FareView of(FareQuote quote) {
+            return new FareView(quote.flightKey().toString(), quote.category(), quote.fare(), quote.maxAmountDue(),
+                    quote.seatsLeft());
+        }
+    }
+
+    /**
+     * Books a seat with its extras.
+     *
+     * @param passengerId       The id of the passenger.
+     * @param flightKey         The key of the flight, "airline/flightNumber/yyyy-MM-dd".
+     * @param category          The seat category.
+     * @param preference        The kind of seat wanted, or {@code null} for any.
+     * @param insuranceCoverage The amount of insurance to buy, or {@code null} for none.
+     * @param priorityBoarding  Whether to buy priority boarding.
+     */
+    public record ReservationRequest(long passengerId, String flightKey, SeatCategory category,
+                                     SeatPreference preference, Double insuranceCoverage, boolean priorityBoarding) {
+    }
+
+    /**
+     * Moves a reservation to another seat category.
+     *
+     * @param category The new seat category.
+     */
+    public record CategoryChangeRequest(SeatCategory category) {
+    }
+
+    /**
+     * A reservation of a passenger.
+     *
+     * @param reservationId The id of the reservation.
+     * @param passengerId   The id of the passenger.
+     * @param flightKey     The key of the flight.
+     * @param category      The seat category.
+     * @param fee           The fare of the reservation.
+     * @param seat          The seat label, or {@code null} if the passenger has no seat yet.
+     * @param insured       Whether insurance was bought with the reservation.
+     * @param balance       The passenger's balance after the operation.
+     */
+    public record ReservationView(long reservationId, long passengerId, String flightKey, SeatCategory category,
+                                  double fee, String seat, boolean insured, double balance) {
+        static ReservationView of(Passenger passenger, Reservation reservation) {
+            Flight flight = reservation.getFlight();
+            return new ReservationView(reservation.getReservationId(), passenger.getPassengerId(),
+                    flight.getFlightKey().toString(), reservation.getSeatCategory(), reservation.getFee(),
+                    reservation.getSeat() == null ? null : reservation.getSeat().toString(),
+                    reservation.getInsurance() != null, passenger.getBalance());
+        }
+    }
+
+    /**
+     * Scans a boarding pass at the gate.
+     *
+     * @param passengerId The id of the passenger.
+     */
+    public record ScanRequest(long passengerId) {
+    }
+
+    /**
+     * The state of the boarding of a flight.
+     *
+     * @param flightKey   The key of the flight.
+     * @param calledGroup The last group called, or {@code null}.
+     * @param boarded     The passengers who have boarded.
+     * @param remaining   The passengers who have not boarded.
+     * @param closed      Whether boarding is closed.
+     */
+    public record BoardingView(String flightKey, BoardingGroup calledGroup, int boarded, int remaining,
+                               boolean closed) {
+        static BoardingView of(Flight flight, BoardingSession session) {
+            return new BoardingView(flight.getFlightKey().toString(), session.getCalledGroup(),
+                    session.getBoardedCount(), session.getRemainingCount(), session.isClosed());
+        }
+    }
+
+    /**
+     * The outcome of a boarding pass scan.
+     *
+     * @param result    The outcome.
+     * @param boarded   The passengers who have boarded.
+     * @param remaining The passengers who have not boarded.
+     */
+    public record ScanView(ScanResult result, int boarded, int remaining) {
+    }
+
+    /**
+     * Why a request was refused.
+     *
+     * @param status  The HTTP status.
+     * @param error   The reason, e.g. {@code INSUFFICIENT_BALANCE}.
+     * @param message A description for people.
+     */
+    public record ApiError(int status, String error, String message) {
+    }
+}
@@ -0,0 +1,28 @@
+package com.group17.flightticket.api;
+
+/**
+ * Thrown when a booking operation is refused by the entity model, e.g. a full flight or a low balance.
+ */
+public class ConflictException extends RuntimeException {
+    private final String reason;
+
+    /**
+     * Constructs the exception.
+     *
+     * @param reason  The reason code returned to the client, e.g. {@code FLIGHT_CLOSED_OR_FULL}.
+     * @param message A description for people.
+     */
+    public ConflictException(String reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    /**
+     * Gets the reason code returned to the client.
+     *
+     * @return The reason code.
+     */
+    public String getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,135 @@
+package com.group17.flightticket.api;
+
+import com.group17.flightticket.api.ApiModels.BoardingView;
+import com.group17.flightticket.api.ApiModels.FareView;
+import com.group17.flightticket.api.ApiModels.ScanRequest;
+import com.group17.flightticket.api.ApiModels.ScanView;
+import com.group17.flightticket.boarding.BoardingSession;
+import com.group17.flightticket.boarding.ScanResult;
+import com.group17.flightticket.entity.Flight;
+import com.group17.flightticket.entity.Passenger;
+import com.group17.flightticket.enums.SeatCategory;
+import com.group17.flightticket.pricing.FareQuote;
+import com.group17.flightticket.search.FlightSearchIndex;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Searches flights and runs their boarding. A flight is addressed by its key,
+ * "airline/flightNumber/yyyy-MM-dd", which is also its path.
+ */
+@RestController
+@RequestMapping("/api/flights")
+public class FlightController {
+    private static final String FLIGHT_PATH = "/{airline}/{flightNumber}/{date}";
+
+    /**
+     * Quotes a seat category on the bookable flights between two locations inside a departure window.
+     *
+     * @param origin      The location of the departure terminal.
+     * @param destination The location of the arrival terminal.
+     * @param from        The earliest departure time, ISO-8601.
+     * @param to          The latest departure time, ISO-8601.
+     * @param category    The seat category to quote.
+     * @param passengerId The passenger searching, to quote with their points, or none for an anonymous search.
+     * @return The fares ordered by departure time.
+     */
+    @GetMapping
+    public List<FareView> search(@RequestParam String origin, @RequestParam String destination,
+                                 @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                 @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                 @RequestParam(defaultValue = "ECONOMY") SeatCategory category,
+                                 @RequestParam(required = false) Long passengerId) {
+        Passenger passenger = passengerId == null ? null : ApiLookups.passenger(passengerId);
+        List<FareQuote> quotes = FlightSearchIndex.global().searchFares(origin, destination, from, to, category, passenger);
+        List<FareView> fares = new ArrayList<>(quotes.size());
+        for (FareQuote quote : quotes) {
+            fares.add(FareView.of(quote));
+        }
+        return fares;
+    }
+
+    /**
+     * Starts the boarding of a flight, or gets the boarding already started.
+     *
+     * @param airline      The airline of the flight.
+     * @param flightNumber The flight number.
+     * @param date         The departure date of the flight.
+     * @return The state of the boarding.
+     */
+    @PostMapping(FLIGHT_PATH + "/boarding")
+    public BoardingView startBoarding(@PathVariable String airline, @PathVariable String flightNumber,
+                                      @PathVariable String date) {
+        Flight flight = flight(airline, flightNumber, date);
+        return BoardingView.of(flight, flight.startBoarding());
+    }
+
+    /**
+     * Calls the next boarding group.
+     *
+     * @param airline      The airline of the flight.
+     * @param flightNumber The flight number.
+     * @param date         The departure date of the flight.
+     * @return The state of the boarding.
+     */
+    @PostMapping(FLIGHT_PATH + "/boarding/groups")
+    public BoardingView callNextGroup(@PathVariable String airline, @PathVariable String flightNumber,
+                                      @PathVariable String date) {
+        Flight flight = flight(airline, flightNumber, date);
+        BoardingSession session = flight.startBoarding();
+        session.callNextGroup();
+        return BoardingView.of(flight, session);
+    }
+
+    /**
+     * Scans a boarding pass at the gate.
+     *
+     * @param airline      The airline of the flight.
+     * @param flightNumber The flight number.
+     * @param date         The departure date of the flight.
+     * @param request      The passenger whose pass is scanned.
+     * @return The outcome of the scan.
+     */
+    @PostMapping(FLIGHT_PATH + "/boarding/scans")
+    public ScanView scan(@PathVariable String airline, @PathVariable String flightNumber, @PathVariable String date,
+                         @RequestBody ScanRequest request) {
+        Flight flight = flight(airline, flightNumber, date);
+        BoardingSession session = flight.getBoardingSession();
+        if (session == null) {
+            throw new ConflictException("BOARDING_NOT_STARTED", "Boarding of " + flight.getFlightKey() + " has not started");
+        }
+        ScanResult result = session.scan(ApiLookups.passenger(request.passengerId()));
+        return new ScanView(result, session.getBoardedCount(), session.getRemainingCount());
+    }
+
+    /**
+     * Closes the boarding of a flight. Passengers who did not board are no-shows.
+     *
+     * @param airline      The airline of the flight.
+     * @param flightNumber The flight number.
+     * @param date         The departure date of the flight.
+     * @return The state of the boarding.
+     */
+    @PostMapping(FLIGHT_PATH + "/boarding/close")
+    public BoardingView closeBoarding(@PathVariable String airline, @PathVariable String flightNumber,
+                                      @PathVariable String date) {
+        Flight flight = flight(airline, flightNumber, date);
+        BoardingSession session = flight.startBoarding();
+        session.close();
+        return BoardingView.of(flight, session);
+    }
+
+    private static Flight flight(String airline, String flightNumber, String date) {
+        return ApiLookups.flight(airline + "/" + flightNumber + "/" + date);
+    }
+}
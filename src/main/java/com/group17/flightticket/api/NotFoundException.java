@@ -0,0 +1,16 @@
+package com.group17.flightticket.api;
+
+/**
+ * Thrown when a request names a passenger, flight or reservation that does not exist.
+ */
+public class NotFoundException extends RuntimeException {
+
+    /**
+     * Constructs the exception.
+     *
+     * @param message What was not found.
+     */
+    public NotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,64 @@
+package com.group17.flightticket.api;
+
+import com.group17.flightticket.api.ApiModels.PassengerRequest;
+import com.group17.flightticket.api.ApiModels.PassengerView;
+import com.group17.flightticket.entity.Passenger;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Creates, reads and removes passengers.
+ */
+@RestController
+@RequestMapping("/api/passengers")
+public class PassengerController {
+
+    /**
+     * Creates a passenger with an opening balance.
+     *
+     * @param request The name and balance.
+     * @return The new passenger.
+     */
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public PassengerView create(@RequestBody PassengerRequest request) {
+        if (request.name() == null || request.name().isBlank() || request.balance() < 0) {
+            throw new IllegalArgumentException("A passenger needs a name and a balance of at least 0");
+        }
+        return PassengerView.of(new Passenger(request.name(), request.balance()));
+    }
+
+    /**
+     * Gets a passenger.
+     *
+     * @param passengerId The id of the passenger.
+     * @return The passenger and their balance.
+     */
+    @GetMapping("/{passengerId}")
+    public PassengerView get(@PathVariable long passengerId) {
+        return PassengerView.of(ApiLookups.passenger(passengerId));
+    }
+
+    /**
+     * Removes a passenger who holds no reservation, so the passengers created through the API do not
+     * stay registered forever.
+     *
+     * @param passengerId The id of the passenger.
+     */
+    @DeleteMapping("/{passengerId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void remove(@PathVariable long passengerId) {
+        Passenger passenger = ApiLookups.passenger(passengerId);
+        if (!passenger.unregister()) {
+            throw new ConflictException("PASSENGER_HAS_RESERVATIONS",
+                    "Passenger " + passengerId + " still holds reservations");
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.group17.flightticket.api;
+
+import com.group17.flightticket.api.ApiModels.CategoryChangeRequest;
+import com.group17.flightticket.api.ApiModels.ReservationRequest;
+import com.group17.flightticket.api.ApiModels.ReservationView;
+import com.group17.flightticket.entity.BookingTransaction;
+import com.group17.flightticket.entity.Flight;
+import com.group17.flightticket.entity.Passenger;
+import com.group17.flightticket.entity.Reservation;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Books, modifies and cancels reservations. A reservation is addressed by its passenger and the key
+ * of its flight, "airline/flightNumber/yyyy-MM-dd", which is also its path.
+ */
+@RestController
+@RequestMapping("/api/reservations")
+public class ReservationController {
+
+    /**
+     * Books a seat with its extras, all or nothing.
+     *
+     * @param request The passenger, flight, category and extras.
+     * @return The reservation.
+     * @throws ConflictException if the booking was refused, with the reason of {@link BookingTransaction.AbortReason}.
+     */
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public ReservationView reserve(@RequestBody ReservationRequest request) {
+        if (request.category() == null) {
+            throw new IllegalArgumentException("A reservation needs a seat category");
+        }
+        Passenger passenger = ApiLookups.passenger(request.passengerId());
+        Flight flight = ApiLookups.flight(request.flightKey());
+        BookingTransaction transaction = BookingTransaction.begin(passenger, flight, request.category());
+        if (request.preference() != null) {
+            transaction.seatPreference(request.preference());
+        }
+        if (request.insuranceCoverage() != null) {
+            transaction.insurance(request.insuranceCoverage());
+        }
+        if (request.priorityBoarding()) {
+            transaction.priorityBoarding();
+        }
+        Reservation reservation = transaction.commit();
+        if (reservation == null) {
+            throw new ConflictException(transaction.getAbortReason().name(),
+                    "Reservation on " + request.flightKey() + " refused" + (transaction.getShortfall() == null
+                            ? "" : ", cannot pay for " + transaction.getShortfall()));
+        }
+        return ReservationView.of(passenger, reservation);
+    }
+
+    /**
+     * Moves a reservation to another seat category and settles the price difference.
+     *
+     * @param passengerId  The id of the passenger.
+     * @param airline      The airline of the flight.
+     * @param flightNumber The flight number.
+     * @param date         The departure date of the flight.
+     * @param request      The new category.
+     * @return The modified reservation.
+     */
+    @PatchMapping("/{passengerId}/{airline}/{flightNumber}/{date}")
+    public ReservationView modify(@PathVariable long passengerId, @PathVariable String airline,
+                                  @PathVariable String flightNumber, @PathVariable String date,
+                                  @RequestBody CategoryChangeRequest request) {
+        Passenger passenger = ApiLookups.passenger(passengerId);
+        Reservation reservation = ApiLookups.reservation(passenger, ApiLookups.flight(airline + "/" + flightNumber + "/" + date));
+        if (!passenger.modifySeatCategoryV2(reservation, request.category())) {
+            throw new ConflictException("CATEGORY_CHANGE_REFUSED",
+                    "Cannot move reservation " + reservation.getReservationId() + " to " + request.category());
+        }
+        return ReservationView.of(passenger, reservation);
+    }
+
+    /**
+     * Cancels a reservation and refunds the passenger.
+     *
+     * @param passengerId  The id of the passenger.
+     * @param airline      The airline of the flight.
+     * @param flightNumber The flight number.
+     * @param date         The departure date of the flight.
+     * @return The canceled reservation, with the balance after the refund.
+     */
+    @DeleteMapping("/{passengerId}/{airline}/{flightNumber}/{date}")
+    public ReservationView cancel(@PathVariable long passengerId, @PathVariable String airline,
+                                  @PathVariable String flightNumber, @PathVariable String date) {
+        Passenger passenger = ApiLookups.passenger(passengerId);
+        Flight flight = ApiLookups.flight(airline + "/" + flightNumber + "/" + date);
+        Reservation reservation = ApiLookups.reservation(passenger, flight);
+        if (!passenger.cancelReservationV2(flight, flight.getAirlineCompany())) {
+            // Canceled concurrently by another request
+            throw new NotFoundException("Reservation " + reservation.getReservationId() + " is already canceled");
+        }
+        return ReservationView.of(passenger, reservation);
+    }
+}
@@ -0,0 +1,45 @@
+package com.group17.flightticket.boarding;
+
+import com.group17.flightticket.enums.SeatCategory;
+
+/**
+ * The groups a flight boards in, in calling order: passengers with priority boarding first,
+ * then one zone per premium {@link SeatCategory}, then everyone in economy.
+ */
+public enum BoardingGroup {
+    PRIORITY,
+    FIRST_CLASS,
+    BUSINESS,
+    PREMIUM_ECONOMY,
+    GENERAL;
+
+    private static final BoardingGroup[] GROUPS = values();
+
+    /**
+     * Finds the group a passenger boards with.
+     *
+     * @param priorityBoarding Whether the passenger bought priority boarding.
+     * @param category         The seat category of the passenger.
+     * @return The boarding group.
+     */
+    public static BoardingGroup of(boolean priorityBoarding, SeatCategory category) {
+        if (priorityBoarding) {
+            return PRIORITY;
+        }
+        return switch (category) {
+            case FIRST_CLASS -> FIRST_CLASS;
+            case BUSINESS -> BUSINESS;
+            case PREMIUM_ECONOMY -> PREMIUM_ECONOMY;
+            case ECONOMY -> GENERAL;
+        };
+    }
+
+    /**
+     * Gets the group called after this one.
+     *
+     * @return The next group, or {@code null} for the last group.
+     */
+    public BoardingGroup next() {
+        return ordinal() + 1 < GROUPS.length ? GROUPS[ordinal() + 1] : null;
+    }
+}
@@ -0,0 +1,290 @@
+package com.group17.flightticket.boarding;
+
+import com.group17.flightticket.entity.AirlineCompany;
+import com.group17.flightticket.entity.Flight;
+import com.group17.flightticket.entity.Passenger;
+import com.group17.flightticket.enums.SeatCategory;
+import com.group17.flightticket.event.BookingEvent.PassengerBoarded;
+import com.group17.flightticket.event.BookingEventBus;
+import com.group17.flightticket.revenue.NoShowStatistics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * The {@code BoardingSession} class runs the boarding of one flight, one gate scan at a time.
+ * <p>
+ * Booked passengers are sorted once into a queue per {@link BoardingGroup}, in booking order.
+ * Groups are called in order, and a scan boards a passenger whose group has been called with one
+ * map lookup and one compare-and-set, so gate agents can scan passes from several threads while the
+ * boarded and remaining counters stay exact. A session only touches its own flight, so flights
+ * boarding at the same terminal never contend with each other.
+ * <p>
+ * Passengers who have not boarded when the session is closed are kept as no-shows instead of being
+ * dropped. A passenger's group is fixed when they join the session.
+ */
+public class BoardingSession {
+    private static final BoardingGroup[] GROUPS = BoardingGroup.values();
+    private static final int WAITING = 0;
+    private static final int BOARDED = 1;
+    private static final int REMOVED = 2;
+
+    private final Flight flight;
+    private final int capacity;
+    private final Map<Passenger, Boarder> boarders = new ConcurrentHashMap<>();
+    private final List<Queue<Boarder>> queues = new ArrayList<>(GROUPS.length);
+    /** Passengers in the order they boarded */
+    private final Queue<Passenger> boarded = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger boardedCount = new AtomicInteger();
+    private final AtomicInteger remainingCount = new AtomicInteger();
+    private final AtomicIntegerArray remainingByGroup = new AtomicIntegerArray(GROUPS.length);
+    /** The ordinal of the last group called, -1 before the first call */
+    private volatile int calledGroup = -1;
+    private volatile boolean closed;
+
+    /**
+     * Opens a boarding session for a flight. Passengers are added with {@link #add}.
+     *
+     * @param flight   The flight to board.
+     * @param capacity The number of passengers that can board.
+     */
+    public BoardingSession(Flight flight, int capacity) {
+        this.flight = flight;
+        this.capacity = capacity;
+        for (int i = 0; i < GROUPS.length; i++) {
+            queues.add(new ConcurrentLinkedQueue<>());
+        }
+    }
+
+    /**
+     * Adds a booked passenger to the queue of their boarding group.
+     *
+     * @param passenger The passenger.
+     * @param category  The seat category of the passenger.
+     * @return {@code true} if the passenger was added, {@code false} if already in the session.
+     */
+    public boolean add(Passenger passenger, SeatCategory category) {
+        Boarder boarder = new Boarder(passenger, BoardingGroup.of(passenger.hasPriorityBoarding(), category));
+        if (boarders.putIfAbsent(passenger, boarder) != null) {
+            return false;
+        }
+        remainingCount.incrementAndGet();
+        remainingByGroup.incrementAndGet(boarder.group.ordinal());
+        queues.get(boarder.group.ordinal()).add(boarder);
+        return true;
+    }
+
+    /**
+     * Takes a passenger who has not boarded out of the session, e.g. after a cancellation.
+     *
+     * @param passenger The passenger.
+     * @return {@code true} if the passenger was waiting and has been removed.
+     */
+    public boolean remove(Passenger passenger) {
+        Boarder boarder = boarders.get(passenger);
+        if (boarder == null || !boarder.state.compareAndSet(WAITING, REMOVED)) {
+            return false;
+        }
+        boarders.remove(passenger, boarder);
+        remainingCount.decrementAndGet();
+        remainingByGroup.decrementAndGet(boarder.group.ordinal());
+        return true;
+    }
+
+    /**
+     * Calls the next boarding group. Passengers of the groups called so far can board.
+     *
+     * @return The group called, or {@code null} if every group has already been called.
+     */
+    public synchronized BoardingGroup callNextGroup() {
+        if (calledGroup + 1 >= GROUPS.length) {
+            return null;
+        }
+        calledGroup++;
+        return GROUPS[calledGroup];
+    }
+
+    /**
+     * Calls every group up to and including the given one.
+     *
+     * @param group The last group to call.
+     */
+    public synchronized void callUpTo(BoardingGroup group) {
+        calledGroup = Math.max(calledGroup, group.ordinal());
+    }
+
+    /**
+     * Gets the last group called.
+     *
+     * @return The group, or {@code null} if no group has been called yet.
+     */
+    public BoardingGroup getCalledGroup() {
+        int called = calledGroup;
+        return called < 0 ? null : GROUPS[called];
+    }
+
+    /**
+     * Processes the scan of a passenger's boarding pass at the gate.
+     *
+     * @param passenger The passenger whose pass is scanned.
+     * @return The outcome of the scan.
+     */
+    public ScanResult scan(Passenger passenger) {
+        if (closed) {
+            return ScanResult.CLOSED;
+        }
+        Boarder boarder = boarders.get(passenger);
+        if (boarder == null) {
+            return ScanResult.NOT_ON_FLIGHT;
+        }
+        if (boarder.group.ordinal() > calledGroup) {
+            return ScanResult.GROUP_NOT_CALLED;
+        }
+        if (boarder.state.get() == BOARDED) {
+            return ScanResult.ALREADY_BOARDED;
+        }
+        if (!takeSeat()) {
+            return ScanResult.FLIGHT_FULL;
+        }
+        if (!boarder.state.compareAndSet(WAITING, BOARDED)) {
+            boardedCount.decrementAndGet();
+            return boarder.state.get() == BOARDED ? ScanResult.ALREADY_BOARDED : ScanResult.NOT_ON_FLIGHT;
+        }
+        remainingCount.decrementAndGet();
+        remainingByGroup.decrementAndGet(boarder.group.ordinal());
+        boarded.add(passenger);
+
+        BookingEventBus events = BookingEventBus.global();
+        if (events.isListening()) {
+            events.publish(new PassengerBoarded(flight.getFlightNumber(), passenger.getPassengerId(),
+                    passenger.getName(), boarder.group == BoardingGroup.PRIORITY));
+        }
+        return ScanResult.BOARDED;
+    }
+
+    /**
+     * Gets the passengers of a group who have not boarded yet, in booking order.
+     *
+     * @param group The boarding group.
+     * @return A snapshot of the waiting passengers.
+     */
+    public List<Passenger> getWaiting(BoardingGroup group) {
+        List<Passenger> waiting = new ArrayList<>(Math.max(remainingByGroup.get(group.ordinal()), 0));
+        for (Boarder boarder : queues.get(group.ordinal())) {
+            if (boarder.state.get() == WAITING) {
+                waiting.add(boarder.passenger);
+            }
+        }
+        return waiting;
+    }
+
+    /**
+     * Closes boarding. Later scans are refused. The first close records the no-shows of the flight
+     * in the {@link NoShowStatistics} of its airline.
+     *
+     * @return The passengers who did not board, in group and booking order.
+     */
+    public List<Passenger> close() {
+        synchronized (this) {
+            if (!closed) {
+                closed = true;
+                AirlineCompany airline = flight.getAirlineCompany();
+                if (airline != null) {
+                    int noShows = remainingCount.get();
+                    airline.getNoShowStatistics().record(flight, boardedCount.get() + noShows, noShows);
+                }
+            }
+        }
+        return getNoShows();
+    }
+
+    /**
+     * Gets the passengers who have not boarded, in group and booking order.
+     *
+     * @return A snapshot of the passengers still waiting, the no-shows once the session is closed.
+     */
+    public List<Passenger> getNoShows() {
+        List<Passenger> noShows = new ArrayList<>(Math.max(remainingCount.get(), 0));
+        for (BoardingGroup group : GROUPS) {
+            noShows.addAll(getWaiting(group));
+        }
+        return noShows;
+    }
+
+    /**
+     * Gets the passengers who have boarded, in boarding order.
+     *
+     * @return A snapshot of the boarded passengers.
+     */
+    public List<Passenger> getBoarded() {
+        return new ArrayList<>(boarded);
+    }
+
+    /**
+     * Gets the number of passengers who have boarded.
+     *
+     * @return The live boarded count.
+     */
+    public int getBoardedCount() {
+        return boardedCount.get();
+    }
+
+    /**
+     * Gets the number of passengers in the session who have not boarded yet.
+     *
+     * @return The live remaining count.
+     */
+    public int getRemainingCount() {
+        return remainingCount.get();
+    }
+
+    /**
+     * Gets the number of passengers of a group who have not boarded yet.
+     *
+     * @param group The boarding group.
+     * @return The live remaining count of the group.
+     */
+    public int getRemainingCount(BoardingGroup group) {
+        return remainingByGroup.get(group.ordinal());
+    }
+
+    /**
+     * Checks if boarding has been closed.
+     *
+     * @return {@code true} once {@link #close()} has been called.
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    private boolean takeSeat() {
+        int count;
+        do {
+            count = boardedCount.get();
+            if (count >= capacity) {
+                return false;
+            }
+        } while (!boardedCount.compareAndSet(count, count + 1));
+        return true;
+    }
+
+    /**
+     * A passenger in the session with their group and boarding state.
+     */
+    private static final class Boarder {
+        private final Passenger passenger;
+        private final BoardingGroup group;
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+
+        private Boarder(Passenger passenger, BoardingGroup group) {
+            this.passenger = passenger;
+            this.group = group;
+        }
+    }
+}
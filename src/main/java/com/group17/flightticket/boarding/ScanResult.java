@@ -0,0 +1,19 @@
+package com.group17.flightticket.boarding;
+
+/**
+ * The outcome of scanning a boarding pass at the gate.
+ */
+public enum ScanResult {
+    /** The passenger has boarded */
+    BOARDED,
+    /** The passenger had already boarded, the pass was scanned twice */
+    ALREADY_BOARDED,
+    /** The passenger is not booked on the flight */
+    NOT_ON_FLIGHT,
+    /** The passenger's boarding group has not been called yet */
+    GROUP_NOT_CALLED,
+    /** Every seat of the flight has already boarded */
+    FLIGHT_FULL,
+    /** Boarding of the flight is closed */
+    CLOSED
+}
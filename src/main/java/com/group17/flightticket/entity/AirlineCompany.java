@@ -1,43 +1,98 @@
 package com.group17.flightticket.entity;
+import com.group17.flightticket.event.BookingEvent.FlightInventoryReported;
+import com.group17.flightticket.event.BookingEventBus;
+import com.group17.flightticket.identity.Registries;
+import com.group17.flightticket.lifecycle.FlightLifecycleScheduler;
+import com.group17.flightticket.pricing.FareQuoteCache;
+import com.group17.flightticket.pricing.PricingPolicy;
+import com.group17.flightticket.revenue.InventoryAggregates;
+import com.group17.flightticket.revenue.NoShowStatistics;
+import com.group17.flightticket.search.FlightSearchIndex;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
+import static com.group17.flightticket.utils.FlightConstants.FLIGHT_CAPACITY_TRRESHOLD;
+
 /**
  * Represents an airline company that manages a collection of flights.
  * Provides functionality to add, cancel, and delay flights, as well as generate an inventory report.
  */
 @Data
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
 public class AirlineCompany {
+    @EqualsAndHashCode.Include
     private String companyName;
     private List<Flight> flights = new ArrayList<>();
     protected static final int CAPACITY_THRESHOLD = 5;
     private LoyalScheme loyalScheme;
+    /** Seat totals of the managed flights, kept up to date on every booking */
+    private final InventoryAggregates inventoryAggregates;
+    /** How the flights of the airline are priced, the base fees until set */
+    private PricingPolicy pricingPolicy = PricingPolicy.flat();
+    /** The passengers of the airline's flights who did not board, to size overbooking */
+    private final NoShowStatistics noShowStatistics = new NoShowStatistics();
 
     /**
      * Constructs a new instance of an AirlineCompany with the specified company name.
-     * Initializes the list of flights for the airline.
+     * Initializes the list of flights for the airline and registers it under its name.
      *
      * @param companyName The name of the airline company.
      */
     public AirlineCompany(String companyName) {
         this.companyName = companyName;
         this.flights = new ArrayList<>();
-        this.loyalScheme = new LoyalScheme();
+        this.loyalScheme = new LoyalScheme(companyName);
+        this.inventoryAggregates = new InventoryAggregates(companyName, FLIGHT_CAPACITY_TRRESHOLD);
+        Registries.airlines().register(companyName, this);
+    }
+
+    /**
+     * Prices the flights of the airline with another policy. Managed flights are repriced at once,
+     * flights created later start with it.
+     *
+     * @param pricingPolicy The new pricing policy.
+     */
+    public void setPricingPolicy(PricingPolicy pricingPolicy) {
+        this.pricingPolicy = pricingPolicy;
+        for (Flight flight : flights) {
+            flight.setPricingPolicy(pricingPolicy);
+        }
     }
 
     /**
-     * Adds a flight to the airline company's list of managed flights.
+     * Adds a flight to the airline company's list of managed flights, and to its inventory aggregates.
      *
      * @param flight The Flight object representing the flight to be added.
      */
     public void addFlight(Flight flight) {
         flights.add(flight);
+        inventoryAggregates.track(flight);
+    }
+
+    /**
+     * Adds flights to the airline company's list of managed flights at once, growing the list a single time,
+     * and to its inventory aggregates.
+     *
+     * @param newFlights The flights to add.
+     */
+    public void addFlights(Collection<Flight> newFlights) {
+        if (flights instanceof ArrayList<Flight> list) {
+            list.ensureCapacity(flights.size() + newFlights.size());
+        }
+        flights.addAll(newFlights);
+        for (Flight flight : newFlights) {
+            inventoryAggregates.track(flight);
+        }
     }
 
     /**
      * Cancels a flight from the airline company's list of managed flights based on the provided flight number.
+     * A canceled flight is also removed from the flight search index, the inventory aggregates and the fare quote cache.
      *
      * @param flight The instance of the flight to be canceled.
      * @return true if the flight was successfully found and canceled, false otherwise.
@@ -48,6 +103,13 @@ public class AirlineCompany {
         if (flight != null && flights.contains(flight)) {
             bRes = flights.remove(flight);
         }
+        if (bRes) {
+            FlightSearchIndex.global().remove(flight);
+            inventoryAggregates.untrack(flight);
+            FareQuoteCache.global().invalidate(flight);
+            FlightLifecycleScheduler.global().untrack(flight);
+            Registries.flights().unregister(flight.getFlightKey(), flight);
+        }
         return bRes;
     }
 
@@ -70,14 +132,17 @@ public class AirlineCompany {
 
 
     /**
-     * Prints the inventory of all flights under the airline company.
+     * Reports the inventory of all flights under the airline company to the booking event sinks.
      * Displays the company name followed by each flight's number and the remaining seats available.
      */
     public void inventory() {
+        BookingEventBus events = BookingEventBus.global();
+        if (!events.isListening()) {
+            return;
+        }
         for (Flight flight : flights) {
-            System.out.println("AirLineCompany Name:" + companyName);
-            System.out.println("Flight " + flight.getFlightNumber() + " has " +
-                    flight.getRemainSeatCount() + " seats remaining.");
+            events.publish(new FlightInventoryReported(companyName, flight.getFlightNumber(), null, null,
+                    flight.getRemainSeatCount(), false, false));
         }
     }
 }
\ No newline at end of file
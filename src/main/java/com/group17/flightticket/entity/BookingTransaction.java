@@ -0,0 +1,340 @@
+package com.group17.flightticket.entity;
+
+import com.group17.flightticket.enums.SeatCategory;
+import com.group17.flightticket.event.BookingEvent.InsufficientBalance;
+import com.group17.flightticket.event.BookingEvent.InsurancePurchased;
+import com.group17.flightticket.event.BookingEvent.PriorityBoardingPurchased;
+import com.group17.flightticket.event.BookingEvent.Purpose;
+import com.group17.flightticket.event.BookingEvent.RejectReason;
+import com.group17.flightticket.event.BookingEvent.ReservationCreated;
+import com.group17.flightticket.event.BookingEvent.ReservationRejected;
+import com.group17.flightticket.event.BookingEventBus;
+import com.group17.flightticket.inventory.SeatHold;
+import com.group17.flightticket.inventory.SeatPreference;
+import com.group17.flightticket.metrics.BookingFailure;
+import com.group17.flightticket.metrics.BookingMetrics;
+import com.group17.flightticket.metrics.BookingOperation;
+import com.group17.flightticket.wallet.Money;
+import com.group17.flightticket.wallet.Wallet;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The {@code BookingTransaction} class books one passenger on one flight together with the extras
+ * they buy: the seat, the fare paid with loyalty points first, the points earned, insurance and
+ * priority boarding. Either all of it is applied or none of it is.
+ * <p>
+ * A transaction takes no lock. It first checks against the current balance and points that the
+ * passenger can afford everything, then takes the resources that can be given back: the seat, the
+ * flight in the passenger's reservation index and the redeemed points. The fare and the extras are
+ * then paid in one compare-and-set on the wallet, against the balance they were checked against.
+ * If a concurrent payment or refund changed the balance in between, that is a conflict: the
+ * payment is checked again against the new balance and retried. Only once the money is taken is
+ * the booking applied, in steps that cannot fail. If anything is refused before that, whatever was
+ * taken is given back and the transaction aborts with the reason.
+ * <p>
+ * Commit and abort latencies, and the conflicts retried, are counted for all transactions; see
+ * {@link #stats()}. They are also recorded as {@link BookingOperation#RESERVE} in the {@link BookingMetrics}.
+ */
+public final class BookingTransaction {
+    /** The fee of priority boarding */
+    public static final double PRIORITY_BOARDING_FEE = 50;
+    private static final BookingEventBus EVENTS = BookingEventBus.global();
+    private static final BookingMetrics METRICS = BookingMetrics.global();
+
+    private static final LongAdder COMMITS = new LongAdder();
+    private static final LongAdder ABORTS = new LongAdder();
+    private static final LongAdder CONFLICTS = new LongAdder();
+    private static final LongAdder COMMIT_NANOS = new LongAdder();
+    private static final LongAdder ABORT_NANOS = new LongAdder();
+    private static final AtomicLong MAX_COMMIT_NANOS = new AtomicLong();
+    private static final AtomicLong MAX_ABORT_NANOS = new AtomicLong();
+
+    /**
+     * Why a transaction aborted.
+     */
+    public enum AbortReason {
+        /** The flight is closed for reservation, or the category is full */
+        FLIGHT_CLOSED_OR_FULL,
+        /** The passenger already has a reservation on the flight */
+        ALREADY_BOOKED,
+        /** The passenger cannot afford the fare or an extra */
+        INSUFFICIENT_BALANCE
+    }
+
+    private final Passenger passenger;
+    private final Flight flight;
+    private final SeatCategory category;
+    private SeatPreference preference = SeatPreference.ANY;
+    private SeatHold heldSeat;
+    private double heldFee;
+    private double coverageAmount;
+    private boolean insurance;
+    private boolean priorityBoarding;
+
+    private boolean done;
+    private Reservation reservation;
+    private AbortReason abortReason;
+    private Purpose shortfall;
+    private int conflicts;
+
+    private BookingTransaction(Passenger passenger, Flight flight, SeatCategory category) {
+        this.passenger = passenger;
+        this.flight = flight;
+        this.category = category;
+    }
+
+    /**
+     * Starts a booking of a seat category of a flight.
+     *
+     * @param passenger The passenger to book.
+     * @param flight    The flight.
+     * @param category  The seat category.
+     * @return The transaction, to add extras to and commit.
+     */
+    public static BookingTransaction begin(Passenger passenger, Flight flight, SeatCategory category) {
+        return new BookingTransaction(passenger, flight, category);
+    }
+
+    /**
+     * Asks for a kind of seat, e.g. a window seat.
+     *
+     * @param preference The kind of seat wanted.
+     * @return This transaction.
+     */
+    public BookingTransaction seatPreference(SeatPreference preference) {
+        this.preference = preference;
+        return this;
+    }
+
+    /**
+     * Books a seat already held, e.g. handed over by a waitlist, at the fare quoted when it was held.
+     * The hold is released if the transaction aborts.
+     *
+     * @param hold The held seat, of the category of the transaction.
+     * @param fee  The fare quoted for the seat.
+     * @return This transaction.
+     */
+    public BookingTransaction heldSeat(SeatHold hold, double fee) {
+        this.heldSeat = hold;
+        this.heldFee = fee;
+        return this;
+    }
+
+    /**
+     * Adds flight accident insurance to the booking.
+     *
+     * @param coverageAmount The amount covered, which is also its price.
+     * @return This transaction.
+     */
+    public BookingTransaction insurance(double coverageAmount) {
+        this.insurance = true;
+        this.coverageAmount = coverageAmount;
+        return this;
+    }
+
+    /**
+     * Adds priority boarding to the booking.
+     *
+     * @return This transaction.
+     */
+    public BookingTransaction priorityBoarding() {
+        this.priorityBoarding = true;
+        return this;
+    }
+
+    /**
+     * Applies the booking with all its extras, or nothing of it.
+     *
+     * @return The reservation, or {@code null} if the transaction aborted; see {@link #getAbortReason()}.
+     * @throws IllegalStateException if the transaction was already committed or aborted.
+     */
+    public Reservation commit() {
+        if (done) {
+            throw new IllegalStateException("Transaction already " + (reservation == null ? "aborted" : "committed"));
+        }
+        done = true;
+        long start = System.nanoTime();
+        String flightNumber = flight.getFlightNumber();
+        LoyalScheme loyalScheme = flight.getAirlineCompany().getLoyalScheme();
+        Wallet wallet = passenger.getWallet();
+
+        // Quote before taking the seat, the fare shown is the fare of the seat taken
+        double fee = heldSeat == null ? flight.quoteFare(category) : heldFee;
+        long feeMinor = Money.toMinor(fee);
+        long coverageMinor = insurance ? Money.toMinor(coverageAmount) : 0;
+        long priorityMinor = priorityBoarding ? Money.toMinor(PRIORITY_BOARDING_FEE) : 0;
+
+        // Check everything can be had and afforded before taking anything
+        if (heldSeat == null && (!flight.isBOpenForReservation() || flight.getRemainSeatCount(category) == 0)) {
+            return abort(AbortReason.FLIGHT_CLOSED_OR_FULL, start);
+        }
+        // Points only pay the fare
+        long fareFromWallet = Math.max(feeMinor - Money.toMinor(loyalScheme.getPointsV2(passenger)), 0);
+        shortfall = shortfall(wallet.getBalance(), fareFromWallet, coverageMinor, priorityMinor);
+        if (shortfall != null) {
+            releaseHeldSeat();
+            return abort(AbortReason.INSUFFICIENT_BALANCE, start);
+        }
+
+        // Take the seat first, so concurrent bookings can never oversell the flight
+        SeatHold hold = heldSeat != null ? heldSeat : flight.holdSeat(category, preference);
+        if (hold == null) {
+            return abort(AbortReason.FLIGHT_CLOSED_OR_FULL, start);
+        }
+        // Claim the flight in the reservation index, so the same flight cannot be booked twice
+        Reservation claimed = new Reservation(flight, category, fee);
+        if (!passenger.claimReservation(claimed)) {
+            hold.release();
+            return abort(AbortReason.ALREADY_BOOKED, start);
+        }
+        double needToPay = loyalScheme.redeemPoints(passenger.getPassengerId(), fee, flightNumber);
+        long needToPayMinor = Money.toMinor(needToPay);
+
+        // Pay the fare and the extras at once, against the balance they were checked against
+        while (true) {
+            long balance = wallet.getBalance();
+            shortfall = shortfall(balance, needToPayMinor, coverageMinor, priorityMinor);
+            if (shortfall != null) {
+                int redeemed = (int) Math.round(fee - needToPay);
+                if (redeemed > 0) {
+                    loyalScheme.addPoints(passenger.getPassengerId(), redeemed, flightNumber);
+                }
+                passenger.unclaimReservation(flight);
+                hold.release();
+                return abort(AbortReason.INSUFFICIENT_BALANCE, start);
+            }
+            if (wallet.tryDebit(balance, flightNumber, needToPayMinor, coverageMinor, priorityMinor)) {
+                break;
+            }
+            conflicts++;
+            CONFLICTS.increment();
+            METRICS.paymentConflict();
+        }
+
+        // Everything is paid for, nothing below can be refused
+        int pointsEarned = (int) (fee / 10); // 每10元获得1积分
+        loyalScheme.addPoints(passenger.getPassengerId(), pointsEarned, flightNumber);
+        flight.confirmSeat(hold, passenger);
+        claimed.setSeat(hold.getSeat());
+        if (insurance) {
+            Insurance policy = new Insurance("INS-" + flightNumber + "-" + passenger.getName(), coverageAmount,
+                    passenger, Insurance.FLIGHT_ACCIDENT_INSURANCE);
+            claimed.setInsurance(policy);
+            if (EVENTS.isListening()) {
+                EVENTS.publish(new InsurancePurchased(claimed.getReservationId(), passenger.getPassengerId(),
+                        flightNumber, policy.getPolicyNumber(), coverageMinor));
+            }
+        }
+        if (priorityBoarding) {
+            passenger.enablePriorityBoarding();
+            if (EVENTS.isListening()) {
+                EVENTS.publish(new PriorityBoardingPurchased(passenger.getPassengerId(), passenger.getName(),
+                        flightNumber, priorityMinor));
+            }
+        }
+        if (EVENTS.isListening()) {
+            EVENTS.publish(new ReservationCreated(claimed.getReservationId(), passenger.getPassengerId(),
+                    passenger.getName(), flight.getFlightKey(), category, feeMinor, needToPayMinor, pointsEarned,
+                    loyalScheme.getPointsV2(passenger), claimed.getSeat()));
+        }
+        reservation = claimed;
+        long elapsed = System.nanoTime() - start;
+        COMMITS.increment();
+        COMMIT_NANOS.add(elapsed);
+        MAX_COMMIT_NANOS.accumulateAndGet(elapsed, Math::max);
+        METRICS.record(BookingOperation.RESERVE, elapsed, null);
+        return claimed;
+    }
+
+    /**
+     * Gets the reservation made by the transaction.
+     *
+     * @return The reservation, or {@code null} if the transaction is not committed.
+     */
+    public Reservation getReservation() {
+        return reservation;
+    }
+
+    /**
+     * Gets why the transaction aborted.
+     *
+     * @return The reason, or {@code null} if the transaction did not abort.
+     */
+    public AbortReason getAbortReason() {
+        return abortReason;
+    }
+
+    /**
+     * Gets what the passenger could not afford, when the transaction aborted for lack of balance.
+     *
+     * @return The fare or the first extra not covered, or {@code null}.
+     */
+    public Purpose getShortfall() {
+        return abortReason == AbortReason.INSUFFICIENT_BALANCE ? shortfall : null;
+    }
+
+    /**
+     * Gets the number of times the payment was retried because the balance changed concurrently.
+     *
+     * @return The conflicts of this transaction.
+     */
+    public int getConflicts() {
+        return conflicts;
+    }
+
+    /**
+     * Gets the counters of every transaction so far.
+     *
+     * @return A snapshot of the counters.
+     */
+    public static BookingTransactionStats stats() {
+        return new BookingTransactionStats(COMMITS.sum(), ABORTS.sum(), CONFLICTS.sum(),
+                COMMIT_NANOS.sum() / 1000, MAX_COMMIT_NANOS.get() / 1000,
+                ABORT_NANOS.sum() / 1000, MAX_ABORT_NANOS.get() / 1000);
+    }
+
+    /**
+     * Finds the first part of the booking the available money does not cover, in the order they are charged.
+     *
+     * @return The part not covered, or {@code null} if everything is covered.
+     */
+    private static Purpose shortfall(long available, long fare, long coverage, long priority) {
+        if (available < fare) {
+            return Purpose.FARE;
+        }
+        if (available < fare + coverage) {
+            return Purpose.INSURANCE;
+        }
+        return available < fare + coverage + priority ? Purpose.PRIORITY_BOARDING : null;
+    }
+
+    private void releaseHeldSeat() {
+        if (heldSeat != null) {
+            heldSeat.release();
+        }
+    }
+
+    private Reservation abort(AbortReason reason, long start) {
+        abortReason = reason;
+        if (EVENTS.isListening()) {
+            if (reason == AbortReason.INSUFFICIENT_BALANCE) {
+                EVENTS.publish(new InsufficientBalance(passenger.getPassengerId(), flight.getFlightNumber(), shortfall));
+            } else {
+                EVENTS.publish(new ReservationRejected(passenger.getPassengerId(), flight.getFlightNumber(),
+                        reason == AbortReason.ALREADY_BOOKED ? RejectReason.ALREADY_BOOKED : RejectReason.FLIGHT_CLOSED_OR_FULL));
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        ABORTS.increment();
+        ABORT_NANOS.add(elapsed);
+        MAX_ABORT_NANOS.accumulateAndGet(elapsed, Math::max);
+        METRICS.record(BookingOperation.RESERVE, elapsed, switch (reason) {
+            case FLIGHT_CLOSED_OR_FULL -> flight.isBOpenForReservation() ? BookingFailure.NO_SEATS : BookingFailure.FLIGHT_CLOSED;
+            case ALREADY_BOOKED -> BookingFailure.ALREADY_BOOKED;
+            case INSUFFICIENT_BALANCE -> BookingFailure.INSUFFICIENT_BALANCE;
+        });
+        return null;
+    }
+}
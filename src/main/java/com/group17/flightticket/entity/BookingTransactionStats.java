@@ -0,0 +1,34 @@
+package com.group17.flightticket.entity;
+
+/**
+ * A snapshot of the counters of every {@link BookingTransaction}.
+ *
+ * @param commits            Transactions that booked the passenger.
+ * @param aborts             Transactions that booked nothing.
+ * @param conflicts          Payments retried because the balance changed between the check and the payment.
+ * @param totalCommitMicros  The time spent in committed transactions.
+ * @param maxCommitMicros    The longest committed transaction.
+ * @param totalAbortMicros   The time spent in aborted transactions.
+ * @param maxAbortMicros     The longest aborted transaction.
+ */
+public record BookingTransactionStats(long commits, long aborts, long conflicts, long totalCommitMicros,
+                                      long maxCommitMicros, long totalAbortMicros, long maxAbortMicros) {
+
+    /**
+     * Gets the average time of a committed transaction.
+     *
+     * @return The average commit latency in microseconds, {@code 0} before the first commit.
+     */
+    public double averageCommitMicros() {
+        return commits == 0 ? 0 : (double) totalCommitMicros / commits;
+    }
+
+    /**
+     * Gets the average time of an aborted transaction.
+     *
+     * @return The average abort latency in microseconds, {@code 0} before the first abort.
+     */
+    public double averageAbortMicros() {
+        return aborts == 0 ? 0 : (double) totalAbortMicros / aborts;
+    }
+}
@@ -1,5 +1,9 @@
 package com.group17.flightticket.entity;
 
+import com.group17.flightticket.event.BookingEvent.FlightInventoryReported;
+import com.group17.flightticket.event.BookingEvent.InventoryReportStarted;
+import com.group17.flightticket.event.BookingEventBus;
+
 import static com.group17.flightticket.utils.FlightConstants.FLIGHT_CAPACITY_TRRESHOLD;
 
 /**
@@ -16,21 +20,22 @@ public class ChinaEasternAirlines extends AirlineCompany {
         super("China Eastern Airlines");
     }
     /**
-     * Generates and prints the inventory report for the airline.
+     * Generates the inventory report for the airline and publishes it to the booking event sinks.
      * The report includes flight details such as flight number, origin, destination,
      * remaining seat count, and alerts if a flight is nearing full capacity.
      */
     @Override
     public void inventory() {
-        System.out.println("Inventory Report for " + getCompanyName() + ":");
+        BookingEventBus events = BookingEventBus.global();
+        if (!events.isListening()) {
+            return;
+        }
+        events.publish(new InventoryReportStarted(getCompanyName()));
         for (Flight flight : getFlights()) {
             int availableSeats = flight.getRemainSeatCount();
-            System.out.println("Flight " + flight.getFlightNumber() + " from " + flight.getOrigin().getLocation() +
-                               " to " + flight.getDestination().getLocation() + " has " + availableSeats +
-                               " seats remaining.");
-            if (availableSeats <= FLIGHT_CAPACITY_TRRESHOLD) {
-                System.out.println("  * Attention: This flight is nearing full capacity!");
-            }
+            events.publish(new FlightInventoryReported(getCompanyName(), flight.getFlightNumber(),
+                    flight.getOrigin().getLocation(), flight.getDestination().getLocation(), availableSeats,
+                    availableSeats <= FLIGHT_CAPACITY_TRRESHOLD, true));
         }
     }
 }
\ No newline at end of file
@@ -1,5 +1,31 @@
 package com.group17.flightticket.entity;
 
+import com.group17.flightticket.boarding.BoardingGroup;
+import com.group17.flightticket.boarding.BoardingSession;
+import com.group17.flightticket.enums.FlightStatus;
+import com.group17.flightticket.enums.SeatCategory;
+import com.group17.flightticket.event.BookingEvent.BoardingStage;
+import com.group17.flightticket.event.BookingEvent.BoardingStageReached;
+import com.group17.flightticket.event.BookingEvent.FlightStatusChanged;
+import com.group17.flightticket.event.BookingEventBus;
+import com.group17.flightticket.identity.FlightKey;
+import com.group17.flightticket.identity.Registries;
+import com.group17.flightticket.inventory.CabinLayout;
+import com.group17.flightticket.inventory.Seat;
+import com.group17.flightticket.inventory.SeatHold;
+import com.group17.flightticket.inventory.SeatInventory;
+import com.group17.flightticket.inventory.SeatMap;
+import com.group17.flightticket.inventory.SeatPreference;
+import com.group17.flightticket.lifecycle.FlightLifecycleScheduler;
+import com.group17.flightticket.metrics.BookingMetrics;
+import com.group17.flightticket.metrics.BookingOperation;
+import com.group17.flightticket.notification.Notification;
+import com.group17.flightticket.notification.NotificationDispatcher;
+import com.group17.flightticket.pricing.FareLadder;
+import com.group17.flightticket.pricing.PricingPolicy;
+import com.group17.flightticket.search.FlightSearchIndex;
+import com.group17.flightticket.waitlist.Waitlist;
+import lombok.AccessLevel;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -8,7 +34,10 @@ import lombok.Setter;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  *  The Flight class represents a flight entity that encapsulates information about the flight,
@@ -18,7 +47,14 @@ import java.util.Objects;
  * @since 2024-11-18
  */
 @Data
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
 public class Flight {
+    private static final BookingMetrics METRICS = BookingMetrics.global();
+
+    /** The identity of the flight, fixed at construction so delays do not change it */
+    @EqualsAndHashCode.Include
+    @Setter(AccessLevel.NONE)
+    private final FlightKey flightKey;
     private String flightNumber;
     private Terminal  origin;
     private AirlineCompany airlineCompany;
@@ -27,9 +63,43 @@ public class Flight {
     private LocalDateTime arrivalTime;
     private int capacity;
     private double fee;
-    private List<Passenger> passengerList;
-    private List<Passenger> boardedPassengers = new ArrayList<>(); // Passengers who have boarded
-    private boolean bOpenForReservation = true;
+    /** Seat counters and seat map of the flight, the only structures touched when a seat is taken */
+    @Setter(AccessLevel.NONE)
+    private final SeatInventory seatInventory;
+    /** The fares of the flight, moved by the seat inventory */
+    @Setter(AccessLevel.NONE)
+    private final FareLadder fareLadder;
+    /** The passengers waiting for a seat once the flight is full */
+    @Setter(AccessLevel.NONE)
+    private final Waitlist waitlist;
+    /** The share of the capacity sold on top of it, for the passengers expected not to show up */
+    @Setter(AccessLevel.NONE)
+    private double overbookingRatio;
+    /** Bumped whenever a fare quote may change for another reason than seats taken: times, seats, open flag or policy */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private final AtomicLong quoteVersion = new AtomicLong();
+    /** Passengers booked on the flight with the seat each of them holds */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private final Map<Passenger, ManifestEntry> manifest = new ConcurrentHashMap<>();
+    /** The same manifest entries in booking order */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private final ConcurrentSkipListMap<Long, ManifestEntry> manifestOrder = new ConcurrentSkipListMap<>();
+    /** Source of booking order numbers */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private final AtomicLong manifestSequence = new AtomicLong();
+    /** The boarding of the flight, once it has started */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile BoardingSession boardingSession;
+    @Setter(AccessLevel.NONE)
+    private volatile boolean bOpenForReservation = true;
+    /** Where the flight is in its day of operation, moved forward by {@link #advanceStatus} */
+    @Setter(AccessLevel.NONE)
+    private volatile FlightStatus status = FlightStatus.SCHEDULED;
 
     /**
      * Constructs a Flight object with specified details.
@@ -42,6 +112,31 @@ public class Flight {
      * @param capacity       The total number of seats available on the flight.
      */
     public Flight(String flightNumber, Terminal origin, AirlineCompany airlineCompany, Terminal destination, LocalDateTime departureTime, LocalDateTime arrivalTime, int capacity) {
+        this(flightNumber, origin, airlineCompany, destination, departureTime, arrivalTime, capacity, true);
+    }
+
+    /**
+     * Constructs a flight like the public constructor does, but leaves it out of the flight lists of its
+     * terminals, for bulk loaders that build flights on several threads and add them to the terminals at once
+     * with {@link Terminal#addDepartingFlights} and {@link Terminal#addArrivingFlights}. The flight is still
+     * registered and made searchable.
+     *
+     * @param flightNumber   The unique identifier for the flight.
+     * @param origin         The departure terminal of the flight.
+     * @param airlineCompany The operating airline.
+     * @param destination    The arrival terminal of the flight.
+     * @param departureTime  The scheduled departure time of the flight.
+     * @param arrivalTime    The scheduled arrival time of the flight.
+     * @param capacity       The total number of seats available on the flight.
+     * @return The flight, not yet listed by its terminals.
+     */
+    public static Flight unlisted(String flightNumber, Terminal origin, AirlineCompany airlineCompany, Terminal destination,
+                                  LocalDateTime departureTime, LocalDateTime arrivalTime, int capacity) {
+        return new Flight(flightNumber, origin, airlineCompany, destination, departureTime, arrivalTime, capacity, false);
+    }
+
+    private Flight(String flightNumber, Terminal origin, AirlineCompany airlineCompany, Terminal destination,
+                   LocalDateTime departureTime, LocalDateTime arrivalTime, int capacity, boolean listWithTerminals) {
         this.flightNumber = flightNumber;
         this.origin = origin;
         this.airlineCompany = airlineCompany;
@@ -49,49 +144,312 @@ public class Flight {
         this.departureTime = departureTime;
         this.arrivalTime = arrivalTime;
         this.capacity = capacity;
-        this.passengerList = new ArrayList<>();
-        // Add this flight to the originating terminal's departing flights
-        this.origin.addDepartingFlight(this);
-        // Add this flight to the destination terminal's arriving flights
-        this.destination.addArrivingFlight(this);
+        this.seatInventory = new SeatInventory(capacity);
+        this.fareLadder = new FareLadder(departureTime,
+                airlineCompany == null ? PricingPolicy.flat() : airlineCompany.getPricingPolicy());
+        seatInventory.addListener(fareLadder);
+        this.waitlist = new Waitlist(this);
+        seatInventory.addListener(waitlist);
+        this.flightKey = FlightKey.of(airlineCompany == null ? "" : airlineCompany.getCompanyName(),
+                flightNumber, departureTime.toLocalDate());
+        Registries.flights().register(flightKey, this);
+        if (listWithTerminals) {
+            // Add this flight to the originating terminal's departing flights
+            this.origin.addDepartingFlight(this);
+            // Add this flight to the destination terminal's arriving flights
+            this.destination.addArrivingFlight(this);
+        }
+        // Make the flight searchable by route and departure time
+        FlightSearchIndex.global().add(this);
+        // Close, board, depart and land the flight on time
+        FlightLifecycleScheduler.global().track(this);
     }
 
     /**
-     * Adds a passenger to the flight's passenger list if the flight is open for reservation
+     * Adds a passenger to the flight's passenger list in economy if the flight is open for reservation
      * and there is available capacity.
      *
      * @param passenger The passenger to be added to the flight.
      * @return true if the passenger was successfully added, false otherwise.
      */
     public boolean addPassenger(Passenger passenger) {
-        if (bOpenForReservation && passengerList.size() < capacity) {
-            passengerList.add(passenger);
-            return true;
+        return addPassenger(passenger, SeatCategory.ECONOMY);
+    }
+
+    /**
+     * Adds a passenger to the flight's passenger list in the given seat category if the flight is open
+     * for reservation and there is available capacity in that category.
+     *
+     * @param passenger The passenger to be added to the flight.
+     * @param category  The seat category of the passenger.
+     * @return true if the passenger was successfully added, false otherwise.
+     */
+    public boolean addPassenger(Passenger passenger, SeatCategory category) {
+        SeatHold hold = holdSeat(category);
+        if (hold == null) {
+            return false;
         }
-        return false;
+        return confirmSeat(hold, passenger);
     }
 
     /**
-     * Removes the specified passenger from the flight's passenger list.
+     * Holds one seat in the given category without adding anyone to the passenger list yet.
+     * The hold must later be passed to {@link #confirmSeat(SeatHold, Passenger)} or released.
+     *
+     * @param category The seat category to hold.
+     * @return The hold on the seat, or {@code null} if the flight is closed for reservation or full.
+     */
+    public SeatHold holdSeat(SeatCategory category) {
+        return holdSeat(category, SeatPreference.ANY);
+    }
+
+    /**
+     * Holds the best seat of the given kind in the given category, see {@link #holdSeat(SeatCategory)}.
+     *
+     * @param category   The seat category to hold.
+     * @param preference The kind of seat wanted, the frontmost other seat is held if none is free.
+     * @return The hold on the seat, or {@code null} if the flight is closed for reservation or full.
+     */
+    public SeatHold holdSeat(SeatCategory category, SeatPreference preference) {
+        // Freed seats go to the waitlist first
+        if (!bOpenForReservation || waitlist.isWaiting(category)) {
+            return null;
+        }
+        return seatInventory.tryHold(category, preference);
+    }
+
+    /**
+     * Holds a seat for a passenger promoted from the waitlist, ahead of new bookings.
+     * Only the flight's {@link Waitlist} should call it.
+     *
+     * @param category   The seat category to hold.
+     * @param preference The kind of seat wanted.
+     * @return The hold on the seat, or {@code null} if the flight is closed for reservation or the category is full.
+     */
+    public SeatHold holdSeatForWaitlist(SeatCategory category, SeatPreference preference) {
+        if (!bOpenForReservation) {
+            return null;
+        }
+        return seatInventory.tryHold(category, preference);
+    }
+
+    /**
+     * Holds several seats in the given category in one inventory operation, for a group booking.
+     * Either every seat is held or none is.
+     *
+     * @param category The seat category to hold.
+     * @param count    The number of seats to hold.
+     * @return One hold per seat, or {@code null} if the flight is closed for reservation or has fewer free seats.
+     */
+    public List<SeatHold> holdSeats(SeatCategory category, int count) {
+        if (!bOpenForReservation || waitlist.isWaiting(category)) {
+            return null;
+        }
+        return seatInventory.tryHold(category, count);
+    }
+
+    /**
+     * Confirms a held seat and adds the passenger to the flight's passenger list.
+     * A passenger can only be on the list once, a second seat is given back.
+     *
+     * @param hold      The hold returned by {@link #holdSeat(SeatCategory)}.
+     * @param passenger The passenger who takes the seat.
+     * @return true if the seat was confirmed, false if the hold was already confirmed or released.
+     */
+    public boolean confirmSeat(SeatHold hold, Passenger passenger) {
+        if (!hold.confirm()) {
+            return false;
+        }
+        ManifestEntry entry = new ManifestEntry(manifestSequence.incrementAndGet(), passenger, hold);
+        // Publish the order first, so a concurrent removal always finds it
+        manifestOrder.put(entry.sequence(), entry);
+        if (manifest.putIfAbsent(passenger, entry) != null) {
+            manifestOrder.remove(entry.sequence());
+            hold.release();
+            return false;
+        }
+        BoardingSession session = boardingSession;
+        if (session != null) {
+            session.add(passenger, hold.getCategory());
+        }
+        return true;
+    }
+
+    /**
+     * Removes the specified passenger from the flight's passenger list and gives the seat back.
      *
      * @param passenger The passenger to be removed from the flight.
      * @return true if the passenger was successfully removed, false otherwise.
      */
     public boolean removePassenger(Passenger passenger) {
-        return passengerList.remove(passenger);
+        ManifestEntry entry = manifest.remove(passenger);
+        if (entry == null) {
+            return false;
+        }
+        manifestOrder.remove(entry.sequence());
+        entry.hold().release();
+        BoardingSession session = boardingSession;
+        if (session != null) {
+            session.remove(passenger);
+        }
+        return true;
+    }
+
+    /**
+     * Moves the seat of a booked passenger to another category.
+     *
+     * @param passenger   The passenger whose seat is moved.
+     * @param newCategory The new seat category.
+     * @return true if the seat was moved, false if the passenger is not on the flight or the category is full.
+     */
+    public boolean changeSeatCategory(Passenger passenger, SeatCategory newCategory) {
+        ManifestEntry entry = manifest.get(passenger);
+        return entry != null && entry.hold().changeCategory(newCategory);
+    }
+
+    /**
+     * Moves a booked passenger to another free seat in the cabin of their seat category.
+     *
+     * @param passenger The passenger whose seat is moved.
+     * @param seat      The seat wanted.
+     * @return true if the passenger now has that seat, false if the passenger is not on the flight,
+     * or the seat is taken or not in the passenger's cabin.
+     */
+    public boolean changeSeat(Passenger passenger, Seat seat) {
+        ManifestEntry entry = manifest.get(passenger);
+        return entry != null && entry.hold().changeSeat(seat);
+    }
+
+    /**
+     * Gets the seat of a booked passenger.
+     *
+     * @param passenger The passenger.
+     * @return The passenger's seat, or {@code null} if the passenger is not on the flight.
+     */
+    public Seat getSeat(Passenger passenger) {
+        ManifestEntry entry = manifest.get(passenger);
+        return entry == null ? null : entry.hold().getSeat();
+    }
+
+    /**
+     * Quotes the current fare of a seat category, from the airline's pricing policy,
+     * the load factor of the flight and the time left before departure.
+     *
+     * @param category The seat category.
+     * @return The fare.
+     */
+    public double quoteFare(SeatCategory category) {
+        return fareLadder.quote(category);
+    }
+
+    /**
+     * Prices the flight with another policy, from the rung of its current load factor.
+     *
+     * @param policy The new pricing policy.
+     */
+    public void setPricingPolicy(PricingPolicy policy) {
+        fareLadder.setPolicy(policy, seatInventory);
+        quoteVersion.incrementAndGet();
+    }
+
+    /**
+     * Gets the version of what a fare quote of the flight depends on besides the seats taken. It changes
+     * after every capacity, overbooking or layout change, delay, departure change, open flag change and
+     * new pricing policy, but not when seats are taken or given back: a quote is stamped with this version
+     * and the seats taken counters the {@link SeatInventory} keeps anyway.
+     *
+     * @return The current quote version.
+     */
+    public long getQuoteVersion() {
+        return quoteVersion.get();
+    }
+
+    /**
+     * Opens or closes the flight for reservation.
+     *
+     * @param bOpenForReservation {@code true} to accept new bookings.
+     */
+    public void setBOpenForReservation(boolean bOpenForReservation) {
+        this.bOpenForReservation = bOpenForReservation;
+        quoteVersion.incrementAndGet();
+        if (bOpenForReservation) {
+            waitlist.promote();
+        }
+    }
+
+    /**
+     * Sells a share of the capacity on top of it, e.g. the no-show rate the airline observes on the route.
+     * Passengers sold beyond the seats of the flight have no seat until one is freed.
+     *
+     * @param overbookingRatio The share of the capacity to overbook, {@code 0} to stop overbooking.
+     */
+    public void setOverbookingRatio(double overbookingRatio) {
+        if (!(overbookingRatio >= 0)) {
+            throw new IllegalArgumentException("Overbooking ratio must not be negative: " + overbookingRatio);
+        }
+        this.overbookingRatio = overbookingRatio;
+        seatInventory.setOverbooking((int) Math.floor(capacity * overbookingRatio));
+        quoteVersion.incrementAndGet();
+    }
+
+    /**
+     * Gets the seat map of the flight, to look for free seats.
+     *
+     * @return The seat map.
+     */
+    public SeatMap getSeatMap() {
+        return seatInventory.getSeatMap();
+    }
+
+    /**
+     * Seats the flight in a cabin layout of its own. The capacity becomes the number of seats of the layout,
+     * and each seat category can only be booked in its cabin.
+     *
+     * @param layout The cabin layout.
+     * @throws IllegalStateException if seats have already been taken.
+     */
+    public void setCabinLayout(CabinLayout layout) {
+        seatInventory.setCabinLayout(layout);
+        this.capacity = layout.getSeatCount();
+        quoteVersion.incrementAndGet();
+        if (overbookingRatio > 0) {
+            setOverbookingRatio(overbookingRatio);
+        }
     }
 
     /**
      * Delays the flight by updating the departure and arrival times.
-     * This method also notifies all passengers about the flight delay.
+     * This method also notifies all passengers about the flight delay. The notification is
+     * delivered asynchronously by the {@link NotificationDispatcher}, so the caller does not wait for it.
      *
      * @param newDepartureTime The new scheduled departure time for the flight.
      * @param newArrivalTime   The new scheduled arrival time for the flight.
      */
     public void delayFlight(LocalDateTime newDepartureTime, LocalDateTime newArrivalTime) {
+        long start = METRICS.start();
+        FlightSearchIndex.global().remove(this);
         this.departureTime = newDepartureTime;
         this.arrivalTime = newArrivalTime;
-        notifyPassengers();
+        fareLadder.setDepartureTime(newDepartureTime);
+        quoteVersion.incrementAndGet();
+        FlightSearchIndex.global().add(this);
+        FlightLifecycleScheduler.global().reschedule(this);
+        NotificationDispatcher.global().publish(Notification.flightDelayed(this));
+        METRICS.success(BookingOperation.DELAY, start);
+    }
+
+    /**
+     * Changes the scheduled departure time and moves the flight in the search index.
+     *
+     * @param departureTime The new scheduled departure time.
+     */
+    public void setDepartureTime(LocalDateTime departureTime) {
+        FlightSearchIndex.global().remove(this);
+        this.departureTime = departureTime;
+        fareLadder.setDepartureTime(departureTime);
+        quoteVersion.incrementAndGet();
+        FlightSearchIndex.global().add(this);
+        FlightLifecycleScheduler.global().reschedule(this);
     }
 
     /**
@@ -102,18 +460,44 @@ public class Flight {
      * @return The count of seats that have not been assigned to passengers.
      */
     public int getRemainSeatCount() {
-        return capacity - passengerList.size();
+        return seatInventory.getRemainSeatCount();
     }
 
     /**
-     * Notifies all passengers on the flight about any important updates or information.
-     * This method iterates over the list of passengers associated with the flight and
-     * calls the {@link Passenger#Notified()} method for each passenger to ensure they are notified.
+     * Calculates the number of remaining seats in the given seat category.
+     *
+     * @param category The seat category to check.
+     * @return The count of seats in the category that have not been assigned to passengers.
+     */
+    public int getRemainSeatCount(SeatCategory category) {
+        return seatInventory.getRemainSeatCount(category);
+    }
+
+    /**
+     * Changes the total number of seats available on the flight.
+     *
+     * @param capacity The new number of seats.
+     */
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+        seatInventory.setCapacity(capacity);
+        quoteVersion.incrementAndGet();
+        if (overbookingRatio > 0) {
+            setOverbookingRatio(overbookingRatio);
+        }
+    }
+
+    /**
+     * Retrieves the passengers currently booked on the flight, in booking order.
+     *
+     * @return A snapshot of the passenger list.
      */
-    private void notifyPassengers() {
-        for (Passenger passenger : passengerList) {
-            passenger.Notified();
+    public List<Passenger> getPassengerList() {
+        List<Passenger> passengers = new ArrayList<>();
+        for (ManifestEntry entry : manifestOrder.values()) {
+            passengers.add(entry.passenger());
         }
+        return passengers;
     }
 
     /**
@@ -123,65 +507,137 @@ public class Flight {
      */
     public List<String> getFlightNumberList() {
         List<String> RetNameList  = new ArrayList<>();
-        for (Passenger passenger:passengerList) {
-            RetNameList.add(passenger.getName());
+        for (ManifestEntry entry : manifestOrder.values()) {
+            RetNameList.add(entry.passenger().getName());
         }
         return RetNameList;
     }
 
     /**
-     * Manages the boarding process for the flight, prioritizing passengers with quick boarding.
+     * Starts the boarding of the flight, or returns the boarding already started.
+     * Every booked passenger joins the queue of their boarding group, and passengers booked
+     * later join it when their seat is confirmed.
+     *
+     * @return The boarding session of the flight.
+     */
+    public synchronized BoardingSession startBoarding() {
+        BoardingSession session = boardingSession;
+        if (session == null) {
+            session = new BoardingSession(this, capacity);
+            boardingSession = session;
+            for (ManifestEntry entry : manifestOrder.values()) {
+                session.add(entry.passenger(), entry.hold().getCategory());
+            }
+        }
+        return session;
+    }
+
+    /**
+     * Moves the flight forward to a status: closing reservation, starting boarding, or closing boarding
+     * once departed. Statuses skipped on the way are applied too, and a status the flight has already
+     * passed is ignored.
+     *
+     * @param next The status to move to.
+     * @return {@code true} if the status changed.
+     */
+    public synchronized boolean advanceStatus(FlightStatus next) {
+        if (next.compareTo(status) <= 0) {
+            return false;
+        }
+        if (next.compareTo(FlightStatus.BOOKING_CLOSED) >= 0 && bOpenForReservation) {
+            setBOpenForReservation(false);
+        }
+        if (next == FlightStatus.BOARDING) {
+            startBoarding();
+        }
+        if (next.compareTo(FlightStatus.DEPARTED) >= 0 && boardingSession != null && !boardingSession.isClosed()) {
+            boardingSession.close();
+        }
+        status = next;
+        BookingEventBus events = BookingEventBus.global();
+        if (events.isListening()) {
+            events.publish(new FlightStatusChanged(flightKey, next));
+        }
+        return true;
+    }
+
+    /**
+     * Gets the boarding session of the flight.
+     *
+     * @return The boarding session, or {@code null} if boarding has not started.
+     */
+    public BoardingSession getBoardingSession() {
+        return boardingSession;
+    }
+
+    /**
+     * Gets the passengers who have boarded the flight, in boarding order.
+     *
+     * @return A snapshot of the boarded passengers.
+     */
+    public List<Passenger> getBoardedPassengers() {
+        BoardingSession session = boardingSession;
+        return session == null ? new ArrayList<>() : session.getBoarded();
+    }
+
+    /**
+     * Boards everyone at the origin terminal in one call: each boarding group is called in turn,
+     * starting with priority boarding, and every passenger of the group at the gate is scanned.
+     * Boarding is then closed. Passengers who were not at the gate stay on the passenger list and
+     * are reported as no-shows by the {@link BoardingSession}.
      */
     public void boardPassengers() {
-        if (boardedPassengers.size() >= capacity) {
-            System.out.println("All passengers have already boarded.");
+        long start = METRICS.start();
+        BoardingSession session = startBoarding();
+        if (session.getBoardedCount() >= capacity) {
+            publishBoardingStage(BoardingStage.ALREADY_BOARDED);
+            METRICS.success(BookingOperation.BOARD, start);
             return;
         }
 
-        System.out.println("Boarding process starting for flight " + flightNumber);
+        publishBoardingStage(BoardingStage.STARTED);
 
         // Notify terminal about boarding start
-        origin.notify("Boarding started for flight " + flightNumber);
+        notifyOrigin("Boarding started for flight " + flightNumber);
 
-        // Priority boarding
-        for (Passenger passenger : passengerList) {
-            if (passenger.hasPriorityBoarding() && origin.hasPassenger(passenger) && boardedPassengers.size() < capacity) {
-                boardedPassengers.add(passenger);
-                System.out.println("Priority boarding: Passenger " + passenger.getName() + " has boarded.");
+        for (BoardingGroup group : BoardingGroup.values()) {
+            session.callUpTo(group);
+            for (Passenger passenger : session.getWaiting(group)) {
+                if (origin.hasPassenger(passenger)) {
+                    session.scan(passenger);
+                }
             }
         }
 
-        // Regular boarding
-        for (Passenger passenger : passengerList) {
-            if (!passenger.hasPriorityBoarding() && origin.hasPassenger(passenger) && boardedPassengers.size() < capacity) {
-                boardedPassengers.add(passenger);
-                System.out.println("Regular boarding: Passenger " + passenger.getName() + " has boarded.");
-            }
-        }
-
-        if (boardedPassengers.size() >= capacity) {
-            System.out.println("Flight " + flightNumber + " is fully boarded.");
+        if (session.getBoardedCount() >= capacity) {
+            publishBoardingStage(BoardingStage.FULLY_BOARDED);
         }
-
-        passengerList.clear();
+        session.close();
 
         // Notify terminal about boarding completion
-        origin.notify("Boarding completed for flight " + flightNumber);
+        notifyOrigin("Boarding completed for flight " + flightNumber);
+        METRICS.success(BookingOperation.BOARD, start);
     }
 
     /**
-     * Calculates the hash code for the Flight object. The hash code is generated based on the flight number,
-     * origin, destination, departure time, and arrival time.
-     * <p>
-     * This method overrides {@link Object#hashCode()} to create a unique hash code for the flight based on its key attributes,
-     * which helps in efficient lookups and storage in collections like HashMap or HashSet.
+     * Publishes a stage of the boarding process, if anyone listens to booking events.
      *
-     * @return The hash code of the Flight object.
+     * @param stage The stage reached.
      */
+    private void publishBoardingStage(BoardingStage stage) {
+        BookingEventBus events = BookingEventBus.global();
+        if (events.isListening()) {
+            events.publish(new BoardingStageReached(flightNumber, stage));
+        }
+    }
 
-    @Override
-    public int hashCode() {
-        return Objects.hash(flightNumber,origin,destination,departureTime,arrivalTime);
+    /**
+     * Sends a message to the origin terminal through the {@link NotificationDispatcher}.
+     *
+     * @param message The message for the terminal.
+     */
+    private void notifyOrigin(String message) {
+        NotificationDispatcher.global().publish(Notification.terminalMessage(this, origin, message));
     }
 
     /**
@@ -199,4 +655,10 @@ public class Flight {
         return "Flight{Number='" + flightNumber + "', origin=" + origin + "}";
     }
 
+    /**
+     * A passenger on the manifest together with the seat the passenger holds.
+     */
+    private record ManifestEntry(long sequence, Passenger passenger, SeatHold hold) {
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,220 @@
+package com.group17.flightticket.entity;
+
+import com.group17.flightticket.enums.SeatCategory;
+import com.group17.flightticket.event.BookingEvent.GroupRejectReason;
+import com.group17.flightticket.event.BookingEvent.GroupReservationCreated;
+import com.group17.flightticket.event.BookingEvent.GroupReservationRejected;
+import com.group17.flightticket.event.BookingEvent.InsufficientBalance;
+import com.group17.flightticket.event.BookingEvent.Purpose;
+import com.group17.flightticket.event.BookingEvent.ReservationCreated;
+import com.group17.flightticket.event.BookingEventBus;
+import com.group17.flightticket.inventory.SeatHold;
+import com.group17.flightticket.wallet.Money;
+import com.group17.flightticket.wallet.WalletTransaction;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The {@code GroupBooking} class represents the reservations of a group of passengers on one flight,
+ * for example a tour booked by an operator.
+ * <p>
+ * A group is booked all or nothing: the seats of the whole group are held in one inventory operation,
+ * every member's balance and loyalty points are checked before anyone pays, and only then is each
+ * member charged. If any step fails for any member, every seat and reservation taken so far is given
+ * back and no money or points move. The group is seated together when the free seats allow it.
+ */
+@Data
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class GroupBooking {
+    private static final AtomicLong ID_SEQUENCE = new AtomicLong();
+    /** Where booking events are published */
+    private static final BookingEventBus EVENTS = BookingEventBus.global();
+
+    /** The unique id of the group booking, the only field used for equality */
+    @EqualsAndHashCode.Include
+    private final long groupId;
+    private final Flight flight;
+    private final SeatCategory seatCategory;
+    /** The reservations of the members, in the order the members were given */
+    private final List<Reservation> reservations;
+    /** The fare of the whole group */
+    private final double totalFee;
+    /** The money paid by the whole group, after loyalty points were redeemed */
+    private final double amountPaid;
+
+    private GroupBooking(Flight flight, SeatCategory seatCategory, List<Reservation> reservations,
+                         double totalFee, double amountPaid) {
+        this.groupId = ID_SEQUENCE.incrementAndGet();
+        this.flight = flight;
+        this.seatCategory = seatCategory;
+        this.reservations = Collections.unmodifiableList(reservations);
+        this.totalFee = totalFee;
+        this.amountPaid = amountPaid;
+    }
+
+    /**
+     * Books every passenger of a group on a flight in the same seat category, or none of them.
+     * The whole group pays the fare quoted before its seats were taken.
+     * Each member pays their own fare, with their loyalty points first, exactly as
+     * {@link Passenger#makeReservationV4(Flight, SeatCategory)} would charge them.
+     *
+     * @param flight     The flight to book.
+     * @param category   The seat category of the whole group.
+     * @param passengers The members of the group.
+     * @return The group booking, or {@code null} if the group could not be booked as a whole.
+     */
+    public static GroupBooking book(Flight flight, SeatCategory category, List<Passenger> passengers) {
+        int groupSize = passengers.size();
+        if (groupSize == 0) {
+            publishRejected(flight, 0, 0, GroupRejectReason.EMPTY_GROUP);
+            return null;
+        }
+
+        // Quote once for the whole group, and take all the seats at once, so the group is never split by concurrent bookings
+        double fee = flight.quoteFare(category);
+        List<SeatHold> holds = flight.holdSeats(category, groupSize);
+        if (holds == null) {
+            publishRejected(flight, groupSize, 0, GroupRejectReason.FLIGHT_CLOSED_OR_FULL);
+            return null;
+        }
+
+        // Claim the flight in every member's reservation index
+        List<Reservation> reservations = new ArrayList<>(groupSize);
+        for (Passenger passenger : passengers) {
+            Reservation reservation = new Reservation(flight, category, fee);
+            if (!passenger.claimReservation(reservation)) {
+                publishRejected(flight, groupSize, passenger.getPassengerId(), GroupRejectReason.ALREADY_BOOKED);
+                rollBack(flight, passengers, reservations.size(), holds);
+                return null;
+            }
+            reservations.add(reservation);
+        }
+
+        // Check everyone can pay before anyone pays
+        LoyalScheme loyalScheme = flight.getAirlineCompany().getLoyalScheme();
+        long feeMinor = Money.toMinor(fee);
+        for (Passenger passenger : passengers) {
+            if (Money.toMinor(loyalScheme.getPointsV2(passenger)) + passenger.getWallet().getBalance() < feeMinor) {
+                rejectUnpaid(flight, passengers, passenger, holds);
+                return null;
+            }
+        }
+
+        // Charge the whole group; a balance spent since the check gives back what the others paid
+        String flightNumber = flight.getFlightNumber();
+        double[] paid = new double[groupSize];
+        for (int i = 0; i < groupSize; i++) {
+            Passenger passenger = passengers.get(i);
+            double needToPay = loyalScheme.redeemPoints(passenger.getPassengerId(), fee, flightNumber);
+            if (!passenger.getWallet().debit(Money.toMinor(needToPay), flightNumber)) {
+                paid[i] = needToPay;
+                for (int j = 0; j <= i; j++) {
+                    refund(loyalScheme, passengers.get(j), fee, paid[j], flightNumber, j < i);
+                }
+                rejectUnpaid(flight, passengers, passenger, holds);
+                return null;
+            }
+            paid[i] = needToPay;
+        }
+
+        // Settle the whole group
+        int pointsEarned = (int) (fee / 10); // 每10元获得1积分
+        long amountPaidMinor = 0;
+        for (int i = 0; i < groupSize; i++) {
+            Passenger passenger = passengers.get(i);
+            long needToPayMinor = Money.toMinor(paid[i]);
+            amountPaidMinor += needToPayMinor;
+            loyalScheme.addPoints(passenger.getPassengerId(), pointsEarned, flightNumber);
+            flight.confirmSeat(holds.get(i), passenger);
+            Reservation reservation = reservations.get(i);
+            reservation.setSeat(holds.get(i).getSeat());
+            if (EVENTS.isListening()) {
+                EVENTS.publish(new ReservationCreated(reservation.getReservationId(), passenger.getPassengerId(),
+                        passenger.getName(), flight.getFlightKey(), category, feeMinor, needToPayMinor, pointsEarned,
+                        loyalScheme.getPointsV2(passenger), reservation.getSeat()));
+            }
+        }
+
+        GroupBooking groupBooking = new GroupBooking(flight, category, reservations,
+                Money.toMajor(feeMinor * groupSize), Money.toMajor(amountPaidMinor));
+        if (EVENTS.isListening()) {
+            EVENTS.publish(new GroupReservationCreated(groupBooking.groupId, flight.getFlightKey(), category,
+                    groupSize, feeMinor * groupSize, amountPaidMinor));
+        }
+        return groupBooking;
+    }
+
+    /**
+     * Gets the number of passengers in the group.
+     *
+     * @return The group size.
+     */
+    public int size() {
+        return reservations.size();
+    }
+
+    /**
+     * Gives back the reservations claimed so far and every held seat.
+     *
+     * @param flight     The flight of the group.
+     * @param passengers The members of the group.
+     * @param claimed    The number of members, from the first one, whose reservation was claimed.
+     * @param holds      The held seats of the group.
+     */
+    private static void rollBack(Flight flight, List<Passenger> passengers, int claimed, List<SeatHold> holds) {
+        for (int i = 0; i < claimed; i++) {
+            passengers.get(i).unclaimReservation(flight);
+        }
+        for (SeatHold hold : holds) {
+            hold.release();
+        }
+    }
+
+    /**
+     * Gives a member back the points and the money taken for a group that could not be charged as a whole.
+     *
+     * @param loyalScheme  The loyalty scheme of the airline.
+     * @param passenger    The member.
+     * @param fee          The fare of the group.
+     * @param needToPay    The part of the fare not covered by points.
+     * @param flightNumber The flight number of the group.
+     * @param debited      Whether the money was taken from the member's wallet.
+     */
+    private static void refund(LoyalScheme loyalScheme, Passenger passenger, double fee, double needToPay,
+                               String flightNumber, boolean debited) {
+        int redeemed = (int) Math.round(fee - needToPay);
+        if (redeemed > 0) {
+            loyalScheme.addPoints(passenger.getPassengerId(), redeemed, flightNumber);
+        }
+        if (debited) {
+            passenger.getWallet().credit(Money.toMinor(needToPay), WalletTransaction.Type.REFUND, flightNumber);
+        }
+    }
+
+    /**
+     * Rejects a group because a member cannot pay, once every member's reservation was claimed.
+     *
+     * @param flight     The flight of the group.
+     * @param passengers The members of the group.
+     * @param passenger  The member who cannot pay.
+     * @param holds      The held seats of the group.
+     */
+    private static void rejectUnpaid(Flight flight, List<Passenger> passengers, Passenger passenger, List<SeatHold> holds) {
+        if (EVENTS.isListening()) {
+            EVENTS.publish(new InsufficientBalance(passenger.getPassengerId(), flight.getFlightNumber(), Purpose.FARE));
+        }
+        publishRejected(flight, passengers.size(), passenger.getPassengerId(), GroupRejectReason.INSUFFICIENT_BALANCE);
+        rollBack(flight, passengers, passengers.size(), holds);
+    }
+
+    private static void publishRejected(Flight flight, int groupSize, long passengerId, GroupRejectReason reason) {
+        if (EVENTS.isListening()) {
+            EVENTS.publish(new GroupReservationRejected(flight.getFlightNumber(), groupSize, passengerId, reason));
+        }
+    }
+}
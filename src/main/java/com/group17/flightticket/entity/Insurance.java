@@ -10,6 +10,9 @@ import lombok.Data;
  */
 @Data
 public class Insurance {
+    /** The type of the insurance sold with a reservation */
+    public static final String FLIGHT_ACCIDENT_INSURANCE = "Flight Accident Insurance";
+
     private String policyNumber;
     private double coverageAmount;
     private Passenger insuredPassenger;
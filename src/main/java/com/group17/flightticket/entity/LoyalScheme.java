@@ -1,21 +1,76 @@
 package com.group17.flightticket.entity;
 
-import java.util.HashMap;
+import com.group17.flightticket.enums.LoyaltyTier;
+import com.group17.flightticket.event.BookingEvent.PointsMoved;
+import com.group17.flightticket.event.BookingEventBus;
+import com.group17.flightticket.loyalty.PointsJournal;
+import com.group17.flightticket.loyalty.PointsJournalEntry;
+import com.group17.flightticket.loyalty.PointsLedger;
+import com.group17.flightticket.metrics.BookingMetrics;
+import com.group17.flightticket.metrics.BookingOperation;
 
 /**
  *The LoyalScheme class represents a loyalty program for passengers, allowing the management of points.
  *It provides methods to add points, deduct points, retrieve points balance, and redeem points for flight fee discounts.
+ *Points are kept in a lock-free {@link PointsLedger} keyed by passenger id, and every movement is appended
+ *to a {@link PointsJournal} so it can be audited and replayed.
  */
 public class LoyalScheme {
-    //A map to store loyalty points for each passenger
-    private HashMap<String, Integer> loyaltyPoints;
+    //Where points movements are published, so they can be persisted
+    private static final BookingEventBus EVENTS = BookingEventBus.global();
+    //Where the time spent in redeemPointsV2 is recorded; bookings time their redemption as part of the booking
+    private static final BookingMetrics METRICS = BookingMetrics.global();
+    //The name of the scheme, normally the airline's name, or null
+    private final String schemeName;
+    //The points balance of each passenger, keyed by passenger id
+    private final PointsLedger ledger;
+    //Every points movement, in the order it happened
+    private final PointsJournal journal;
 
     /**
      * Constructs a new LoyalScheme instance
-     * Initializes an empty map to store Loyalty points
+     * Initializes an empty ledger and journal
      */
     public LoyalScheme() {
-        this.loyaltyPoints = new HashMap<>();
+        this(null, new PointsJournal());
+    }
+
+    /**
+     * Constructs a new named LoyalScheme instance, whose points movements are published
+     * as booking events under that name.
+     *
+     * @param schemeName The name of the scheme, normally the airline's name.
+     */
+    public LoyalScheme(String schemeName) {
+        this(schemeName, new PointsJournal());
+    }
+
+    /**
+     * Rebuilds a loyalty scheme from the journal of another one.
+     * The rebuilt scheme keeps appending to the same journal.
+     *
+     * @param journal The journal to replay.
+     * @return A loyalty scheme with the balances recorded in the journal.
+     */
+    public static LoyalScheme replay(PointsJournal journal) {
+        LoyalScheme loyalScheme = new LoyalScheme(null, journal);
+        journal.replay(loyalScheme.ledger);
+        return loyalScheme;
+    }
+
+    private LoyalScheme(String schemeName, PointsJournal journal) {
+        this.schemeName = schemeName;
+        this.ledger = new PointsLedger();
+        this.journal = journal;
+    }
+
+    /**
+     * Gets the name of the scheme.
+     *
+     * @return The scheme name, or {@code null} for an unnamed scheme.
+     */
+    public String getSchemeName() {
+        return schemeName;
     }
 
     /**
@@ -25,7 +80,19 @@ public class LoyalScheme {
      * @param pointsToAdd The number of points to add.
      */
     public void addPointsV2(Passenger passenger, int pointsToAdd) {
-        loyaltyPoints.put(passenger.getName(), loyaltyPoints.getOrDefault(passenger.getName(), 0) + pointsToAdd);
+        addPoints(passenger.getPassengerId(), pointsToAdd, null);
+    }
+
+    /**
+     * Adds loyalty points to an account and records what they were earned for.
+     *
+     * @param passengerId The id of the passenger to whom points will be added.
+     * @param pointsToAdd The number of points to add.
+     * @param reference What the points were earned for, e.g. a flight number, or {@code null}.
+     */
+    public void addPoints(long passengerId, int pointsToAdd, String reference) {
+        int balance = ledger.add(passengerId, pointsToAdd);
+        record(journal.append(PointsJournalEntry.Type.EARNED, passengerId, pointsToAdd, balance, reference));
     }
 
     /**
@@ -34,8 +101,12 @@ public class LoyalScheme {
      * @param pointsToDeduct The number of points to deduct.
      */
     public void deductPointsV2(Passenger passenger, int pointsToDeduct) {
-        int currentPoints = loyaltyPoints.getOrDefault(passenger.getName(), 0);
-        loyaltyPoints.put(passenger.getName(), Math.max(currentPoints - pointsToDeduct, 0));
+        long passengerId = passenger.getPassengerId();
+        PointsLedger.Taken deducted = ledger.takeUpTo(passengerId, pointsToDeduct);
+        if (deducted.points() > 0) {
+            record(journal.append(PointsJournalEntry.Type.DEDUCTED, passengerId, -deducted.points(),
+                    deducted.balanceAfter(), null));
+        }
     }
 
     /**
@@ -45,7 +116,17 @@ public class LoyalScheme {
      * @return The number of loyalty points the passenger currently has.
      */
     public int getPointsV2(Passenger passenger) {
-        return loyaltyPoints.getOrDefault(passenger.getName(), 0);
+        return ledger.get(passenger.getPassengerId());
+    }
+
+    /**
+     * Gets the loyalty tier the given passenger's current points reach.
+     *
+     * @param passenger The passenger whose tier is wanted.
+     * @return The loyalty tier.
+     */
+    public LoyaltyTier getTier(Passenger passenger) {
+        return LoyaltyTier.of(getPointsV2(passenger));
     }
 
     /**
@@ -55,9 +136,59 @@ public class LoyalScheme {
      * @return The new flight fee after reducing the discount.
      */
     public double redeemPointsV2(Passenger passenger, double flightFee) {
-        int currentPoints = loyaltyPoints.getOrDefault(passenger.getName(), 0);
-        double discount = Math.min(currentPoints, flightFee);
-        loyaltyPoints.put(passenger.getName(), currentPoints - (int) discount);
-        return flightFee - discount;
+        long start = METRICS.start();
+        double fee = redeemPoints(passenger.getPassengerId(), flightFee, null);
+        METRICS.success(BookingOperation.REDEEM_POINTS, start);
+        return fee;
+    }
+
+    /**
+     * Redeems loyalty points for a discount on a fee, as one atomic "redeem up to fee" step.
+     * The redemption is recorded in the journal together with its reference.
+     *
+     * @param passengerId The id of the passenger whose loyalty points will be redeemed.
+     * @param fee The total fee before the discount.
+     * @param reference What the points were redeemed for, e.g. a flight number, or {@code null}.
+     * @return The fee left to pay after the discount.
+     */
+    public double redeemPoints(long passengerId, double fee, String reference) {
+        PointsLedger.Taken redeemed = ledger.takeUpTo(passengerId, (int) Math.min(fee, Integer.MAX_VALUE));
+        if (redeemed.points() > 0) {
+            record(journal.append(PointsJournalEntry.Type.REDEEMED, passengerId, -redeemed.points(),
+                    redeemed.balanceAfter(), reference));
+        }
+        return fee - redeemed.points();
+    }
+
+    /**
+     * Gets the journal of every points movement in this scheme.
+     *
+     * @return The points journal.
+     */
+    public PointsJournal getJournal() {
+        return journal;
+    }
+
+    /**
+     * Sets the points balance of an account recovered from storage, without journaling or publishing it.
+     * Only meant for recovery, before the scheme is used.
+     *
+     * @param passengerId The id of the passenger.
+     * @param points      The recovered balance.
+     */
+    public void restorePoints(long passengerId, int points) {
+        ledger.add(passengerId, points - ledger.get(passengerId));
+    }
+
+    /**
+     * Publishes a journaled points movement of a named scheme, if anyone listens to booking events.
+     *
+     * @param entry The journal entry of the movement.
+     */
+    private void record(PointsJournalEntry entry) {
+        if (schemeName != null && EVENTS.isListening()) {
+            EVENTS.publish(new PointsMoved(schemeName, entry.type(), entry.accountId(), entry.points(),
+                    entry.balanceAfter(), entry.reference()));
+        }
     }
-}
\ No newline at end of file
+}
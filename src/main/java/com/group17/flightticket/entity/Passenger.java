@@ -1,33 +1,73 @@
 package com.group17.flightticket.entity;
 
 import com.group17.flightticket.enums.SeatCategory;
+import com.group17.flightticket.event.BookingEvent.ChangeRejectReason;
+import com.group17.flightticket.event.BookingEvent.InsufficientBalance;
+import com.group17.flightticket.event.BookingEvent.InsuranceCancelled;
+import com.group17.flightticket.event.BookingEvent.PriorityBoardingCancelled;
+import com.group17.flightticket.event.BookingEvent.Purpose;
+import com.group17.flightticket.event.BookingEvent.ReservationCancelled;
+import com.group17.flightticket.event.BookingEvent.SeatCategoryChangeRejected;
+import com.group17.flightticket.event.BookingEvent.SeatCategoryChanged;
+import com.group17.flightticket.event.BookingEvent.SeatChangeRejected;
+import com.group17.flightticket.event.BookingEvent.SeatChanged;
+import com.group17.flightticket.event.BookingEvent.SeatRejectReason;
+import com.group17.flightticket.event.BookingEventBus;
+import com.group17.flightticket.identity.Registries;
+import com.group17.flightticket.inventory.Seat;
+import com.group17.flightticket.inventory.SeatHold;
+import com.group17.flightticket.inventory.SeatPreference;
+import com.group17.flightticket.metrics.BookingFailure;
+import com.group17.flightticket.metrics.BookingMetrics;
+import com.group17.flightticket.metrics.BookingOperation;
+import com.group17.flightticket.waitlist.WaitlistEntry;
+import com.group17.flightticket.wallet.Money;
+import com.group17.flightticket.wallet.Wallet;
+import com.group17.flightticket.wallet.WalletTransaction;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * The {@code Passenger} class represents a passenger with their details and actions.
- * Each passenger has a name, a balance, and a list of reservations.
+ * Each passenger has a name, a {@link Wallet} holding their balance, and an indexed book of reservations.
  * It provides methods for making, modifying, and canceling flight reservations,
  * as well as managing loyalty points.
  */
 @Data
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
 public class Passenger {
+    /** Source of passenger ids */
+    private static final AtomicLong ID_SEQUENCE = new AtomicLong();
+    /** The stable numeric id of the passenger, the only field used for equality */
+    @EqualsAndHashCode.Include
+    private final long passengerId;
     /** The name of the passenger */
     private String name;
-    /** The balance of the passenger's account */
-    private double balance;
+    /** The balance of the passenger's account, in minor units */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private final Wallet wallet;
     /** The Passenger's current terminal */
     private Terminal currentTerminal;
-    /** The Priority boarding status */
-    private boolean priorityBoarding = false;
-    /** The list of reservations made by the passenger */
-    private List<Reservation> reservations =  new ArrayList<>();
-    /** Prefix for logging messages */
-    private static String methodLogPrefix = "LogPassenger_ ";
-    /** The list of insurance the passenger purchased */
-    private List<Insurance> insurancePolicies = new ArrayList<>();
+    /** The Priority boarding status, cleared by exactly one cancellation */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private final AtomicBoolean priorityBoarding = new AtomicBoolean();
+    /** The reservations made by the passenger, indexed by flight and by reservation id */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private final ReservationBook reservations = new ReservationBook();
+    /** Where booking events are published, instead of printing them on the booking path */
+    private static final BookingEventBus EVENTS = BookingEventBus.global();
+    private static final BookingMetrics METRICS = BookingMetrics.global();
 
 
     /**
@@ -37,8 +77,65 @@ public class Passenger {
      * @param balance the initial account balance
      */
     public Passenger(String name, double balance) {
+        this(ID_SEQUENCE.incrementAndGet(), name, balance);
+    }
+
+    /**
+     * Constructor to create a Passenger with a known id, e.g. when passengers are loaded again after a restart.
+     * Passengers created later get higher ids.
+     *
+     * @param passengerId the id of the passenger
+     * @param name        the name of the passenger
+     * @param balance     the initial account balance
+     */
+    public Passenger(long passengerId, String name, double balance) {
+        this.passengerId = passengerId;
+        ID_SEQUENCE.accumulateAndGet(passengerId, Math::max);
         this.name = name;
-        this.balance = balance;
+        this.wallet = new Wallet(passengerId, Money.toMinor(balance));
+        Registries.passengers().register(passengerId, this);
+    }
+
+    /**
+     * Removes the passenger from the registry, e.g. when their account is closed, so the registry does not
+     * keep them forever. A passenger who still holds reservations stays registered, as the flights they
+     * are booked on still refer to them.
+     *
+     * @return {@code true} if the passenger is no longer registered, {@code false} if they hold reservations.
+     */
+    public boolean unregister() {
+        if (reservations.size() > 0) {
+            return false;
+        }
+        Registries.passengers().unregister(passengerId, this);
+        return true;
+    }
+
+    /**
+     * Gets the balance of the passenger's account.
+     *
+     * @return the balance, exact to the cent
+     */
+    public double getBalance() {
+        return Money.toMajor(wallet.getBalance());
+    }
+
+    /**
+     * Sets the balance of the passenger's account, journaling the difference as a correction.
+     *
+     * @param balance the new balance, rounded to the cent
+     */
+    public void setBalance(double balance) {
+        wallet.adjustTo(Money.toMinor(balance), null);
+    }
+
+    /**
+     * Gets the wallet holding the passenger's balance.
+     *
+     * @return the wallet
+     */
+    public Wallet getWallet() {
+        return wallet;
     }
 
     /**
@@ -52,6 +149,32 @@ public class Passenger {
         return makeReservationV4(flight, category, false, 0.0, false); // Default: no insurance, no priority boarding
     }
 
+    /**
+     * Overloaded makeReservation method with a seat preference and no insurance.
+     *
+     * @param flight     The flight to reserve.
+     * @param category   The seat category to reserve.
+     * @param preference The kind of seat wanted, e.g. a window seat.
+     * @return The created reservation, or null if the reservation failed.
+     */
+    public Reservation makeReservationV4(Flight flight, SeatCategory category, SeatPreference preference) {
+        return makeReservationV4(flight, category, preference, false, 0.0, false);
+    }
+
+    /**
+     * Makes a reservation for a flight with a specified seat category, on any seat of the category.
+     *
+     * @param flight   the flight to be reserved
+     * @param category the seat category selected for the reservation
+     * @param purchaseInsurance whether purchase the insurance
+     * @param coverageAmount amount of insurance covered
+     * @return the created reservation, or {@code null} if the reservation could not be made
+     * @see #makeReservationV4(Flight, SeatCategory, SeatPreference, boolean, double, boolean)
+     */
+    public Reservation makeReservationV4(Flight flight, SeatCategory category, boolean purchaseInsurance, double coverageAmount, boolean purchasePriorityBoarding) {
+        return makeReservationV4(flight, category, SeatPreference.ANY, purchaseInsurance, coverageAmount, purchasePriorityBoarding);
+    }
+
 
     /**
      * Makes a reservation for a flight with a specified seat category.
@@ -59,81 +182,83 @@ public class Passenger {
      * It also checks if the passenger already has a reservation for this flight.
      * Loyalty points are applied to reduce the flight fee if available.
      * Points are earned based on the flight fee.
+     * The passenger is given a seat of the category's cabin, the best one of the preferred kind if any is free.
+     * Insurance and priority boarding are bought with the seat in one {@link BookingTransaction}: if any
+     * of them cannot be paid for, nothing is booked or charged.
      *
      * @param flight   the flight to be reserved
      * @param category the seat category selected for the reservation
+     * @param preference the kind of seat wanted
      * @param purchaseInsurance whether purchase the insurance
      * @param coverageAmount amount of insurance covered
      * @return the created reservation, or {@code null} if the reservation could not be made
      */
-    public Reservation makeReservationV4(Flight flight, SeatCategory category, boolean purchaseInsurance, double coverageAmount, boolean purchasePriorityBoarding) {
-
-        if (!flight.isBOpenForReservation() || flight.getRemainSeatCount() < 1) {
-            System.out.println("Flight is not open for reservation or fully booked.");
-            return null;
-        }
-        if (flight.getRemainSeatCount() < 1) {
-            return null;
-        }
-
-        if (reservations.stream().anyMatch(reservation -> reservation.getFlight().equals(flight))) {
-            System.out.println(methodLogPrefix+ "Conflict: Already booked on this flight.");
-            return null;
-        }
-
-        Reservation reservation = new Reservation(flight, category);
-        double fee = reservation.getFee();
-
+    public Reservation makeReservationV4(Flight flight, SeatCategory category, SeatPreference preference, boolean purchaseInsurance, double coverageAmount, boolean purchasePriorityBoarding) {
+        return book(BookingTransaction.begin(this, flight, category).seatPreference(preference),
+                purchaseInsurance, coverageAmount, purchasePriorityBoarding);
+    }
 
-        LoyalScheme loyalScheme = flight.getAirlineCompany().getLoyalScheme();
-        double points = loyalScheme.getPointsV2(this);
-        if (points + balance < fee) {
-            System.out.println("Insufficient balance or Loyal points for this flight.");
-            return null;
-        }
-        Double needToPay = loyalScheme.redeemPointsV2(this, fee);
+    /**
+     * Joins the waitlist of a full flight. The passenger is booked automatically, as
+     * {@link #makeReservationV4} would, once a seat of the category is freed and the passengers
+     * ahead of them are served; waiting passengers are served by loyalty tier, then in order.
+     *
+     * @param flight     the flight to wait for
+     * @param category   the seat category wanted
+     * @param preference the kind of seat wanted
+     * @return the waitlist entry, to follow the request, or {@code null} if the passenger is already waiting
+     */
+    public WaitlistEntry joinWaitlist(Flight flight, SeatCategory category, SeatPreference preference) {
+        return flight.getWaitlist().join(this, category, preference);
+    }
 
-        balance -= needToPay;
+    /**
+     * Joins the waitlist of a full flight for any seat of a category.
+     *
+     * @param flight   the flight to wait for
+     * @param category the seat category wanted
+     * @return the waitlist entry, or {@code null} if the passenger is already waiting
+     * @see #joinWaitlist(Flight, SeatCategory, SeatPreference)
+     */
+    public WaitlistEntry joinWaitlist(Flight flight, SeatCategory category) {
+        return joinWaitlist(flight, category, SeatPreference.ANY);
+    }
 
-        int pointsEarned = (int) (fee / 10); // 每10元获得1积分
-        loyalScheme.addPointsV2(this, pointsEarned);
-        reservations.add(reservation);
-        flight.addPassenger(this);
+    /**
+     * Completes a reservation on a seat held beforehand, e.g. by a waitlist handing a freed seat over.
+     * The passenger pays the given fare as {@link #makeReservationV4} would charge it; the hold is
+     * released if the reservation cannot be made.
+     *
+     * @param flight the flight of the held seat
+     * @param seatHold the held seat
+     * @param fee the fare quoted for the seat
+     * @param purchaseInsurance whether purchase the insurance
+     * @param coverageAmount amount of insurance covered
+     * @param purchasePriorityBoarding whether purchase priority boarding
+     * @return the created reservation, or {@code null} if the reservation could not be made
+     */
+    public Reservation reserveHeldSeat(Flight flight, SeatHold seatHold, double fee, boolean purchaseInsurance, double coverageAmount, boolean purchasePriorityBoarding) {
+        return book(BookingTransaction.begin(this, flight, seatHold.getCategory()).heldSeat(seatHold, fee),
+                purchaseInsurance, coverageAmount, purchasePriorityBoarding);
+    }
 
-        // Handle optional insurance purchase
+    /**
+     * Adds the extras bought to a booking transaction and commits it.
+     *
+     * @param transaction the booking of the seat
+     * @param purchaseInsurance whether purchase the insurance
+     * @param coverageAmount amount of insurance covered
+     * @param purchasePriorityBoarding whether purchase priority boarding
+     * @return the created reservation, or {@code null} if nothing was booked
+     */
+    private static Reservation book(BookingTransaction transaction, boolean purchaseInsurance, double coverageAmount, boolean purchasePriorityBoarding) {
         if (purchaseInsurance) {
-            if (balance < coverageAmount) {
-                System.out.println("Insufficient balance to purchase insurance.");
-                return null;
-            }
-
-            Insurance insurance = new Insurance(
-                    "INS-" + reservation.getFlight().getFlightNumber() + "-" + name,
-                    coverageAmount,
-                    this,
-                    "Flight Accident Insurance"
-            );
-            reservation.setInsurance(insurance);
-            insurancePolicies.add(insurance); // Add insurance to passenger's list
-            balance -= coverageAmount;
-
-            System.out.println("Purchased insurance for reservation: " +
-                    reservation.getFlight().getFlightNumber() + ", Coverage: $" + coverageAmount);
+            transaction.insurance(coverageAmount);
         }
-
-        // Handle priority boarding purchase
         if (purchasePriorityBoarding) {
-            if (balance < 50) {
-                System.out.println("Insufficient balance to purchase priority boarding.");
-                return null;
-            }
-            enablePriorityBoarding(); // Enable priority boarding for the passenger
-            balance -= 50; // Deduct priority boarding fee
-            System.out.println("Priority boarding purchased for passenger: " + name);
+            transaction.priorityBoarding();
         }
-
-        System.out.println("Reservation successful.Passenger: " + getName() + " Points earned: " + pointsEarned + " current total points " + loyalScheme.getPointsV2(this));
-        return reservation;
+        return transaction.commit();
     }
 
     /**
@@ -148,34 +273,16 @@ public class Passenger {
      */
 
     public boolean modifySeatCategory(String flightNum,SeatCategory newCategory) {
-
-        Reservation currentReservation = null;
-        for (Reservation reservation:reservations) {
-            if (flightNum.equals(reservation.getFlight().getFlightNumber())) {
-                currentReservation =  reservation;
-            }
-        }
+        long start = METRICS.start();
+        Reservation currentReservation = reservations.findByFlightNumber(flightNum);
         if (currentReservation == null) {
-            System.out.println("Your reservation for FlightNum: "+flightNum+" does not exist! please make a reservation first!");
-            return false;
-        }
-
-        SeatCategory currentcategory = currentReservation.getSeatCategory();
-        if (newCategory == currentcategory) {
-           System.out.println("You book the same seatCategory compare to the previous one，please check again");
-           return false;
-       }
-        double gapPrice = currentcategory.getBaseFee() - newCategory.getBaseFee();
-        if (balance + gapPrice < 0) {
-            System.out.println("Your balance is Insufficient for this change!");
+            if (EVENTS.isListening()) {
+                EVENTS.publish(new SeatCategoryChangeRejected(passengerId, flightNum, newCategory, ChangeRejectReason.NOT_FOUND));
+            }
+            METRICS.failure(BookingOperation.MODIFY_CATEGORY, start, BookingFailure.NOT_BOOKED);
             return false;
         }
-
-        currentReservation.modifyCategory(newCategory);
-
-        balance += gapPrice;
-        System.out.println("You Flight: " + flightNum + " seatCategory has now Change to " + newCategory.name());
-        return true;
+        return changeSeatCategory(currentReservation, newCategory, start);
     }
     /**
      * Modifies the seat category of an existing reservation, identified by the provided reservation object.
@@ -188,37 +295,107 @@ public class Passenger {
      */
 
     public boolean modifySeatCategoryV2(Reservation reservation,SeatCategory newCategory) {
+        long start = METRICS.start();
         if(reservation==null){
-            System.out.println("The reservation object is null!");
-            return false;
-        }
-        Reservation currentReservation = null;
-        for (Reservation singleRes:reservations) {
-            if (reservation.equals(singleRes)) {
-                currentReservation =  singleRes;
-                break;
+            if (EVENTS.isListening()) {
+                EVENTS.publish(new SeatCategoryChangeRejected(passengerId, null, newCategory, ChangeRejectReason.NO_RESERVATION));
             }
+            METRICS.failure(BookingOperation.MODIFY_CATEGORY, start, BookingFailure.NOT_BOOKED);
+            return false;
         }
+        Reservation currentReservation = reservations.findById(reservation.getReservationId());
         if (currentReservation == null) {
-            System.out.println("Your reservation does not exist! please make a reservation first!");
+            if (EVENTS.isListening()) {
+                EVENTS.publish(new SeatCategoryChangeRejected(passengerId, null, newCategory, ChangeRejectReason.NOT_FOUND));
+            }
+            METRICS.failure(BookingOperation.MODIFY_CATEGORY, start, BookingFailure.NOT_BOOKED);
             return false;
         }
+        return changeSeatCategory(currentReservation, newCategory, start);
+    }
 
+    /**
+     * Moves a reservation of this passenger to another seat category and settles the price difference.
+     *
+     * @param currentReservation the reservation to modify
+     * @param newCategory the new seat category for the reservation
+     * @param start when the modification started, as given by {@link BookingMetrics#start()}
+     * @return {@code true} if the seat category was successfully modified, {@code false} otherwise
+     */
+    private boolean changeSeatCategory(Reservation currentReservation, SeatCategory newCategory, long start) {
+        Flight flight = currentReservation.getFlight();
         SeatCategory currentCategory = currentReservation.getSeatCategory();
         if (newCategory == currentCategory) {
-            System.out.println("You book the same seatCategory compare to the previous one，please check again");
+            if (EVENTS.isListening()) {
+                EVENTS.publish(new SeatCategoryChangeRejected(passengerId, flight.getFlightNumber(), newCategory, ChangeRejectReason.SAME_CATEGORY));
+            }
+            METRICS.failure(BookingOperation.MODIFY_CATEGORY, start, BookingFailure.SAME_CATEGORY);
+            return false;
+        }
+        // The passenger gets back what was paid and pays the current fare of the new category
+        double newFee = flight.quoteFare(newCategory);
+        double gapPrice = currentReservation.getFee() - newFee;
+        long gap = Money.toMinor(gapPrice);
+        String flightNumber = flight.getFlightNumber();
+        // Take the extra price before moving, and give it back if the move fails
+        if (gap < 0 && !wallet.debit(-gap, flightNumber)) {
+            if (EVENTS.isListening()) {
+                EVENTS.publish(new InsufficientBalance(passengerId, flight.getFlightNumber(), Purpose.CATEGORY_CHANGE));
+            }
+            METRICS.failure(BookingOperation.MODIFY_CATEGORY, start, BookingFailure.INSUFFICIENT_BALANCE);
             return false;
         }
-        double gapPrice = currentCategory.getBaseFee() - newCategory.getBaseFee();
-        if (balance + gapPrice < 0) {
-            System.out.println("Your balance is Insufficient for this change!");
+        if (!flight.changeSeatCategory(this, newCategory)) {
+            if (gap < 0) {
+                wallet.credit(-gap, WalletTransaction.Type.REFUND, flightNumber);
+            }
+            if (EVENTS.isListening()) {
+                EVENTS.publish(new SeatCategoryChangeRejected(passengerId, flight.getFlightNumber(), newCategory, ChangeRejectReason.CATEGORY_FULL));
+            }
+            METRICS.failure(BookingOperation.MODIFY_CATEGORY, start, BookingFailure.NO_SEATS);
             return false;
         }
 
-        currentReservation.modifyCategory(newCategory);
+        currentReservation.modifyCategory(newCategory, newFee);
+        currentReservation.setSeat(flight.getSeat(this));
 
-        balance += gapPrice;
-        System.out.println("You Flight: " + reservation.getFlight().getFlightNumber() + " seatCategory has now Change to " + newCategory.name());
+        if (gap > 0) {
+            wallet.credit(gap, WalletTransaction.Type.REFUND, flightNumber);
+        }
+        if (EVENTS.isListening()) {
+            EVENTS.publish(new SeatCategoryChanged(currentReservation.getReservationId(), passengerId,
+                    flight.getFlightNumber(), currentCategory, newCategory, -gap, currentReservation.getSeat()));
+        }
+        METRICS.success(BookingOperation.MODIFY_CATEGORY, start);
+        return true;
+    }
+
+    /**
+     * Moves the passenger to another free seat of the same seat category on a booked flight.
+     *
+     * @param flight the flight of the reservation
+     * @param seat   the seat wanted
+     * @return {@code true} if the passenger now has that seat, {@code false} otherwise
+     */
+    public boolean selectSeat(Flight flight, Seat seat) {
+        Reservation reservation = reservations.findByFlight(flight);
+        if (reservation == null) {
+            if (EVENTS.isListening()) {
+                EVENTS.publish(new SeatChangeRejected(passengerId, flight.getFlightNumber(), seat, SeatRejectReason.NOT_FOUND));
+            }
+            return false;
+        }
+        Seat oldSeat = reservation.getSeat();
+        if (!flight.changeSeat(this, seat)) {
+            if (EVENTS.isListening()) {
+                EVENTS.publish(new SeatChangeRejected(passengerId, flight.getFlightNumber(), seat, SeatRejectReason.SEAT_UNAVAILABLE));
+            }
+            return false;
+        }
+        reservation.setSeat(seat);
+        if (EVENTS.isListening()) {
+            EVENTS.publish(new SeatChanged(reservation.getReservationId(), passengerId, flight.getFlightNumber(), oldSeat, seat));
+        }
         return true;
     }
 
@@ -231,34 +408,127 @@ public class Passenger {
      * @return {@code true} if the reservation was successfully canceled, {@code false} otherwise
      */
     public boolean cancelReservationV2(Flight flight, AirlineCompany airlineCompany) {
-        for (Reservation reservation : reservations) {
-            if (reservation.getFlight().equals(flight)) {
-                reservations.remove(reservation);
-                flight.removePassenger(this);
-                Double refundFee = reservation.getRefundFee();
-                balance += refundFee;
-                int pointsToRefund = (int) (refundFee / 10);
-                airlineCompany.getLoyalScheme().addPointsV2(this,pointsToRefund);
-                // Handle associated insurance cancellation
-                Insurance insurance = reservation.getInsurance();
-                if (insurance != null) {
-                    System.out.println("Insurance for reservation " +
-                            reservation.getFlight().getFlightNumber() + " has been canceled.");
-                    balance += insurance.getCoverageAmount() * 0.5; // Refund 50% of the insurance fee
-                    insurancePolicies.remove(insurance); // Remove insurance from passenger's list
-                }
-                if(hasPriorityBoarding()){
-                    unablePriorityBoarding();
-                    balance+=50;
-                    System.out.println("PriorityBoarding for reservation " +
-                            reservation.getFlight().getFlightNumber() + " has been canceled.");
-                }
-                System.out.println(methodLogPrefix + "Passenger:"+ this.name +" Reservation for FlightNum:" +flight.getFlightNumber() +
-                        "has been Canceled + pointsToRefund:" + pointsToRefund);
-                return true;
+        long start = METRICS.start();
+        // Remove through the index, so only one caller can cancel the reservation
+        Reservation reservation = reservations.removeByFlight(flight);
+        if (reservation == null) {
+            METRICS.failure(BookingOperation.CANCEL, start, BookingFailure.NOT_BOOKED);
+            return false;
+        }
+        flight.removePassenger(this);
+        Double refundFee = reservation.getRefundFee();
+        long refundMinor = Money.toMinor(refundFee);
+        String flightNumber = flight.getFlightNumber();
+        wallet.credit(refundMinor, WalletTransaction.Type.REFUND, flightNumber);
+        int pointsToRefund = (int) (refundFee / 10);
+        airlineCompany.getLoyalScheme().addPoints(passengerId, pointsToRefund, flight.getFlightNumber());
+        // Handle associated insurance cancellation
+        Insurance insurance = reservation.getInsurance();
+        if (insurance != null) {
+            long insuranceRefundMinor = Money.percentOf(Money.toMinor(insurance.getCoverageAmount()), 50); // Refund 50% of the insurance fee
+            wallet.credit(insuranceRefundMinor, WalletTransaction.Type.REFUND, flightNumber);
+            if (EVENTS.isListening()) {
+                EVENTS.publish(new InsuranceCancelled(reservation.getReservationId(), passengerId,
+                        flight.getFlightNumber(), insuranceRefundMinor));
+            }
+        }
+        // Only the cancellation that clears the status refunds it, however many run at once
+        if (priorityBoarding.compareAndSet(true, false)) {
+            long priorityRefundMinor = Money.toMinor(50);
+            wallet.credit(priorityRefundMinor, WalletTransaction.Type.REFUND, flightNumber);
+            if (EVENTS.isListening()) {
+                EVENTS.publish(new PriorityBoardingCancelled(passengerId, flight.getFlightNumber(), priorityRefundMinor));
+            }
+        }
+        if (EVENTS.isListening()) {
+            EVENTS.publish(new ReservationCancelled(reservation.getReservationId(), passengerId, name,
+                    flight.getFlightKey(), refundMinor, pointsToRefund));
+        }
+        METRICS.success(BookingOperation.CANCEL, start);
+        return true;
+    }
+
+    /**
+     * Adds a reservation to the passenger's book, unless the flight is already booked.
+     * Used by {@link GroupBooking}, which settles the payment itself.
+     *
+     * @param reservation The reservation to add.
+     * @return {@code true} if the reservation was added.
+     */
+    boolean claimReservation(Reservation reservation) {
+        return reservations.add(reservation);
+    }
+
+    /**
+     * Takes the reservation of a flight out of the passenger's book, without any refund.
+     *
+     * @param flight The flight of the reservation.
+     */
+    void unclaimReservation(Flight flight) {
+        reservations.removeByFlight(flight);
+    }
+
+    /**
+     * Puts back a reservation recovered from storage: the reservation is indexed, its insurance
+     * listed and its seat taken again, without any payment, points or events. The recovered seat
+     * is taken if it is still free, otherwise the best free seat of the category.
+     *
+     * @param reservation The recovered reservation.
+     * @return {@code true} if the reservation was restored, {@code false} if the flight is already
+     * booked by this passenger or has no seat left.
+     */
+    public boolean restoreReservation(Reservation reservation) {
+        Flight flight = reservation.getFlight();
+        SeatHold seatHold = flight.getSeatInventory().tryHold(reservation.getSeatCategory(), reservation.getSeat());
+        if (seatHold == null) {
+            return false;
+        }
+        if (!reservations.add(reservation)) {
+            seatHold.release();
+            return false;
+        }
+        if (!flight.confirmSeat(seatHold, this)) {
+            reservations.removeByFlight(flight);
+            return false;
+        }
+        reservation.setSeat(seatHold.getSeat());
+        return true;
+    }
+
+    /**
+     * Gets the reservations made by the passenger, ordered by departure time.
+     *
+     * @return A snapshot of the passenger's reservations.
+     */
+    public List<Reservation> getReservations() {
+        return reservations.inDepartureOrder();
+    }
+
+    /**
+     * Finds the reservation the passenger holds on a flight, without listing the others.
+     *
+     * @param flight The flight to look up.
+     * @return The reservation, or {@code null} if the passenger has none on the flight.
+     */
+    public Reservation findReservation(Flight flight) {
+        return reservations.findByFlight(flight);
+    }
+
+    /**
+     * Gets the insurance policies the passenger holds, read from the reservations they were bought with,
+     * so a policy goes away with its reservation.
+     *
+     * @return A snapshot of the passenger's insurance policies, ordered by departure time.
+     */
+    public List<Insurance> getInsurancePolicies() {
+        List<Insurance> policies = new ArrayList<>();
+        for (Reservation reservation : reservations.inDepartureOrder()) {
+            Insurance insurance = reservation.getInsurance();
+            if (insurance != null) {
+                policies.add(insurance);
             }
         }
-        return false;
+        return policies;
     }
 
     /**
@@ -277,21 +547,21 @@ public class Passenger {
      * @return {@code true} if priority boarding is enabled, {@code false} otherwise.
      */
     public boolean hasPriorityBoarding() {
-        return priorityBoarding;
+        return priorityBoarding.get();
     }
 
     /**
      * Enables priority boarding for the passenger.
      */
     public void enablePriorityBoarding() {
-        this.priorityBoarding = true;
+        priorityBoarding.set(true);
     }
 
     /**
      * Unables priority boarding for the passenger.
      */
     public void unablePriorityBoarding() {
-        this.priorityBoarding = false;
+        priorityBoarding.set(false);
     }
 
     /**
@@ -1,19 +1,34 @@
 package com.group17.flightticket.entity;
 
 import com.group17.flightticket.enums.SeatCategory;
+import com.group17.flightticket.inventory.Seat;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Setter;
+
+import java.util.concurrent.atomic.AtomicLong;
 /**
  * The Reservation class represents a reservation made for a specific flight.
  * It includes details about the flight, seat category, associated fee,
- * and the refund rate. The fee is calculated based on the selected seat category.
+ * and the refund rate. The fee is the fare quoted by the flight for the selected seat category.
  */
 @Data
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
 public class Reservation {
+    private static final AtomicLong ID_SEQUENCE = new AtomicLong();
+    /** The unique id of the reservation, the only field used for equality */
+    @EqualsAndHashCode.Include
+    @Setter(AccessLevel.NONE)
+    private final long reservationId;
     private Flight flight;
     private SeatCategory seatCategory;
     private double fee;
     private double refundRate = 0.8;
-    private Insurance insurance;
+    /** The insurance bought with the reservation, set after the reservation is claimed and read by other threads */
+    private volatile Insurance insurance;
+    /** The seat assigned on the flight, kept up to date when the passenger moves */
+    private Seat seat;
     /**
      * Constructs a Reservation with the given flight and seat category.
      * The fee is calculated based on the selected seat category.
@@ -22,6 +37,35 @@ public class Reservation {
      * @param seatCategory The category of the seat reserved.
      */
     public Reservation(Flight flight, SeatCategory seatCategory) {
+        this(ID_SEQUENCE.incrementAndGet(), flight, seatCategory);
+    }
+
+    /**
+     * Constructs a Reservation at a fare quoted beforehand, e.g. before the seat was held,
+     * so taking the seat does not change the price the passenger was shown.
+     *
+     * @param flight The flight for which the reservation is made.
+     * @param seatCategory The category of the seat reserved.
+     * @param fee The quoted fare.
+     */
+    public Reservation(Flight flight, SeatCategory seatCategory, double fee) {
+        this.reservationId = ID_SEQUENCE.incrementAndGet();
+        this.flight = flight;
+        this.seatCategory = seatCategory;
+        this.fee = fee;
+    }
+
+    /**
+     * Constructs a Reservation with a known id, e.g. one recovered from storage.
+     * Reservations created later get higher ids.
+     *
+     * @param reservationId The id of the reservation.
+     * @param flight The flight for which the reservation is made.
+     * @param seatCategory The category of the seat reserved.
+     */
+    public Reservation(long reservationId, Flight flight, SeatCategory seatCategory) {
+        this.reservationId = reservationId;
+        ID_SEQUENCE.accumulateAndGet(reservationId, Math::max);
         this.flight = flight;
         this.seatCategory = seatCategory;
         this.fee = calculateFee(seatCategory);
@@ -36,6 +80,17 @@ public class Reservation {
         this.seatCategory = newSeatCategory;
         this.fee = calculateFee(newSeatCategory); // Recalculate fee for the new seatCategory
     }
+
+    /**
+     * Modifies the seat category of the reservation at a fare quoted beforehand.
+     *
+     * @param newSeatCategory The new seat category to update the reservation.
+     * @param newFee The quoted fare of the new seat category.
+     */
+    public void modifyCategory(SeatCategory newSeatCategory, double newFee) {
+        this.seatCategory = newSeatCategory;
+        this.fee = newFee;
+    }
     /**
      * Calculates the refund amount for the reservation based on the refund rate.
      *
@@ -48,10 +103,10 @@ public class Reservation {
      * Calculates the fee for the reservation based on the selected seat category.
      *
      * @param seatCategory The category of the seat for which the fee is calculated.
-     * @return The fee corresponding to the given seat category.
+     * @return The current fare of the flight, or the base fee of the category without a flight.
      */
     private double calculateFee(SeatCategory seatCategory) {
-        return seatCategory.getBaseFee(); // Base fee directly fetched from the enum
+        return flight == null ? seatCategory.getBaseFee() : flight.quoteFare(seatCategory);
     }
 
 }
\ No newline at end of file
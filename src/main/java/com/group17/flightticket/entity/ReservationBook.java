@@ -0,0 +1,124 @@
+package com.group17.flightticket.entity;
+
+import com.group17.flightticket.identity.FlightKey;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The {@code ReservationBook} class holds the reservations of one passenger, indexed by
+ * flight key, by reservation id and by flight number, so every lookup and removal made by
+ * {@link Passenger} is constant time however many reservations the passenger holds.
+ */
+public class ReservationBook {
+    /** Orders reservations by the current departure time of their flight */
+    private static final Comparator<Reservation> DEPARTURE_ORDER =
+            Comparator.comparing((Reservation reservation) -> reservation.getFlight().getDepartureTime())
+                    .thenComparingLong(Reservation::getReservationId);
+
+    private final Map<Long, Reservation> byId = new ConcurrentHashMap<>();
+    private final Map<FlightKey, Reservation> byFlight = new ConcurrentHashMap<>();
+    /** The reservations made under each flight number, oldest first; each list is replaced, never changed */
+    private final Map<String, List<Reservation>> byFlightNumber = new ConcurrentHashMap<>();
+
+    /**
+     * Adds a reservation to the book.
+     *
+     * @param reservation The reservation to add.
+     * @return {@code true} if it was added, {@code false} if the book already has a reservation for that flight.
+     */
+    public boolean add(Reservation reservation) {
+        boolean[] added = new boolean[1];
+        // The other indexes are updated under the flight key, so a removal of the same flight waits for them
+        byFlight.compute(reservation.getFlight().getFlightKey(), (key, existing) -> {
+            if (existing != null) {
+                return existing;
+            }
+            byId.put(reservation.getReservationId(), reservation);
+            byFlightNumber.compute(reservation.getFlight().getFlightNumber(), (number, list) -> {
+                List<Reservation> updated = list == null ? new ArrayList<>(1) : new ArrayList<>(list);
+                updated.add(reservation);
+                return List.copyOf(updated);
+            });
+            added[0] = true;
+            return reservation;
+        });
+        return added[0];
+    }
+
+    /**
+     * Finds the reservation for a flight.
+     *
+     * @param flight The flight to look up.
+     * @return The reservation, or {@code null} if there is none.
+     */
+    public Reservation findByFlight(Flight flight) {
+        return byFlight.get(flight.getFlightKey());
+    }
+
+    /**
+     * Finds a reservation by its id.
+     *
+     * @param reservationId The id to look up.
+     * @return The reservation, or {@code null} if there is none.
+     */
+    public Reservation findById(long reservationId) {
+        return byId.get(reservationId);
+    }
+
+    /**
+     * Finds the latest reservation made under a flight number.
+     *
+     * @param flightNumber The flight number to look up.
+     * @return The reservation, or {@code null} if there is none.
+     */
+    public Reservation findByFlightNumber(String flightNumber) {
+        List<Reservation> list = byFlightNumber.get(flightNumber);
+        return list == null ? null : list.get(list.size() - 1);
+    }
+
+    /**
+     * Removes the reservation for a flight. Only one caller can remove a given reservation.
+     *
+     * @param flight The flight whose reservation is removed.
+     * @return The removed reservation, or {@code null} if there was none.
+     */
+    public Reservation removeByFlight(Flight flight) {
+        Reservation[] removed = new Reservation[1];
+        byFlight.computeIfPresent(flight.getFlightKey(), (key, reservation) -> {
+            byId.remove(reservation.getReservationId());
+            byFlightNumber.computeIfPresent(reservation.getFlight().getFlightNumber(), (number, list) -> {
+                List<Reservation> updated = new ArrayList<>(list);
+                updated.remove(reservation);
+                return updated.isEmpty() ? null : List.copyOf(updated);
+            });
+            removed[0] = reservation;
+            return null;
+        });
+        return removed[0];
+    }
+
+    /**
+     * Gets the reservations ordered by departure time. Flights can be delayed,
+     * so the order is taken when this method is called.
+     *
+     * @return A snapshot of the reservations in departure order.
+     */
+    public List<Reservation> inDepartureOrder() {
+        List<Reservation> reservations = new ArrayList<>(byId.values());
+        reservations.sort(DEPARTURE_ORDER);
+        return reservations;
+    }
+
+    /**
+     * Gets the number of reservations in the book.
+     *
+     * @return The book size.
+     */
+    public int size() {
+        return byId.size();
+    }
+}
@@ -1,7 +1,14 @@
 package com.group17.flightticket.entity;
 
+import com.group17.flightticket.identity.Registries;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Setter;
+import lombok.ToString;
+
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -10,21 +17,40 @@ import java.util.List;
  * for processes like boarding.
  */
 @Data
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
 public class Terminal {
+    @EqualsAndHashCode.Include
+    @Setter(AccessLevel.NONE)
+    private final String code; // Interned terminal code, the only field used for equality
     private String name; // Terminal name
     private String location; // Terminal location
+    @ToString.Exclude
     private List<Flight> departingFlights = new ArrayList<>(); // Flights departing from this terminal
+    @ToString.Exclude
     private List<Flight> arrivingFlights = new ArrayList<>();  // Flights arriving at this terminal
 
     /**
-     * Constructs a new {@code Terminal} instance.
+     * Constructs a new {@code Terminal} instance whose code is its name.
      *
      * @param name     The name of the terminal.
      * @param location The location of the terminal (e.g., city or airport name).
      */
     public Terminal(String name, String location) {
+        this(name, name, location);
+    }
+
+    /**
+     * Constructs a new {@code Terminal} instance.
+     *
+     * @param code     The unique code of the terminal, e.g. "PVG-T1".
+     * @param name     The name of the terminal.
+     * @param location The location of the terminal (e.g., city or airport name).
+     */
+    public Terminal(String code, String name, String location) {
+        this.code = code.intern();
         this.name = name;
         this.location = location;
+        Registries.terminals().register(this.code, this);
     }
 
     /**
@@ -45,6 +71,36 @@ public class Terminal {
         arrivingFlights.add(flight);
     }
 
+    /**
+     * Adds flights to the list of departing flights at once, growing the list a single time.
+     *
+     * @param flights The flights to add.
+     */
+    public void addDepartingFlights(Collection<Flight> flights) {
+        presize(departingFlights, flights.size());
+        departingFlights.addAll(flights);
+    }
+
+    /**
+     * Adds flights to the list of arriving flights at once, growing the list a single time.
+     *
+     * @param flights The flights to add.
+     */
+    public void addArrivingFlights(Collection<Flight> flights) {
+        presize(arrivingFlights, flights.size());
+        arrivingFlights.addAll(flights);
+    }
+
+    /**
+     * Makes room in a flight list for more flights. A list set from outside that is not an
+     * {@link ArrayList} is kept as it is.
+     */
+    private static void presize(List<Flight> list, int more) {
+        if (list instanceof ArrayList<Flight> arrayList) {
+            arrayList.ensureCapacity(list.size() + more);
+        }
+    }
+
     /**
      * Notifies the terminal about updates, such as boarding status or flight changes.
      *
@@ -0,0 +1,29 @@
+package com.group17.flightticket.enums;
+
+/**
+ * The FlightStatus enum follows a flight through its day of operation. A flight only moves forward,
+ * one status after the other, driven by the {@link com.group17.flightticket.lifecycle.FlightLifecycleScheduler}.
+ */
+public enum FlightStatus {
+    /** Open for reservation as long as it is not closed by hand */
+    SCHEDULED,
+    /** Closed for reservation ahead of departure */
+    BOOKING_CLOSED,
+    /** Boarding has started at the origin terminal */
+    BOARDING,
+    /** Left the origin terminal; boarding is closed and who did not board is a no-show */
+    DEPARTED,
+    /** Landed at the destination terminal */
+    ARRIVED;
+
+    private static final FlightStatus[] STATUSES = values();
+
+    /**
+     * Gets the status that follows this one.
+     *
+     * @return The next status, or {@code null} once arrived.
+     */
+    public FlightStatus next() {
+        return ordinal() + 1 < STATUSES.length ? STATUSES[ordinal() + 1] : null;
+    }
+}
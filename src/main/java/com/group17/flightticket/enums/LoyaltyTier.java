@@ -0,0 +1,45 @@
+package com.group17.flightticket.enums;
+/**
+ * The LoyaltyTier enum ranks the members of a loyalty scheme by the points they hold.
+ * Higher tiers come first where passengers compete for the same seat, e.g. on a waitlist.
+ */
+public enum LoyaltyTier {
+    BASIC(0),
+    SILVER(100),
+    GOLD(500),
+    PLATINUM(2000);
+
+    private static final LoyaltyTier[] TIERS = values();
+
+    private final int minimumPoints;
+    /**
+     * Constructs a LoyaltyTier with the points needed to reach it.
+     *
+     * @param minimumPoints The points balance from which the tier applies.
+     */
+    LoyaltyTier(int minimumPoints) {
+        this.minimumPoints = minimumPoints;
+    }
+    /**
+     * Retrieves the points balance from which the tier applies.
+     *
+     * @return The minimum points of the tier.
+     */
+    public int getMinimumPoints() {
+        return minimumPoints;
+    }
+    /**
+     * Finds the tier of a points balance.
+     *
+     * @param points The points balance.
+     * @return The highest tier the balance reaches.
+     */
+    public static LoyaltyTier of(int points) {
+        for (int i = TIERS.length - 1; i > 0; i--) {
+            if (points >= TIERS[i].minimumPoints) {
+                return TIERS[i];
+            }
+        }
+        return BASIC;
+    }
+}
@@ -0,0 +1,347 @@
+package com.group17.flightticket.event;
+
+import com.group17.flightticket.enums.FlightStatus;
+import com.group17.flightticket.enums.LoyaltyTier;
+import com.group17.flightticket.enums.SeatCategory;
+import com.group17.flightticket.identity.FlightKey;
+import com.group17.flightticket.inventory.Seat;
+import com.group17.flightticket.loyalty.PointsJournalEntry;
+import com.group17.flightticket.wallet.Money;
+
+/**
+ * A structured event of the booking, cancellation and boarding paths.
+ * <p>
+ * Events only carry ids, numbers and references to strings that already exist, so creating one
+ * builds no text. The human readable text is produced by {@link #format()}, which only sinks call,
+ * on the thread of the {@link BookingEventBus}.
+ * <p>
+ * Amounts of money are in minor units, see {@link Money}, so the write-ahead log and the snapshots sum
+ * them exactly.
+ */
+public sealed interface BookingEvent {
+
+    /**
+     * Formats the event as a log line.
+     *
+     * @return The text of the event.
+     */
+    String format();
+
+    /**
+     * Tells log sinks whether to write the event. Events only meant for auditing and persistence,
+     * which the original console output never showed, return {@code false}.
+     *
+     * @return {@code true} if the event belongs in the log.
+     */
+    default boolean isLogged() {
+        return true;
+    }
+
+    /**
+     * Why a reservation was refused before any money was taken.
+     */
+    enum RejectReason {
+        FLIGHT_CLOSED_OR_FULL,
+        ALREADY_BOOKED
+    }
+
+    /**
+     * Why a group reservation was refused. Nothing is booked for any member of a refused group.
+     */
+    enum GroupRejectReason {
+        EMPTY_GROUP,
+        FLIGHT_CLOSED_OR_FULL,
+        ALREADY_BOOKED,
+        INSUFFICIENT_BALANCE
+    }
+
+    /**
+     * What a passenger could not afford.
+     */
+    enum Purpose {
+        FARE,
+        INSURANCE,
+        PRIORITY_BOARDING,
+        CATEGORY_CHANGE
+    }
+
+    /**
+     * Why a seat category change was refused.
+     */
+    enum ChangeRejectReason {
+        NO_RESERVATION,
+        NOT_FOUND,
+        SAME_CATEGORY,
+        CATEGORY_FULL
+    }
+
+    /**
+     * Why a seat change was refused.
+     */
+    enum SeatRejectReason {
+        NOT_FOUND,
+        SEAT_UNAVAILABLE
+    }
+
+    /**
+     * Stages of the boarding process of a flight.
+     */
+    enum BoardingStage {
+        ALREADY_BOARDED,
+        STARTED,
+        FULLY_BOARDED
+    }
+
+    record ReservationCreated(long reservationId, long passengerId, String passengerName, FlightKey flightKey,
+                              SeatCategory category, long feeMinor, long amountPaidMinor, int pointsEarned,
+                              int pointsBalance, Seat seat) implements BookingEvent {
+        @Override
+        public String format() {
+            return "Reservation successful.Passenger: " + passengerName + " Points earned: " + pointsEarned
+                    + " current total points " + pointsBalance;
+        }
+    }
+
+    record ReservationRejected(long passengerId, String flightNumber, RejectReason reason) implements BookingEvent {
+        @Override
+        public String format() {
+            return reason == RejectReason.ALREADY_BOOKED
+                    ? "LogPassenger_ Conflict: Already booked on this flight."
+                    : "Flight is not open for reservation or fully booked.";
+        }
+    }
+
+    record GroupReservationCreated(long groupId, FlightKey flightKey, SeatCategory category, int groupSize,
+                                   long totalFeeMinor, long amountPaidMinor) implements BookingEvent {
+        @Override
+        public String format() {
+            return "Group reservation successful. Flight: " + flightKey.getFlightNumber() + " Passengers: " + groupSize
+                    + " Total fee: " + Money.toMajor(totalFeeMinor);
+        }
+    }
+
+    /**
+     * A refused group reservation, with the member that caused it when there is one, otherwise {@code 0}.
+     */
+    record GroupReservationRejected(String flightNumber, int groupSize, long passengerId,
+                                    GroupRejectReason reason) implements BookingEvent {
+        @Override
+        public String format() {
+            return switch (reason) {
+                case EMPTY_GROUP -> "Group reservation has no passengers.";
+                case FLIGHT_CLOSED_OR_FULL -> "Flight " + flightNumber + " is not open for reservation or has fewer than "
+                        + groupSize + " seats left.";
+                case ALREADY_BOOKED -> "Group reservation refused: passenger " + passengerId + " is already booked on flight "
+                        + flightNumber + ".";
+                case INSUFFICIENT_BALANCE -> "Group reservation refused: passenger " + passengerId
+                        + " has insufficient balance or Loyal points for flight " + flightNumber + ".";
+            };
+        }
+    }
+
+    record InsufficientBalance(long passengerId, String flightNumber, Purpose purpose) implements BookingEvent {
+        @Override
+        public String format() {
+            return switch (purpose) {
+                case FARE -> "Insufficient balance or Loyal points for this flight.";
+                case INSURANCE -> "Insufficient balance to purchase insurance.";
+                case PRIORITY_BOARDING -> "Insufficient balance to purchase priority boarding.";
+                case CATEGORY_CHANGE -> "Your balance is Insufficient for this change!";
+            };
+        }
+    }
+
+    record InsurancePurchased(long reservationId, long passengerId, String flightNumber, String policyNumber,
+                              long coverageMinor) implements BookingEvent {
+        @Override
+        public String format() {
+            return "Purchased insurance for reservation: " + flightNumber + ", Coverage: $" + Money.toMajor(coverageMinor);
+        }
+    }
+
+    record PriorityBoardingPurchased(long passengerId, String passengerName, String flightNumber,
+                                     long feeMinor) implements BookingEvent {
+        @Override
+        public String format() {
+            return "Priority boarding purchased for passenger: " + passengerName;
+        }
+    }
+
+    record SeatCategoryChanged(long reservationId, long passengerId, String flightNumber, SeatCategory oldCategory,
+                               SeatCategory newCategory, long priceDifferenceMinor, Seat seat) implements BookingEvent {
+        @Override
+        public String format() {
+            return "You Flight: " + flightNumber + " seatCategory has now Change to " + newCategory.name();
+        }
+    }
+
+    record SeatCategoryChangeRejected(long passengerId, String flightNumber, SeatCategory newCategory,
+                                      ChangeRejectReason reason) implements BookingEvent {
+        @Override
+        public String format() {
+            return switch (reason) {
+                case NO_RESERVATION -> "The reservation object is null!";
+                case NOT_FOUND -> flightNumber == null
+                        ? "Your reservation does not exist! please make a reservation first!"
+                        : "Your reservation for FlightNum: " + flightNumber + " does not exist! please make a reservation first!";
+                case SAME_CATEGORY -> "You book the same seatCategory compare to the previous one，please check again";
+                case CATEGORY_FULL -> "No seat left in " + newCategory.name() + " for this change!";
+            };
+        }
+    }
+
+    record SeatChanged(long reservationId, long passengerId, String flightNumber, Seat oldSeat,
+                       Seat newSeat) implements BookingEvent {
+        @Override
+        public String format() {
+            return "Your seat on Flight: " + flightNumber + " has now Change from " + oldSeat + " to " + newSeat;
+        }
+    }
+
+    record SeatChangeRejected(long passengerId, String flightNumber, Seat seat,
+                              SeatRejectReason reason) implements BookingEvent {
+        @Override
+        public String format() {
+            return switch (reason) {
+                case NOT_FOUND -> "Your reservation for FlightNum: " + flightNumber + " does not exist! please make a reservation first!";
+                case SEAT_UNAVAILABLE -> "Seat " + seat + " is not available on Flight: " + flightNumber + " for your seatCategory.";
+            };
+        }
+    }
+
+    record ReservationCancelled(long reservationId, long passengerId, String passengerName, FlightKey flightKey,
+                                long refundMinor, int pointsRefunded) implements BookingEvent {
+        @Override
+        public String format() {
+            return "LogPassenger_ Passenger:" + passengerName + " Reservation for FlightNum:" + flightKey.getFlightNumber()
+                    + "has been Canceled + pointsToRefund:" + pointsRefunded;
+        }
+    }
+
+    record InsuranceCancelled(long reservationId, long passengerId, String flightNumber,
+                              long refundMinor) implements BookingEvent {
+        @Override
+        public String format() {
+            return "Insurance for reservation " + flightNumber + " has been canceled.";
+        }
+    }
+
+    record PriorityBoardingCancelled(long passengerId, String flightNumber, long refundMinor) implements BookingEvent {
+        @Override
+        public String format() {
+            return "PriorityBoarding for reservation " + flightNumber + " has been canceled.";
+        }
+    }
+
+    record BoardingStageReached(String flightNumber, BoardingStage stage) implements BookingEvent {
+        @Override
+        public String format() {
+            return switch (stage) {
+                case ALREADY_BOARDED -> "All passengers have already boarded.";
+                case STARTED -> "Boarding process starting for flight " + flightNumber;
+                case FULLY_BOARDED -> "Flight " + flightNumber + " is fully boarded.";
+            };
+        }
+    }
+
+    record FlightStatusChanged(FlightKey flightKey, FlightStatus status) implements BookingEvent {
+        @Override
+        public String format() {
+            return switch (status) {
+                case SCHEDULED -> "Flight " + flightKey.getFlightNumber() + " is scheduled.";
+                case BOOKING_CLOSED -> "Flight " + flightKey.getFlightNumber() + " is closed for reservation.";
+                case BOARDING -> "Flight " + flightKey.getFlightNumber() + " is boarding.";
+                case DEPARTED -> "Flight " + flightKey.getFlightNumber() + " has departed.";
+                case ARRIVED -> "Flight " + flightKey.getFlightNumber() + " has arrived.";
+            };
+        }
+    }
+
+    record PassengerBoarded(String flightNumber, long passengerId, String passengerName,
+                            boolean priority) implements BookingEvent {
+        @Override
+        public String format() {
+            return (priority ? "Priority" : "Regular") + " boarding: Passenger " + passengerName + " has boarded.";
+        }
+    }
+
+    /**
+     * A passenger joined the waitlist of a full flight.
+     */
+    record WaitlistJoined(long passengerId, String passengerName, String flightNumber, SeatCategory category,
+                          LoyaltyTier tier, int waiting) implements BookingEvent {
+        @Override
+        public String format() {
+            return "Passenger " + passengerName + " is waitlisted for flight " + flightNumber + " in " + category
+                    + " (" + tier + "), " + waiting + " waiting.";
+        }
+    }
+
+    /**
+     * A waitlisted passenger was given a freed seat. The reservation itself is a {@link ReservationCreated}.
+     */
+    record WaitlistPromoted(long reservationId, long passengerId, String passengerName, String flightNumber,
+                            SeatCategory category, long waitedMillis) implements BookingEvent {
+        @Override
+        public String format() {
+            return "Passenger " + passengerName + " got a seat on flight " + flightNumber + " from the waitlist after "
+                    + waitedMillis + " ms.";
+        }
+    }
+
+    /**
+     * A movement of loyalty points, as recorded in the journal of the airline's loyalty scheme.
+     */
+    record PointsMoved(String schemeName, PointsJournalEntry.Type type, long accountId, int points,
+                       int balanceAfter, String reference) implements BookingEvent {
+        @Override
+        public String format() {
+            return "Loyalty points " + type.name().toLowerCase() + " for passenger " + accountId + ": " + points
+                    + ", balance " + balanceAfter;
+        }
+
+        @Override
+        public boolean isLogged() {
+            return false;
+        }
+    }
+
+    /**
+     * A flight crossed the capacity threshold of its airline, towards full capacity or, after cancellations, away from it.
+     */
+    record FlightCapacityAlert(String companyName, FlightKey flightKey, int remainingSeats,
+                               boolean nearCapacity) implements BookingEvent {
+        @Override
+        public String format() {
+            return nearCapacity
+                    ? "  * Attention: Flight " + flightKey.getFlightNumber() + " is nearing full capacity! " + remainingSeats + " seats remaining."
+                    : "Flight " + flightKey.getFlightNumber() + " is no longer nearing full capacity, " + remainingSeats + " seats remaining.";
+        }
+    }
+
+    record InventoryReportStarted(String companyName) implements BookingEvent {
+        @Override
+        public String format() {
+            return "Inventory Report for " + companyName + ":";
+        }
+    }
+
+    /**
+     * One flight line of an inventory report. Detailed lines name the route and flag
+     * flights nearing full capacity, short lines name the airline.
+     */
+    record FlightInventoryReported(String companyName, String flightNumber, String originLocation,
+                                   String destinationLocation, int remainingSeats, boolean nearCapacity,
+                                   boolean detailed) implements BookingEvent {
+        @Override
+        public String format() {
+            if (!detailed) {
+                return "AirLineCompany Name:" + companyName + System.lineSeparator()
+                        + "Flight " + flightNumber + " has " + remainingSeats + " seats remaining.";
+            }
+            String line = "Flight " + flightNumber + " from " + originLocation + " to " + destinationLocation
+                    + " has " + remainingSeats + " seats remaining.";
+            return nearCapacity ? line + System.lineSeparator() + "  * Attention: This flight is nearing full capacity!" : line;
+        }
+    }
+}
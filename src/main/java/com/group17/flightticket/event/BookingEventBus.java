@@ -0,0 +1,253 @@
+package com.group17.flightticket.event;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The {@code BookingEventBus} class moves {@link BookingEvent}s from the booking threads to the sinks.
+ * <p>
+ * Events are published into a lock-free ring buffer: a publisher claims a sequence number with one
+ * atomic increment and stores the event in its slot. A single consumer thread reads the slots in
+ * sequence order and hands each event to every sink, so sinks are never called concurrently and
+ * formatting happens on the consumer thread. When the ring is full, publishers wait for the consumer
+ * rather than dropping events, as a sink such as the reservation store must see every event. They spin
+ * briefly, then park with a growing backoff, so a slow sink never keeps request threads busy.
+ * <p>
+ * Callers should check {@link #isListening()} before creating an event, so the hot path allocates
+ * nothing when no sink is attached. The global bus starts without sinks and lives as long as the
+ * application; any other bus is {@link #close() closed} once done with, which stops its consumer thread.
+ */
+public class BookingEventBus implements AutoCloseable {
+    /** Default number of slots of the ring buffer */
+    public static final int DEFAULT_CAPACITY = 1 << 14;
+    /** System property that attaches a {@link ConsoleEventSink} to the global bus, false by default */
+    public static final String CONSOLE_PROPERTY = "flightticket.events.console";
+
+    private static final Logger LOG = LoggerFactory.getLogger(BookingEventBus.class);
+    private static final int FULL_SPINS = 64;
+    private static final long MAX_BACKOFF_NANOS = 1_000_000;
+    private static final BookingEventBus GLOBAL = createGlobal();
+
+    private final AtomicReferenceArray<BookingEvent> ring;
+    private final int mask;
+    /** The next sequence number to hand out to a publisher */
+    private final AtomicLong claimed = new AtomicLong();
+    /** The next sequence number the consumer will read */
+    private volatile long consumed;
+    /** Every event below this sequence number has been handed to the sinks and flushed */
+    private volatile long flushed;
+    private volatile boolean consumerWaiting;
+    private volatile boolean listening;
+    private volatile boolean closed;
+    /** The number of times a publisher found the ring full and had to wait */
+    private final AtomicLong fullWaits = new AtomicLong();
+    private final List<BookingEventSink> sinks = new CopyOnWriteArrayList<>();
+    private final Thread consumer;
+
+    /**
+     * Constructs a bus with the default capacity and starts its consumer thread.
+     */
+    public BookingEventBus() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a bus and starts its consumer thread.
+     *
+     * @param capacity The number of slots of the ring buffer, a power of two.
+     */
+    public BookingEventBus(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        this.ring = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+        this.consumer = Thread.ofPlatform().daemon().name("booking-events").start(this::consumeLoop);
+    }
+
+    /**
+     * Gets the bus the entities publish to.
+     *
+     * @return The global booking event bus.
+     */
+    public static BookingEventBus global() {
+        return GLOBAL;
+    }
+
+    private static BookingEventBus createGlobal() {
+        BookingEventBus bus = new BookingEventBus();
+        if (Boolean.parseBoolean(System.getProperty(CONSOLE_PROPERTY, "false"))) {
+            bus.addSink(new ConsoleEventSink());
+        }
+        return bus;
+    }
+
+    /**
+     * Attaches a sink, which receives every event published from now on.
+     *
+     * @param sink The sink to attach.
+     */
+    public void addSink(BookingEventSink sink) {
+        sinks.add(sink);
+        listening = true;
+    }
+
+    /**
+     * Detaches a sink.
+     *
+     * @param sink The sink to detach.
+     */
+    public void removeSink(BookingEventSink sink) {
+        sinks.remove(sink);
+        listening = !sinks.isEmpty();
+    }
+
+    /**
+     * Gets the sinks currently attached.
+     *
+     * @return A snapshot of the sinks.
+     */
+    public List<BookingEventSink> getSinks() {
+        return List.copyOf(sinks);
+    }
+
+    /**
+     * Checks if at least one sink is attached. Publishers check this before creating an event.
+     *
+     * @return {@code true} if published events are delivered somewhere.
+     */
+    public boolean isListening() {
+        return listening;
+    }
+
+    /**
+     * Publishes an event. Events published while no sink is attached, or once the bus is closed, are ignored.
+     *
+     * @param event The event to publish.
+     */
+    public void publish(BookingEvent event) {
+        if (!listening || closed) {
+            return;
+        }
+        long sequence = claimed.getAndIncrement();
+        if (sequence - consumed >= ring.length()) {
+            awaitSlot(sequence);
+        }
+        ring.set((int) (sequence & mask), event);
+        if (consumerWaiting) {
+            LockSupport.unpark(consumer);
+        }
+    }
+
+    /**
+     * Gets the number of times a publisher found the ring full and waited for the consumer.
+     *
+     * @return The number of waits.
+     */
+    public long getFullWaitCount() {
+        return fullWaits.get();
+    }
+
+    /**
+     * Waits for the consumer to free the slot of a sequence number: a few spins for a consumer that is
+     * just behind, then parking for a doubling time, so waiting publishers leave the CPU to the consumer.
+     */
+    private void awaitSlot(long sequence) {
+        fullWaits.incrementAndGet();
+        long backoff = 1_000;
+        for (int spins = 0; sequence - consumed >= ring.length(); spins++) {
+            LockSupport.unpark(consumer);
+            if (spins < FULL_SPINS) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(backoff);
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_NANOS);
+            }
+        }
+    }
+
+    /**
+     * Waits until every event published before this call has been handed to the sinks and flushed.
+     *
+     * @param timeout The longest time to wait.
+     * @return {@code true} if the events were drained, {@code false} if the timeout elapsed first.
+     */
+    public boolean awaitDrained(Duration timeout) {
+        long target = claimed.get();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (flushed < target) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            LockSupport.unpark(consumer);
+            LockSupport.parkNanos(100_000);
+        }
+        return true;
+    }
+
+    /**
+     * Closes the bus: events published from now on are ignored, the ones already published are handed to
+     * the sinks and flushed, then the consumer thread stops. Returns once it has stopped.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(consumer);
+        try {
+            consumer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void consumeLoop() {
+        long next = 0;
+        while (true) {
+            int index = (int) (next & mask);
+            BookingEvent event = ring.get(index);
+            if (event == null) {
+                if (flushed < next) {
+                    flushSinks();
+                    flushed = next;
+                }
+                // A publisher that claimed a slot before the close still gets its event delivered
+                if (closed && next == claimed.get()) {
+                    return;
+                }
+                consumerWaiting = true;
+                if (ring.get(index) == null) {
+                    LockSupport.parkNanos(1_000_000);
+                }
+                consumerWaiting = false;
+                continue;
+            }
+            ring.set(index, null);
+            next++;
+            consumed = next;
+            for (BookingEventSink sink : sinks) {
+                try {
+                    sink.onEvent(event);
+                } catch (RuntimeException e) {
+                    LOG.warn("Booking event sink failed on {}", event.getClass().getSimpleName(), e);
+                }
+            }
+        }
+    }
+
+    private void flushSinks() {
+        for (BookingEventSink sink : sinks) {
+            try {
+                sink.flush();
+            } catch (RuntimeException e) {
+                LOG.warn("Booking event sink failed to flush", e);
+            }
+        }
+    }
+}
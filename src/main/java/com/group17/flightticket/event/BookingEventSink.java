@@ -0,0 +1,21 @@
+package com.group17.flightticket.event;
+
+/**
+ * A consumer of booking events. Sinks are always called from the single consumer thread
+ * of a {@link BookingEventBus}, so they do not need to be thread-safe.
+ */
+public interface BookingEventSink {
+
+    /**
+     * Receives one event.
+     *
+     * @param event The published event.
+     */
+    void onEvent(BookingEvent event);
+
+    /**
+     * Called after every drained batch of events, e.g. to flush buffered output.
+     */
+    default void flush() {
+    }
+}
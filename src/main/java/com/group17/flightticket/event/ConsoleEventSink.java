@@ -0,0 +1,14 @@
+package com.group17.flightticket.event;
+
+/**
+ * Prints every event on the standard output.
+ */
+public class ConsoleEventSink implements BookingEventSink {
+
+    @Override
+    public void onEvent(BookingEvent event) {
+        if (event.isLogged()) {
+            System.out.println(event.format());
+        }
+    }
+}
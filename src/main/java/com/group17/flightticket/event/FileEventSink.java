@@ -0,0 +1,55 @@
+package com.group17.flightticket.event;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends every event as one line to a file. Lines are buffered and written once per drained batch.
+ */
+public class FileEventSink implements BookingEventSink, Closeable {
+    private final BufferedWriter writer;
+
+    /**
+     * Opens the file for appending, creating it if needed.
+     *
+     * @param file The file to write to.
+     * @throws IOException if the file cannot be opened.
+     */
+    public FileEventSink(Path file) throws IOException {
+        this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    @Override
+    public void onEvent(BookingEvent event) {
+        if (!event.isLogged()) {
+            return;
+        }
+        try {
+            writer.write(event.format());
+            writer.newLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void flush() {
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
@@ -0,0 +1,51 @@
+package com.group17.flightticket.event;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Keeps every event in memory, mainly for tests.
+ */
+public class InMemoryEventSink implements BookingEventSink {
+    private final Queue<BookingEvent> events = new ConcurrentLinkedQueue<>();
+
+    @Override
+    public void onEvent(BookingEvent event) {
+        events.add(event);
+    }
+
+    /**
+     * Gets all events received so far, in publishing order.
+     *
+     * @return A snapshot of the events.
+     */
+    public List<BookingEvent> getEvents() {
+        return new ArrayList<>(events);
+    }
+
+    /**
+     * Gets the events of one type received so far, in publishing order.
+     *
+     * @param type The event type.
+     * @param <T>  The event type.
+     * @return A snapshot of the matching events.
+     */
+    public <T extends BookingEvent> List<T> getEvents(Class<T> type) {
+        List<T> matching = new ArrayList<>();
+        for (BookingEvent event : events) {
+            if (type.isInstance(event)) {
+                matching.add(type.cast(event));
+            }
+        }
+        return matching;
+    }
+
+    /**
+     * Forgets all events received so far.
+     */
+    public void clear() {
+        events.clear();
+    }
+}
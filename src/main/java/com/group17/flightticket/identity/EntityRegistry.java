@@ -0,0 +1,111 @@
+package com.group17.flightticket.identity;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+/**
+ * The {@code EntityRegistry} class maps ids to the entities they identify.
+ * Registering an id again replaces the entity it points to.
+ * <p>
+ * Entities kept outside the registry, e.g. the flights of a memory-mapped schedule, are found through
+ * loaders: a lookup that misses asks each loader in turn, and a loader that creates the entity registers it.
+ *
+ * @param <K> The id type.
+ * @param <V> The entity type.
+ */
+public class EntityRegistry<K, V> {
+    private final Map<K, V> entities = new ConcurrentHashMap<>();
+    private final List<Function<? super K, ? extends V>> loaders = new CopyOnWriteArrayList<>();
+
+    /**
+     * Registers an entity under its id.
+     *
+     * @param id     The id of the entity.
+     * @param entity The entity.
+     */
+    public void register(K id, V entity) {
+        entities.put(id, entity);
+    }
+
+    /**
+     * Removes an entity, but only if the id still points to it.
+     *
+     * @param id     The id of the entity.
+     * @param entity The entity to remove.
+     * @return {@code true} if the entity was removed.
+     */
+    public boolean unregister(K id, V entity) {
+        return entities.remove(id, entity);
+    }
+
+    /**
+     * Looks up an entity by id, asking the loaders if none is registered under it.
+     *
+     * @param id The id to look up.
+     * @return The entity, or {@code null} if none is registered or can be loaded under the id.
+     */
+    public V get(K id) {
+        V entity = entities.get(id);
+        if (entity != null || loaders.isEmpty()) {
+            return entity;
+        }
+        for (Function<? super K, ? extends V> loader : loaders) {
+            entity = loader.apply(id);
+            if (entity != null) {
+                return entity;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Looks up a registered entity by id, without asking the loaders.
+     *
+     * @param id The id to look up.
+     * @return The entity, or {@code null} if none is registered under the id.
+     */
+    public V getIfPresent(K id) {
+        return entities.get(id);
+    }
+
+    /**
+     * Adds a loader asked for the entities not registered yet.
+     *
+     * @param loader Finds or creates the entity of an id, or returns {@code null} if it has none.
+     */
+    public void addLoader(Function<? super K, ? extends V> loader) {
+        loaders.add(loader);
+    }
+
+    /**
+     * Removes a loader.
+     *
+     * @param loader The loader to remove.
+     */
+    public void removeLoader(Function<? super K, ? extends V> loader) {
+        loaders.remove(loader);
+    }
+
+    /**
+     * Gets all registered entities. Entities a loader has not created yet are not part of them.
+     *
+     * @return An unmodifiable live view of the entities.
+     */
+    public Collection<V> values() {
+        return Collections.unmodifiableCollection(entities.values());
+    }
+
+    /**
+     * Gets the number of registered entities.
+     *
+     * @return The registry size.
+     */
+    public int size() {
+        return entities.size();
+    }
+}
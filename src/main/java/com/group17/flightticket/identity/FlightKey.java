@@ -0,0 +1,94 @@
+package com.group17.flightticket.identity;
+
+import java.time.LocalDate;
+
+/**
+ * The {@code FlightKey} class identifies one operated flight: the airline, the flight number
+ * and the scheduled departure date. Keys compare by value and are not interned, so a key no flight
+ * holds any more can be collected. The hash code is computed once.
+ */
+public final class FlightKey {
+    private final String airline;
+    private final String flightNumber;
+    private final LocalDate departureDate;
+    private final int hash;
+
+    private FlightKey(String airline, String flightNumber, LocalDate departureDate) {
+        this.airline = airline;
+        this.flightNumber = flightNumber;
+        this.departureDate = departureDate;
+        this.hash = 31 * (31 * airline.hashCode() + flightNumber.hashCode()) + departureDate.hashCode();
+    }
+
+    /**
+     * Gets the key of a flight.
+     *
+     * @param airline       The name of the operating airline.
+     * @param flightNumber  The flight number.
+     * @param departureDate The scheduled departure date.
+     * @return The key for these values.
+     */
+    public static FlightKey of(String airline, String flightNumber, LocalDate departureDate) {
+        return new FlightKey(airline, flightNumber, departureDate);
+    }
+
+    /**
+     * Parses a key written by {@link #toString()}.
+     *
+     * @param text The key text, "airline/flightNumber/yyyy-MM-dd".
+     * @return The key.
+     * @throws IllegalArgumentException if the text is not a flight key.
+     */
+    public static FlightKey parse(String text) {
+        int dateSeparator = text.lastIndexOf('/');
+        int numberSeparator = dateSeparator > 0 ? text.lastIndexOf('/', dateSeparator - 1) : -1;
+        if (numberSeparator < 0) {
+            throw new IllegalArgumentException("Invalid flight key: " + text);
+        }
+        return of(text.substring(0, numberSeparator), text.substring(numberSeparator + 1, dateSeparator),
+                LocalDate.parse(text.substring(dateSeparator + 1)));
+    }
+
+    /**
+     * @return The name of the operating airline.
+     */
+    public String getAirline() {
+        return airline;
+    }
+
+    /**
+     * @return The flight number.
+     */
+    public String getFlightNumber() {
+        return flightNumber;
+    }
+
+    /**
+     * @return The scheduled departure date.
+     */
+    public LocalDate getDepartureDate() {
+        return departureDate;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof FlightKey other)) {
+            return false;
+        }
+        return hash == other.hash && airline.equals(other.airline)
+                && flightNumber.equals(other.flightNumber) && departureDate.equals(other.departureDate);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return airline + "/" + flightNumber + "/" + departureDate;
+    }
+}
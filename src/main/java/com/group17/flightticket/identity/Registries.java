@@ -0,0 +1,56 @@
+package com.group17.flightticket.identity;
+
+import com.group17.flightticket.entity.AirlineCompany;
+import com.group17.flightticket.entity.Flight;
+import com.group17.flightticket.entity.Passenger;
+import com.group17.flightticket.entity.Terminal;
+
+/**
+ * The {@code Registries} class holds the global registries that map ids to entities.
+ * Entities register themselves when they are constructed.
+ */
+public final class Registries {
+    private static final EntityRegistry<FlightKey, Flight> FLIGHTS = new EntityRegistry<>();
+    private static final EntityRegistry<String, Terminal> TERMINALS = new EntityRegistry<>();
+    private static final EntityRegistry<Long, Passenger> PASSENGERS = new EntityRegistry<>();
+    private static final EntityRegistry<String, AirlineCompany> AIRLINES = new EntityRegistry<>();
+
+    private Registries() {
+    }
+
+    /**
+     * Gets the registry of flights by flight key.
+     *
+     * @return The flight registry.
+     */
+    public static EntityRegistry<FlightKey, Flight> flights() {
+        return FLIGHTS;
+    }
+
+    /**
+     * Gets the registry of terminals by terminal code.
+     *
+     * @return The terminal registry.
+     */
+    public static EntityRegistry<String, Terminal> terminals() {
+        return TERMINALS;
+    }
+
+    /**
+     * Gets the registry of passengers by passenger id.
+     *
+     * @return The passenger registry.
+     */
+    public static EntityRegistry<Long, Passenger> passengers() {
+        return PASSENGERS;
+    }
+
+    /**
+     * Gets the registry of airline companies by company name.
+     *
+     * @return The airline registry.
+     */
+    public static EntityRegistry<String, AirlineCompany> airlines() {
+        return AIRLINES;
+    }
+}
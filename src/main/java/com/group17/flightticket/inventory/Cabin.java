@@ -0,0 +1,280 @@
+package com.group17.flightticket.inventory;
+
+import com.group17.flightticket.enums.SeatCategory;
+
+/**
+ * The {@code Cabin} class describes one block of rows of an aircraft that share a seat category
+ * and a row pattern such as {@code "ABC DEF"}, where letters are seats and spaces are aisles.
+ * A cabin without a category is shared by every category that has no cabin of its own.
+ * <p>
+ * Cabins are immutable and shared by every flight that uses them. Besides the pattern, a cabin
+ * keeps the bit masks a {@link SeatMap} needs to search its occupancy words: every row takes
+ * {@code width} consecutive bits, as many whole rows as fit are packed in each 64-bit word, and
+ * each mask repeats the pattern of one row for every row of a word.
+ */
+public final class Cabin {
+    private final SeatCategory category;
+    private final int firstRow;
+    private final int rows;
+    private final int seatCount;
+    private final String rowPattern;
+    /** The seat letters of a row, without the aisles */
+    private final char[] letters;
+    private final int rowsPerWord;
+    private final int wordCount;
+    private final long fullWordMask;
+    private final long lastWordMask;
+    private final long windowMask;
+    private final long aisleMask;
+    /** For every run length, the bits where that many seats of one block start, indexed by length */
+    private final long[] runStarts;
+
+    /**
+     * Constructs a cabin where every row has all the seats of the pattern.
+     *
+     * @param category   The seat category sold in the cabin, or {@code null} for a cabin shared by all categories.
+     * @param firstRow   The number of the first row of the cabin.
+     * @param rows       The number of rows of the cabin.
+     * @param rowPattern The seat letters of a row, with a space for every aisle, e.g. {@code "AC DF"}.
+     * @throws IllegalArgumentException if the rows or the pattern are not valid.
+     */
+    public Cabin(SeatCategory category, int firstRow, int rows, String rowPattern) {
+        this(category, firstRow, rows, rowPattern, -1);
+    }
+
+    /**
+     * Constructs a cabin whose last row may be partly missing.
+     *
+     * @param seatCount The number of seats of the cabin, or {@code -1} for full rows.
+     */
+    Cabin(SeatCategory category, int firstRow, int rows, String rowPattern, int seatCount) {
+        if (firstRow <= 0 || rows <= 0) {
+            throw new IllegalArgumentException("Cabin rows must be positive: " + firstRow + "+" + rows);
+        }
+        if (rowPattern == null || rowPattern.isBlank() || rowPattern.startsWith(" ") || rowPattern.endsWith(" ")
+                || rowPattern.contains("  ")) {
+            throw new IllegalArgumentException("Invalid row pattern: '" + rowPattern + "'");
+        }
+        String seats = rowPattern.replace(" ", "");
+        if (seats.length() > Long.SIZE || seats.chars().distinct().count() != seats.length()) {
+            throw new IllegalArgumentException("Invalid row pattern: '" + rowPattern + "'");
+        }
+        this.category = category;
+        this.firstRow = firstRow;
+        this.rows = rows;
+        this.rowPattern = rowPattern;
+        this.letters = seats.toCharArray();
+        int width = letters.length;
+        this.seatCount = seatCount < 0 ? rows * width : seatCount;
+        if (this.seatCount <= (rows - 1) * width || this.seatCount > rows * width) {
+            throw new IllegalArgumentException("Seat count " + seatCount + " does not fill " + rows + " rows");
+        }
+        this.rowsPerWord = Long.SIZE / width;
+        this.wordCount = (rows + rowsPerWord - 1) / rowsPerWord;
+
+        // Describe one row, then repeat it for every row of a word
+        int[] block = new int[width];
+        long window = 0;
+        long aisle = 0;
+        int column = 0;
+        for (int i = 0; i < rowPattern.length(); i++) {
+            if (rowPattern.charAt(i) == ' ') {
+                continue;
+            }
+            block[column] = rowPattern.lastIndexOf(' ', i) + 1;
+            if (column == 0 || column == width - 1) {
+                window |= 1L << column;
+            }
+            if ((i > 0 && rowPattern.charAt(i - 1) == ' ')
+                    || (i + 1 < rowPattern.length() && rowPattern.charAt(i + 1) == ' ')) {
+                aisle |= 1L << column;
+            }
+            column++;
+        }
+        this.fullWordMask = repeat(runMask(width));
+        this.windowMask = repeat(window);
+        this.aisleMask = repeat(aisle);
+        this.runStarts = new long[width + 1];
+        for (int length = 1; length <= width; length++) {
+            long starts = 0;
+            for (int start = 0; start + length <= width; start++) {
+                if (block[start] == block[start + length - 1]) {
+                    starts |= 1L << start;
+                }
+            }
+            runStarts[length] = repeat(starts);
+        }
+        int lastWordSeats = this.seatCount - (wordCount - 1) * rowsPerWord * width;
+        this.lastWordMask = fullWordMask & runMask(lastWordSeats);
+    }
+
+    /**
+     * Gets the seat category sold in the cabin.
+     *
+     * @return The category, or {@code null} if the cabin is shared by all categories.
+     */
+    public SeatCategory getCategory() {
+        return category;
+    }
+
+    /**
+     * Checks if the cabin is shared by every category that has no cabin of its own.
+     *
+     * @return {@code true} if the cabin has no category.
+     */
+    public boolean isShared() {
+        return category == null;
+    }
+
+    /**
+     * Gets the number of the first row of the cabin.
+     *
+     * @return The first row number.
+     */
+    public int getFirstRow() {
+        return firstRow;
+    }
+
+    /**
+     * Gets the number of the last row of the cabin.
+     *
+     * @return The last row number.
+     */
+    public int getLastRow() {
+        return firstRow + rows - 1;
+    }
+
+    /**
+     * Gets the number of rows of the cabin.
+     *
+     * @return The row count.
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Gets the number of seats of the cabin.
+     *
+     * @return The seat count.
+     */
+    public int getSeatCount() {
+        return seatCount;
+    }
+
+    /**
+     * Gets the seat letters of a row, with a space for every aisle.
+     *
+     * @return The row pattern.
+     */
+    public String getRowPattern() {
+        return rowPattern;
+    }
+
+    /**
+     * Gets the number of seats in a row, without the aisles.
+     *
+     * @return The row width.
+     */
+    public int getWidth() {
+        return letters.length;
+    }
+
+    /**
+     * Gets the widest number of seats side by side with no aisle between them.
+     *
+     * @return The size of the widest block of the row.
+     */
+    public int getWidestBlock() {
+        int widest = letters.length;
+        while (runStarts[widest] == 0) {
+            widest--;
+        }
+        return widest;
+    }
+
+    int getRowsPerWord() {
+        return rowsPerWord;
+    }
+
+    int getWordCount() {
+        return wordCount;
+    }
+
+    /**
+     * Gets the bits of the seats that exist in one occupancy word of the cabin.
+     *
+     * @param word The index of the word within the cabin.
+     * @return The mask of the seats of the word.
+     */
+    long validMask(int word) {
+        return word == wordCount - 1 ? lastWordMask : fullWordMask;
+    }
+
+    /**
+     * Gets the bits of the seats a preference asks for.
+     *
+     * @param preference The seat preference.
+     * @return The mask of the preferred seats of a word.
+     */
+    long preferenceMask(SeatPreference preference) {
+        return switch (preference) {
+            case ANY -> fullWordMask;
+            case WINDOW -> windowMask;
+            case AISLE -> aisleMask;
+        };
+    }
+
+    /**
+     * Gets the bits where a run of seats side by side in one block can start.
+     *
+     * @param length The number of seats of the run.
+     * @return The mask of the run starts of a word, {@code 0} if no block is that wide.
+     */
+    long runStarts(int length) {
+        return length < runStarts.length ? runStarts[length] : 0;
+    }
+
+    /**
+     * Finds the column of a seat letter.
+     *
+     * @param letter The seat letter.
+     * @return The column of the letter in a row, or {@code -1} if the row has no such seat.
+     */
+    int columnOf(char letter) {
+        for (int column = 0; column < letters.length; column++) {
+            if (letters[column] == letter) {
+                return column;
+            }
+        }
+        return -1;
+    }
+
+    char letterAt(int column) {
+        return letters[column];
+    }
+
+    /**
+     * Gets the mask of {@code length} low bits.
+     *
+     * @param length The number of bits, from 0 to 64.
+     * @return The mask.
+     */
+    static long runMask(int length) {
+        return length == Long.SIZE ? -1L : (1L << length) - 1;
+    }
+
+    private long repeat(long rowBits) {
+        long word = 0;
+        for (int row = 0; row < rowsPerWord; row++) {
+            word |= rowBits << (row * letters.length);
+        }
+        return word;
+    }
+
+    @Override
+    public String toString() {
+        return "Cabin{" + (category == null ? "shared" : category.name()) + ", rows " + firstRow + "-" + getLastRow()
+                + ", '" + rowPattern + "'}";
+    }
+}
@@ -0,0 +1,189 @@
+package com.group17.flightticket.inventory;
+
+import com.group17.flightticket.enums.SeatCategory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The {@code CabinLayout} class describes the seats of an aircraft as a list of {@link Cabin}s.
+ * A layout is immutable, so one instance is shared by every flight flown with the same configuration.
+ * <p>
+ * A flight created with only a capacity gets a {@link #uniform(int)} layout: one shared cabin of
+ * six-abreast rows, so every category keeps sharing the whole capacity as before.
+ */
+public final class CabinLayout {
+    /** The row pattern of the layout used when a flight only has a capacity */
+    public static final String UNIFORM_ROW_PATTERN = "ABC DEF";
+
+    private static final SeatCategory[] CATEGORIES = SeatCategory.values();
+    /** Uniform layouts by seat count, since most flights share a handful of capacities */
+    private static final Map<Integer, CabinLayout> UNIFORM_LAYOUTS = new ConcurrentHashMap<>();
+
+    private final List<Cabin> cabins;
+    private final boolean uniform;
+    private final int seatCount;
+    /** The cabin index of every category, indexed by ordinal, {@code -1} if the category has no seat */
+    private final int[] cabinByCategory;
+    /** The first occupancy word of every cabin, with the total word count at the end */
+    private final int[] wordOffsets;
+
+    private CabinLayout(List<Cabin> cabins, boolean uniform) {
+        this.cabins = List.copyOf(cabins);
+        this.uniform = uniform;
+        this.cabinByCategory = new int[CATEGORIES.length];
+        Arrays.fill(cabinByCategory, -1);
+        this.wordOffsets = new int[cabins.size() + 1];
+        int shared = -1;
+        int seats = 0;
+        for (int i = 0; i < this.cabins.size(); i++) {
+            Cabin cabin = this.cabins.get(i);
+            if (i > 0 && cabin.getFirstRow() <= this.cabins.get(i - 1).getLastRow()) {
+                throw new IllegalArgumentException("Cabins overlap: " + this.cabins.get(i - 1) + " and " + cabin);
+            }
+            if (cabin.isShared()) {
+                if (shared >= 0) {
+                    throw new IllegalArgumentException("Only one cabin can be shared: " + cabin);
+                }
+                shared = i;
+            } else {
+                if (cabinByCategory[cabin.getCategory().ordinal()] >= 0) {
+                    throw new IllegalArgumentException("Two cabins sell " + cabin.getCategory());
+                }
+                cabinByCategory[cabin.getCategory().ordinal()] = i;
+            }
+            seats += cabin.getSeatCount();
+            wordOffsets[i + 1] = wordOffsets[i] + cabin.getWordCount();
+        }
+        if (shared >= 0) {
+            for (int i = 0; i < cabinByCategory.length; i++) {
+                if (cabinByCategory[i] < 0) {
+                    cabinByCategory[i] = shared;
+                }
+            }
+        }
+        this.seatCount = seats;
+    }
+
+    /**
+     * Creates a layout from its cabins, in any order.
+     *
+     * @param cabins The cabins of the aircraft.
+     * @return The layout.
+     * @throws IllegalArgumentException if cabins overlap, or if two cabins sell the same category or are both shared.
+     */
+    public static CabinLayout of(Cabin... cabins) {
+        List<Cabin> sorted = new ArrayList<>(Arrays.asList(cabins));
+        sorted.sort(Comparator.comparingInt(Cabin::getFirstRow));
+        return new CabinLayout(sorted, false);
+    }
+
+    /**
+     * Gets the layout of a flight that only has a capacity: a single cabin of
+     * {@value #UNIFORM_ROW_PATTERN} rows shared by every category, whose last row may be partly missing.
+     *
+     * @param seatCount The number of seats of the flight.
+     * @return The shared uniform layout with that many seats.
+     */
+    public static CabinLayout uniform(int seatCount) {
+        if (seatCount < 0) {
+            throw new IllegalArgumentException("Seat count must not be negative: " + seatCount);
+        }
+        return UNIFORM_LAYOUTS.computeIfAbsent(seatCount, count -> {
+            if (count == 0) {
+                return new CabinLayout(List.of(), true);
+            }
+            int width = UNIFORM_ROW_PATTERN.replace(" ", "").length();
+            return new CabinLayout(List.of(new Cabin(null, 1, (count + width - 1) / width, UNIFORM_ROW_PATTERN, count)), true);
+        });
+    }
+
+    /**
+     * Gets the cabins of the layout, front to back.
+     *
+     * @return The cabins.
+     */
+    public List<Cabin> getCabins() {
+        return cabins;
+    }
+
+    /**
+     * Gets the cabin where a category is seated.
+     *
+     * @param category The seat category.
+     * @return The cabin of the category, the shared cabin, or {@code null} if the category is not sold.
+     */
+    public Cabin getCabin(SeatCategory category) {
+        int index = cabinByCategory[category.ordinal()];
+        return index < 0 ? null : cabins.get(index);
+    }
+
+    /**
+     * Gets the number of seats of the layout.
+     *
+     * @return The seat count.
+     */
+    public int getSeatCount() {
+        return seatCount;
+    }
+
+    /**
+     * Checks if this is a {@link #uniform(int)} layout, which follows changes of the flight's capacity.
+     *
+     * @return {@code true} for a uniform layout.
+     */
+    public boolean isUniform() {
+        return uniform;
+    }
+
+    int cabinIndex(SeatCategory category) {
+        return cabinByCategory[category.ordinal()];
+    }
+
+    int wordOffset(int cabinIndex) {
+        return wordOffsets[cabinIndex];
+    }
+
+    int getWordCount() {
+        return wordOffsets[cabins.size()];
+    }
+
+    /**
+     * Finds the cabin an occupancy word belongs to.
+     *
+     * @param word The index of the word in the whole seat map.
+     * @return The index of the cabin.
+     */
+    int cabinIndexOfWord(int word) {
+        int index = 0;
+        while (word >= wordOffsets[index + 1]) {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * Finds the cabin of a row.
+     *
+     * @param row The row number.
+     * @return The index of the cabin, or {@code -1} if no cabin has that row.
+     */
+    int cabinIndexOfRow(int row) {
+        for (int i = 0; i < cabins.size(); i++) {
+            Cabin cabin = cabins.get(i);
+            if (row >= cabin.getFirstRow() && row <= cabin.getLastRow()) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public String toString() {
+        return "CabinLayout" + cabins;
+    }
+}
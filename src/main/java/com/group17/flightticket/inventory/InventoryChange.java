@@ -0,0 +1,105 @@
+package com.group17.flightticket.inventory;
+
+import com.group17.flightticket.enums.SeatCategory;
+
+/**
+ * One change of the counters of a {@link SeatInventory}, as signed differences, so a listener can add it
+ * to totals of its own without reading the counters back. Changes add up: the sum of every change an
+ * inventory reported is what {@link SeatInventory#asChange()} reports from scratch.
+ * <p>
+ * Remaining seats are counted here without the floor at zero of {@link SeatInventory#getRemainSeatCount()},
+ * so a flight whose capacity was cut below its taken seats counts the shortfall, and the differences
+ * still add up. A category limited to its own cabin counts the seats left in it; a category sharing the
+ * capacity counts the seats left on the flight.
+ */
+public final class InventoryChange {
+    private static final SeatCategory[] CATEGORIES = SeatCategory.values();
+
+    private final int capacity;
+    private final int remaining;
+    private final int[] remainingByCategory;
+
+    InventoryChange(int capacity, int remaining, int[] remainingByCategory) {
+        this.capacity = capacity;
+        this.remaining = remaining;
+        this.remainingByCategory = remainingByCategory;
+    }
+
+    /**
+     * Describes seats taken or given back in one category.
+     *
+     * @param limits   The seat limit of every category, indexed by ordinal.
+     * @param category The category of the seats.
+     * @param seats    The number of seats taken, negative when they were given back.
+     * @return The change.
+     */
+    static InventoryChange ofSeats(int[] limits, SeatCategory category, int seats) {
+        int[] byCategory = new int[CATEGORIES.length];
+        for (int i = 0; i < byCategory.length; i++) {
+            if (limits[i] == SeatInventory.UNLIMITED || i == category.ordinal()) {
+                byCategory[i] = -seats;
+            }
+        }
+        return new InventoryChange(0, -seats, byCategory);
+    }
+
+    /**
+     * Describes a change of the number of seats that can be sold, with no seat taken or given back.
+     *
+     * @param limits   The seat limit of every category, indexed by ordinal.
+     * @param capacity The change of the capacity.
+     * @param sellable The change of the capacity plus the overbooking allowance.
+     * @return The change.
+     */
+    static InventoryChange ofSellable(int[] limits, int capacity, int sellable) {
+        int[] byCategory = new int[CATEGORIES.length];
+        for (int i = 0; i < byCategory.length; i++) {
+            if (limits[i] == SeatInventory.UNLIMITED) {
+                byCategory[i] = sellable;
+            }
+        }
+        return new InventoryChange(capacity, sellable, byCategory);
+    }
+
+    /**
+     * Gets the change of the capacity.
+     *
+     * @return The signed change.
+     */
+    public int getCapacityChange() {
+        return capacity;
+    }
+
+    /**
+     * Gets the change of the seats left on the flight.
+     *
+     * @return The signed change, negative when seats were taken.
+     */
+    public int getRemainingChange() {
+        return remaining;
+    }
+
+    /**
+     * Gets the change of the seats left in one category.
+     *
+     * @param category The seat category.
+     * @return The signed change, negative when seats were taken.
+     */
+    public int getRemainingChange(SeatCategory category) {
+        return remainingByCategory[category.ordinal()];
+    }
+
+    /**
+     * Gets the change between two states of an inventory.
+     *
+     * @param before The earlier state, as reported by {@link SeatInventory#asChange()}.
+     * @return This change minus the earlier one.
+     */
+    InventoryChange since(InventoryChange before) {
+        int[] byCategory = new int[CATEGORIES.length];
+        for (int i = 0; i < byCategory.length; i++) {
+            byCategory[i] = remainingByCategory[i] - before.remainingByCategory[i];
+        }
+        return new InventoryChange(capacity - before.capacity, remaining - before.remaining, byCategory);
+    }
+}
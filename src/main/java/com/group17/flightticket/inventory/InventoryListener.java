@@ -0,0 +1,18 @@
+package com.group17.flightticket.inventory;
+
+/**
+ * Observes the counters of a {@link SeatInventory}. The inventory calls its listener on the thread that
+ * changed a counter, right after the change, so a listener must be short and must not block.
+ */
+public interface InventoryListener {
+
+    /**
+     * Called after seats were taken or given back, or the capacity or layout changed.
+     * Concurrent changes are reported in no particular order, but each one exactly once, so a listener
+     * keeping totals adds the change to them rather than reading the counters back.
+     *
+     * @param inventory The inventory that changed.
+     * @param change    The signed differences of the counters.
+     */
+    void onInventoryChanged(SeatInventory inventory, InventoryChange change);
+}
@@ -0,0 +1,49 @@
+package com.group17.flightticket.inventory;
+
+/**
+ * A physical seat of a flight, identified by its row number and seat letter, e.g. {@code 12A}.
+ *
+ * @param row    The row number, starting at 1.
+ * @param letter The seat letter within the row.
+ */
+public record Seat(int row, char letter) {
+
+    /**
+     * Constructs a seat, checking the row number.
+     *
+     * @throws IllegalArgumentException if the row number is not positive.
+     */
+    public Seat {
+        if (row <= 0) {
+            throw new IllegalArgumentException("Row number must be positive: " + row);
+        }
+    }
+
+    /**
+     * Parses a seat label such as {@code 12A}.
+     *
+     * @param label The row number followed by the seat letter.
+     * @return The seat.
+     * @throws IllegalArgumentException if the label is not a row number followed by one letter.
+     */
+    public static Seat parse(String label) {
+        if (label == null || label.length() < 2) {
+            throw new IllegalArgumentException("Invalid seat label: " + label);
+        }
+        try {
+            return new Seat(Integer.parseInt(label.substring(0, label.length() - 1)), label.charAt(label.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid seat label: " + label, e);
+        }
+    }
+
+    /**
+     * Formats the seat as its label, e.g. {@code 12A}.
+     *
+     * @return The seat label.
+     */
+    @Override
+    public String toString() {
+        return row + String.valueOf(letter);
+    }
+}
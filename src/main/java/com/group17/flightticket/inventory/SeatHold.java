@@ -0,0 +1,148 @@
+package com.group17.flightticket.inventory;
+
+import com.group17.flightticket.enums.SeatCategory;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The {@code SeatHold} class represents one seat taken from a {@link SeatInventory},
+ * together with the physical {@link Seat} assigned to it.
+ * A hold starts as held, becomes confirmed once the booking is complete,
+ * and is released when the booking fails or is canceled.
+ * Every state change is a compare-and-set, so a hold is released at most once
+ * even when several threads try to release it.
+ */
+public final class SeatHold {
+    private static final int HELD = 0;
+    private static final int CONFIRMED = 1;
+    private static final int RELEASED = 2;
+
+    private final SeatInventory inventory;
+    private final AtomicInteger state = new AtomicInteger(HELD);
+    private volatile SeatCategory category;
+    /** The slot of the seat in the flight's {@link SeatMap} */
+    private volatile int slot;
+
+    /**
+     * Constructs a hold on a seat that has already been taken from the inventory.
+     *
+     * @param inventory The inventory the seat was taken from.
+     * @param category  The category of the seat.
+     * @param slot      The slot of the seat in the seat map.
+     */
+    SeatHold(SeatInventory inventory, SeatCategory category, int slot) {
+        this.inventory = inventory;
+        this.category = category;
+        this.slot = slot;
+    }
+
+    /**
+     * Confirms the hold once the booking is complete.
+     *
+     * @return {@code true} if the hold was confirmed, {@code false} if it was already confirmed or released.
+     */
+    public boolean confirm() {
+        return state.compareAndSet(HELD, CONFIRMED);
+    }
+
+    /**
+     * Releases the hold and gives the seat back to the inventory.
+     *
+     * @return {@code true} if the seat was given back, {@code false} if the hold was already released.
+     */
+    public boolean release() {
+        int current;
+        do {
+            current = state.get();
+            if (current == RELEASED) {
+                return false;
+            }
+        } while (!state.compareAndSet(current, RELEASED));
+        // Synchronized with changeCategory and changeSeat so the seat is returned to the category and seat it is in
+        synchronized (this) {
+            inventory.returnSeat(category, slot);
+        }
+        return true;
+    }
+
+    /**
+     * Moves the held seat to another category, and to a seat of that category's cabin if it is seated elsewhere.
+     *
+     * @param newCategory The new category of the seat.
+     * @return {@code true} if the seat was moved, {@code false} if the hold is released or the new category is full.
+     */
+    public synchronized boolean changeCategory(SeatCategory newCategory) {
+        if (state.get() == RELEASED) {
+            return false;
+        }
+        if (newCategory == category) {
+            return true;
+        }
+        int newSlot = inventory.moveSeat(category, newCategory, slot);
+        if (newSlot == SeatMap.NO_SEAT) {
+            return false;
+        }
+        slot = newSlot;
+        category = newCategory;
+        return true;
+    }
+
+    /**
+     * Moves the hold to another free seat of the same cabin, or seats a hold sold by overbooking.
+     *
+     * @param seat The seat wanted.
+     * @return {@code true} if the hold now has that seat, {@code false} if the hold is released, or the seat
+     * is taken or not in the cabin of the hold's category.
+     */
+    public synchronized boolean changeSeat(Seat seat) {
+        if (state.get() == RELEASED) {
+            return false;
+        }
+        if (seat.equals(getSeat())) {
+            return true;
+        }
+        int newSlot = inventory.changeSeat(category, slot, seat);
+        if (newSlot == SeatMap.NO_SEAT) {
+            return false;
+        }
+        slot = newSlot;
+        return true;
+    }
+
+    /**
+     * Gets the seat assigned to the hold.
+     *
+     * @return The seat, or {@code null} if the hold was sold by overbooking and is not seated yet.
+     */
+    public Seat getSeat() {
+        int current = slot;
+        return current == SeatMap.NO_SEAT ? null : inventory.getSeatMap().seatAt(current);
+    }
+
+    /**
+     * Gets the current category of the held seat.
+     *
+     * @return The seat category.
+     */
+    public SeatCategory getCategory() {
+        return category;
+    }
+
+    /**
+     * Checks if the hold has been confirmed and not released since.
+     *
+     * @return {@code true} if the hold is confirmed.
+     */
+    public boolean isConfirmed() {
+        return state.get() == CONFIRMED;
+    }
+
+    /**
+     * Checks if the hold has been released.
+     *
+     * @return {@code true} if the seat was given back to the inventory.
+     */
+    public boolean isReleased() {
+        return state.get() == RELEASED;
+    }
+}
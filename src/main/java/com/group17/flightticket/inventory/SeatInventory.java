@@ -0,0 +1,479 @@
+package com.group17.flightticket.inventory;
+
+import com.group17.flightticket.enums.SeatCategory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The {@code SeatInventory} class keeps the seat counters of a single flight.
+ * Seats are counted in total and per {@link SeatCategory}, and every counter is
+ * updated with a compare-and-set loop, so concurrent bookings never oversell the
+ * flight and never wait on a lock.
+ * <p>
+ * A booking first takes a {@link SeatHold}, which already counts against the capacity.
+ * The hold is then either confirmed, once the booking has been paid, or released,
+ * which gives the seat back to the inventory.
+ * <p>
+ * Every hold is also given a physical {@link Seat} from the flight's {@link SeatMap}, right after
+ * the counters. A flight created with only a capacity has a {@link CabinLayout#uniform(int) uniform}
+ * layout where every category shares one cabin. A flight with its own layout sells each category
+ * only in its cabin, so the category limits follow the cabin sizes.
+ * <p>
+ * A flight may be overbooked: up to {@link #setOverbooking(int) a number of extra seats} can be sold
+ * on top of the capacity. Holds sold once the seat map is full get no seat; they are seated later with
+ * {@link SeatHold#changeSeat(Seat)}, e.g. when a seated passenger cancels or fails to show up.
+ */
+public class SeatInventory {
+    /** Limit used for a category that only shares the overall capacity of the flight */
+    public static final int UNLIMITED = Integer.MAX_VALUE;
+
+    private static final SeatCategory[] CATEGORIES = SeatCategory.values();
+
+    /** The number of seats that can be sold on the flight */
+    private volatile int capacity;
+    /** The number of seats that can be sold on top of the capacity */
+    private volatile int overbooking;
+    /** The number of seats currently held or confirmed */
+    private final AtomicInteger seatsTaken = new AtomicInteger();
+    /** The seat limit of every category, indexed by ordinal */
+    private final int[] categoryLimits = new int[CATEGORIES.length];
+    /** The number of seats held or confirmed in every category, indexed by ordinal */
+    private final AtomicIntegerArray categoryTaken = new AtomicIntegerArray(CATEGORIES.length);
+    /** Which seats are taken, only replaced while no seat is taken */
+    private volatile SeatMap seatMap;
+    /** Told about every change of the counters, replaced as a whole when one is added or removed */
+    private volatile InventoryListener[] listeners = new InventoryListener[0];
+    /** The compare-and-sets of the total counter lost to a concurrent hold or release */
+    private final LongAdder contention = new LongAdder();
+
+    /**
+     * Constructs an inventory where all categories share the given capacity.
+     *
+     * @param capacity The total number of seats available on the flight.
+     */
+    public SeatInventory(int capacity) {
+        this.capacity = capacity;
+        Arrays.fill(categoryLimits, UNLIMITED);
+        this.seatMap = new SeatMap(CabinLayout.uniform(capacity));
+    }
+
+    /**
+     * Seats the flight in another layout. The capacity becomes the number of seats of the layout,
+     * and every category can only be sold up to the size of its cabin.
+     *
+     * @param layout The new cabin layout.
+     * @throws IllegalStateException if seats have already been taken.
+     */
+    public synchronized void setCabinLayout(CabinLayout layout) {
+        if (seatsTaken.get() != 0) {
+            throw new IllegalStateException("The cabin layout cannot change once seats are taken");
+        }
+        InventoryChange before = asChange();
+        for (SeatCategory category : CATEGORIES) {
+            Cabin cabin = layout.getCabin(category);
+            categoryLimits[category.ordinal()] = cabin == null ? 0 : cabin.isShared() ? UNLIMITED : cabin.getSeatCount();
+        }
+        seatMap = new SeatMap(layout);
+        capacity = layout.getSeatCount();
+        changed(asChange().since(before));
+    }
+
+    /**
+     * Adds a listener told about every change of the counters.
+     *
+     * @param listener The listener to add.
+     */
+    public synchronized void addListener(InventoryListener listener) {
+        InventoryListener[] current = listeners;
+        InventoryListener[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = listener;
+        listeners = updated;
+    }
+
+    /**
+     * Removes a listener added with {@link #addListener}.
+     *
+     * @param listener The listener to remove.
+     */
+    public synchronized void removeListener(InventoryListener listener) {
+        InventoryListener[] current = listeners;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == listener) {
+                InventoryListener[] updated = new InventoryListener[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                listeners = updated;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Gets the seat map of the flight.
+     *
+     * @return The seat map.
+     */
+    public SeatMap getSeatMap() {
+        return seatMap;
+    }
+
+    /**
+     * Limits the number of seats that can be sold in one category.
+     * Use {@link #UNLIMITED} to let the category share the whole capacity again.
+     * Limits are meant to be set before the flight sells seats.
+     *
+     * @param category The seat category to limit.
+     * @param limit    The maximum number of seats in the category.
+     */
+    public synchronized void setCategoryLimit(SeatCategory category, int limit) {
+        InventoryChange before = asChange();
+        categoryLimits[category.ordinal()] = limit;
+        changed(asChange().since(before));
+    }
+
+    /**
+     * Changes the number of seats that can be sold on the flight.
+     * Seats that are already taken stay taken even if the new capacity is lower.
+     * A uniform layout is resized with the capacity while no seat is taken; after that, or with a
+     * layout of its own, the flight never sells more seats than its layout has.
+     *
+     * @param capacity The new total number of seats.
+     */
+    public synchronized void setCapacity(int capacity) {
+        int change = capacity - this.capacity;
+        this.capacity = capacity;
+        if (seatMap.getLayout().isUniform() && seatsTaken.get() == 0) {
+            seatMap = new SeatMap(CabinLayout.uniform(capacity));
+        }
+        if (listeners.length > 0) {
+            changed(InventoryChange.ofSellable(categoryLimits, change, change));
+        }
+    }
+
+    /**
+     * Lets the flight sell seats on top of its capacity, for the passengers expected not to show up.
+     * Overbooking only applies to categories that share the capacity of the flight.
+     *
+     * @param extraSeats The number of seats that can be sold beyond the capacity, {@code 0} to stop overbooking.
+     */
+    public synchronized void setOverbooking(int extraSeats) {
+        if (extraSeats < 0) {
+            throw new IllegalArgumentException("Overbooking must not be negative: " + extraSeats);
+        }
+        int change = extraSeats - overbooking;
+        this.overbooking = extraSeats;
+        if (listeners.length > 0) {
+            changed(InventoryChange.ofSellable(categoryLimits, 0, change));
+        }
+    }
+
+    /**
+     * Gets the number of seats that can be sold on top of the capacity.
+     *
+     * @return The overbooking allowance.
+     */
+    public int getOverbooking() {
+        return overbooking;
+    }
+
+    /**
+     * Tries to hold one seat in the given category.
+     *
+     * @param category The seat category to hold.
+     * @return The hold on the seat, or {@code null} if the flight or the category is full.
+     */
+    public SeatHold tryHold(SeatCategory category) {
+        return tryHold(category, SeatPreference.ANY);
+    }
+
+    /**
+     * Tries to hold the best seat of the given kind in the given category.
+     *
+     * @param category   The seat category to hold.
+     * @param preference The kind of seat wanted, the frontmost other seat is held if none is free.
+     * @return The hold on the seat, or {@code null} if the flight or the category is full.
+     */
+    public SeatHold tryHold(SeatCategory category, SeatPreference preference) {
+        if (!takeSeatCounts(category, 1)) {
+            return null;
+        }
+        int slot = seatMap.take(category, preference);
+        return slot == SeatMap.NO_SEAT ? unseatedHold(category) : new SeatHold(this, category, slot);
+    }
+
+    /**
+     * Tries to hold a given seat, e.g. one recovered from storage, or the best free seat
+     * of the category if that seat is taken or not in the category's cabin.
+     *
+     * @param category The seat category to hold.
+     * @param seat     The seat wanted, or {@code null} for any seat.
+     * @return The hold on the seat, or {@code null} if the flight or the category is full.
+     */
+    public SeatHold tryHold(SeatCategory category, Seat seat) {
+        if (seat == null) {
+            return tryHold(category, SeatPreference.ANY);
+        }
+        if (!takeSeatCounts(category, 1)) {
+            return null;
+        }
+        SeatMap map = seatMap;
+        int slot = map.take(category, seat);
+        if (slot == SeatMap.NO_SEAT) {
+            slot = map.take(category, SeatPreference.ANY);
+        }
+        return slot == SeatMap.NO_SEAT ? unseatedHold(category) : new SeatHold(this, category, slot);
+    }
+
+    /**
+     * Completes a hold whose counters were taken but for which the seat map had no seat left:
+     * it is sold without a seat if the flight is overbooked, otherwise given back.
+     *
+     * @param category The seat category of the hold.
+     * @return The unseated hold, or {@code null} if the flight is not overbooked.
+     */
+    private SeatHold unseatedHold(SeatCategory category) {
+        if (overbooking > 0) {
+            return new SeatHold(this, category, SeatMap.NO_SEAT);
+        }
+        returnSeatCounts(category, 1);
+        return null;
+    }
+
+    /**
+     * Tries to hold several seats in the given category at once.
+     * Either all the seats are held, with one compare-and-set per counter, or none is.
+     * The seats are side by side if a block of the row has enough free seats, otherwise in
+     * one row if possible.
+     *
+     * @param category The seat category to hold.
+     * @param count    The number of seats to hold.
+     * @return One hold per seat, or {@code null} if the flight or the category has fewer free seats.
+     */
+    public List<SeatHold> tryHold(SeatCategory category, int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Seat count must be positive: " + count);
+        }
+        if (!takeSeatCounts(category, count)) {
+            return null;
+        }
+        int[] slots = new int[count];
+        if (!seatMap.takeGroup(category, slots)) {
+            returnSeatCounts(category, count);
+            return null;
+        }
+        List<SeatHold> holds = new ArrayList<>(count);
+        for (int slot : slots) {
+            holds.add(new SeatHold(this, category, slot));
+        }
+        return holds;
+    }
+
+    /**
+     * Moves a taken seat from one category to another.
+     * The seat is first taken in the new category, so the move fails without side effects
+     * if the new category is full. If the new category is seated in another cabin, the passenger
+     * gets the best free seat there and the old seat is freed.
+     *
+     * @param from The current category of the seat.
+     * @param to   The new category of the seat.
+     * @param slot The slot of the current seat.
+     * @return The slot of the seat in the new category, or {@link SeatMap#NO_SEAT} if the new category is full.
+     */
+    int moveSeat(SeatCategory from, SeatCategory to, int slot) {
+        // An unseated hold gets a seat before it can change cabin
+        if (slot == SeatMap.NO_SEAT || !takeCategorySeats(to.ordinal(), 1)) {
+            return SeatMap.NO_SEAT;
+        }
+        SeatMap map = seatMap;
+        int newSlot = slot;
+        if (!map.isInCabinOf(to, slot)) {
+            newSlot = map.take(to, SeatPreference.ANY);
+            if (newSlot == SeatMap.NO_SEAT) {
+                categoryTaken.decrementAndGet(to.ordinal());
+                return SeatMap.NO_SEAT;
+            }
+            map.free(slot);
+        }
+        categoryTaken.decrementAndGet(from.ordinal());
+        if (listeners.length > 0) {
+            changed(InventoryChange.ofSeats(categoryLimits, to, 1).since(InventoryChange.ofSeats(categoryLimits, from, 1)));
+        }
+        return newSlot;
+    }
+
+    /**
+     * Moves a taken seat to another free seat of the same cabin.
+     *
+     * @param category The category of the seat.
+     * @param slot     The slot of the current seat.
+     * @param seat     The seat wanted.
+     * @return The slot of the new seat, or {@link SeatMap#NO_SEAT} if it is taken or not in the category's cabin.
+     */
+    int changeSeat(SeatCategory category, int slot, Seat seat) {
+        SeatMap map = seatMap;
+        int newSlot = map.take(category, seat);
+        if (newSlot != SeatMap.NO_SEAT && slot != SeatMap.NO_SEAT) {
+            map.free(slot);
+        }
+        return newSlot;
+    }
+
+    /**
+     * Gives a seat of the given category back to the inventory.
+     *
+     * @param category The category of the released seat.
+     * @param slot     The slot of the released seat.
+     */
+    void returnSeat(SeatCategory category, int slot) {
+        if (slot != SeatMap.NO_SEAT) {
+            seatMap.free(slot);
+        }
+        returnSeatCounts(category, 1);
+    }
+
+    /**
+     * Gets the number of seats that can still be held on the flight.
+     *
+     * @return The number of free seats, never negative.
+     */
+    public int getRemainSeatCount() {
+        return Math.max(capacity + overbooking - seatsTaken.get(), 0);
+    }
+
+    /**
+     * Gets the number of seats that can still be held in the given category.
+     *
+     * @param category The seat category to check.
+     * @return The number of free seats in the category, never negative.
+     */
+    public int getRemainSeatCount(SeatCategory category) {
+        int limit = categoryLimits[category.ordinal()];
+        int remaining = getRemainSeatCount();
+        if (limit == UNLIMITED) {
+            return remaining;
+        }
+        return Math.max(Math.min(limit - categoryTaken.get(category.ordinal()), remaining), 0);
+    }
+
+    /**
+     * Gets the number of seats held or confirmed on the flight.
+     *
+     * @return The number of taken seats.
+     */
+    public int getSeatsTaken() {
+        return seatsTaken.get();
+    }
+
+    /**
+     * Gets the number of seats held or confirmed in the given category.
+     *
+     * @param category The seat category to check.
+     * @return The number of taken seats in the category.
+     */
+    public int getSeatsTaken(SeatCategory category) {
+        return categoryTaken.get(category.ordinal());
+    }
+
+    /**
+     * Gets the total number of seats that can be sold on the flight.
+     *
+     * @return The capacity of the flight.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Gets the counters of the inventory as one change from an empty one, e.g. to start totals that
+     * are then kept up to date with the changes reported to a listener.
+     *
+     * @return The change that brings an empty inventory to this one.
+     */
+    public InventoryChange asChange() {
+        int sellable = capacity + overbooking;
+        int remaining = sellable - seatsTaken.get();
+        int[] byCategory = new int[CATEGORIES.length];
+        for (int i = 0; i < byCategory.length; i++) {
+            int limit = categoryLimits[i];
+            byCategory[i] = limit == UNLIMITED ? remaining : limit - categoryTaken.get(i);
+        }
+        return new InventoryChange(capacity, remaining, byCategory);
+    }
+
+    /**
+     * Counts the holds that had to retry because another hold or release changed the seat count first,
+     * a measure of how hot the flight is.
+     *
+     * @return The number of retries so far.
+     */
+    public long getContention() {
+        return contention.sum();
+    }
+
+    private boolean takeSeatCounts(SeatCategory category, int count) {
+        if (!takeCategorySeats(category.ordinal(), count)) {
+            return false;
+        }
+        if (!takeTotalSeats(count)) {
+            categoryTaken.addAndGet(category.ordinal(), -count);
+            return false;
+        }
+        if (listeners.length > 0) {
+            changed(InventoryChange.ofSeats(categoryLimits, category, count));
+        }
+        return true;
+    }
+
+    private void returnSeatCounts(SeatCategory category, int count) {
+        categoryTaken.addAndGet(category.ordinal(), -count);
+        seatsTaken.addAndGet(-count);
+        if (listeners.length > 0) {
+            changed(InventoryChange.ofSeats(categoryLimits, category, -count));
+        }
+    }
+
+    /**
+     * Tells the listeners how the counters changed. Every path that changes a counter for good ends
+     * here once; a change rolled back on the spot, e.g. by a failing hold, is not reported at all,
+     * so the reported changes always add up to the live counters.
+     */
+    private void changed(InventoryChange change) {
+        for (InventoryListener listener : listeners) {
+            listener.onInventoryChanged(this, change);
+        }
+    }
+
+    private boolean takeTotalSeats(int count) {
+        while (true) {
+            int taken = seatsTaken.get();
+            if (taken > capacity + overbooking - count) {
+                return false;
+            }
+            if (seatsTaken.compareAndSet(taken, taken + count)) {
+                return true;
+            }
+            contention.increment();
+        }
+    }
+
+    private boolean takeCategorySeats(int index, int count) {
+        int limit = categoryLimits[index];
+        if (limit == UNLIMITED) {
+            categoryTaken.addAndGet(index, count);
+            return true;
+        }
+        int taken;
+        do {
+            taken = categoryTaken.get(index);
+            if (taken > limit - count) {
+                return false;
+            }
+        } while (!categoryTaken.compareAndSet(index, taken, taken + count));
+        return true;
+    }
+}
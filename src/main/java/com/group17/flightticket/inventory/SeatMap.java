@@ -0,0 +1,361 @@
+package com.group17.flightticket.inventory;
+
+import com.group17.flightticket.enums.SeatCategory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The {@code SeatMap} class keeps which seats of one flight are taken, as one bit per seat
+ * in the occupancy words laid out by the flight's {@link CabinLayout}.
+ * <p>
+ * Seats are found with word-wide bit operations: the free seats of a word are {@code ~taken & valid},
+ * runs of {@code k} adjacent free seats are found by and-ing that with itself shifted by
+ * {@code 1..k-1} and with the run starts of the cabin, and window or aisle seats by masking.
+ * A seat is taken with one compare-and-set on its word, so concurrent bookings never get
+ * the same seat and never wait on a lock. A 180-seat aircraft takes three words.
+ * <p>
+ * Seats are referred to by slot, the index of their bit in the whole map, which only
+ * {@link SeatInventory} and {@link SeatHold} handle; everyone else sees {@link Seat}s.
+ */
+public final class SeatMap {
+    /** The slot returned when no seat could be found */
+    static final int NO_SEAT = -1;
+
+    private final CabinLayout layout;
+    private final AtomicLongArray words;
+    /**
+     * For every cabin, the first word that may have a free seat. It is only a hint that lets
+     * searches skip full words: a search that fails from the hint still scans the words before it.
+     */
+    private final int[] hints;
+
+    /**
+     * Constructs an empty seat map.
+     *
+     * @param layout The layout of the flight.
+     */
+    SeatMap(CabinLayout layout) {
+        this.layout = layout;
+        this.words = new AtomicLongArray(layout.getWordCount());
+        this.hints = new int[layout.getCabins().size()];
+    }
+
+    /**
+     * Gets the layout of the seat map.
+     *
+     * @return The cabin layout.
+     */
+    public CabinLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * Checks if a seat exists and is free.
+     *
+     * @param seat The seat to check.
+     * @return {@code true} if nobody holds the seat.
+     */
+    public boolean isFree(Seat seat) {
+        int slot = slotOf(seat);
+        return slot != NO_SEAT && (words.get(slot >>> 6) & (1L << slot)) == 0;
+    }
+
+    /**
+     * Counts the free seats where a category is seated.
+     *
+     * @param category The seat category.
+     * @return The number of free seats in the category's cabin.
+     */
+    public int getFreeSeatCount(SeatCategory category) {
+        int cabinIndex = layout.cabinIndex(category);
+        if (cabinIndex < 0) {
+            return 0;
+        }
+        Cabin cabin = layout.getCabins().get(cabinIndex);
+        int base = layout.wordOffset(cabinIndex);
+        int free = 0;
+        for (int word = 0; word < cabin.getWordCount(); word++) {
+            free += Long.bitCount(~words.get(base + word) & cabin.validMask(word));
+        }
+        return free;
+    }
+
+    /**
+     * Finds the frontmost free seats side by side, with no aisle between them, without taking them.
+     *
+     * @param category The seat category.
+     * @param count    The number of seats.
+     * @return The seats from left to right, or an empty list if there is no such run of free seats.
+     */
+    public List<Seat> findAdjacent(SeatCategory category, int count) {
+        int cabinIndex = layout.cabinIndex(category);
+        List<Seat> seats = new ArrayList<>(count);
+        if (cabinIndex < 0 || count <= 0) {
+            return seats;
+        }
+        Cabin cabin = layout.getCabins().get(cabinIndex);
+        long runStarts = cabin.runStarts(count);
+        int base = layout.wordOffset(cabinIndex);
+        for (int word = 0; word < cabin.getWordCount() && runStarts != 0; word++) {
+            long starts = runs(~words.get(base + word) & cabin.validMask(word), count, runStarts);
+            if (starts != 0) {
+                int slot = (base + word) * Long.SIZE + Long.numberOfTrailingZeros(starts);
+                for (int i = 0; i < count; i++) {
+                    seats.add(seatAt(slot + i));
+                }
+                break;
+            }
+        }
+        return seats;
+    }
+
+    /**
+     * Takes the best free seat for a category.
+     *
+     * @param category   The seat category.
+     * @param preference The kind of seat wanted, the frontmost other seat is taken if none is free.
+     * @return The slot of the seat, or {@link #NO_SEAT} if the category's cabin is full.
+     */
+    int take(SeatCategory category, SeatPreference preference) {
+        int cabinIndex = layout.cabinIndex(category);
+        if (cabinIndex < 0) {
+            return NO_SEAT;
+        }
+        if (preference != SeatPreference.ANY) {
+            Cabin cabin = layout.getCabins().get(cabinIndex);
+            int slot = takeRun(cabinIndex, 1, cabin.preferenceMask(preference));
+            if (slot != NO_SEAT) {
+                return slot;
+            }
+        }
+        return takeRun(cabinIndex, 1, -1L);
+    }
+
+    /**
+     * Takes seats for a group, keeping it as close together as the free seats allow:
+     * side by side in one block if possible, otherwise in one row, otherwise anywhere in the cabin.
+     *
+     * @param category The seat category of the group.
+     * @param slots    Filled with the slot of every seat taken, its length is the size of the group.
+     * @return {@code true} if every seat was taken, {@code false} if the cabin has too few free seats and none was taken.
+     */
+    boolean takeGroup(SeatCategory category, int[] slots) {
+        int cabinIndex = layout.cabinIndex(category);
+        if (cabinIndex < 0) {
+            return false;
+        }
+        int count = slots.length;
+        int first = takeRun(cabinIndex, count, -1L);
+        if (first != NO_SEAT) {
+            for (int i = 0; i < count; i++) {
+                slots[i] = first + i;
+            }
+            return true;
+        }
+        if (takeRow(cabinIndex, slots)) {
+            return true;
+        }
+        for (int i = 0; i < count; i++) {
+            slots[i] = takeRun(cabinIndex, 1, -1L);
+            if (slots[i] == NO_SEAT) {
+                for (int j = 0; j < i; j++) {
+                    free(slots[j]);
+                }
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Takes a given seat, if it is free and seated in the category's cabin.
+     *
+     * @param category The seat category.
+     * @param seat     The seat wanted.
+     * @return The slot of the seat, or {@link #NO_SEAT} if it is taken or not in the category's cabin.
+     */
+    int take(SeatCategory category, Seat seat) {
+        int slot = slotOf(seat);
+        if (slot == NO_SEAT || layout.cabinIndexOfWord(slot >>> 6) != layout.cabinIndex(category)) {
+            return NO_SEAT;
+        }
+        long bit = 1L << slot;
+        long taken;
+        do {
+            taken = words.get(slot >>> 6);
+            if ((taken & bit) != 0) {
+                return NO_SEAT;
+            }
+        } while (!words.compareAndSet(slot >>> 6, taken, taken | bit));
+        return slot;
+    }
+
+    /**
+     * Gives a seat back.
+     *
+     * @param slot The slot of the seat.
+     */
+    void free(int slot) {
+        int word = slot >>> 6;
+        long bit = 1L << slot;
+        long taken;
+        do {
+            taken = words.get(word);
+        } while (!words.compareAndSet(word, taken, taken & ~bit));
+        int cabinIndex = layout.cabinIndexOfWord(word);
+        int cabinWord = word - layout.wordOffset(cabinIndex);
+        if (cabinWord < hints[cabinIndex]) {
+            hints[cabinIndex] = cabinWord;
+        }
+    }
+
+    /**
+     * Checks if two slots are seated in the same cabin.
+     *
+     * @param category The seat category of the second seat.
+     * @param slot     The slot of the first seat.
+     * @return {@code true} if the category is seated in the cabin of the slot.
+     */
+    boolean isInCabinOf(SeatCategory category, int slot) {
+        return layout.cabinIndex(category) == layout.cabinIndexOfWord(slot >>> 6);
+    }
+
+    /**
+     * Finds the slot of a seat.
+     *
+     * @param seat The seat.
+     * @return The slot, or {@link #NO_SEAT} if the layout has no such seat.
+     */
+    int slotOf(Seat seat) {
+        int cabinIndex = layout.cabinIndexOfRow(seat.row());
+        if (cabinIndex < 0) {
+            return NO_SEAT;
+        }
+        Cabin cabin = layout.getCabins().get(cabinIndex);
+        int column = cabin.columnOf(seat.letter());
+        int row = seat.row() - cabin.getFirstRow();
+        if (column < 0 || row * cabin.getWidth() + column >= cabin.getSeatCount()) {
+            return NO_SEAT;
+        }
+        int word = layout.wordOffset(cabinIndex) + row / cabin.getRowsPerWord();
+        return word * Long.SIZE + (row % cabin.getRowsPerWord()) * cabin.getWidth() + column;
+    }
+
+    /**
+     * Gets the seat of a slot.
+     *
+     * @param slot The slot.
+     * @return The seat.
+     */
+    Seat seatAt(int slot) {
+        int word = slot >>> 6;
+        int bit = slot & (Long.SIZE - 1);
+        int cabinIndex = layout.cabinIndexOfWord(word);
+        Cabin cabin = layout.getCabins().get(cabinIndex);
+        int row = (word - layout.wordOffset(cabinIndex)) * cabin.getRowsPerWord() + bit / cabin.getWidth();
+        return new Seat(cabin.getFirstRow() + row, cabin.letterAt(bit % cabin.getWidth()));
+    }
+
+    /**
+     * Takes the frontmost run of free seats side by side in one block.
+     *
+     * @param cabinIndex The cabin to search.
+     * @param count      The number of seats of the run.
+     * @param wanted     The bits where the run may start, e.g. window seats.
+     * @return The slot of the first seat of the run, or {@link #NO_SEAT} if there is no such run.
+     */
+    private int takeRun(int cabinIndex, int count, long wanted) {
+        Cabin cabin = layout.getCabins().get(cabinIndex);
+        long runStarts = cabin.runStarts(count) & wanted;
+        if (runStarts == 0) {
+            return NO_SEAT;
+        }
+        long run = Cabin.runMask(count);
+        int base = layout.wordOffset(cabinIndex);
+        int wordCount = cabin.getWordCount();
+        int hint = hints[cabinIndex];
+        for (int i = 0; i < wordCount; i++) {
+            int word = hint + i < wordCount ? hint + i : hint + i - wordCount;
+            long taken;
+            long free;
+            while (true) {
+                taken = words.get(base + word);
+                free = ~taken & cabin.validMask(word);
+                long starts = runs(free, count, runStarts);
+                if (starts == 0) {
+                    break;
+                }
+                int bit = Long.numberOfTrailingZeros(starts);
+                if (words.compareAndSet(base + word, taken, taken | run << bit)) {
+                    return (base + word) * Long.SIZE + bit;
+                }
+            }
+            if (free == 0 && word == hints[cabinIndex] && word + 1 < wordCount) {
+                hints[cabinIndex] = word + 1;
+            }
+        }
+        return NO_SEAT;
+    }
+
+    /**
+     * Takes free seats all in one row, the leftmost free seats of the frontmost row that has enough.
+     *
+     * @param cabinIndex The cabin to search.
+     * @param slots      Filled with the slots taken, its length is the number of seats.
+     * @return {@code true} if the seats were taken.
+     */
+    private boolean takeRow(int cabinIndex, int[] slots) {
+        Cabin cabin = layout.getCabins().get(cabinIndex);
+        int count = slots.length;
+        int width = cabin.getWidth();
+        if (count > width) {
+            return false;
+        }
+        long rowMask = Cabin.runMask(width);
+        int base = layout.wordOffset(cabinIndex);
+        for (int word = 0; word < cabin.getWordCount(); word++) {
+            retry:
+            while (true) {
+                long taken = words.get(base + word);
+                long free = ~taken & cabin.validMask(word);
+                for (int row = 0; row < cabin.getRowsPerWord(); row++) {
+                    long rowFree = free & rowMask << (row * width);
+                    if (Long.bitCount(rowFree) < count) {
+                        continue;
+                    }
+                    long seats = 0;
+                    for (int i = 0; i < count; i++) {
+                        long lowest = rowFree & -rowFree;
+                        seats |= lowest;
+                        rowFree ^= lowest;
+                        slots[i] = (base + word) * Long.SIZE + Long.numberOfTrailingZeros(lowest);
+                    }
+                    if (words.compareAndSet(base + word, taken, taken | seats)) {
+                        return true;
+                    }
+                    continue retry;
+                }
+                break;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Finds where runs of free seats start in a word.
+     *
+     * @param free      The free seats of the word.
+     * @param count     The length of the runs.
+     * @param runStarts The bits where a run of that length may start.
+     * @return The bits where a run of {@code count} free seats starts.
+     */
+    private static long runs(long free, int count, long runStarts) {
+        long starts = free & runStarts;
+        for (int shift = 1; shift < count && starts != 0; shift++) {
+            starts &= free >>> shift;
+        }
+        return starts;
+    }
+}
@@ -0,0 +1,14 @@
+package com.group17.flightticket.inventory;
+
+/**
+ * The kind of seat a passenger would like. When no seat of the preferred kind is free,
+ * the passenger gets the best other seat of the cabin.
+ */
+public enum SeatPreference {
+    /** The frontmost free seat */
+    ANY,
+    /** The frontmost free seat next to a window */
+    WINDOW,
+    /** The frontmost free seat next to an aisle */
+    AISLE
+}
@@ -0,0 +1,306 @@
+package com.group17.flightticket.lifecycle;
+
+import com.group17.flightticket.entity.Flight;
+import com.group17.flightticket.enums.FlightStatus;
+import com.group17.flightticket.identity.Registries;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The {@code FlightLifecycleScheduler} class moves flights through their {@link FlightStatus} as time passes:
+ * reservation closes a while before departure, boarding opens a little later, and the flight departs and
+ * arrives at its scheduled times.
+ * <p>
+ * Each flight has one timer in a {@link TimingWheel}, set to its next status change. A delay moves that
+ * timer in constant time, so millions of flights can be pending at once for the cost of one small object each.
+ * The scheduler only tracks flights while it is running, see {@link #start()}.
+ */
+public class FlightLifecycleScheduler implements AutoCloseable {
+    private static final Logger LOG = LoggerFactory.getLogger(FlightLifecycleScheduler.class);
+    private static final FlightLifecycleScheduler GLOBAL = new FlightLifecycleScheduler(
+            Clock.systemDefaultZone(), Duration.ofMinutes(45), Duration.ofMinutes(40), Duration.ofSeconds(1));
+
+    private final Clock clock;
+    private final TimingWheel wheel;
+    private final Map<Flight, LifecycleTimer> timers = new ConcurrentHashMap<>();
+    private volatile Duration bookingCloseBefore;
+    private volatile Duration boardingOpenBefore;
+    private volatile boolean running;
+    private Thread ticker;
+
+    /**
+     * The timer of one flight, set to its next status change.
+     */
+    private final class LifecycleTimer extends TimingWheel.Timer {
+        private final Flight flight;
+
+        LifecycleTimer(Flight flight) {
+            this.flight = flight;
+        }
+
+        @Override
+        protected void expire(long nowMillis) {
+            fire(this, nowMillis);
+        }
+    }
+
+    /**
+     * Constructs a scheduler that is not running yet.
+     *
+     * @param clock              The clock the flight times are read with.
+     * @param bookingCloseBefore How long before departure reservation closes.
+     * @param boardingOpenBefore How long before departure boarding opens.
+     * @param tick               The precision of the status changes.
+     */
+    public FlightLifecycleScheduler(Clock clock, Duration bookingCloseBefore, Duration boardingOpenBefore, Duration tick) {
+        this.clock = clock;
+        this.bookingCloseBefore = bookingCloseBefore;
+        this.boardingOpenBefore = boardingOpenBefore;
+        this.wheel = new TimingWheel(tick.toMillis(), clock.millis());
+    }
+
+    /**
+     * Gets the scheduler every flight reports to. It is not running until the application starts it.
+     *
+     * @return The global scheduler.
+     */
+    public static FlightLifecycleScheduler global() {
+        return GLOBAL;
+    }
+
+    /**
+     * Starts tracking flights: every registered flight gets its timer, and so does every flight tracked later.
+     *
+     * @param ticking {@code true} to advance the scheduler with the clock on a thread of its own,
+     *                {@code false} to advance it only through {@link #advance()} and {@link #advanceTo(long)}.
+     */
+    public synchronized void start(boolean ticking) {
+        if (running) {
+            return;
+        }
+        running = true;
+        for (Flight flight : Registries.flights().values()) {
+            track(flight);
+        }
+        if (ticking) {
+            ticker = Thread.ofPlatform().daemon().name("flight-lifecycle").start(this::tick);
+        }
+    }
+
+    /**
+     * Starts tracking flights and advances the scheduler with the clock.
+     */
+    public void start() {
+        start(true);
+    }
+
+    /**
+     * Stops the scheduler and drops every timer. Flights keep the status they have reached.
+     */
+    public synchronized void stop() {
+        running = false;
+        if (ticker != null) {
+            ticker.interrupt();
+            ticker = null;
+        }
+        for (LifecycleTimer timer : timers.values()) {
+            wheel.cancel(timer);
+        }
+        timers.clear();
+    }
+
+    @Override
+    public void close() {
+        stop();
+    }
+
+    /**
+     * Checks if the scheduler tracks flights.
+     *
+     * @return {@code true} if it is running.
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Schedules the next status change of a flight. Does nothing if the scheduler is not running.
+     *
+     * @param flight The flight.
+     */
+    public void track(Flight flight) {
+        if (!running || flight.getStatus() == FlightStatus.ARRIVED) {
+            return;
+        }
+        schedule(timers.computeIfAbsent(flight, LifecycleTimer::new));
+    }
+
+    /**
+     * Moves the timer of a flight after its times have changed, e.g. when it is delayed.
+     *
+     * @param flight The flight.
+     */
+    public void reschedule(Flight flight) {
+        LifecycleTimer timer = timers.get(flight);
+        if (timer != null) {
+            schedule(timer);
+        } else {
+            track(flight);
+        }
+    }
+
+    /**
+     * Stops tracking a flight, e.g. when it is canceled.
+     *
+     * @param flight The flight.
+     */
+    public void untrack(Flight flight) {
+        LifecycleTimer timer = timers.remove(flight);
+        if (timer != null) {
+            wheel.cancel(timer);
+        }
+    }
+
+    /**
+     * Applies the status changes due by the current time of the clock.
+     *
+     * @return The number of timers that expired.
+     */
+    public int advance() {
+        return advanceTo(clock.millis());
+    }
+
+    /**
+     * Applies the status changes due by a given time.
+     *
+     * @param nowMillis The time, in epoch milliseconds.
+     * @return The number of timers that expired.
+     */
+    public int advanceTo(long nowMillis) {
+        return wheel.advanceTo(nowMillis);
+    }
+
+    /**
+     * Gets the number of flights waiting for a status change.
+     *
+     * @return The number of pending timers.
+     */
+    public int getPendingCount() {
+        return wheel.size();
+    }
+
+    /**
+     * Gets the time a flight reaches a status.
+     *
+     * @param flight The flight.
+     * @param status The status.
+     * @return The time, in epoch milliseconds, {@link Long#MIN_VALUE} for {@link FlightStatus#SCHEDULED}.
+     */
+    public long dueMillis(Flight flight, FlightStatus status) {
+        if (status == FlightStatus.SCHEDULED) {
+            return Long.MIN_VALUE;
+        }
+        LocalDateTime time = switch (status) {
+            case SCHEDULED, BOOKING_CLOSED -> flight.getDepartureTime().minus(bookingCloseBefore);
+            case BOARDING -> flight.getDepartureTime().minus(boardingOpenBefore);
+            case DEPARTED -> flight.getDepartureTime();
+            case ARRIVED -> flight.getArrivalTime();
+        };
+        return time.atZone(clock.getZone()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Gets how long before departure reservation closes.
+     *
+     * @return The time before departure.
+     */
+    public Duration getBookingCloseBefore() {
+        return bookingCloseBefore;
+    }
+
+    /**
+     * Sets how long before departure reservation closes. Applies to the timers set from now on.
+     *
+     * @param bookingCloseBefore The time before departure.
+     */
+    public void setBookingCloseBefore(Duration bookingCloseBefore) {
+        this.bookingCloseBefore = bookingCloseBefore;
+    }
+
+    /**
+     * Gets how long before departure boarding opens.
+     *
+     * @return The time before departure.
+     */
+    public Duration getBoardingOpenBefore() {
+        return boardingOpenBefore;
+    }
+
+    /**
+     * Sets how long before departure boarding opens. Applies to the timers set from now on.
+     *
+     * @param boardingOpenBefore The time before departure.
+     */
+    public void setBoardingOpenBefore(Duration boardingOpenBefore) {
+        this.boardingOpenBefore = boardingOpenBefore;
+    }
+
+    /**
+     * Sets the timer of a flight to its next status change.
+     */
+    private void schedule(LifecycleTimer timer) {
+        FlightStatus next = timer.flight.getStatus().next();
+        if (next == null) {
+            untrack(timer.flight);
+            return;
+        }
+        wheel.schedule(timer, dueMillis(timer.flight, next));
+    }
+
+    /**
+     * Applies every status change of the flight that is due, then sets the timer to the next one. A flight
+     * delayed while its timer expires is caught up with here, as its times are read again.
+     */
+    private void fire(LifecycleTimer timer, long nowMillis) {
+        Flight flight = timer.flight;
+        if (timers.get(flight) != timer) {
+            return;
+        }
+        FlightStatus next = flight.getStatus().next();
+        while (next != null && dueMillis(flight, next) <= nowMillis) {
+            flight.advanceStatus(next);
+            next = next.next();
+        }
+        if (next == null) {
+            timers.remove(flight, timer);
+        } else if (!wheel.isScheduled(timer)) {
+            wheel.schedule(timer, dueMillis(flight, next));
+        }
+    }
+
+    /**
+     * Advances the scheduler once per tick until it is stopped. A failed tick is logged, and the next
+     * one still waits for its time.
+     */
+    private void tick() {
+        long tickMillis = wheel.getTickMillis();
+        while (running) {
+            try {
+                advance();
+            } catch (RuntimeException e) {
+                LOG.error("Flight lifecycle tick failed", e);
+            }
+            try {
+                Thread.sleep(tickMillis - Math.floorMod(clock.millis(), tickMillis));
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+}
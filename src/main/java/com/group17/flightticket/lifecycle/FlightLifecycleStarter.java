@@ -0,0 +1,41 @@
+package com.group17.flightticket.lifecycle;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Starts the global {@link FlightLifecycleScheduler} when the application starts, if
+ * {@code flightticket.lifecycle.enabled} is set, and stops it when the application stops. Flights then
+ * close for reservation, board, depart and arrive on their own as the wall clock passes their times.
+ * <p>
+ * The property is read at run time rather than through a condition on the bean, so an application built
+ * ahead of time with Spring AOT can still be started with or without the scheduler.
+ */
+@Component
+public class FlightLifecycleStarter implements AutoCloseable {
+    private final FlightLifecycleScheduler scheduler = FlightLifecycleScheduler.global();
+
+    /**
+     * Configures and starts the global scheduler, if enabled.
+     *
+     * @param enabled            {@code true} to run the scheduler.
+     * @param bookingCloseBefore How long before departure reservation closes.
+     * @param boardingOpenBefore How long before departure boarding opens.
+     */
+    public FlightLifecycleStarter(@Value("${flightticket.lifecycle.enabled:false}") boolean enabled,
+                                  @Value("${flightticket.lifecycle.booking-close:PT45M}") Duration bookingCloseBefore,
+                                  @Value("${flightticket.lifecycle.boarding-open:PT40M}") Duration boardingOpenBefore) {
+        scheduler.setBookingCloseBefore(bookingCloseBefore);
+        scheduler.setBoardingOpenBefore(boardingOpenBefore);
+        if (enabled) {
+            scheduler.start();
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.stop();
+    }
+}
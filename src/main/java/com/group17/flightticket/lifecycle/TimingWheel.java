@@ -0,0 +1,269 @@
+package com.group17.flightticket.lifecycle;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The {@code TimingWheel} class keeps timers in a hierarchical timing wheel: five levels of 64 slots,
+ * where a slot of level 0 spans one tick and a slot of level {@code n} spans 64 slots of level {@code n - 1}.
+ * With one-second ticks, the levels reach a minute, an hour, three days, six months and 34 years ahead.
+ * <p>
+ * A timer is a node of the doubly linked list of its slot, so scheduling, moving and canceling it are
+ * constant time, whatever the number of timers pending, and a timer costs one small object. A slot of a
+ * higher level is cascaded into the lower levels when the wheel below it wraps, so every timer is moved
+ * at most once per level. Timers expire in tick order, never before their deadline, and at most one tick
+ * after it. Advancing jumps over the ticks with nothing to expire or cascade, so catching up after a pause
+ * costs the slots holding timers, not the ticks elapsed.
+ * <p>
+ * The wheel is thread safe. Timers expire on the thread advancing the wheel, outside its lock, so an
+ * expiring timer can schedule itself again. A timer that throws is logged and does not keep the others
+ * from expiring.
+ */
+public class TimingWheel {
+    private static final Logger LOG = LoggerFactory.getLogger(TimingWheel.class);
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 5;
+    /** The furthest a timer is placed ahead; later timers are placed there and placed again when they get close */
+    private static final long MAX_TICKS = (1L << (SLOT_BITS * LEVELS)) - 1;
+
+    private final long tickMillis;
+    private final Timer[][] slots = new Timer[LEVELS][SLOTS];
+    /** The next tick to expire */
+    private long currentTick;
+    private int size;
+
+    /**
+     * A timer of the wheel. Subclasses carry what the timer is for, so it takes no other object.
+     */
+    public abstract static class Timer {
+        private Timer previous;
+        private Timer next;
+        private long deadlineTick;
+
+        /**
+         * Called once the deadline has passed, on the thread advancing the wheel.
+         *
+         * @param nowMillis The time the wheel is advanced to, in epoch milliseconds.
+         */
+        protected abstract void expire(long nowMillis);
+
+        private boolean isLinked() {
+            return next != null;
+        }
+
+        private void unlink() {
+            previous.next = next;
+            next.previous = previous;
+            previous = null;
+            next = null;
+        }
+    }
+
+    /**
+     * The head of the list of a slot.
+     */
+    private static final class Slot extends Timer {
+        Slot() {
+            linkToSelf(this);
+        }
+
+        @Override
+        protected void expire(long nowMillis) {
+        }
+    }
+
+    /**
+     * Constructs an empty wheel.
+     *
+     * @param tickMillis  The length of a tick, in milliseconds.
+     * @param startMillis The time the wheel starts at, in epoch milliseconds.
+     */
+    public TimingWheel(long tickMillis, long startMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("Invalid tick " + tickMillis);
+        }
+        this.tickMillis = tickMillis;
+        this.currentTick = Math.floorDiv(startMillis, tickMillis);
+        for (Timer[] level : slots) {
+            for (int i = 0; i < SLOTS; i++) {
+                level[i] = new Slot();
+            }
+        }
+    }
+
+    /**
+     * Schedules a timer, or moves it if it is pending already. A deadline that has passed expires at the next advance.
+     *
+     * @param timer          The timer.
+     * @param deadlineMillis The time to expire at, in epoch milliseconds.
+     */
+    public synchronized void schedule(Timer timer, long deadlineMillis) {
+        if (timer.isLinked()) {
+            timer.unlink();
+        } else {
+            size++;
+        }
+        // Round up, so a timer never expires before its deadline
+        timer.deadlineTick = Math.floorDiv(deadlineMillis, tickMillis) + (Math.floorMod(deadlineMillis, tickMillis) == 0 ? 0 : 1);
+        place(timer);
+    }
+
+    /**
+     * Cancels a pending timer.
+     *
+     * @param timer The timer.
+     * @return {@code true} if the timer was pending.
+     */
+    public synchronized boolean cancel(Timer timer) {
+        if (!timer.isLinked()) {
+            return false;
+        }
+        timer.unlink();
+        size--;
+        return true;
+    }
+
+    /**
+     * Checks if a timer is pending.
+     *
+     * @param timer The timer.
+     * @return {@code true} if the timer is scheduled and has not expired yet.
+     */
+    public synchronized boolean isScheduled(Timer timer) {
+        return timer.isLinked();
+    }
+
+    /**
+     * Expires the timers whose deadline has passed, in tick order.
+     *
+     * @param nowMillis The current time, in epoch milliseconds.
+     * @return The number of timers expired, including those that threw.
+     */
+    public int advanceTo(long nowMillis) {
+        long targetTick = Math.floorDiv(nowMillis, tickMillis);
+        int expired = 0;
+        List<Timer> due = new ArrayList<>();
+        while (true) {
+            synchronized (this) {
+                if (currentTick <= targetTick) {
+                    currentTick = size == 0 ? targetTick + 1 : nextBusyTick(targetTick + 1);
+                }
+                if (currentTick > targetTick) {
+                    return expired;
+                }
+                collect(due);
+            }
+            for (Timer timer : due) {
+                try {
+                    timer.expire(nowMillis);
+                } catch (RuntimeException e) {
+                    // One timer failing must not keep the others from expiring
+                    LOG.error("Timer {} failed to expire", timer, e);
+                }
+            }
+            expired += due.size();
+            due.clear();
+        }
+    }
+
+    /**
+     * Gets the number of pending timers.
+     *
+     * @return The number of timers scheduled and not expired.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Gets the length of a tick.
+     *
+     * @return The tick, in milliseconds.
+     */
+    public long getTickMillis() {
+        return tickMillis;
+    }
+
+    /**
+     * Takes the timers of the current tick out of the wheel, cascading the higher levels first when the
+     * levels below them wrap, and moves to the next tick.
+     */
+    private void collect(List<Timer> due) {
+        long tick = currentTick;
+        for (int level = 1; level < LEVELS && (tick & ((1L << (SLOT_BITS * level)) - 1)) == 0; level++) {
+            Timer slot = slots[level][(int) (tick >>> (SLOT_BITS * level)) & SLOT_MASK];
+            while (slot.next != slot) {
+                Timer timer = slot.next;
+                timer.unlink();
+                place(timer);
+            }
+        }
+        Timer slot = slots[0][(int) tick & SLOT_MASK];
+        currentTick = tick + 1;
+        while (slot.next != slot) {
+            Timer timer = slot.next;
+            timer.unlink();
+            if (timer.deadlineTick > tick) {
+                // Placed at the far end of the wheel and not due yet
+                place(timer);
+            } else {
+                size--;
+                due.add(timer);
+            }
+        }
+    }
+
+    /**
+     * Finds the first tick from the current one with timers to expire, or a slot of a higher level to
+     * cascade, looking no further than a limit. Every level is looked at for one turn at most, so this
+     * costs the same however many ticks are skipped.
+     */
+    private long nextBusyTick(long limit) {
+        long next = limit;
+        for (int i = 0; i < SLOTS && currentTick + i < next; i++) {
+            Timer slot = slots[0][(int) (currentTick + i) & SLOT_MASK];
+            if (slot.next != slot) {
+                next = currentTick + i;
+            }
+        }
+        for (int level = 1; level < LEVELS; level++) {
+            int shift = SLOT_BITS * level;
+            long span = 1L << shift;
+            long boundary = Math.ceilDiv(currentTick, span) * span;
+            for (int i = 0; i < SLOTS && boundary < next; i++, boundary += span) {
+                Timer slot = slots[level][(int) (boundary >>> shift) & SLOT_MASK];
+                if (slot.next != slot) {
+                    next = boundary;
+                }
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Links a timer into the slot of its deadline, on the lowest level that reaches it.
+     */
+    private void place(Timer timer) {
+        long ticks = timer.deadlineTick - currentTick;
+        long tick = ticks < 0 ? currentTick : ticks > MAX_TICKS ? currentTick + MAX_TICKS : timer.deadlineTick;
+        int level = 0;
+        while (level < LEVELS - 1 && tick - currentTick >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        Timer slot = slots[level][(int) (tick >>> (SLOT_BITS * level)) & SLOT_MASK];
+        timer.previous = slot.previous;
+        timer.next = slot;
+        slot.previous.next = timer;
+        slot.previous = timer;
+    }
+
+    private static void linkToSelf(Timer timer) {
+        timer.previous = timer;
+        timer.next = timer;
+    }
+}
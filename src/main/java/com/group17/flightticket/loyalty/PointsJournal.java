@@ -0,0 +1,151 @@
+package com.group17.flightticket.loyalty;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The {@code PointsJournal} class is an append-only record of every points movement of a loyalty scheme.
+ * Each entry stores the points that were actually applied, so replaying the journal in any order
+ * rebuilds the same balances, and a redemption can be traced back to the booking that made it.
+ * <p>
+ * Only the most recent entries are kept in memory, up to the retention limit, so a long-running
+ * scheme does not grow the heap without bound. The complete history is the one made durable by the
+ * reservation store from the {@code PointsMoved} events; once entries have been dropped here the
+ * journal itself can no longer be replayed.
+ */
+public class PointsJournal {
+    /** The number of entries kept in memory by default */
+    public static final int DEFAULT_RETENTION = 1 << 16;
+
+    private static final Comparator<PointsJournalEntry> SEQUENCE_ORDER =
+            Comparator.comparingLong(PointsJournalEntry::sequence);
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final Queue<PointsJournalEntry> entries = new ConcurrentLinkedQueue<>();
+    /** The kept entries of each account, oldest first; an account without entries has no key */
+    private final Map<Long, ConcurrentLinkedDeque<PointsJournalEntry>> byAccount = new ConcurrentHashMap<>();
+    private final AtomicLong retained = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final int retention;
+
+    /**
+     * Creates a journal that keeps the default number of entries in memory.
+     */
+    public PointsJournal() {
+        this(DEFAULT_RETENTION);
+    }
+
+    /**
+     * Creates a journal that keeps at most the given number of entries in memory.
+     *
+     * @param retention The number of most recent entries to keep.
+     */
+    public PointsJournal(int retention) {
+        if (retention <= 0) {
+            throw new IllegalArgumentException("Retention must be positive: " + retention);
+        }
+        this.retention = retention;
+    }
+
+    /**
+     * Appends a points movement to the journal.
+     *
+     * @param type         The kind of movement.
+     * @param accountId    The passenger id of the account.
+     * @param points       The signed number of points applied, negative when points were taken.
+     * @param balanceAfter The points balance right after the movement.
+     * @param reference    What the movement was for, e.g. a flight number, or {@code null}.
+     * @return The appended entry.
+     */
+    public PointsJournalEntry append(PointsJournalEntry.Type type, long accountId, int points,
+                                     int balanceAfter, String reference) {
+        PointsJournalEntry entry = new PointsJournalEntry(sequence.incrementAndGet(), System.currentTimeMillis(),
+                type, accountId, points, balanceAfter, reference);
+        byAccount.compute(accountId, (id, account) -> {
+            ConcurrentLinkedDeque<PointsJournalEntry> kept = account != null ? account : new ConcurrentLinkedDeque<>();
+            kept.addLast(entry);
+            return kept;
+        });
+        entries.add(entry);
+        if (retained.incrementAndGet() > retention) {
+            PointsJournalEntry oldest = entries.poll();
+            if (oldest != null) {
+                retained.decrementAndGet();
+                dropped.incrementAndGet();
+                // The oldest entry of the account is nearly always at the head of its deque
+                byAccount.computeIfPresent(oldest.accountId(), (id, kept) -> {
+                    kept.removeFirstOccurrence(oldest);
+                    return kept.isEmpty() ? null : kept;
+                });
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * Gets the kept entries of the journal in sequence order.
+     *
+     * @return A snapshot of the journal.
+     */
+    public List<PointsJournalEntry> getEntries() {
+        List<PointsJournalEntry> snapshot = new ArrayList<>(entries);
+        snapshot.sort(SEQUENCE_ORDER);
+        return snapshot;
+    }
+
+    /**
+     * Gets the kept entries of one account in sequence order.
+     *
+     * @param accountId The passenger id of the account.
+     * @return A snapshot of the account's entries.
+     */
+    public List<PointsJournalEntry> getEntries(long accountId) {
+        ConcurrentLinkedDeque<PointsJournalEntry> kept = byAccount.get(accountId);
+        if (kept == null) {
+            return new ArrayList<>();
+        }
+        List<PointsJournalEntry> snapshot = new ArrayList<>(kept);
+        snapshot.sort(SEQUENCE_ORDER);
+        return snapshot;
+    }
+
+    /**
+     * Applies every entry of the journal to a ledger.
+     *
+     * @param ledger The ledger to rebuild, normally an empty one.
+     * @throws IllegalStateException if entries have already been dropped from the journal.
+     */
+    public void replay(PointsLedger ledger) {
+        if (dropped.get() > 0) {
+            throw new IllegalStateException("Journal has dropped " + dropped.get() + " entries and cannot be replayed");
+        }
+        for (PointsJournalEntry entry : entries) {
+            ledger.add(entry.accountId(), entry.points());
+        }
+    }
+
+    /**
+     * Gets the number of entries ever appended to the journal, including dropped ones.
+     *
+     * @return The journal size.
+     */
+    public long size() {
+        return sequence.get();
+    }
+
+    /**
+     * Gets the number of entries dropped because they fell out of the retention limit.
+     *
+     * @return The dropped entry count.
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+}
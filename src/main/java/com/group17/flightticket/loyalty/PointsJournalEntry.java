@@ -0,0 +1,25 @@
+package com.group17.flightticket.loyalty;
+
+/**
+ * One points movement recorded in a {@link PointsJournal}.
+ *
+ * @param sequence     The position of the entry in the journal, starting at 1.
+ * @param timestamp    When the movement happened, in epoch milliseconds.
+ * @param type         The kind of movement.
+ * @param accountId    The passenger id of the account.
+ * @param points       The signed number of points applied, negative when points were taken.
+ * @param balanceAfter The points balance right after the movement.
+ * @param reference    What the movement was for, e.g. a flight number, or {@code null}.
+ */
+public record PointsJournalEntry(long sequence, long timestamp, Type type, long accountId,
+                                 int points, int balanceAfter, String reference) {
+
+    /**
+     * The kinds of points movements.
+     */
+    public enum Type {
+        EARNED,
+        DEDUCTED,
+        REDEEMED
+    }
+}
@@ -0,0 +1,128 @@
+package com.group17.flightticket.loyalty;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * The {@code PointsLedger} class stores the loyalty points of every passenger as primitive ints,
+ * indexed by numeric passenger id.
+ * <p>
+ * Balances live in pages of {@link AtomicIntegerArray}, so reading or updating an account needs no
+ * boxing, no hashing and no lock: every update is a single atomic add or a compare-and-set loop.
+ * Pages are only allocated for id ranges that are actually used, and allocating one is the only
+ * step that takes a lock. Pages of the first {@value #DENSE_PAGES} id ranges are found by index;
+ * larger or sparse ids, such as ids restored from another system, keep their pages in a map, so
+ * an id never sizes an array.
+ */
+public class PointsLedger {
+    private static final int PAGE_BITS = 10;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+    /** The number of pages found by index, covering ids up to 64M */
+    private static final int DENSE_PAGES = 1 << 16;
+
+    /** Pages of accounts, page {@code i} holds ids {@code i * PAGE_SIZE} to {@code (i + 1) * PAGE_SIZE - 1} */
+    private volatile AtomicIntegerArray[] pages = new AtomicIntegerArray[16];
+    /** Pages of accounts beyond the dense pages, by page number */
+    private final Map<Long, AtomicIntegerArray> sparsePages = new ConcurrentHashMap<>();
+
+    /**
+     * The outcome of {@link #takeUpTo}: the points taken and the balance they left, read in the same atomic step.
+     *
+     * @param points       The number of points taken.
+     * @param balanceAfter The points balance right after they were taken.
+     */
+    public record Taken(int points, int balanceAfter) {
+        private static final Taken NONE = new Taken(0, 0);
+    }
+
+    /**
+     * Gets the points balance of an account.
+     *
+     * @param accountId The passenger id of the account.
+     * @return The points balance, zero for an unknown account.
+     */
+    public int get(long accountId) {
+        AtomicIntegerArray page = page(accountId, false);
+        return page == null ? 0 : page.get(offset(accountId));
+    }
+
+    /**
+     * Adds points to an account.
+     *
+     * @param accountId The passenger id of the account.
+     * @param points    The number of points to add.
+     * @return The points balance after the addition.
+     */
+    public int add(long accountId, int points) {
+        return page(accountId, true).addAndGet(offset(accountId), points);
+    }
+
+    /**
+     * Takes up to the given number of points from an account, never going below zero.
+     * The read and the update are one atomic step, so concurrent redemptions can never
+     * spend the same points twice.
+     *
+     * @param accountId The passenger id of the account.
+     * @param maxPoints The maximum number of points to take.
+     * @return The number of points actually taken, and the balance after; the balance is only
+     *         meaningful when points were taken.
+     */
+    public Taken takeUpTo(long accountId, int maxPoints) {
+        if (maxPoints <= 0) {
+            return Taken.NONE;
+        }
+        AtomicIntegerArray page = page(accountId, false);
+        if (page == null) {
+            return Taken.NONE;
+        }
+        int index = offset(accountId);
+        int current;
+        int taken;
+        do {
+            current = page.get(index);
+            taken = Math.min(Math.max(current, 0), maxPoints);
+            if (taken == 0) {
+                return Taken.NONE;
+            }
+        } while (!page.compareAndSet(index, current, current - taken));
+        return new Taken(taken, current - taken);
+    }
+
+    private static int offset(long accountId) {
+        return (int) (accountId & PAGE_MASK);
+    }
+
+    private AtomicIntegerArray page(long accountId, boolean create) {
+        if (accountId < 0) {
+            throw new IllegalArgumentException("Invalid account id: " + accountId);
+        }
+        long pageNumber = accountId >>> PAGE_BITS;
+        if (pageNumber >= DENSE_PAGES) {
+            return create ? sparsePages.computeIfAbsent(pageNumber, number -> new AtomicIntegerArray(PAGE_SIZE))
+                    : sparsePages.get(pageNumber);
+        }
+        int pageIndex = (int) pageNumber;
+        AtomicIntegerArray[] current = pages;
+        if (pageIndex < current.length && current[pageIndex] != null) {
+            return current[pageIndex];
+        }
+        return create ? createPage(pageIndex) : null;
+    }
+
+    private synchronized AtomicIntegerArray createPage(int pageIndex) {
+        AtomicIntegerArray[] current = pages;
+        if (pageIndex >= current.length) {
+            AtomicIntegerArray[] grown = new AtomicIntegerArray[Math.min(Math.max(current.length * 2, pageIndex + 1), DENSE_PAGES)];
+            System.arraycopy(current, 0, grown, 0, current.length);
+            current = grown;
+        }
+        if (current[pageIndex] == null) {
+            current[pageIndex] = new AtomicIntegerArray(PAGE_SIZE);
+        }
+        // Publish the page through the volatile field
+        pages = current;
+        return current[pageIndex];
+    }
+}
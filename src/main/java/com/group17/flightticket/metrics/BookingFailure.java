@@ -0,0 +1,19 @@
+package com.group17.flightticket.metrics;
+
+/**
+ * Why a booking operation failed, as counted by {@link BookingMetrics}.
+ */
+public enum BookingFailure {
+    /** The flight is closed for reservation */
+    FLIGHT_CLOSED,
+    /** The flight or the seat category has no seat left */
+    NO_SEATS,
+    /** The passenger already has a reservation on the flight */
+    ALREADY_BOOKED,
+    /** The passenger cannot afford the fare, an extra or a price difference */
+    INSUFFICIENT_BALANCE,
+    /** The passenger has no such reservation */
+    NOT_BOOKED,
+    /** The reservation is already in the seat category asked for */
+    SAME_CATEGORY
+}
@@ -0,0 +1,166 @@
+package com.group17.flightticket.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The {@code BookingMetrics} class times every {@link BookingOperation} in a {@link LatencyHistogram}
+ * and counts its failures, per operation and per {@link BookingFailure}, together with the payments
+ * retried because a balance changed under them.
+ * <p>
+ * Operations call {@link #start()} and then {@link #success} or {@link #failure} with what it returned:
+ * two clock reads and a few uncontended adds. Once {@link #setEnabled(boolean) disabled}, {@code start()}
+ * does not read the clock and nothing is recorded. The {@link BookingMetricsBinder} exports the
+ * metrics through Micrometer.
+ */
+public final class BookingMetrics {
+    private static final BookingOperation[] OPERATIONS = BookingOperation.values();
+    private static final BookingMetrics GLOBAL = new BookingMetrics();
+    /** Returned by {@link #start()} while disabled */
+    private static final long NOT_TIMED = Long.MIN_VALUE;
+
+    private final LatencyHistogram[] latencies = new LatencyHistogram[OPERATIONS.length];
+    private final LongAdder[] failuresByOperation = new LongAdder[OPERATIONS.length];
+    private final LongAdder[] failuresByReason = new LongAdder[BookingFailure.values().length];
+    private final LongAdder paymentConflicts = new LongAdder();
+    private volatile boolean enabled = true;
+
+    /**
+     * Constructs metrics with nothing recorded.
+     */
+    public BookingMetrics() {
+        for (int i = 0; i < OPERATIONS.length; i++) {
+            latencies[i] = new LatencyHistogram();
+            failuresByOperation[i] = new LongAdder();
+        }
+        for (int i = 0; i < failuresByReason.length; i++) {
+            failuresByReason[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Gets the metrics of every booking operation.
+     *
+     * @return The global booking metrics.
+     */
+    public static BookingMetrics global() {
+        return GLOBAL;
+    }
+
+    /**
+     * Turns recording on or off. Operations under way when it changes are recorded or not as they started.
+     *
+     * @param enabled {@code true} to record.
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Checks if operations are recorded.
+     *
+     * @return {@code true} if recording.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Starts timing an operation.
+     *
+     * @return The start time, to pass to {@link #success} or {@link #failure}.
+     */
+    public long start() {
+        return enabled ? System.nanoTime() : NOT_TIMED;
+    }
+
+    /**
+     * Records an operation that did what was asked.
+     *
+     * @param operation The operation.
+     * @param start     What {@link #start()} returned.
+     */
+    public void success(BookingOperation operation, long start) {
+        if (start != NOT_TIMED) {
+            record(operation, System.nanoTime() - start, null);
+        }
+    }
+
+    /**
+     * Records an operation that was refused. Its latency is recorded with the successful ones.
+     *
+     * @param operation The operation.
+     * @param start     What {@link #start()} returned.
+     * @param reason    Why it was refused.
+     */
+    public void failure(BookingOperation operation, long start, BookingFailure reason) {
+        if (start != NOT_TIMED) {
+            record(operation, System.nanoTime() - start, reason);
+        }
+    }
+
+    /**
+     * Records an operation the caller timed itself.
+     *
+     * @param operation    The operation.
+     * @param elapsedNanos How long it took.
+     * @param failure      Why it was refused, or {@code null} if it succeeded.
+     */
+    public void record(BookingOperation operation, long elapsedNanos, BookingFailure failure) {
+        if (!enabled) {
+            return;
+        }
+        latencies[operation.ordinal()].record(elapsedNanos);
+        if (failure != null) {
+            failuresByOperation[operation.ordinal()].increment();
+            failuresByReason[failure.ordinal()].increment();
+        }
+    }
+
+    /**
+     * Counts a payment retried because the balance changed between its check and its debit.
+     */
+    public void paymentConflict() {
+        if (enabled) {
+            paymentConflicts.increment();
+        }
+    }
+
+    /**
+     * Gets the latencies of an operation.
+     *
+     * @param operation The operation.
+     * @return The histogram of its latencies, failures included.
+     */
+    public LatencyHistogram getLatencies(BookingOperation operation) {
+        return latencies[operation.ordinal()];
+    }
+
+    /**
+     * Counts the failures of an operation.
+     *
+     * @param operation The operation.
+     * @return The number of times it was refused.
+     */
+    public long getFailures(BookingOperation operation) {
+        return failuresByOperation[operation.ordinal()].sum();
+    }
+
+    /**
+     * Counts the failures of every operation for a reason.
+     *
+     * @param reason The reason.
+     * @return The number of operations refused for it.
+     */
+    public long getFailures(BookingFailure reason) {
+        return failuresByReason[reason.ordinal()].sum();
+    }
+
+    /**
+     * Counts the payments retried because the balance changed concurrently.
+     *
+     * @return The number of retries.
+     */
+    public long getPaymentConflicts() {
+        return paymentConflicts.sum();
+    }
+}
@@ -0,0 +1,161 @@
+package com.group17.flightticket.metrics;
+
+import com.group17.flightticket.entity.Flight;
+import com.group17.flightticket.identity.Registries;
+import com.group17.flightticket.inventory.SeatInventory;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exports the {@link BookingMetrics} and the seats of the open flights through Micrometer:
+ * <ul>
+ *     <li>{@code booking.operation}, a timer per operation, with {@code booking.operation.latency}
+ *     gauges for its p50, p99, p99.9 and maximum, all read from one snapshot of the histogram per scrape;</li>
+ *     <li>{@code booking.operation.failures} per operation and {@code booking.failures} per reason;</li>
+ *     <li>{@code booking.payment.conflicts}, the payments retried;</li>
+ *     <li>{@code flight.seats.remaining}, {@code flight.load.factor} and {@code flight.seat.contention}
+ *     per flight open for reservation, refreshed every {@code flightticket.metrics.flight-refresh}.</li>
+ * </ul>
+ * Micrometer reads the counters when it publishes, the booking paths never call it.
+ */
+@Component
+public class BookingMetricsBinder implements MeterBinder {
+    private static final double[] PERCENTILES = {50, 99, 99.9};
+
+    private final BookingMetrics metrics;
+    private volatile List<MultiGauge> flightGauges = List.of();
+
+    /**
+     * Constructs a binder of the global booking metrics.
+     */
+    public BookingMetricsBinder() {
+        this(BookingMetrics.global());
+    }
+
+    /**
+     * Constructs a binder of the given booking metrics.
+     *
+     * @param metrics The metrics to export.
+     */
+    public BookingMetricsBinder(BookingMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (BookingOperation operation : BookingOperation.values()) {
+            String name = operation.name().toLowerCase();
+            LatencyHistogram histogram = metrics.getLatencies(operation);
+            FunctionTimer.builder("booking.operation", histogram, LatencyHistogram::getCount,
+                            LatencyHistogram::getTotalNanos, TimeUnit.NANOSECONDS)
+                    .tag("operation", name)
+                    .description("Time spent in booking operations, failures included")
+                    .register(registry);
+            ScrapeSnapshot latencies = new ScrapeSnapshot(histogram);
+            for (int i = 0; i < PERCENTILES.length; i++) {
+                int gauge = i;
+                double percentile = PERCENTILES[i];
+                Gauge.builder("booking.operation.latency", latencies,
+                                s -> s.get(gauge).valueAtPercentile(percentile) / 1e9)
+                        .tags("operation", name, "percentile", String.valueOf(percentile))
+                        .baseUnit("seconds")
+                        .strongReference(true)
+                        .register(registry);
+            }
+            Gauge.builder("booking.operation.latency", latencies, s -> s.get(PERCENTILES.length).maxNanos() / 1e9)
+                    .tags("operation", name, "percentile", "max")
+                    .baseUnit("seconds")
+                    .strongReference(true)
+                    .register(registry);
+            FunctionCounter.builder("booking.operation.failures", metrics, m -> m.getFailures(operation))
+                    .tag("operation", name)
+                    .register(registry);
+        }
+        for (BookingFailure reason : BookingFailure.values()) {
+            FunctionCounter.builder("booking.failures", metrics, m -> m.getFailures(reason))
+                    .tag("reason", reason.name().toLowerCase())
+                    .register(registry);
+        }
+        FunctionCounter.builder("booking.payment.conflicts", metrics, BookingMetrics::getPaymentConflicts)
+                .description("Payments retried because the balance changed concurrently")
+                .register(registry);
+
+        flightGauges = List.of(
+                MultiGauge.builder("flight.seats.remaining").register(registry),
+                MultiGauge.builder("flight.load.factor").register(registry),
+                MultiGauge.builder("flight.seat.contention")
+                        .description("Seat holds retried because another hold changed the counter first")
+                        .register(registry));
+        refreshFlightGauges();
+    }
+
+    /**
+     * Registers the gauges of the flights open for reservation and drops the others.
+     */
+    @Scheduled(fixedDelayString = "${flightticket.metrics.flight-refresh:PT10S}")
+    public void refreshFlightGauges() {
+        List<MultiGauge> gauges = flightGauges;
+        if (gauges.isEmpty()) {
+            return;
+        }
+        List<MultiGauge.Row<?>> remaining = new ArrayList<>();
+        List<MultiGauge.Row<?>> loadFactor = new ArrayList<>();
+        List<MultiGauge.Row<?>> contention = new ArrayList<>();
+        for (Flight flight : Registries.flights().values()) {
+            if (!flight.isBOpenForReservation()) {
+                continue;
+            }
+            Tags tags = Tags.of("flight", flight.getFlightKey().toString());
+            SeatInventory inventory = flight.getSeatInventory();
+            remaining.add(MultiGauge.Row.of(tags, inventory, SeatInventory::getRemainSeatCount));
+            loadFactor.add(MultiGauge.Row.of(tags, inventory,
+                    i -> i.getCapacity() == 0 ? 0 : (double) i.getSeatsTaken() / i.getCapacity()));
+            contention.add(MultiGauge.Row.of(tags, inventory, SeatInventory::getContention));
+        }
+        gauges.get(0).register(remaining, true);
+        gauges.get(1).register(loadFactor, true);
+        gauges.get(2).register(contention, true);
+    }
+
+    /**
+     * Shares one snapshot of a histogram between the latency gauges of an operation. Micrometer reads the
+     * gauges one by one; a scrape reads each of them once, so a snapshot is taken again when a gauge is read
+     * a second time, the start of the next scrape, or once it is older than a scrape takes.
+     */
+    private static final class ScrapeSnapshot {
+        private static final long MAX_AGE_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+        private final LatencyHistogram histogram;
+        private HistogramSnapshot snapshot;
+        private long takenAt;
+        /** The gauges that already read the current snapshot, one bit each */
+        private long served;
+
+        ScrapeSnapshot(LatencyHistogram histogram) {
+            this.histogram = histogram;
+        }
+
+        synchronized HistogramSnapshot get(int gauge) {
+            long now = System.nanoTime();
+            long bit = 1L << gauge;
+            if (snapshot == null || (served & bit) != 0 || now - takenAt > MAX_AGE_NANOS) {
+                snapshot = histogram.snapshot();
+                takenAt = now;
+                served = 0;
+            }
+            served |= bit;
+            return snapshot;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.group17.flightticket.metrics;
+
+/**
+ * The operations timed by {@link BookingMetrics}.
+ */
+public enum BookingOperation {
+    /** Booking a seat with its extras, see {@link com.group17.flightticket.entity.BookingTransaction} */
+    RESERVE,
+    /** Canceling a reservation and refunding it */
+    CANCEL,
+    /** Moving a reservation to another seat category */
+    MODIFY_CATEGORY,
+    /** Boarding every passenger at the gate */
+    BOARD,
+    /** Delaying a flight and notifying its passengers */
+    DELAY,
+    /** Redeeming loyalty points for a fee */
+    REDEEM_POINTS
+}
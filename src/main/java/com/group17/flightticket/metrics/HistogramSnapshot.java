@@ -0,0 +1,42 @@
+package com.group17.flightticket.metrics;
+
+/**
+ * The counts of a {@link LatencyHistogram} at one moment.
+ *
+ * @param counts     The number of latencies in each bucket.
+ * @param count      The number of latencies.
+ * @param totalNanos The sum of the latencies.
+ * @param maxNanos   The longest latency.
+ */
+public record HistogramSnapshot(long[] counts, long count, long totalNanos, long maxNanos) {
+
+    /**
+     * Gets the latency below which a share of the latencies fall, to within the precision of a bucket.
+     *
+     * @param percentile The share, from 0 to 100, e.g. 99.9.
+     * @return The latency in nanoseconds, never above the longest one, or 0 before the first latency.
+     */
+    public long valueAtPercentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(LatencyHistogram.highestValue(i), maxNanos);
+            }
+        }
+        return maxNanos;
+    }
+
+    /**
+     * Gets the average latency.
+     *
+     * @return The mean in nanoseconds, {@code 0} before the first latency.
+     */
+    public double mean() {
+        return count == 0 ? 0 : (double) totalNanos / count;
+    }
+}
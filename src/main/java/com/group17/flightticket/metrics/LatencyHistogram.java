@@ -0,0 +1,115 @@
+package com.group17.flightticket.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The {@code LatencyHistogram} class counts latencies in log-linear buckets, in the manner of an
+ * HDR histogram: every power of two is split in {@value #SUB_BUCKETS} equal buckets, so a value is
+ * known to within about 3% whatever its size, from nanoseconds to hours, in a fixed array of counters.
+ * <p>
+ * Recording is one increment of a bucket, one of the total time and a read of the maximum; none of them
+ * locks, and readers take a {@link #snapshot()} while writers go on. The buckets are striped, like the
+ * cells of a {@link LongAdder}: each thread counts in the stripe its id falls in, so threads recording the
+ * same latency do not fight over one counter, and a snapshot adds the stripes up.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    /** Latencies above about 4.9 hours are counted as that */
+    private static final long HIGHEST_TRACKABLE = (1L << 44) - 1;
+    private static final int BUCKETS = index(HIGHEST_TRACKABLE) + 1;
+    /** A power of two, at least the number of processors up to 16, so busy threads rarely share a stripe */
+    private static final int STRIPES = Integer.highestOneBit(Math.min(Runtime.getRuntime().availableProcessors(), 16) * 2 - 1);
+
+    /** The buckets of every stripe, one stripe after the other, so stripes are far apart in memory */
+    private final AtomicLongArray counts = new AtomicLongArray(STRIPES * BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Records a latency.
+     *
+     * @param nanos The latency in nanoseconds; negative values are counted as 0.
+     */
+    public void record(long nanos) {
+        long value = Math.min(Math.max(nanos, 0), HIGHEST_TRACKABLE);
+        counts.getAndIncrement(stripe() * BUCKETS + index(value));
+        count.increment();
+        totalNanos.add(value);
+        if (value > maxNanos.get()) {
+            maxNanos.accumulateAndGet(value, Math::max);
+        }
+    }
+
+    /**
+     * Counts the latencies recorded.
+     *
+     * @return The number of latencies.
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Adds up the latencies recorded.
+     *
+     * @return The total time in nanoseconds.
+     */
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    /**
+     * Copies the buckets, for percentiles.
+     *
+     * @return A snapshot of the histogram.
+     */
+    public HistogramSnapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        long total = 0;
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            int offset = stripe * BUCKETS;
+            for (int i = 0; i < BUCKETS; i++) {
+                long bucket = counts.get(offset + i);
+                copy[i] += bucket;
+                total += bucket;
+            }
+        }
+        return new HistogramSnapshot(copy, total, totalNanos.sum(), maxNanos.get());
+    }
+
+    /**
+     * Picks the stripe of the current thread, spreading the thread ids so consecutive ones differ in the low bits.
+     */
+    private static int stripe() {
+        long id = Thread.currentThread().threadId() * 0x9E3779B97F4A7C15L;
+        return (int) (id >>> 32) & (STRIPES - 1);
+    }
+
+    /**
+     * Finds the bucket of a value: values below {@code 2 * SUB_BUCKETS} have their own bucket, larger
+     * values share one with the values of the same power of two and the same leading bits.
+     */
+    static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    /**
+     * Gets the largest value counted in a bucket.
+     */
+    static long highestValue(int index) {
+        if (index < 2 * SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long lowest = (long) (index % SUB_BUCKETS + SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
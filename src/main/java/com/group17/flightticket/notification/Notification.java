@@ -0,0 +1,47 @@
+package com.group17.flightticket.notification;
+
+import com.group17.flightticket.entity.Flight;
+import com.group17.flightticket.entity.Terminal;
+
+/**
+ * A notification waiting to be delivered by the {@link NotificationDispatcher}.
+ *
+ * @param type     The kind of notification.
+ * @param flight   The flight the notification is about.
+ * @param terminal The terminal to notify, or {@code null} if it is not a terminal notification.
+ * @param message  The text of a terminal notification, or {@code null}.
+ */
+public record Notification(Type type, Flight flight, Terminal terminal, String message) {
+
+    /**
+     * The kinds of notifications.
+     */
+    public enum Type {
+        /** The flight was delayed, its passengers must be told */
+        FLIGHT_DELAYED,
+        /** A message for the staff of a terminal */
+        TERMINAL_MESSAGE
+    }
+
+    /**
+     * Creates the notification of a flight delay.
+     *
+     * @param flight The delayed flight.
+     * @return The notification.
+     */
+    public static Notification flightDelayed(Flight flight) {
+        return new Notification(Type.FLIGHT_DELAYED, flight, null, null);
+    }
+
+    /**
+     * Creates a message for a terminal.
+     *
+     * @param flight   The flight the message is about.
+     * @param terminal The terminal to notify.
+     * @param message  The text of the message.
+     * @return The notification.
+     */
+    public static Notification terminalMessage(Flight flight, Terminal terminal, String message) {
+        return new Notification(Type.TERMINAL_MESSAGE, flight, terminal, message);
+    }
+}
@@ -0,0 +1,243 @@
+package com.group17.flightticket.notification;
+
+import com.group17.flightticket.identity.FlightKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The {@code NotificationDispatcher} class delivers notifications away from the thread that publishes them.
+ * <p>
+ * Publishing only puts the notification in a bounded queue. A dispatcher thread drains the queue in
+ * batches and hands every batch to all sinks at once, each sink on its own virtual thread, then waits
+ * for them before taking the next batch so every sink sees the queued notifications in publishing order.
+ * <p>
+ * Delays of the same flight are coalesced: while a delay of a flight is still waiting in the queue,
+ * a newer delay replaces it instead of taking another slot, and passengers are only told about the
+ * latest times. When the queue is full the notification is delivered on the publishing thread, which
+ * slows down publishers instead of losing notifications; the {@link NotificationStats} show how often.
+ * Such a notification is the one exception to publishing order: it can reach the sinks before the
+ * notifications still waiting in the queue.
+ */
+public class NotificationDispatcher {
+    /** Default number of notifications that can wait in the queue */
+    public static final int DEFAULT_QUEUE_CAPACITY = 8192;
+    /** Default maximum number of notifications delivered in one batch */
+    public static final int DEFAULT_MAX_BATCH = 256;
+
+    private static final Logger LOG = LoggerFactory.getLogger(NotificationDispatcher.class);
+    private static final NotificationDispatcher GLOBAL = createGlobal();
+
+    private final BlockingQueue<Notification> queue;
+    /** The latest delay of every flight whose delay is still waiting in the queue */
+    private final Map<FlightKey, Notification> pendingDelays = new ConcurrentHashMap<>();
+    private final List<NotificationSink> sinks = new CopyOnWriteArrayList<>();
+    private final ExecutorService deliveryExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final int maxBatch;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder callerRuns = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    /** Notifications queued or being delivered by the dispatcher thread */
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+    private Thread dispatcherThread;
+
+    /**
+     * Constructs a dispatcher with the default queue capacity and batch size.
+     * The dispatcher does not deliver anything before {@link #start()} is called.
+     */
+    public NotificationDispatcher() {
+        this(DEFAULT_QUEUE_CAPACITY, DEFAULT_MAX_BATCH);
+    }
+
+    /**
+     * Constructs a dispatcher. The dispatcher does not deliver anything before {@link #start()} is called.
+     *
+     * @param queueCapacity The number of notifications that can wait in the queue.
+     * @param maxBatch      The maximum number of notifications delivered in one batch.
+     */
+    public NotificationDispatcher(int queueCapacity, int maxBatch) {
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBatch = maxBatch;
+    }
+
+    /**
+     * Gets the dispatcher used by the entities, already started and delivering to
+     * passengers and terminals.
+     *
+     * @return The global dispatcher.
+     */
+    public static NotificationDispatcher global() {
+        return GLOBAL;
+    }
+
+    private static NotificationDispatcher createGlobal() {
+        NotificationDispatcher dispatcher = new NotificationDispatcher();
+        dispatcher.addSink(new PassengerNotificationSink());
+        dispatcher.addSink(new TerminalNotificationSink());
+        dispatcher.start();
+        return dispatcher;
+    }
+
+    /**
+     * Adds a sink that receives every batch from now on.
+     *
+     * @param sink The sink to add.
+     */
+    public void addSink(NotificationSink sink) {
+        sinks.add(sink);
+    }
+
+    /**
+     * Removes a sink.
+     *
+     * @param sink The sink to remove.
+     */
+    public void removeSink(NotificationSink sink) {
+        sinks.remove(sink);
+    }
+
+    /**
+     * Gets the sinks currently receiving batches.
+     *
+     * @return A snapshot of the sinks.
+     */
+    public List<NotificationSink> getSinks() {
+        return List.copyOf(sinks);
+    }
+
+    /**
+     * Starts the dispatcher thread. Calling it again has no effect.
+     */
+    public synchronized void start() {
+        if (dispatcherThread == null) {
+            dispatcherThread = Thread.ofVirtual().name("notification-dispatcher").start(this::dispatchLoop);
+        }
+    }
+
+    /**
+     * Publishes a notification. This never waits for the sinks unless the queue is full, in which case
+     * the notification is delivered right away, ahead of the queued ones.
+     *
+     * @param notification The notification to deliver.
+     */
+    public void publish(Notification notification) {
+        published.increment();
+        if (notification.type() == Notification.Type.FLIGHT_DELAYED
+                && pendingDelays.put(notification.flight().getFlightKey(), notification) != null) {
+            // A delay of this flight is already queued, it will be delivered with the new times
+            coalesced.increment();
+            return;
+        }
+        int depth = inFlight.incrementAndGet();
+        if (queue.offer(notification)) {
+            maxQueueDepth.accumulateAndGet(depth, Math::max);
+            return;
+        }
+        inFlight.decrementAndGet();
+        callerRuns.increment();
+        List<Notification> batch = new ArrayList<>(1);
+        addResolved(batch, notification);
+        deliver(batch);
+    }
+
+    /**
+     * Waits until every published notification has been delivered.
+     *
+     * @param timeout The longest time to wait.
+     * @return {@code true} if the dispatcher became idle, {@code false} if the timeout elapsed first.
+     * @throws InterruptedException if the waiting thread is interrupted.
+     */
+    public boolean awaitIdle(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (inFlight.get() > 0) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            Thread.sleep(1);
+        }
+        return true;
+    }
+
+    /**
+     * Gets a snapshot of the dispatcher counters.
+     *
+     * @return The current statistics.
+     */
+    public NotificationStats getStats() {
+        return new NotificationStats(published.sum(), coalesced.sum(), delivered.sum(), callerRuns.sum(),
+                batches.sum(), queue.size(), maxQueueDepth.get());
+    }
+
+    private void dispatchLoop() {
+        List<Notification> taken = new ArrayList<>(maxBatch);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                taken.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(taken, maxBatch - 1);
+            List<Notification> batch = new ArrayList<>(taken.size());
+            for (Notification notification : taken) {
+                addResolved(batch, notification);
+            }
+            deliver(batch);
+            batches.increment();
+            inFlight.addAndGet(-taken.size());
+            taken.clear();
+        }
+    }
+
+    /**
+     * Replaces a queued delay by the latest delay published for the same flight.
+     */
+    private void addResolved(List<Notification> batch, Notification notification) {
+        if (notification.type() != Notification.Type.FLIGHT_DELAYED) {
+            batch.add(notification);
+            return;
+        }
+        Notification latest = pendingDelays.remove(notification.flight().getFlightKey());
+        if (latest != null) {
+            batch.add(latest);
+        }
+    }
+
+    private void deliver(List<Notification> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<Future<?>> deliveries = new ArrayList<>(sinks.size());
+        for (NotificationSink sink : sinks) {
+            deliveries.add(deliveryExecutor.submit(() -> sink.deliver(batch)));
+        }
+        for (Future<?> delivery : deliveries) {
+            try {
+                delivery.get();
+            } catch (ExecutionException e) {
+                LOG.warn("Notification sink failed", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        delivered.add(batch.size());
+    }
+}
@@ -0,0 +1,17 @@
+package com.group17.flightticket.notification;
+
+import java.util.List;
+
+/**
+ * A consumer of notifications. The dispatcher hands each sink whole batches, one batch at a time,
+ * so a sink sees notifications in the order they were published.
+ */
+public interface NotificationSink {
+
+    /**
+     * Delivers a batch of notifications. Sinks ignore the types they do not handle.
+     *
+     * @param batch The notifications to deliver, in publishing order.
+     */
+    void deliver(List<Notification> batch);
+}
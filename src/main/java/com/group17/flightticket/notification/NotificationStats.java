@@ -0,0 +1,16 @@
+package com.group17.flightticket.notification;
+
+/**
+ * A snapshot of the counters of a {@link NotificationDispatcher}.
+ *
+ * @param published     Notifications handed to the dispatcher.
+ * @param coalesced     Delay notifications merged into one already waiting for the same flight.
+ * @param delivered     Notifications delivered to the sinks.
+ * @param callerRuns    Notifications delivered on the publishing thread because the queue was full.
+ * @param batches       Batches delivered by the dispatcher thread.
+ * @param queueDepth    Notifications currently waiting in the queue.
+ * @param maxQueueDepth The deepest the queue has been.
+ */
+public record NotificationStats(long published, long coalesced, long delivered, long callerRuns,
+                                long batches, int queueDepth, int maxQueueDepth) {
+}
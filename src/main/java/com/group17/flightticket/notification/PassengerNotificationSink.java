@@ -0,0 +1,22 @@
+package com.group17.flightticket.notification;
+
+import com.group17.flightticket.entity.Passenger;
+
+import java.util.List;
+
+/**
+ * Tells every passenger of a delayed flight about the delay through {@link Passenger#Notified()}.
+ */
+public class PassengerNotificationSink implements NotificationSink {
+
+    @Override
+    public void deliver(List<Notification> batch) {
+        for (Notification notification : batch) {
+            if (notification.type() == Notification.Type.FLIGHT_DELAYED) {
+                for (Passenger passenger : notification.flight().getPassengerList()) {
+                    passenger.Notified();
+                }
+            }
+        }
+    }
+}
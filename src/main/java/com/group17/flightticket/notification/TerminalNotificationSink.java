@@ -0,0 +1,20 @@
+package com.group17.flightticket.notification;
+
+import com.group17.flightticket.entity.Terminal;
+
+import java.util.List;
+
+/**
+ * Passes terminal messages on to {@link Terminal#notify(String)}.
+ */
+public class TerminalNotificationSink implements NotificationSink {
+
+    @Override
+    public void deliver(List<Notification> batch) {
+        for (Notification notification : batch) {
+            if (notification.type() == Notification.Type.TERMINAL_MESSAGE) {
+                notification.terminal().notify(notification.message());
+            }
+        }
+    }
+}
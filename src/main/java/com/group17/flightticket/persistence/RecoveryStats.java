@@ -0,0 +1,16 @@
+package com.group17.flightticket.persistence;
+
+/**
+ * What a {@link ReservationStore} recovered on start-up.
+ *
+ * @param snapshotSequence       The log sequence of the snapshot loaded, 0 without a snapshot.
+ * @param replayedRecords        The number of log records replayed on top of the snapshot.
+ * @param restoredReservations   The number of reservations put back on their passengers and flights.
+ * @param unresolvedReservations The number of reservations whose passenger or flight is not registered,
+ *                               or whose flight had no seat left.
+ * @param loadMillis             The time taken to read the snapshot and replay the log.
+ * @param restoreMillis          The time taken to apply the recovered state to the entities.
+ */
+public record RecoveryStats(long snapshotSequence, long replayedRecords, int restoredReservations,
+                            int unresolvedReservations, long loadMillis, long restoreMillis) {
+}
@@ -0,0 +1,471 @@
+package com.group17.flightticket.persistence;
+
+import com.group17.flightticket.entity.AirlineCompany;
+import com.group17.flightticket.entity.Flight;
+import com.group17.flightticket.entity.Insurance;
+import com.group17.flightticket.entity.Passenger;
+import com.group17.flightticket.entity.Reservation;
+import com.group17.flightticket.event.BookingEvent;
+import com.group17.flightticket.event.BookingEventSink;
+import com.group17.flightticket.identity.FlightKey;
+import com.group17.flightticket.identity.Registries;
+import com.group17.flightticket.persistence.StoredState.StoredPassenger;
+import com.group17.flightticket.persistence.StoredState.StoredReservation;
+import com.group17.flightticket.wallet.Money;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * The {@code ReservationStore} class makes reservations, cancellations, seat category changes,
+ * insurance and priority boarding purchases and loyalty points movements durable.
+ * <p>
+ * The store is a {@link BookingEventSink}: attached to the {@link com.group17.flightticket.event.BookingEventBus},
+ * it receives those events on the bus thread, appends them to a binary write-ahead log and forces the log
+ * to disk once per drained batch. Many bookings therefore share one fsync, and the booking path itself
+ * never waits for the disk. Every {@code snapshotInterval} records, and on {@link #snapshot()}, the log
+ * starts a new segment and a copy of the durable state is written to a memory-mapped snapshot on a thread
+ * of its own, so the bus thread never waits for it either. The segments before the snapshot are deleted
+ * once it is written.
+ * <p>
+ * A failed write keeps its records buffered and cuts the segment back to its last complete record, so
+ * the records are written again by the next flush and never reported durable before they are.
+ * <p>
+ * On start-up, {@link #open(Path)} loads the latest snapshot and replays the log written after it.
+ * Once the airlines, flights and passengers are registered again, {@link #restore()} puts the recovered
+ * reservations, insurance, priority boarding, balances and points back on them.
+ * <p>
+ * Log records are framed as {@code [length][crc32][sequence][payload]}. A torn record at the end of the
+ * log, left by a crash during a write, is cut off on recovery.
+ */
+public class ReservationStore implements BookingEventSink, Closeable {
+    /** The number of log records after which a snapshot is taken by default */
+    public static final long DEFAULT_SNAPSHOT_INTERVAL = 1_000_000;
+
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".bin";
+    private static final int FRAME_HEADER = 4 + 4 + 8;
+    private static final Logger LOG = LoggerFactory.getLogger(ReservationStore.class);
+
+    private final Path directory;
+    private final long snapshotInterval;
+    private final StoredState state = new StoredState();
+    private final ByteBuffer payload = ByteBuffer.allocate(64 * 1024);
+    private final ByteBuffer pending = ByteBuffer.allocateDirect(1 << 20);
+    private final ByteBuffer sequenceBytes = ByteBuffer.allocate(8);
+    private final CRC32 crc = new CRC32();
+    /** Writes the snapshots, one at a time */
+    private final ExecutorService snapshotWriter = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().daemon().name("reservation-snapshot").factory());
+    private FileChannel segment;
+    /** The length of the records of the segment written completely */
+    private long segmentLength;
+    /** The snapshot being written, if any */
+    private Future<?> pendingSnapshot = CompletableFuture.completedFuture(null);
+    private long sequence;
+    private long snapshotSequence;
+    private volatile long durableSequence;
+    private final long loadedSnapshotSequence;
+    private final long replayedRecords;
+    private final long loadMillis;
+    private boolean restored;
+
+    private ReservationStore(Path directory, long snapshotInterval) throws IOException {
+        long start = System.nanoTime();
+        this.directory = directory;
+        this.snapshotInterval = snapshotInterval;
+        Files.createDirectories(directory);
+
+        List<Path> snapshots = list(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+        if (!snapshots.isEmpty()) {
+            snapshotSequence = SnapshotFile.read(snapshots.get(snapshots.size() - 1), state);
+        }
+        loadedSnapshotSequence = snapshotSequence;
+        sequence = snapshotSequence;
+
+        long replayed = 0;
+        Map<String, FlightKey> flightKeys = new HashMap<>();
+        for (Path file : list(SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+            long before = sequence;
+            boolean complete = replay(file, flightKeys);
+            replayed += sequence - Math.max(before, snapshotSequence);
+            if (!complete) {
+                break;
+            }
+        }
+        replayedRecords = replayed;
+        durableSequence = sequence;
+        openSegment();
+        loadMillis = (System.nanoTime() - start) / 1_000_000;
+    }
+
+    /**
+     * Opens the store in a directory, recovering the state written there before.
+     *
+     * @param directory The directory of the log and snapshots, created if needed.
+     * @return The opened store.
+     * @throws IOException if the directory cannot be read or written.
+     */
+    public static ReservationStore open(Path directory) throws IOException {
+        return open(directory, DEFAULT_SNAPSHOT_INTERVAL);
+    }
+
+    /**
+     * Opens the store in a directory, recovering the state written there before.
+     *
+     * @param directory        The directory of the log and snapshots, created if needed.
+     * @param snapshotInterval The number of log records after which a snapshot is taken.
+     * @return The opened store.
+     * @throws IOException if the directory cannot be read or written.
+     */
+    public static ReservationStore open(Path directory, long snapshotInterval) throws IOException {
+        return new ReservationStore(directory, snapshotInterval);
+    }
+
+    /**
+     * Applies the recovered state to the registered entities: reservations, with their insurance, are put
+     * back on their passengers and flights, balances are changed by what the bookings paid and refunded,
+     * and priority boarding and loyalty points are set. Call it once, after the airlines, flights and
+     * passengers have been created again and before the store is attached to the event bus.
+     *
+     * @return What was recovered.
+     * @throws IllegalStateException if the state has already been restored.
+     */
+    public synchronized RecoveryStats restore() {
+        if (restored) {
+            throw new IllegalStateException("Reservations have already been restored");
+        }
+        restored = true;
+        long start = System.nanoTime();
+
+        int restoredReservations = 0;
+        int unresolved = 0;
+        for (StoredReservation stored : state.reservations.values()) {
+            if (!stored.created) {
+                continue;
+            }
+            Passenger passenger = Registries.passengers().get(stored.passengerId);
+            Flight flight = Registries.flights().get(stored.flightKey);
+            if (passenger == null || flight == null) {
+                unresolved++;
+                continue;
+            }
+            Reservation reservation = new Reservation(stored.reservationId, flight, stored.category);
+            reservation.setSeat(stored.seat);
+            // Reservations stored before fares were paid the base fee
+            reservation.setFee(stored.fee == StoredState.NO_FEE ? stored.category.getBaseFee() : Money.toMajor(stored.fee));
+            if (stored.policyNumber != null) {
+                reservation.setInsurance(new Insurance(stored.policyNumber, Money.toMajor(stored.coverage), passenger,
+                        Insurance.FLIGHT_ACCIDENT_INSURANCE));
+            }
+            if (passenger.restoreReservation(reservation)) {
+                restoredReservations++;
+            } else {
+                unresolved++;
+            }
+        }
+
+        for (StoredPassenger stored : state.passengers.values()) {
+            Passenger passenger = Registries.passengers().get(stored.passengerId);
+            if (passenger == null) {
+                continue;
+            }
+            passenger.getWallet().adjust(stored.balanceChange, "recovery");
+            if (stored.priorityBoarding == 1) {
+                passenger.enablePriorityBoarding();
+            } else if (stored.priorityBoarding == 0) {
+                passenger.unablePriorityBoarding();
+            }
+        }
+
+        for (Map.Entry<String, Map<Long, Integer>> scheme : state.points.entrySet()) {
+            AirlineCompany airline = Registries.airlines().get(scheme.getKey());
+            if (airline == null) {
+                continue;
+            }
+            for (Map.Entry<Long, Integer> account : scheme.getValue().entrySet()) {
+                airline.getLoyalScheme().restorePoints(account.getKey(), account.getValue());
+            }
+        }
+
+        return new RecoveryStats(loadedSnapshotSequence, replayedRecords, restoredReservations, unresolved,
+                loadMillis, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @Override
+    public synchronized void onEvent(BookingEvent event) {
+        payload.clear();
+        if (!WalCodec.encode(event, payload)) {
+            return;
+        }
+        payload.flip();
+        int length = payload.remaining();
+        if (pending.remaining() < FRAME_HEADER + length) {
+            // Make room first, so a failed write leaves the event out of the state as well as the log
+            writePending();
+        }
+        state.apply(event);
+        sequence++;
+
+        crc.reset();
+        crc.update(sequenceBytes.putLong(0, sequence).clear());
+        crc.update(payload.duplicate());
+        pending.putInt(length).putInt((int) crc.getValue()).putLong(sequence).put(payload);
+    }
+
+    /**
+     * Writes the records of the drained batch and forces them to disk, as one group commit.
+     */
+    @Override
+    public synchronized void flush() {
+        try {
+            commit();
+            if (sequence - snapshotSequence >= snapshotInterval && pendingSnapshot.isDone()) {
+                startSnapshot();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes a snapshot of the durable state now and starts a new log after it, waiting until it is written.
+     *
+     * @throws IOException if the snapshot cannot be written.
+     */
+    public void snapshot() throws IOException {
+        Future<?> written;
+        synchronized (this) {
+            commit();
+            written = startSnapshot();
+        }
+        await(written);
+    }
+
+    /**
+     * Gets the sequence of the last record appended to the log.
+     *
+     * @return The last log sequence.
+     */
+    public synchronized long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Gets the sequence of the last record forced to disk. Records up to it survive a crash.
+     *
+     * @return The last durable log sequence.
+     */
+    public long getDurableSequence() {
+        return durableSequence;
+    }
+
+    /**
+     * Gets the number of live reservations in the durable state.
+     *
+     * @return The reservation count.
+     */
+    public synchronized int getReservationCount() {
+        int count = 0;
+        for (StoredReservation reservation : state.reservations.values()) {
+            if (reservation.created) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        Future<?> written;
+        synchronized (this) {
+            commit();
+            segment.close();
+            written = pendingSnapshot;
+            snapshotWriter.shutdown();
+        }
+        await(written);
+    }
+
+    private void commit() throws IOException {
+        writePending();
+        segment.force(false);
+        durableSequence = sequence;
+    }
+
+    /**
+     * Writes the buffered records. Only a complete write empties the buffer; a failed one cuts the
+     * segment back to its last complete record and keeps the records, to write them again.
+     */
+    private void writePending() {
+        pending.flip();
+        try {
+            while (pending.hasRemaining()) {
+                segment.write(pending);
+            }
+            segmentLength += pending.limit();
+            pending.clear();
+        } catch (IOException e) {
+            pending.position(pending.limit()).limit(pending.capacity());
+            try {
+                segment.truncate(segmentLength);
+            } catch (IOException truncateFailure) {
+                e.addSuppressed(truncateFailure);
+            }
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Starts a new log segment and writes a copy of the state on the snapshot thread.
+     */
+    private Future<?> startSnapshot() throws IOException {
+        StoredState copy = state.copy();
+        long snapshotAt = sequence;
+        snapshotSequence = sequence;
+        segment.close();
+        openSegment();
+        pendingSnapshot = snapshotWriter.submit(() -> {
+            try {
+                writeSnapshot(copy, snapshotAt);
+            } catch (IOException e) {
+                // The segments it would replace are kept, so nothing is lost
+                LOG.warn("Snapshot at sequence {} failed", snapshotAt, e);
+                throw e;
+            }
+            return null;
+        });
+        return pendingSnapshot;
+    }
+
+    /**
+     * Writes a snapshot, then drops the segments and snapshots it replaces. Runs on the snapshot thread.
+     */
+    private void writeSnapshot(StoredState copy, long snapshotAt) throws IOException {
+        SnapshotFile.write(directory.resolve(name(SNAPSHOT_PREFIX, snapshotAt, SNAPSHOT_SUFFIX)), snapshotAt, copy);
+        // Every record of the segments started before the snapshot is in it
+        for (Path file : list(SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+            if (sequenceOf(file, SEGMENT_PREFIX) <= snapshotAt) {
+                Files.delete(file);
+            }
+        }
+        for (Path file : list(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) {
+            if (sequenceOf(file, SNAPSHOT_PREFIX) < snapshotAt) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private static void await(Future<?> written) throws IOException {
+        try {
+            written.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while writing a snapshot");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Snapshot failed", e.getCause());
+        }
+    }
+
+    private void openSegment() throws IOException {
+        segment = FileChannel.open(directory.resolve(name(SEGMENT_PREFIX, sequence + 1, SEGMENT_SUFFIX)),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        segmentLength = segment.size();
+    }
+
+    /**
+     * Replays the records of one log segment that come after the current sequence.
+     *
+     * @param file       The segment.
+     * @param flightKeys The flight keys decoded so far.
+     * @return {@code false} if the segment ends with a torn record, which has been cut off.
+     * @throws IOException if the segment cannot be read.
+     */
+    private boolean replay(Path file, Map<String, FlightKey> flightKeys) throws IOException {
+        long validLength;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            while (true) {
+                int start = in.position();
+                if (in.remaining() < FRAME_HEADER) {
+                    validLength = start;
+                    break;
+                }
+                int length = in.getInt();
+                int checksum = in.getInt();
+                long recordSequence = in.getLong();
+                if (length <= 0 || in.remaining() < length) {
+                    validLength = start;
+                    break;
+                }
+                ByteBuffer record = in.slice(in.position(), length);
+                crc.reset();
+                crc.update(sequenceBytes.putLong(0, recordSequence).clear());
+                crc.update(record.duplicate());
+                if ((int) crc.getValue() != checksum) {
+                    validLength = start;
+                    break;
+                }
+                in.position(in.position() + length);
+                if (recordSequence > sequence) {
+                    state.apply(WalCodec.decode(record, flightKeys));
+                    sequence = recordSequence;
+                }
+            }
+            if (validLength == channel.size()) {
+                return true;
+            }
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(validLength);
+        }
+        return false;
+    }
+
+    private List<Path> list(String prefix, String suffix) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> stream = Files.list(directory)) {
+            stream.filter(file -> {
+                String fileName = file.getFileName().toString();
+                return fileName.startsWith(prefix) && fileName.endsWith(suffix);
+            }).forEach(files::add);
+        }
+        files.sort((a, b) -> Long.compare(sequenceOf(a, prefix), sequenceOf(b, prefix)));
+        return files;
+    }
+
+    private static long sequenceOf(Path file, String prefix) {
+        String fileName = file.getFileName().toString();
+        return Long.parseLong(fileName.substring(prefix.length(), fileName.lastIndexOf('.')));
+    }
+
+    private static String name(String prefix, long sequence, String suffix) {
+        return String.format("%s%020d%s", prefix, sequence, suffix);
+    }
+}
@@ -0,0 +1,204 @@
+package com.group17.flightticket.persistence;
+
+import com.group17.flightticket.enums.SeatCategory;
+import com.group17.flightticket.identity.FlightKey;
+import com.group17.flightticket.persistence.StoredState.StoredPassenger;
+import com.group17.flightticket.persistence.StoredState.StoredReservation;
+import com.group17.flightticket.wallet.Money;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Writes and reads compact binary snapshots of the {@link StoredState} through memory-mapped files.
+ * <p>
+ * Flight keys are written once in a table and referenced by index, so a reservation takes 35 bytes
+ * without insurance. Amounts are stored in minor units. Version 1 snapshots, written before seats were
+ * assigned, version 2 snapshots, written before fares were stored, and version 3 snapshots, which stored
+ * amounts as doubles, can still be read. The file ends with a CRC32 of its content, and is written under a temporary
+ * name then moved in place, so a crash never leaves a partial snapshot behind.
+ */
+final class SnapshotFile {
+    private static final int MAGIC = 0x46545353;
+    private static final int VERSION = 4;
+    /** The first version with the seat of every reservation */
+    private static final int SEAT_VERSION = 2;
+    /** The first version with the fare of every reservation */
+    private static final int FEE_VERSION = 3;
+    /** The first version with amounts in minor units */
+    private static final int MINOR_VERSION = 4;
+    private static final SeatCategory[] CATEGORIES = SeatCategory.values();
+
+    private SnapshotFile() {
+    }
+
+    /**
+     * Writes a snapshot of the state.
+     *
+     * @param file     The snapshot file to create.
+     * @param sequence The log sequence the state is at.
+     * @param state    The state to write.
+     * @throws IOException if the file cannot be written.
+     */
+    static void write(Path file, long sequence, StoredState state) throws IOException {
+        // Index the flight keys and size the file before mapping it
+        Map<FlightKey, Integer> flightIndex = new HashMap<>();
+        List<byte[]> flightKeys = new ArrayList<>();
+        long size = 4 + 4 + 8 + 4;
+        for (StoredReservation reservation : state.reservations.values()) {
+            if (reservation.flightKey != null && !flightIndex.containsKey(reservation.flightKey)) {
+                flightIndex.put(reservation.flightKey, flightKeys.size());
+                byte[] key = reservation.flightKey.toString().getBytes(StandardCharsets.UTF_8);
+                flightKeys.add(key);
+                size += 4 + key.length;
+            }
+            size += 8 + 8 + 4 + 1 + 2 + 2 + 8 + 1 + 1;
+            if (reservation.policyNumber != null) {
+                size += 4 + utf8Length(reservation.policyNumber) + 8;
+            }
+        }
+        size += 4 + 4 + (long) state.passengers.size() * (8 + 8 + 1);
+        size += 4;
+        for (Map.Entry<String, Map<Long, Integer>> scheme : state.points.entrySet()) {
+            size += 4 + utf8Length(scheme.getKey()) + 4 + (long) scheme.getValue().size() * (8 + 4);
+        }
+        size += 4;
+
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer out = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            out.putInt(MAGIC).putInt(VERSION).putLong(sequence);
+
+            out.putInt(flightKeys.size());
+            for (byte[] key : flightKeys) {
+                out.putInt(key.length).put(key);
+            }
+
+            out.putInt(state.reservations.size());
+            for (StoredReservation reservation : state.reservations.values()) {
+                out.putLong(reservation.reservationId).putLong(reservation.passengerId);
+                out.putInt(reservation.flightKey == null ? -1 : flightIndex.get(reservation.flightKey));
+                out.put((byte) (reservation.category == null ? -1 : reservation.category.ordinal()));
+                WalCodec.putSeat(out, reservation.seat);
+                out.putLong(reservation.fee);
+                out.put((byte) (reservation.created ? 1 : 0));
+                if (reservation.policyNumber == null) {
+                    out.put((byte) 0);
+                } else {
+                    out.put((byte) 1);
+                    WalCodec.putString(out, reservation.policyNumber);
+                    out.putLong(reservation.coverage);
+                }
+            }
+
+            out.putInt(state.passengers.size());
+            for (StoredPassenger passenger : state.passengers.values()) {
+                out.putLong(passenger.passengerId).putLong(passenger.balanceChange).put(passenger.priorityBoarding);
+            }
+
+            out.putInt(state.points.size());
+            for (Map.Entry<String, Map<Long, Integer>> scheme : state.points.entrySet()) {
+                WalCodec.putString(out, scheme.getKey());
+                out.putInt(scheme.getValue().size());
+                for (Map.Entry<Long, Integer> account : scheme.getValue().entrySet()) {
+                    out.putLong(account.getKey()).putInt(account.getValue());
+                }
+            }
+
+            out.putInt(checksum(out, out.position()));
+            out.force();
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads a snapshot into an empty state.
+     *
+     * @param file  The snapshot file.
+     * @param state The state to fill.
+     * @return The log sequence the snapshot is at.
+     * @throws IOException if the file cannot be read or is corrupt.
+     */
+    static long read(Path file, StoredState state) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            int contentLength = in.limit() - 4;
+            int version = contentLength < 16 ? 0 : in.getInt(4);
+            if (contentLength < 16 || in.getInt(0) != MAGIC || version < 1 || version > VERSION
+                    || in.getInt(contentLength) != checksum(in, contentLength)) {
+                throw new IOException("Corrupt snapshot " + file);
+            }
+            in.position(8);
+            long sequence = in.getLong();
+
+            FlightKey[] flightKeys = new FlightKey[in.getInt()];
+            for (int i = 0; i < flightKeys.length; i++) {
+                flightKeys[i] = FlightKey.parse(WalCodec.getString(in));
+            }
+
+            int reservationCount = in.getInt();
+            for (int i = 0; i < reservationCount; i++) {
+                StoredReservation reservation = new StoredReservation(in.getLong(), in.getLong());
+                int flightKey = in.getInt();
+                byte category = in.get();
+                reservation.flightKey = flightKey < 0 ? null : flightKeys[flightKey];
+                reservation.category = category < 0 ? null : CATEGORIES[category];
+                if (version >= SEAT_VERSION) {
+                    reservation.seat = WalCodec.getSeat(in);
+                }
+                if (version >= MINOR_VERSION) {
+                    reservation.fee = in.getLong();
+                } else if (version >= FEE_VERSION) {
+                    double fee = in.getDouble();
+                    reservation.fee = Double.isNaN(fee) ? StoredState.NO_FEE : Money.toMinor(fee);
+                }
+                reservation.created = in.get() == 1;
+                if (in.get() == 1) {
+                    reservation.policyNumber = WalCodec.getString(in);
+                    reservation.coverage = WalCodec.getMinor(in, version < MINOR_VERSION);
+                }
+                state.reservations.put(reservation.reservationId, reservation);
+            }
+
+            int passengerCount = in.getInt();
+            for (int i = 0; i < passengerCount; i++) {
+                StoredPassenger passenger = state.passenger(in.getLong());
+                passenger.balanceChange = WalCodec.getMinor(in, version < MINOR_VERSION);
+                passenger.priorityBoarding = in.get();
+            }
+
+            int schemeCount = in.getInt();
+            for (int i = 0; i < schemeCount; i++) {
+                Map<Long, Integer> accounts = state.points.computeIfAbsent(WalCodec.getString(in), name -> new HashMap<>());
+                int accountCount = in.getInt();
+                for (int j = 0; j < accountCount; j++) {
+                    accounts.put(in.getLong(), in.getInt());
+                }
+            }
+            return sequence;
+        }
+    }
+
+    private static int checksum(ByteBuffer buffer, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().position(0).limit(length));
+        return (int) crc.getValue();
+    }
+
+    private static int utf8Length(String value) {
+        return value.getBytes(StandardCharsets.UTF_8).length;
+    }
+}
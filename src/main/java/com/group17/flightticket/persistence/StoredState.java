@@ -0,0 +1,195 @@
+package com.group17.flightticket.persistence;
+
+import com.group17.flightticket.enums.SeatCategory;
+import com.group17.flightticket.event.BookingEvent;
+import com.group17.flightticket.event.BookingEvent.InsuranceCancelled;
+import com.group17.flightticket.event.BookingEvent.InsurancePurchased;
+import com.group17.flightticket.event.BookingEvent.PointsMoved;
+import com.group17.flightticket.event.BookingEvent.PriorityBoardingCancelled;
+import com.group17.flightticket.event.BookingEvent.PriorityBoardingPurchased;
+import com.group17.flightticket.event.BookingEvent.ReservationCancelled;
+import com.group17.flightticket.event.BookingEvent.ReservationCreated;
+import com.group17.flightticket.event.BookingEvent.SeatCategoryChanged;
+import com.group17.flightticket.event.BookingEvent.SeatChanged;
+import com.group17.flightticket.identity.FlightKey;
+import com.group17.flightticket.inventory.Seat;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The compact durable state rebuilt from the write-ahead log: the live reservations, the balance
+ * change and priority boarding status of every passenger, and the points balances of every loyalty
+ * scheme. It is only touched by one thread at a time, in log order, so a snapshot of it always
+ * matches one position in the log.
+ */
+final class StoredState {
+    /** Priority boarding status that no record has changed */
+    static final byte PRIORITY_UNCHANGED = -1;
+    /** The fare of a reservation stored before fares were */
+    static final long NO_FEE = Long.MIN_VALUE;
+
+    /** Live reservations by id, in booking order */
+    final Map<Long, StoredReservation> reservations = new LinkedHashMap<>();
+    final Map<Long, StoredPassenger> passengers = new HashMap<>();
+    /** Points balances by scheme name and passenger id, the sum of every movement logged */
+    final Map<String, Map<Long, Integer>> points = new HashMap<>();
+
+    /**
+     * Applies one event to the state. Events that do not change durable state are ignored.
+     *
+     * @param event The event, live or decoded from the log.
+     */
+    void apply(BookingEvent event) {
+        switch (event) {
+            case ReservationCreated e -> {
+                StoredReservation reservation = reservation(e.reservationId(), e.passengerId());
+                reservation.flightKey = e.flightKey();
+                reservation.category = e.category();
+                reservation.seat = e.seat();
+                reservation.fee = e.feeMinor();
+                reservation.created = true;
+                passenger(e.passengerId()).balanceChange -= e.amountPaidMinor();
+            }
+            case ReservationCancelled e -> {
+                reservations.remove(e.reservationId());
+                passenger(e.passengerId()).balanceChange += e.refundMinor();
+            }
+            case SeatCategoryChanged e -> {
+                StoredReservation reservation = reservations.get(e.reservationId());
+                if (reservation != null) {
+                    reservation.category = e.newCategory();
+                    reservation.seat = e.seat();
+                    reservation.fee += e.priceDifferenceMinor();
+                }
+                passenger(e.passengerId()).balanceChange -= e.priceDifferenceMinor();
+            }
+            case SeatChanged e -> {
+                StoredReservation reservation = reservations.get(e.reservationId());
+                if (reservation != null) {
+                    reservation.seat = e.newSeat();
+                }
+            }
+            case InsurancePurchased e -> {
+                // Published before the reservation itself, which may still be pending here
+                StoredReservation reservation = reservation(e.reservationId(), e.passengerId());
+                reservation.policyNumber = e.policyNumber();
+                reservation.coverage = e.coverageMinor();
+                passenger(e.passengerId()).balanceChange -= e.coverageMinor();
+            }
+            case InsuranceCancelled e -> {
+                StoredReservation reservation = reservations.get(e.reservationId());
+                if (reservation != null) {
+                    reservation.policyNumber = null;
+                    reservation.coverage = 0;
+                }
+                passenger(e.passengerId()).balanceChange += e.refundMinor();
+            }
+            case PriorityBoardingPurchased e -> {
+                StoredPassenger passenger = passenger(e.passengerId());
+                passenger.priorityBoarding = 1;
+                passenger.balanceChange -= e.feeMinor();
+            }
+            case PriorityBoardingCancelled e -> {
+                StoredPassenger passenger = passenger(e.passengerId());
+                passenger.priorityBoarding = 0;
+                passenger.balanceChange += e.refundMinor();
+            }
+            // Add up the movements, as events may reach the log in another order than they hit the ledger
+            case PointsMoved e -> points.computeIfAbsent(e.schemeName(), name -> new HashMap<>())
+                    .merge(e.accountId(), e.points(), Integer::sum);
+            default -> {
+            }
+        }
+    }
+
+    private StoredReservation reservation(long reservationId, long passengerId) {
+        StoredReservation reservation = reservations.get(reservationId);
+        if (reservation == null) {
+            reservation = new StoredReservation(reservationId, passengerId);
+            reservations.put(reservationId, reservation);
+        }
+        return reservation;
+    }
+
+    /**
+     * Copies the state, so a snapshot of it can be written while the log goes on.
+     *
+     * @return A deep copy of the state.
+     */
+    StoredState copy() {
+        StoredState copy = new StoredState();
+        for (StoredReservation reservation : reservations.values()) {
+            copy.reservations.put(reservation.reservationId, reservation.copy());
+        }
+        for (StoredPassenger passenger : passengers.values()) {
+            StoredPassenger copied = copy.passenger(passenger.passengerId);
+            copied.balanceChange = passenger.balanceChange;
+            copied.priorityBoarding = passenger.priorityBoarding;
+        }
+        for (Map.Entry<String, Map<Long, Integer>> scheme : points.entrySet()) {
+            copy.points.put(scheme.getKey(), new HashMap<>(scheme.getValue()));
+        }
+        return copy;
+    }
+
+    StoredPassenger passenger(long passengerId) {
+        StoredPassenger passenger = passengers.get(passengerId);
+        if (passenger == null) {
+            passenger = new StoredPassenger(passengerId);
+            passengers.put(passengerId, passenger);
+        }
+        return passenger;
+    }
+
+    /**
+     * A reservation in the durable state. A reservation is pending until its creation record,
+     * which follows the records of the add-ons bought with it.
+     */
+    static final class StoredReservation {
+        final long reservationId;
+        final long passengerId;
+        FlightKey flightKey;
+        SeatCategory category;
+        Seat seat;
+        /** The fare of the reservation in minor units, {@link #NO_FEE} if it was stored before fares were */
+        long fee = NO_FEE;
+        boolean created;
+        String policyNumber;
+        /** The insurance coverage in minor units */
+        long coverage;
+
+        StoredReservation(long reservationId, long passengerId) {
+            this.reservationId = reservationId;
+            this.passengerId = passengerId;
+        }
+
+        StoredReservation copy() {
+            StoredReservation copy = new StoredReservation(reservationId, passengerId);
+            copy.flightKey = flightKey;
+            copy.category = category;
+            copy.seat = seat;
+            copy.fee = fee;
+            copy.created = created;
+            copy.policyNumber = policyNumber;
+            copy.coverage = coverage;
+            return copy;
+        }
+    }
+
+    /**
+     * What the bookings changed for one passenger.
+     */
+    static final class StoredPassenger {
+        final long passengerId;
+        /** The sum of everything paid and refunded, in minor units */
+        long balanceChange;
+        /** 1 or 0 once priority boarding was bought or cancelled, {@link #PRIORITY_UNCHANGED} before */
+        byte priorityBoarding = PRIORITY_UNCHANGED;
+
+        StoredPassenger(long passengerId) {
+            this.passengerId = passengerId;
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.group17.flightticket.persistence;
+
+import com.group17.flightticket.enums.SeatCategory;
+import com.group17.flightticket.event.BookingEvent;
+import com.group17.flightticket.event.BookingEvent.InsuranceCancelled;
+import com.group17.flightticket.event.BookingEvent.InsurancePurchased;
+import com.group17.flightticket.event.BookingEvent.PointsMoved;
+import com.group17.flightticket.event.BookingEvent.PriorityBoardingCancelled;
+import com.group17.flightticket.event.BookingEvent.PriorityBoardingPurchased;
+import com.group17.flightticket.event.BookingEvent.ReservationCancelled;
+import com.group17.flightticket.event.BookingEvent.ReservationCreated;
+import com.group17.flightticket.event.BookingEvent.SeatCategoryChanged;
+import com.group17.flightticket.event.BookingEvent.SeatChanged;
+import com.group17.flightticket.identity.FlightKey;
+import com.group17.flightticket.inventory.Seat;
+import com.group17.flightticket.loyalty.PointsJournalEntry;
+import com.group17.flightticket.wallet.Money;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Encodes the booking events that change durable state into compact binary write-ahead log payloads,
+ * and decodes them back. Only the fields needed to rebuild the state are stored, so decoded events
+ * carry {@code null} or zero in the others, e.g. passenger names.
+ * <p>
+ * Amounts are written in minor units. Logs written before that stored them as doubles under the
+ * legacy record types, which are still read and rounded to the cent once.
+ */
+final class WalCodec {
+    static final byte LEGACY_RESERVATION_CREATED = 1;
+    static final byte LEGACY_RESERVATION_CANCELLED = 2;
+    static final byte LEGACY_SEAT_CATEGORY_CHANGED = 3;
+    static final byte LEGACY_INSURANCE_PURCHASED = 4;
+    static final byte LEGACY_INSURANCE_CANCELLED = 5;
+    static final byte LEGACY_PRIORITY_BOARDING_PURCHASED = 6;
+    static final byte LEGACY_PRIORITY_BOARDING_CANCELLED = 7;
+    static final byte POINTS_MOVED = 8;
+    static final byte SEAT_CHANGED = 9;
+    static final byte RESERVATION_CREATED = 10;
+    static final byte RESERVATION_CANCELLED = 11;
+    static final byte SEAT_CATEGORY_CHANGED = 12;
+    static final byte INSURANCE_PURCHASED = 13;
+    static final byte INSURANCE_CANCELLED = 14;
+    static final byte PRIORITY_BOARDING_PURCHASED = 15;
+    static final byte PRIORITY_BOARDING_CANCELLED = 16;
+
+    private static final SeatCategory[] CATEGORIES = SeatCategory.values();
+    private static final PointsJournalEntry.Type[] POINTS_TYPES = PointsJournalEntry.Type.values();
+
+    private WalCodec() {
+    }
+
+    /**
+     * Writes the payload of an event.
+     *
+     * @param event The event to encode.
+     * @param out   The buffer to write to.
+     * @return {@code false} if the event does not change durable state and nothing was written.
+     */
+    static boolean encode(BookingEvent event, ByteBuffer out) {
+        switch (event) {
+            case ReservationCreated e -> {
+                out.put(RESERVATION_CREATED).putLong(e.reservationId()).putLong(e.passengerId());
+                putString(out, e.flightKey().toString());
+                out.put((byte) e.category().ordinal()).putLong(e.feeMinor()).putLong(e.amountPaidMinor());
+                putSeat(out, e.seat());
+            }
+            case ReservationCancelled e -> out.put(RESERVATION_CANCELLED).putLong(e.reservationId())
+                    .putLong(e.passengerId()).putLong(e.refundMinor());
+            case SeatCategoryChanged e -> {
+                out.put(SEAT_CATEGORY_CHANGED).putLong(e.reservationId()).putLong(e.passengerId())
+                        .put((byte) e.newCategory().ordinal()).putLong(e.priceDifferenceMinor());
+                putSeat(out, e.seat());
+            }
+            case SeatChanged e -> {
+                out.put(SEAT_CHANGED).putLong(e.reservationId()).putLong(e.passengerId());
+                putSeat(out, e.newSeat());
+            }
+            case InsurancePurchased e -> {
+                out.put(INSURANCE_PURCHASED).putLong(e.reservationId()).putLong(e.passengerId());
+                putString(out, e.policyNumber());
+                out.putLong(e.coverageMinor());
+            }
+            case InsuranceCancelled e -> out.put(INSURANCE_CANCELLED).putLong(e.reservationId())
+                    .putLong(e.passengerId()).putLong(e.refundMinor());
+            case PriorityBoardingPurchased e -> out.put(PRIORITY_BOARDING_PURCHASED).putLong(e.passengerId())
+                    .putLong(e.feeMinor());
+            case PriorityBoardingCancelled e -> out.put(PRIORITY_BOARDING_CANCELLED).putLong(e.passengerId())
+                    .putLong(e.refundMinor());
+            case PointsMoved e -> {
+                out.put(POINTS_MOVED);
+                putString(out, e.schemeName());
+                out.putLong(e.accountId()).put((byte) e.type().ordinal()).putInt(e.points()).putInt(e.balanceAfter());
+            }
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads the payload of one record back into an event.
+     *
+     * @param in         The buffer positioned at the payload.
+     * @param flightKeys The flight keys decoded so far by their text, so each one is only parsed once.
+     * @return The decoded event.
+     * @throws IllegalArgumentException if the record type is unknown.
+     */
+    static BookingEvent decode(ByteBuffer in, Map<String, FlightKey> flightKeys) {
+        byte type = in.get();
+        return switch (type) {
+            case RESERVATION_CREATED, LEGACY_RESERVATION_CREATED -> {
+                boolean legacy = type == LEGACY_RESERVATION_CREATED;
+                long reservationId = in.getLong();
+                long passengerId = in.getLong();
+                FlightKey flightKey = flightKeys.computeIfAbsent(getString(in), FlightKey::parse);
+                SeatCategory category = CATEGORIES[in.get()];
+                long fee = getMinor(in, legacy);
+                long amountPaid = getMinor(in, legacy);
+                yield new ReservationCreated(reservationId, passengerId, null, flightKey, category, fee,
+                        amountPaid, 0, 0, getSeat(in));
+            }
+            case RESERVATION_CANCELLED, LEGACY_RESERVATION_CANCELLED -> new ReservationCancelled(in.getLong(),
+                    in.getLong(), null, null, getMinor(in, type == LEGACY_RESERVATION_CANCELLED), 0);
+            case SEAT_CATEGORY_CHANGED, LEGACY_SEAT_CATEGORY_CHANGED -> new SeatCategoryChanged(in.getLong(),
+                    in.getLong(), null, null, CATEGORIES[in.get()], getMinor(in, type == LEGACY_SEAT_CATEGORY_CHANGED),
+                    getSeat(in));
+            case SEAT_CHANGED -> new SeatChanged(in.getLong(), in.getLong(), null, null, getSeat(in));
+            case INSURANCE_PURCHASED, LEGACY_INSURANCE_PURCHASED -> new InsurancePurchased(in.getLong(), in.getLong(),
+                    null, getString(in), getMinor(in, type == LEGACY_INSURANCE_PURCHASED));
+            case INSURANCE_CANCELLED, LEGACY_INSURANCE_CANCELLED -> new InsuranceCancelled(in.getLong(), in.getLong(),
+                    null, getMinor(in, type == LEGACY_INSURANCE_CANCELLED));
+            case PRIORITY_BOARDING_PURCHASED, LEGACY_PRIORITY_BOARDING_PURCHASED -> new PriorityBoardingPurchased(
+                    in.getLong(), null, null, getMinor(in, type == LEGACY_PRIORITY_BOARDING_PURCHASED));
+            case PRIORITY_BOARDING_CANCELLED, LEGACY_PRIORITY_BOARDING_CANCELLED -> new PriorityBoardingCancelled(
+                    in.getLong(), null, getMinor(in, type == LEGACY_PRIORITY_BOARDING_CANCELLED));
+            case POINTS_MOVED -> {
+                String schemeName = getString(in);
+                long accountId = in.getLong();
+                PointsJournalEntry.Type pointsType = POINTS_TYPES[in.get()];
+                yield new PointsMoved(schemeName, pointsType, accountId, in.getInt(), in.getInt(), null);
+            }
+            default -> throw new IllegalArgumentException("Unknown write-ahead log record type " + type);
+        };
+    }
+
+    /**
+     * Reads an amount in minor units, or an amount written as a double by a legacy record.
+     *
+     * @param in     The buffer to read from.
+     * @param legacy {@code true} if the amount was written as a double.
+     * @return The amount in minor units.
+     */
+    static long getMinor(ByteBuffer in, boolean legacy) {
+        return legacy ? Money.toMinor(in.getDouble()) : in.getLong();
+    }
+
+    /**
+     * Writes a seat as its row number and letter, or a zero row for no seat.
+     *
+     * @param out  The buffer to write to.
+     * @param seat The seat, may be {@code null}.
+     */
+    static void putSeat(ByteBuffer out, Seat seat) {
+        if (seat == null) {
+            out.putShort((short) 0).putChar('\0');
+        } else {
+            out.putShort((short) seat.row()).putChar(seat.letter());
+        }
+    }
+
+    /**
+     * Reads a seat written by {@link #putSeat}.
+     *
+     * @param in The buffer to read from.
+     * @return The seat, or {@code null} if none was written.
+     */
+    static Seat getSeat(ByteBuffer in) {
+        short row = in.getShort();
+        char letter = in.getChar();
+        return row == 0 ? null : new Seat(row, letter);
+    }
+
+    /**
+     * Writes a string as its UTF-8 length followed by its bytes.
+     *
+     * @param out   The buffer to write to.
+     * @param value The string.
+     */
+    static void putString(ByteBuffer out, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.putInt(bytes.length).put(bytes);
+    }
+
+    /**
+     * Reads a string written by {@link #putString}.
+     *
+     * @param in The buffer to read from.
+     * @return The string.
+     */
+    static String getString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,122 @@
+package com.group17.flightticket.pricing;
+
+import com.group17.flightticket.enums.SeatCategory;
+import com.group17.flightticket.inventory.InventoryChange;
+import com.group17.flightticket.inventory.InventoryListener;
+import com.group17.flightticket.inventory.SeatInventory;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The {@code FareLadder} class prices the seats of one flight. It keeps the rung of the flight's
+ * {@link PricingPolicy} that matches its load factor, moved up or down by its {@link SeatInventory}
+ * as seats are taken or given back, so a quote only finds the lead-time step of the current time
+ * and reads the precomputed fare; nothing is multiplied or rounded while booking.
+ * <p>
+ * The rung only changes when a booking crosses a load step, a few times over the life of a flight.
+ * A change is compare-and-set on the current rung and rechecked against the counters afterwards,
+ * so concurrent bookings always leave the rung of the latest load factor.
+ */
+public final class FareLadder implements InventoryListener {
+    private final AtomicReference<Rung> rung;
+    private volatile LocalDateTime departureTime;
+    /** The departure time in the zone of the policy's clock */
+    private volatile long departureMillis;
+
+    /**
+     * Constructs a ladder for a flight with no seats taken.
+     *
+     * @param departureTime The departure time of the flight.
+     * @param policy        The pricing policy of the airline.
+     */
+    public FareLadder(LocalDateTime departureTime, PricingPolicy policy) {
+        this.rung = new AtomicReference<>(new Rung(policy, 0));
+        setDepartureTime(departureTime);
+    }
+
+    /**
+     * Quotes the current fare of a seat category.
+     *
+     * @param category The seat category.
+     * @return The fare.
+     */
+    public double quote(SeatCategory category) {
+        Rung current = rung.get();
+        PricingPolicy policy = current.policy;
+        int leadStep = policy.leadStep(departureMillis - policy.getClock().millis());
+        return policy.fare(leadStep, current.loadStep, category);
+    }
+
+    /**
+     * Gets the time at which the current lead-time step ends, so a quote taken now stays valid
+     * until then unless the flight itself changes.
+     *
+     * @return The epoch millis of the clock of the policy, {@link Long#MAX_VALUE} once the flight has departed.
+     */
+    public long getLeadStepEnd() {
+        PricingPolicy policy = rung.get().policy;
+        long now = policy.getClock().millis();
+        long left = policy.millisLeftInLeadStep(departureMillis - now);
+        return left == Long.MAX_VALUE ? Long.MAX_VALUE : now + left;
+    }
+
+    /**
+     * Moves to the rung of the flight's new load factor.
+     *
+     * @param inventory The inventory that changed.
+     * @param change    How the counters changed.
+     */
+    @Override
+    public void onInventoryChanged(SeatInventory inventory, InventoryChange change) {
+        followLoad(inventory);
+    }
+
+    private void followLoad(SeatInventory inventory) {
+        while (true) {
+            Rung current = rung.get();
+            int loadStep = current.policy.loadStep(inventory.getSeatsTaken(), inventory.getCapacity());
+            if (loadStep == current.loadStep) {
+                return;
+            }
+            rung.compareAndSet(current, new Rung(current.policy, loadStep));
+        }
+    }
+
+    /**
+     * Prices the flight with another policy, from the rung of its current load factor.
+     *
+     * @param policy    The new pricing policy.
+     * @param inventory The inventory of the flight.
+     */
+    public void setPolicy(PricingPolicy policy, SeatInventory inventory) {
+        rung.set(new Rung(policy, policy.loadStep(inventory.getSeatsTaken(), inventory.getCapacity())));
+        setDepartureTime(departureTime);
+        followLoad(inventory);
+    }
+
+    /**
+     * Gets the pricing policy of the flight.
+     *
+     * @return The policy.
+     */
+    public PricingPolicy getPolicy() {
+        return rung.get().policy;
+    }
+
+    /**
+     * Follows a change of the departure time, e.g. a delay.
+     *
+     * @param departureTime The new departure time.
+     */
+    public void setDepartureTime(LocalDateTime departureTime) {
+        this.departureTime = departureTime;
+        this.departureMillis = departureTime.atZone(rung.get().policy.getClock().getZone()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * One rung of the ladder: the policy and the load step of the flight.
+     */
+    private record Rung(PricingPolicy policy, int loadStep) {
+    }
+}
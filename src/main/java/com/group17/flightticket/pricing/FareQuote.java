@@ -0,0 +1,28 @@
+package com.group17.flightticket.pricing;
+
+import com.group17.flightticket.enums.SeatCategory;
+import com.group17.flightticket.identity.FlightKey;
+
+/**
+ * A fare shown to a passenger searching for flights.
+ *
+ * @param flightKey    The flight quoted.
+ * @param category     The seat category quoted.
+ * @param fare         The current fare of the category.
+ * @param pointsBucket The loyalty points bucket the quote was made for.
+ * @param maxAmountDue The most a passenger of the bucket pays after redeeming their points.
+ * @param seatsLeft    The seats left in the category.
+ * @param open         Whether the flight is open for reservation.
+ */
+public record FareQuote(FlightKey flightKey, SeatCategory category, double fare, int pointsBucket,
+                        double maxAmountDue, int seatsLeft, boolean open) {
+
+    /**
+     * Checks if the quoted seat can be booked.
+     *
+     * @return {@code true} if the flight is open and has a seat left in the category.
+     */
+    public boolean isBookable() {
+        return open && seatsLeft > 0;
+    }
+}
@@ -0,0 +1,201 @@
+package com.group17.flightticket.pricing;
+
+import com.group17.flightticket.entity.AirlineCompany;
+import com.group17.flightticket.entity.Flight;
+import com.group17.flightticket.entity.Passenger;
+import com.group17.flightticket.enums.SeatCategory;
+import com.group17.flightticket.inventory.SeatInventory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The {@code FareQuoteCache} class serves the fare quotes of flight searches, keyed by flight,
+ * seat category and loyalty points bucket, so repeated searches do not read the seat inventory
+ * of the flights they show.
+ * <p>
+ * Every quote is stamped with the {@link Flight#getQuoteVersion() quote version} of its flight, the
+ * seats taken on the flight and in the quoted category, and the end of its lead-time step. A cached
+ * quote is only served while all of them still hold, so it is replaced exactly when the seat counts
+ * move, the flight is delayed or opened or closed, its seats or pricing policy change, or its lead-time
+ * step ends. Checking a quote reads counters the flight keeps anyway and the clock; booking a seat
+ * writes nothing for the cache.
+ * <p>
+ * The cache is split in stripes, each a small LRU map under its own lock, and holds at most the given
+ * number of quotes; the least recently served quote of a full stripe is dropped.
+ */
+public class FareQuoteCache {
+    private static final int STRIPES = 16;
+    private static final FareQuoteCache GLOBAL = new FareQuoteCache(65_536, 100);
+
+    private final int pointsPerBucket;
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Constructs an empty cache.
+     *
+     * @param maximumSize     The most quotes the cache holds.
+     * @param pointsPerBucket The width of a loyalty points bucket; passengers in one bucket share quotes.
+     */
+    public FareQuoteCache(int maximumSize, int pointsPerBucket) {
+        if (maximumSize < STRIPES || pointsPerBucket <= 0) {
+            throw new IllegalArgumentException("Invalid quote cache size " + maximumSize + " or bucket " + pointsPerBucket);
+        }
+        this.pointsPerBucket = pointsPerBucket;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(maximumSize / STRIPES);
+        }
+    }
+
+    /**
+     * Gets the cache shared by all searches.
+     *
+     * @return The global fare quote cache.
+     */
+    public static FareQuoteCache global() {
+        return GLOBAL;
+    }
+
+    /**
+     * Quotes a seat category of a flight for a passenger, with the points they hold in the airline's scheme.
+     *
+     * @param flight    The flight.
+     * @param category  The seat category.
+     * @param passenger The passenger searching, or {@code null} for an anonymous search.
+     * @return The quote.
+     */
+    public FareQuote quote(Flight flight, SeatCategory category, Passenger passenger) {
+        AirlineCompany airline = flight.getAirlineCompany();
+        int points = passenger == null || airline == null ? 0 : airline.getLoyalScheme().getPointsV2(passenger);
+        return quote(flight, category, points);
+    }
+
+    /**
+     * Quotes a seat category of a flight for a given points balance.
+     *
+     * @param flight        The flight.
+     * @param category      The seat category.
+     * @param loyaltyPoints The points the passenger can redeem.
+     * @return The quote.
+     */
+    public FareQuote quote(Flight flight, SeatCategory category, int loyaltyPoints) {
+        QuoteKey key = new QuoteKey(flight, category, Math.max(loyaltyPoints, 0) / pointsPerBucket);
+        Stripe stripe = stripes[spread(key.hashCode())];
+        // Read the stamp before computing, so a change during the computation leaves the quote out of date
+        long version = flight.getQuoteVersion();
+        SeatInventory inventory = flight.getSeatInventory();
+        int seatsTaken = inventory.getSeatsTaken();
+        int categoryTaken = inventory.getSeatsTaken(category);
+        long now = flight.getFareLadder().getPolicy().getClock().millis();
+        Entry cached;
+        synchronized (stripe) {
+            cached = stripe.get(key);
+        }
+        if (cached != null && cached.flight == flight && cached.version == version && cached.seatsTaken == seatsTaken
+                && cached.categoryTaken == categoryTaken && now < cached.validUntil) {
+            hits.increment();
+            return cached.quote;
+        }
+        if (cached == null) {
+            misses.increment();
+        } else {
+            invalidations.increment();
+        }
+        Entry entry = new Entry(flight, version, seatsTaken, categoryTaken, flight.getFareLadder().getLeadStepEnd(),
+                compute(flight, category, key.pointsBucket));
+        synchronized (stripe) {
+            stripe.put(key, entry);
+        }
+        return entry.quote;
+    }
+
+    /**
+     * Drops every quote of a flight, e.g. once it is canceled. Quotes that are out of date are never
+     * served anyway, this only frees their room early.
+     *
+     * @param flight The flight.
+     */
+    public void invalidate(Flight flight) {
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.values().removeIf(entry -> entry.flight == flight);
+            }
+        }
+    }
+
+    /**
+     * Drops every quote.
+     */
+    public void clear() {
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.clear();
+            }
+        }
+    }
+
+    /**
+     * Gets the counters of the cache.
+     *
+     * @return A snapshot of the counters.
+     */
+    public QuoteCacheStats stats() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return new QuoteCacheStats(hits.sum(), misses.sum(), invalidations.sum(), evictions.sum(), size);
+    }
+
+    private FareQuote compute(Flight flight, SeatCategory category, int pointsBucket) {
+        double fare = flight.quoteFare(category);
+        double maxAmountDue = Math.max(fare - (double) pointsBucket * pointsPerBucket, 0);
+        return new FareQuote(flight.getFlightKey(), category, fare, pointsBucket, maxAmountDue,
+                flight.getRemainSeatCount(category), flight.isBOpenForReservation());
+    }
+
+    private static int spread(int hash) {
+        return (hash ^ hash >>> 16) & (STRIPES - 1);
+    }
+
+    /**
+     * Identifies the quotes shared by the passengers of one points bucket.
+     */
+    private record QuoteKey(Flight flight, SeatCategory category, int pointsBucket) {
+    }
+
+    /**
+     * A cached quote with what it was computed from. The flight is compared by identity, since a flight
+     * created again under the same key starts its versions over.
+     */
+    private record Entry(Flight flight, long version, int seatsTaken, int categoryTaken, long validUntil, FareQuote quote) {
+    }
+
+    /**
+     * One stripe of the cache, in least recently served order.
+     */
+    private final class Stripe extends LinkedHashMap<QuoteKey, Entry> {
+        private final int maximumSize;
+
+        Stripe(int maximumSize) {
+            super(16, 0.75f, true);
+            this.maximumSize = maximumSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<QuoteKey, Entry> eldest) {
+            if (size() > maximumSize) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.group17.flightticket.pricing;
+
+import com.group17.flightticket.enums.SeatCategory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * The {@code PricingPolicy} class describes how an airline yields its fares: the base fee of the
+ * {@link SeatCategory} is multiplied by a load factor step, taken from how full the flight is, and by a
+ * lead-time step, taken from how soon it departs.
+ * <p>
+ * A policy is immutable; every {@code with} method returns a new policy. The fares of every combination
+ * of steps are computed once, when the policy is built, into a table shared by all the flights priced
+ * with it, so a {@link FareLadder} only has to pick a row. The {@link #flat()} policy has a single row
+ * with the base fees, which is how every flight was priced before.
+ */
+public final class PricingPolicy {
+    private static final SeatCategory[] CATEGORIES = SeatCategory.values();
+    private static final PricingPolicy FLAT = new PricingPolicy(new double[0], new double[0], new long[0], new double[0],
+            Clock.systemDefaultZone());
+
+    /** The load factors from which each load step applies, ascending */
+    private final double[] loadThresholds;
+    private final double[] loadMultipliers;
+    /** The time before departure, in milliseconds, within which each lead-time step applies, descending */
+    private final long[] leadWindows;
+    private final double[] leadMultipliers;
+    private final Clock clock;
+    /** The fare of every lead-time step, load step and category, in that order of nesting */
+    private final double[] fares;
+
+    private PricingPolicy(double[] loadThresholds, double[] loadMultipliers, long[] leadWindows,
+                          double[] leadMultipliers, Clock clock) {
+        this.loadThresholds = loadThresholds;
+        this.loadMultipliers = loadMultipliers;
+        this.leadWindows = leadWindows;
+        this.leadMultipliers = leadMultipliers;
+        this.clock = clock;
+        int loadSteps = getLoadStepCount();
+        int leadSteps = getLeadStepCount();
+        this.fares = new double[leadSteps * loadSteps * CATEGORIES.length];
+        for (int lead = 0; lead < leadSteps; lead++) {
+            for (int load = 0; load < loadSteps; load++) {
+                for (SeatCategory category : CATEGORIES) {
+                    double fare = category.getBaseFee() * multiplier(leadMultipliers, lead) * multiplier(loadMultipliers, load);
+                    fares[index(lead, load, category)] = Math.round(fare * 100) / 100.0;
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the policy that always charges the base fee of the seat category.
+     *
+     * @return The flat policy.
+     */
+    public static PricingPolicy flat() {
+        return FLAT;
+    }
+
+    /**
+     * Adds a load factor step: from the given share of seats taken, fares are multiplied by the given factor,
+     * until the next step. A step at the same load factor is replaced.
+     *
+     * @param fromLoadFactor The load factor where the step starts, above 0 and at most 1.
+     * @param multiplier     The factor applied to the base fees.
+     * @return The new policy.
+     * @throws IllegalArgumentException if the load factor or the multiplier is out of range.
+     */
+    public PricingPolicy withLoadStep(double fromLoadFactor, double multiplier) {
+        if (!(fromLoadFactor > 0 && fromLoadFactor <= 1) || !(multiplier > 0)) {
+            throw new IllegalArgumentException("Invalid load step: " + fromLoadFactor + " x" + multiplier);
+        }
+        int position = Arrays.binarySearch(loadThresholds, fromLoadFactor);
+        double[] thresholds;
+        double[] multipliers;
+        if (position >= 0) {
+            thresholds = loadThresholds;
+            multipliers = loadMultipliers.clone();
+            multipliers[position] = multiplier;
+        } else {
+            position = -position - 1;
+            thresholds = insert(loadThresholds, position, fromLoadFactor);
+            multipliers = insert(loadMultipliers, position, multiplier);
+        }
+        return new PricingPolicy(thresholds, multipliers, leadWindows, leadMultipliers, clock);
+    }
+
+    /**
+     * Adds a lead-time step: when the flight departs within the given time, fares are multiplied by the
+     * given factor, unless a shorter step applies. A step with the same window is replaced.
+     * Flights that have already departed are priced without any lead-time step.
+     *
+     * @param withinDeparture The time before departure where the step starts.
+     * @param multiplier      The factor applied to the base fees.
+     * @return The new policy.
+     * @throws IllegalArgumentException if the window is not positive or the multiplier is out of range.
+     */
+    public PricingPolicy withLeadTimeStep(Duration withinDeparture, double multiplier) {
+        long window = withinDeparture.toMillis();
+        if (window <= 0 || !(multiplier > 0)) {
+            throw new IllegalArgumentException("Invalid lead-time step: " + withinDeparture + " x" + multiplier);
+        }
+        // Kept in descending order, so search the negated windows
+        long[] negated = Arrays.stream(leadWindows).map(w -> -w).toArray();
+        int position = Arrays.binarySearch(negated, -window);
+        long[] windows;
+        double[] multipliers;
+        if (position >= 0) {
+            windows = leadWindows;
+            multipliers = leadMultipliers.clone();
+            multipliers[position] = multiplier;
+        } else {
+            position = -position - 1;
+            windows = new long[leadWindows.length + 1];
+            System.arraycopy(leadWindows, 0, windows, 0, position);
+            windows[position] = window;
+            System.arraycopy(leadWindows, position, windows, position + 1, leadWindows.length - position);
+            multipliers = insert(leadMultipliers, position, multiplier);
+        }
+        return new PricingPolicy(loadThresholds, loadMultipliers, windows, multipliers, clock);
+    }
+
+    /**
+     * Uses another clock to measure the time to departure, e.g. a fixed clock in tests.
+     *
+     * @param clock The clock, whose zone the departure times are in.
+     * @return The new policy.
+     */
+    public PricingPolicy withClock(Clock clock) {
+        return new PricingPolicy(loadThresholds, loadMultipliers, leadWindows, leadMultipliers, clock);
+    }
+
+    /**
+     * Computes a fare without a {@link FareLadder}, e.g. to show a fare calendar.
+     *
+     * @param category        The seat category.
+     * @param loadFactor      The share of seats taken, from 0 to 1.
+     * @param timeToDeparture The time left before departure.
+     * @return The fare.
+     */
+    public double fare(SeatCategory category, double loadFactor, Duration timeToDeparture) {
+        return fares[index(leadStep(timeToDeparture.toMillis()), loadStep(loadFactor), category)];
+    }
+
+    /**
+     * Gets the clock used to measure the time to departure.
+     *
+     * @return The clock.
+     */
+    public Clock getClock() {
+        return clock;
+    }
+
+    int getLoadStepCount() {
+        return loadThresholds.length + 1;
+    }
+
+    int getLeadStepCount() {
+        return leadWindows.length + 1;
+    }
+
+    /**
+     * Finds the load step of a flight, {@code 0} below the first threshold.
+     *
+     * @param seatsTaken The seats taken on the flight.
+     * @param capacity   The capacity of the flight.
+     * @return The load step.
+     */
+    int loadStep(int seatsTaken, int capacity) {
+        return loadStep(capacity <= 0 ? 1 : (double) seatsTaken / capacity);
+    }
+
+    private int loadStep(double loadFactor) {
+        int step = 0;
+        while (step < loadThresholds.length && loadFactor >= loadThresholds[step]) {
+            step++;
+        }
+        return step;
+    }
+
+    /**
+     * Finds the lead-time step of a flight, {@code 0} before the first window or after departure.
+     *
+     * @param millisToDeparture The time left before departure.
+     * @return The lead-time step.
+     */
+    int leadStep(long millisToDeparture) {
+        if (millisToDeparture <= 0) {
+            return 0;
+        }
+        int step = 0;
+        while (step < leadWindows.length && millisToDeparture <= leadWindows[step]) {
+            step++;
+        }
+        return step;
+    }
+
+    /**
+     * Finds how long the current lead-time step still applies: until the flight enters the next
+     * window, or until it departs and falls back to step {@code 0}.
+     *
+     * @param millisToDeparture The time left before departure.
+     * @return The time left in the step, {@link Long#MAX_VALUE} once the flight has departed.
+     */
+    long millisLeftInLeadStep(long millisToDeparture) {
+        if (millisToDeparture <= 0) {
+            return Long.MAX_VALUE;
+        }
+        int step = leadStep(millisToDeparture);
+        return step < leadWindows.length ? millisToDeparture - leadWindows[step] : millisToDeparture;
+    }
+
+    /**
+     * Looks up a precomputed fare.
+     *
+     * @param leadStep The lead-time step.
+     * @param loadStep The load step.
+     * @param category The seat category.
+     * @return The fare.
+     */
+    double fare(int leadStep, int loadStep, SeatCategory category) {
+        return fares[index(leadStep, loadStep, category)];
+    }
+
+    private int index(int leadStep, int loadStep, SeatCategory category) {
+        return (leadStep * getLoadStepCount() + loadStep) * CATEGORIES.length + category.ordinal();
+    }
+
+    private static double multiplier(double[] multipliers, int step) {
+        return step == 0 ? 1.0 : multipliers[step - 1];
+    }
+
+    private static double[] insert(double[] values, int position, double value) {
+        double[] result = new double[values.length + 1];
+        System.arraycopy(values, 0, result, 0, position);
+        result[position] = value;
+        System.arraycopy(values, position, result, position + 1, values.length - position);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "PricingPolicy{load " + Arrays.toString(loadThresholds) + " x" + Arrays.toString(loadMultipliers)
+                + ", lead " + Arrays.toString(leadWindows) + "ms x" + Arrays.toString(leadMultipliers) + "}";
+    }
+}
@@ -0,0 +1,23 @@
+package com.group17.flightticket.pricing;
+
+/**
+ * A snapshot of the counters of a {@link FareQuoteCache}.
+ *
+ * @param hits          Quotes served from the cache.
+ * @param misses        Quotes computed because none was cached.
+ * @param invalidations Quotes computed again because the cached one was out of date.
+ * @param evictions     Quotes dropped to keep the cache within its size.
+ * @param size          Quotes currently cached.
+ */
+public record QuoteCacheStats(long hits, long misses, long invalidations, long evictions, int size) {
+
+    /**
+     * Gets the share of quotes served from the cache.
+     *
+     * @return The hit rate, from 0 to 1.
+     */
+    public double hitRate() {
+        long lookups = hits + misses + invalidations;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+}
@@ -0,0 +1,17 @@
+package com.group17.flightticket.revenue;
+
+import com.group17.flightticket.event.BookingEvent.FlightCapacityAlert;
+
+/**
+ * Told when a flight crosses the capacity threshold of its airline's {@link InventoryAggregates}.
+ */
+@FunctionalInterface
+public interface CapacityAlertListener {
+
+    /**
+     * Called on the booking thread that made the flight cross the threshold.
+     *
+     * @param alert The flight, its remaining seats and the side of the threshold it is now on.
+     */
+    void onCapacityAlert(FlightCapacityAlert alert);
+}
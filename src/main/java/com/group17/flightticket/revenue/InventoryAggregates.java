@@ -0,0 +1,295 @@
+package com.group17.flightticket.revenue;
+
+import com.group17.flightticket.entity.Flight;
+import com.group17.flightticket.enums.SeatCategory;
+import com.group17.flightticket.event.BookingEvent.FlightCapacityAlert;
+import com.group17.flightticket.event.BookingEventBus;
+import com.group17.flightticket.identity.FlightKey;
+import com.group17.flightticket.inventory.InventoryChange;
+import com.group17.flightticket.inventory.InventoryListener;
+import com.group17.flightticket.inventory.SeatInventory;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The {@code InventoryAggregates} class keeps the seat totals of all the flights of one airline,
+ * overall, per route and per {@link SeatCategory}, up to date on every seat taken or given back,
+ * so revenue management reads them without scanning the flights.
+ * <p>
+ * Each tracked flight listens to its {@link SeatInventory}, which reports every change as signed
+ * differences of its counters. The listener adds them to the totals and to the flight's own running
+ * counters, so the totals are exact once bookings settle whatever order concurrent changes are reported
+ * in. A flight crossing the capacity threshold is detected on the change that moves its running
+ * remaining count across it; subscribers are then told immediately, on that booking's thread, and a
+ * {@link FlightCapacityAlert} is published to the booking event sinks.
+ * <p>
+ * Remaining seats are counted the way {@link InventoryChange} counts them, without the floor at zero.
+ */
+public class InventoryAggregates {
+    private static final SeatCategory[] CATEGORIES = SeatCategory.values();
+    /** Index of the flight's remaining seats among the reported values, after the categories */
+    private static final int REMAINING = CATEGORIES.length;
+    /** Index of the flight's capacity among the reported values */
+    private static final int CAPACITY = CATEGORIES.length + 1;
+
+    private final String companyName;
+    /** A flight with this many seats left or fewer is near full capacity */
+    private final int capacityThreshold;
+    private final Map<Flight, Tracker> trackers = new ConcurrentHashMap<>();
+    private final Map<RouteKey, RouteCounters> routes = new ConcurrentHashMap<>();
+    private final LongAdder capacity = new LongAdder();
+    private final LongAdder remainingSeats = new LongAdder();
+    private final LongAdder[] remainingByCategory = new LongAdder[CATEGORIES.length];
+    private final Set<FlightKey> nearCapacity = ConcurrentHashMap.newKeySet();
+    private final List<CapacityAlertListener> subscribers = new CopyOnWriteArrayList<>();
+
+    /**
+     * Constructs empty aggregates.
+     *
+     * @param companyName       The airline whose flights are aggregated.
+     * @param capacityThreshold The number of remaining seats at or below which a flight is near full capacity.
+     */
+    public InventoryAggregates(String companyName, int capacityThreshold) {
+        this.companyName = companyName;
+        this.capacityThreshold = capacityThreshold;
+        for (int i = 0; i < remainingByCategory.length; i++) {
+            remainingByCategory[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Starts aggregating a flight. The route of the flight is taken now, a flight is expected to keep its terminals.
+     * The flight's counters are read once, right after it starts reporting its changes, so a flight is
+     * expected to be tracked before it sells seats.
+     *
+     * @param flight The flight to track.
+     */
+    public void track(Flight flight) {
+        RouteKey routeKey = new RouteKey(flight.getOrigin().getLocation(), flight.getDestination().getLocation());
+        Tracker tracker = new Tracker(flight, routes.computeIfAbsent(routeKey, key -> new RouteCounters()));
+        if (trackers.putIfAbsent(flight, tracker) != null) {
+            return;
+        }
+        tracker.route.flights.increment();
+        flight.getSeatInventory().addListener(tracker);
+        tracker.start(flight.getSeatInventory().asChange());
+    }
+
+    /**
+     * Stops aggregating a flight and takes its seats out of the totals.
+     *
+     * @param flight The flight to forget.
+     */
+    public void untrack(Flight flight) {
+        Tracker tracker = trackers.remove(flight);
+        if (tracker == null) {
+            return;
+        }
+        flight.getSeatInventory().removeListener(tracker);
+        tracker.route.flights.decrement();
+        tracker.clear();
+        nearCapacity.remove(flight.getFlightKey());
+    }
+
+    /**
+     * Subscribes to capacity alerts. The listener is called on the booking thread the moment a flight
+     * crosses the threshold, either way, so it must be short and must not block.
+     *
+     * @param listener The listener to call.
+     */
+    public void subscribe(CapacityAlertListener listener) {
+        subscribers.add(listener);
+    }
+
+    /**
+     * Cancels a subscription to capacity alerts.
+     *
+     * @param listener The listener passed to {@link #subscribe}.
+     */
+    public void unsubscribe(CapacityAlertListener listener) {
+        subscribers.remove(listener);
+    }
+
+    /**
+     * Gets the totals of every tracked flight, without visiting the flights.
+     *
+     * @return The current totals.
+     */
+    public InventorySnapshot snapshot() {
+        Map<SeatCategory, Long> byCategory = new EnumMap<>(SeatCategory.class);
+        for (SeatCategory category : CATEGORIES) {
+            byCategory.put(category, remainingByCategory[category.ordinal()].sum());
+        }
+        List<RouteInventory> routeInventories = new ArrayList<>(routes.size());
+        for (Map.Entry<RouteKey, RouteCounters> route : routes.entrySet()) {
+            RouteInventory inventory = route.getValue().toInventory(route.getKey());
+            if (inventory.flights() > 0) {
+                routeInventories.add(inventory);
+            }
+        }
+        return new InventorySnapshot(companyName, trackers.size(), capacity.sum(), remainingSeats.sum(), byCategory,
+                routeInventories, Set.copyOf(nearCapacity));
+    }
+
+    /**
+     * Gets the totals of one route.
+     *
+     * @param originLocation      The location of the origin terminal.
+     * @param destinationLocation The location of the destination terminal.
+     * @return The totals of the route, with no flights if the airline does not fly it.
+     */
+    public RouteInventory getRoute(String originLocation, String destinationLocation) {
+        RouteKey key = new RouteKey(originLocation, destinationLocation);
+        RouteCounters counters = routes.get(key);
+        return counters == null ? new RouteInventory(originLocation, destinationLocation, 0, 0, 0) : counters.toInventory(key);
+    }
+
+    /**
+     * Checks if a tracked flight is at or below the capacity threshold.
+     *
+     * @param flight The flight to check.
+     * @return {@code true} if the flight is near full capacity.
+     */
+    public boolean isNearCapacity(Flight flight) {
+        return nearCapacity.contains(flight.getFlightKey());
+    }
+
+    /**
+     * Gets the number of remaining seats at or below which a flight is near full capacity.
+     *
+     * @return The capacity threshold.
+     */
+    public int getCapacityThreshold() {
+        return capacityThreshold;
+    }
+
+    private void alert(Flight flight, int remaining, boolean near) {
+        if (near) {
+            nearCapacity.add(flight.getFlightKey());
+        } else {
+            nearCapacity.remove(flight.getFlightKey());
+        }
+        FlightCapacityAlert alert = new FlightCapacityAlert(companyName, flight.getFlightKey(), remaining, near);
+        for (CapacityAlertListener subscriber : subscribers) {
+            subscriber.onCapacityAlert(alert);
+        }
+        BookingEventBus events = BookingEventBus.global();
+        if (events.isListening()) {
+            events.publish(alert);
+        }
+    }
+
+    /**
+     * Identifies a route by the locations of its terminals.
+     */
+    private record RouteKey(String origin, String destination) {
+    }
+
+    /**
+     * The running totals of one route.
+     */
+    private static final class RouteCounters {
+        final LongAdder flights = new LongAdder();
+        final LongAdder capacity = new LongAdder();
+        final LongAdder remainingSeats = new LongAdder();
+
+        RouteInventory toInventory(RouteKey key) {
+            return new RouteInventory(key.origin(), key.destination(), flights.intValue(), capacity.sum(),
+                    remainingSeats.sum());
+        }
+    }
+
+    /**
+     * Reports the changes of one flight to the totals.
+     */
+    private final class Tracker implements InventoryListener {
+        final Flight flight;
+        final RouteCounters route;
+        /** The sums of what the flight reported: remaining seats per category, remaining seats, capacity */
+        final AtomicIntegerArray reported = new AtomicIntegerArray(CATEGORIES.length + 2);
+
+        Tracker(Flight flight, RouteCounters route) {
+            this.flight = flight;
+            this.route = route;
+        }
+
+        /**
+         * Adds the flight's counters to the totals, and tells the subscribers if it starts near full capacity.
+         */
+        void start(InventoryChange counters) {
+            add(counters);
+            int remaining = counters.getRemainingChange();
+            if (remaining <= capacityThreshold) {
+                alert(flight, Math.max(remaining, 0), true);
+            }
+        }
+
+        /**
+         * Adds the change to the totals. The flight's remaining count before and after the change are the
+         * ones of its running count, so a crossing of the threshold is seen once even if concurrent changes
+         * are reported out of order.
+         */
+        @Override
+        public void onInventoryChanged(SeatInventory inventory, InventoryChange change) {
+            int after = add(change);
+            int remainingChange = change.getRemainingChange();
+            if (remainingChange != 0) {
+                boolean near = after <= capacityThreshold;
+                if (near != after - remainingChange <= capacityThreshold) {
+                    alert(flight, Math.max(after, 0), near);
+                }
+            }
+        }
+
+        /**
+         * Adds a change to the totals and to the flight's running counters.
+         *
+         * @return The flight's running remaining count after the change.
+         */
+        private int add(InventoryChange change) {
+            int capacityChange = change.getCapacityChange();
+            if (capacityChange != 0) {
+                reported.addAndGet(CAPACITY, capacityChange);
+                capacity.add(capacityChange);
+                route.capacity.add(capacityChange);
+            }
+            int remainingChange = change.getRemainingChange();
+            int after = reported.addAndGet(REMAINING, remainingChange);
+            if (remainingChange != 0) {
+                remainingSeats.add(remainingChange);
+                route.remainingSeats.add(remainingChange);
+            }
+            for (SeatCategory category : CATEGORIES) {
+                int categoryChange = change.getRemainingChange(category);
+                if (categoryChange != 0) {
+                    reported.addAndGet(category.ordinal(), categoryChange);
+                    remainingByCategory[category.ordinal()].add(categoryChange);
+                }
+            }
+            return after;
+        }
+
+        /**
+         * Takes everything the flight reported out of the totals.
+         */
+        void clear() {
+            int oldCapacity = reported.getAndSet(CAPACITY, 0);
+            capacity.add(-oldCapacity);
+            route.capacity.add(-oldCapacity);
+            int remaining = reported.getAndSet(REMAINING, 0);
+            remainingSeats.add(-remaining);
+            route.remainingSeats.add(-remaining);
+            for (SeatCategory category : CATEGORIES) {
+                remainingByCategory[category.ordinal()].add(-reported.getAndSet(category.ordinal(), 0));
+            }
+        }
+    }
+}
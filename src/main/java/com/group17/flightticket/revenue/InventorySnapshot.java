@@ -0,0 +1,35 @@
+package com.group17.flightticket.revenue;
+
+import com.group17.flightticket.enums.SeatCategory;
+import com.group17.flightticket.identity.FlightKey;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The seat totals of an airline at one moment, as kept by {@link InventoryAggregates}.
+ * Flights where every category shares one cabin count each remaining seat once per category,
+ * since the seat can be sold in any of them.
+ *
+ * @param companyName         The airline.
+ * @param flights             The number of tracked flights.
+ * @param capacity            The seats of all tracked flights.
+ * @param remainingSeats      The seats that can still be sold.
+ * @param remainingByCategory The seats that can still be sold in every category.
+ * @param routes              The totals of every route the airline flies.
+ * @param nearCapacity        The flights at or below the capacity threshold.
+ */
+public record InventorySnapshot(String companyName, int flights, long capacity, long remainingSeats,
+                                Map<SeatCategory, Long> remainingByCategory, List<RouteInventory> routes,
+                                Set<FlightKey> nearCapacity) {
+
+    /**
+     * Gets the share of the seats that are taken.
+     *
+     * @return The load factor, from 0 to 1, or 0 without seats.
+     */
+    public double loadFactor() {
+        return capacity == 0 ? 0 : (double) (capacity - remainingSeats) / capacity;
+    }
+}
@@ -0,0 +1,80 @@
+package com.group17.flightticket.revenue;
+
+import com.group17.flightticket.entity.Flight;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The {@code NoShowStatistics} class counts the booked passengers of an airline who did not board,
+ * overall and per route, as boarding of each flight closes. Revenue management reads the rates to
+ * choose how far to overbook the flights of a route.
+ */
+public class NoShowStatistics {
+    private final Counters overall = new Counters();
+    private final Map<RouteKey, Counters> routes = new ConcurrentHashMap<>();
+
+    /**
+     * Records the outcome of the boarding of a flight.
+     *
+     * @param flight  The flight whose boarding closed.
+     * @param booked  The passengers booked on the flight.
+     * @param noShows The booked passengers who did not board.
+     */
+    public void record(Flight flight, int booked, int noShows) {
+        if (booked < 0 || noShows < 0 || noShows > booked) {
+            throw new IllegalArgumentException("Invalid no-shows " + noShows + " of " + booked + " booked");
+        }
+        RouteKey key = new RouteKey(flight.getOrigin().getLocation(), flight.getDestination().getLocation());
+        overall.add(booked, noShows);
+        routes.computeIfAbsent(key, k -> new Counters()).add(booked, noShows);
+    }
+
+    /**
+     * Gets the no-shows of all the flights of the airline.
+     *
+     * @return A snapshot of the counters.
+     */
+    public NoShowStats snapshot() {
+        return overall.toStats(null, null);
+    }
+
+    /**
+     * Gets the no-shows of the flights of one route.
+     *
+     * @param originLocation      The location of the origin terminal.
+     * @param destinationLocation The location of the destination terminal.
+     * @return A snapshot of the counters, all zero if no flight of the route closed boarding yet.
+     */
+    public NoShowStats snapshot(String originLocation, String destinationLocation) {
+        Counters counters = routes.get(new RouteKey(originLocation, destinationLocation));
+        return counters == null ? new NoShowStats(originLocation, destinationLocation, 0, 0, 0)
+                : counters.toStats(originLocation, destinationLocation);
+    }
+
+    /**
+     * Identifies a route by the locations of its terminals.
+     */
+    private record RouteKey(String origin, String destination) {
+    }
+
+    /**
+     * The running totals of the airline or of one route.
+     */
+    private static final class Counters {
+        final LongAdder flights = new LongAdder();
+        final LongAdder booked = new LongAdder();
+        final LongAdder noShows = new LongAdder();
+
+        void add(int bookedCount, int noShowCount) {
+            flights.increment();
+            booked.add(bookedCount);
+            noShows.add(noShowCount);
+        }
+
+        NoShowStats toStats(String origin, String destination) {
+            return new NoShowStats(origin, destination, flights.sum(), booked.sum(), noShows.sum());
+        }
+    }
+}
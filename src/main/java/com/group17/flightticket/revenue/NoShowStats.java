@@ -0,0 +1,24 @@
+package com.group17.flightticket.revenue;
+
+/**
+ * The no-shows of the flights of an airline, overall or on one route, as kept by {@link NoShowStatistics}.
+ *
+ * @param originLocation      The location of the origin terminal, or {@code null} for all routes.
+ * @param destinationLocation The location of the destination terminal, or {@code null} for all routes.
+ * @param flights             The number of flights whose boarding was closed.
+ * @param booked              The passengers booked on those flights.
+ * @param noShows             The booked passengers who did not board.
+ */
+public record NoShowStats(String originLocation, String destinationLocation, long flights, long booked,
+                          long noShows) {
+
+    /**
+     * Gets the share of the booked passengers who did not board, a starting point for the
+     * {@link com.group17.flightticket.entity.Flight#setOverbookingRatio overbooking ratio} of the route.
+     *
+     * @return The no-show rate, from 0 to 1, or 0 without bookings.
+     */
+    public double noShowRate() {
+        return booked == 0 ? 0 : (double) noShows / booked;
+    }
+}
@@ -0,0 +1,23 @@
+package com.group17.flightticket.revenue;
+
+/**
+ * The seat totals of the flights of one airline on one route.
+ *
+ * @param originLocation      The location of the origin terminal.
+ * @param destinationLocation The location of the destination terminal.
+ * @param flights             The number of tracked flights on the route.
+ * @param capacity            The seats of those flights.
+ * @param remainingSeats      The seats that can still be sold.
+ */
+public record RouteInventory(String originLocation, String destinationLocation, int flights, long capacity,
+                             long remainingSeats) {
+
+    /**
+     * Gets the share of the seats of the route that are taken.
+     *
+     * @return The load factor, from 0 to 1, or 0 without seats.
+     */
+    public double loadFactor() {
+        return capacity == 0 ? 0 : (double) (capacity - remainingSeats) / capacity;
+    }
+}
@@ -0,0 +1,51 @@
+package com.group17.flightticket.schedule;
+
+import java.util.List;
+
+/**
+ * What a {@link ScheduleImporter} read from a timetable.
+ *
+ * @param scheduleFormat The format of the timetable.
+ * @param rows           The flight rows read: CSV lines or SSIM leg records, rejected ones included.
+ * @param flights        The flights built, one per operating day of a SSIM leg.
+ * @param duplicates     The flights left out because a flight with the same airline, number and date exists.
+ * @param rejected       The rows that could not be parsed.
+ * @param errors         The first few parse errors, with their line numbers.
+ * @param elapsedNanos   The time taken by the whole import.
+ */
+public record ImportStats(ScheduleFormat scheduleFormat, long rows, long flights, long duplicates, long rejected,
+                          List<String> errors, long elapsedNanos) {
+
+    /**
+     * Gets the rows read per second.
+     *
+     * @return The row rate.
+     */
+    public double rowsPerSecond() {
+        return elapsedNanos == 0 ? 0 : rows * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Gets the flights built per second.
+     *
+     * @return The flight rate.
+     */
+    public double flightsPerSecond() {
+        return elapsedNanos == 0 ? 0 : flights * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Formats the counters and rates, then the errors kept, one per line.
+     *
+     * @return The report.
+     */
+    public String format() {
+        StringBuilder report = new StringBuilder(String.format(
+                "%s: %d rows in %.2f s (%.0f rows/s), %d flights (%.0f flights/s), %d duplicates, %d rejected%n",
+                scheduleFormat, rows, elapsedNanos / 1e9, rowsPerSecond(), flights, flightsPerSecond(), duplicates, rejected));
+        for (String error : errors) {
+            report.append("  ").append(error).append(System.lineSeparator());
+        }
+        return report.toString();
+    }
+}
@@ -0,0 +1,381 @@
+package com.group17.flightticket.schedule;
+
+import com.group17.flightticket.entity.AirlineCompany;
+import com.group17.flightticket.entity.Flight;
+import com.group17.flightticket.entity.Terminal;
+import com.group17.flightticket.identity.FlightKey;
+import com.group17.flightticket.identity.Registries;
+import com.group17.flightticket.search.FlightSearchIndex;
+import com.group17.flightticket.search.FlightSource;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+import static com.group17.flightticket.schedule.ScheduleSnapshot.AIRLINE;
+import static com.group17.flightticket.schedule.ScheduleSnapshot.ARRIVAL;
+import static com.group17.flightticket.schedule.ScheduleSnapshot.CAPACITY;
+import static com.group17.flightticket.schedule.ScheduleSnapshot.DEPARTURE;
+import static com.group17.flightticket.schedule.ScheduleSnapshot.DESTINATION;
+import static com.group17.flightticket.schedule.ScheduleSnapshot.NUMBER_LENGTH;
+import static com.group17.flightticket.schedule.ScheduleSnapshot.NUMBER_OFFSET;
+import static com.group17.flightticket.schedule.ScheduleSnapshot.ORIGIN;
+import static com.group17.flightticket.schedule.ScheduleSnapshot.RECORD_BYTES;
+import static com.group17.flightticket.schedule.ScheduleSnapshot.ROUTE_BYTES;
+import static com.group17.flightticket.schedule.ScheduleSnapshot.ROUTE_COUNT;
+import static com.group17.flightticket.schedule.ScheduleSnapshot.ROUTE_DESTINATION;
+import static com.group17.flightticket.schedule.ScheduleSnapshot.ROUTE_ORIGIN;
+import static com.group17.flightticket.schedule.ScheduleSnapshot.ROUTE_START;
+
+/**
+ * The {@code LazySchedule} class is a schedule snapshot opened through a memory-mapped file, whose flights
+ * are built the first time they are touched: looked up in {@link Registries#flights()} by key, or reached
+ * by a search of the {@link FlightSearchIndex}. Until then a flight is a record of the mapped file and one
+ * empty slot, and costs neither heap nor a construction at startup.
+ * <p>
+ * The airlines and terminals of the snapshot are built when it is opened, or taken from the registries
+ * if they exist already. A flight is built through the {@link Flight} constructor and added to its airline,
+ * so once built it is registered, indexed and priced like any other; a flight already registered under the
+ * same key is taken as it is. A flight is built at most once: the first thread to reach its record claims
+ * it with a compare-and-set and constructs it outside any lock, and the others wait for that flight. Only
+ * adding it to its terminals and airline, which keep their flights in plain lists, takes the lock of the
+ * schedule.
+ * <p>
+ * A connection search builds the departures of each stop it reaches, up to its horizon, found through
+ * the origin permutation of the snapshot.
+ */
+public class LazySchedule implements FlightSource, AutoCloseable {
+    private final Path file;
+    private final ByteBuffer buffer;
+    private final AirlineCompany[] airlines;
+    private final Terminal[] terminals;
+    private final Map<String, Integer> airlineIndex = new HashMap<>();
+    private final Map<String, Integer> locationIndex = new HashMap<>();
+    private final int flightCount;
+    private final int routeCount;
+    private final int recordsOffset;
+    private final int routesOffset;
+    private final int orderOffset;
+    private final int originStartsOffset;
+    private final int originOrderOffset;
+    private final int numbersOffset;
+    /** Marks the record of a flight that was built and then unregistered, e.g. canceled */
+    private static final CompletableFuture<Flight> RETIRED = CompletableFuture.completedFuture(null);
+
+    /** The flights built or being built, by record */
+    private final AtomicReferenceArray<CompletableFuture<Flight>> flights;
+    private final Function<FlightKey, Flight> loader = this::flight;
+    private final AtomicInteger builtCount = new AtomicInteger();
+
+    LazySchedule(Path file, ByteBuffer buffer) throws IOException {
+        this.file = file;
+        this.buffer = buffer;
+        buffer.position(8);
+        int airlineCount = buffer.getInt();
+        int locationCount = buffer.getInt();
+        int terminalCount = buffer.getInt();
+        this.flightCount = buffer.getInt();
+        this.routeCount = buffer.getInt();
+        int numbersLength = buffer.getInt();
+        this.recordsOffset = buffer.getInt();
+        this.routesOffset = recordsOffset + flightCount * RECORD_BYTES;
+        this.orderOffset = routesOffset + routeCount * ROUTE_BYTES;
+        this.originStartsOffset = orderOffset + flightCount * 4;
+        this.originOrderOffset = originStartsOffset + (locationCount + 1) * 4;
+        this.numbersOffset = originOrderOffset + flightCount * 4;
+        if ((long) numbersOffset + numbersLength > buffer.limit()) {
+            throw new IOException("Truncated schedule snapshot " + file);
+        }
+
+        this.airlines = new AirlineCompany[airlineCount];
+        for (int i = 0; i < airlineCount; i++) {
+            String name = ScheduleSnapshot.getString(buffer);
+            AirlineCompany airline = Registries.airlines().get(name);
+            airlines[i] = airline != null ? airline : new AirlineCompany(name);
+            airlineIndex.put(name, i);
+        }
+        String[] locations = new String[locationCount];
+        for (int i = 0; i < locationCount; i++) {
+            locations[i] = ScheduleSnapshot.getString(buffer);
+            locationIndex.put(locations[i], i);
+        }
+        this.terminals = new Terminal[terminalCount];
+        for (int i = 0; i < terminalCount; i++) {
+            String code = ScheduleSnapshot.getString(buffer);
+            String name = ScheduleSnapshot.getString(buffer);
+            String location = locations[buffer.getInt()];
+            Terminal terminal = Registries.terminals().get(code);
+            terminals[i] = terminal != null ? terminal : new Terminal(code, name, location);
+        }
+        this.flights = new AtomicReferenceArray<>(flightCount);
+    }
+
+    /**
+     * Makes the flights of the schedule reachable from the flight registry and the search index.
+     */
+    void attach() {
+        Registries.flights().addLoader(loader);
+        FlightSearchIndex.global().addSource(this);
+    }
+
+    /**
+     * Detaches the schedule from the flight registry and the search index. The flights built so far stay.
+     */
+    @Override
+    public void close() {
+        Registries.flights().removeLoader(loader);
+        FlightSearchIndex.global().removeSource(this);
+    }
+
+    /**
+     * Finds a flight of the schedule by key, building it if needed. A flight built before and since
+     * unregistered, e.g. canceled, is not handed out again.
+     *
+     * @param key The key of the flight.
+     * @return The flight, or {@code null} if the schedule has no registered flight with this key.
+     */
+    public Flight flight(FlightKey key) {
+        Integer airline = key.getAirline().isEmpty() ? Integer.valueOf(-1) : airlineIndex.get(key.getAirline());
+        if (airline == null) {
+            return null;
+        }
+        byte[] number = key.getFlightNumber().getBytes(StandardCharsets.UTF_8);
+        long day = key.getDepartureDate().toEpochDay();
+        int low = 0;
+        int high = flightCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int result = compareKey(middle, airline, number, day);
+            if (result < 0) {
+                low = middle + 1;
+            } else if (result > 0) {
+                high = middle - 1;
+            } else {
+                Flight flight = build(middle);
+                if (flight != null && Registries.flights().getIfPresent(flight.getFlightKey()) != flight) {
+                    // Forget it for good rather than hand it out again
+                    flights.set(middle, RETIRED);
+                    return null;
+                }
+                return flight;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void loadRoute(String originLocation, String destinationLocation, LocalDateTime from, LocalDateTime to) {
+        Integer origin = locationIndex.get(originLocation);
+        Integer destination = locationIndex.get(destinationLocation);
+        if (origin == null || destination == null) {
+            return;
+        }
+        int route = findRoute(origin, destination);
+        if (route < 0) {
+            return;
+        }
+        int start = buffer.getInt(routesOffset + route * ROUTE_BYTES + ROUTE_START);
+        int end = start + buffer.getInt(routesOffset + route * ROUTE_BYTES + ROUTE_COUNT);
+        buildWindow(orderOffset, start, end, from, to);
+    }
+
+    @Override
+    public void loadDepartures(String originLocation, LocalDateTime from, LocalDateTime to) {
+        Integer origin = locationIndex.get(originLocation);
+        if (origin == null) {
+            return;
+        }
+        int start = buffer.getInt(originStartsOffset + origin * 4);
+        int end = buffer.getInt(originStartsOffset + (origin + 1) * 4);
+        buildWindow(originOrderOffset, start, end, from, to);
+    }
+
+    /**
+     * Gets the file the schedule is mapped from.
+     *
+     * @return The snapshot file.
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Gets the number of flights in the schedule.
+     *
+     * @return The number of flights, built or not.
+     */
+    public int size() {
+        return flightCount;
+    }
+
+    /**
+     * Gets the number of flights built so far.
+     *
+     * @return The number of flights built.
+     */
+    public int getBuiltCount() {
+        return builtCount.get();
+    }
+
+    /**
+     * Builds the flights of a window of departures of a permutation, ordered by departure time.
+     *
+     * @param permutationOffset The offset of the permutation.
+     * @param start             The first position to look at.
+     * @param end               The position after the last one to look at.
+     * @param from              The earliest departure time, inclusive.
+     * @param to                The latest departure time, inclusive.
+     */
+    private void buildWindow(int permutationOffset, int start, int end, LocalDateTime from, LocalDateTime to) {
+        long fromSecond = ScheduleSnapshot.toEpochSecond(from) + (from.getNano() > 0 ? 1 : 0);
+        long toSecond = ScheduleSnapshot.toEpochSecond(to);
+        // Find the first departure of the window, then build until its end
+        int low = start;
+        int high = end;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (departure(recordAt(permutationOffset, middle)) < fromSecond) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        for (int position = low; position < end; position++) {
+            int record = recordAt(permutationOffset, position);
+            if (departure(record) > toSecond) {
+                break;
+            }
+            build(record);
+        }
+    }
+
+    /**
+     * Builds the flight of a record, unless it is built already. The thread that claims the record builds
+     * it, the others wait for it.
+     *
+     * @return The flight, or {@code null} if it was retired.
+     */
+    private Flight build(int record) {
+        CompletableFuture<Flight> built = flights.get(record);
+        if (built != null) {
+            return built.join();
+        }
+        CompletableFuture<Flight> claim = new CompletableFuture<>();
+        if (!flights.compareAndSet(record, null, claim)) {
+            return flights.get(record).join();
+        }
+        try {
+            Flight flight = construct(record);
+            builtCount.incrementAndGet();
+            claim.complete(flight);
+            return flight;
+        } catch (RuntimeException | Error e) {
+            // Let the next thread try again
+            flights.set(record, null);
+            claim.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Constructs the flight of a record, or takes the flight already registered under its key.
+     */
+    private Flight construct(int record) {
+        int offset = recordsOffset + record * RECORD_BYTES;
+        int airlineIndex = buffer.getInt(offset + AIRLINE);
+        AirlineCompany airline = airlineIndex < 0 ? null : airlines[airlineIndex];
+        String flightNumber = flightNumber(offset);
+        LocalDateTime departureTime = ScheduleSnapshot.fromEpochSecond(buffer.getLong(offset + DEPARTURE));
+        FlightKey key = FlightKey.of(airline == null ? "" : airline.getCompanyName(), flightNumber,
+                departureTime.toLocalDate());
+        Flight flight = Registries.flights().getIfPresent(key);
+        if (flight != null) {
+            return flight;
+        }
+        Terminal origin = terminals[buffer.getInt(offset + ORIGIN)];
+        Terminal destination = terminals[buffer.getInt(offset + DESTINATION)];
+        flight = Flight.unlisted(flightNumber, origin, airline, destination, departureTime,
+                ScheduleSnapshot.fromEpochSecond(buffer.getLong(offset + ARRIVAL)), buffer.getInt(offset + CAPACITY));
+        synchronized (this) {
+            origin.addDepartingFlight(flight);
+            destination.addArrivingFlight(flight);
+            if (airline != null) {
+                airline.addFlight(flight);
+            }
+        }
+        return flight;
+    }
+
+    /**
+     * Compares the key of a record with a key, in the order the records are written.
+     */
+    private int compareKey(int record, int airline, byte[] number, long day) {
+        int offset = recordsOffset + record * RECORD_BYTES;
+        int result = Integer.compare(buffer.getInt(offset + AIRLINE), airline);
+        if (result != 0) {
+            return result;
+        }
+        int numberOffset = numbersOffset + buffer.getInt(offset + NUMBER_OFFSET);
+        int numberLength = buffer.getInt(offset + NUMBER_LENGTH);
+        int common = Math.min(numberLength, number.length);
+        for (int i = 0; i < common; i++) {
+            result = Integer.compare(buffer.get(numberOffset + i) & 0xFF, number[i] & 0xFF);
+            if (result != 0) {
+                return result;
+            }
+        }
+        result = Integer.compare(numberLength, number.length);
+        if (result != 0) {
+            return result;
+        }
+        return Long.compare(Math.floorDiv(buffer.getLong(offset + DEPARTURE), 86_400L), day);
+    }
+
+    /**
+     * Finds a route by the indexes of its locations.
+     *
+     * @return The index of the route, or -1 if no flight flies it.
+     */
+    private int findRoute(int origin, int destination) {
+        int low = 0;
+        int high = routeCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int offset = routesOffset + middle * ROUTE_BYTES;
+            int result = Integer.compare(buffer.getInt(offset + ROUTE_ORIGIN), origin);
+            if (result == 0) {
+                result = Integer.compare(buffer.getInt(offset + ROUTE_DESTINATION), destination);
+            }
+            if (result < 0) {
+                low = middle + 1;
+            } else if (result > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    private int recordAt(int permutationOffset, int position) {
+        return buffer.getInt(permutationOffset + position * 4);
+    }
+
+    private long departure(int record) {
+        return buffer.getLong(recordsOffset + record * RECORD_BYTES + DEPARTURE);
+    }
+
+    private String flightNumber(int offset) {
+        byte[] bytes = new byte[buffer.getInt(offset + NUMBER_LENGTH)];
+        buffer.get(numbersOffset + buffer.getInt(offset + NUMBER_OFFSET), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,29 @@
+package com.group17.flightticket.schedule;
+
+/**
+ * The timetable formats read by the {@link ScheduleImporter}.
+ */
+public enum ScheduleFormat {
+    /**
+     * One dated flight per line: {@code airline,flightNumber,origin,destination,departure,arrival,capacity},
+     * with ISO-8601 local times and terminal codes. The capacity may be left out or empty. A field may be
+     * double-quoted to hold commas, e.g. an airline name, with a quote inside written twice; a quoted field
+     * cannot span lines. A first line starting with {@code airline} is taken as a header.
+     */
+    CSV,
+    /**
+     * IATA SSIM chapter 7 records of 200 characters. Only the flight leg records, type 3, are read; each
+     * one is a leg flown on the days of operation of its period.
+     */
+    SSIM;
+
+    /**
+     * Tells the format of a timetable from its first line.
+     *
+     * @param firstLine The first line of the timetable.
+     * @return {@link #SSIM} if the line is a SSIM header record, {@link #CSV} otherwise.
+     */
+    public static ScheduleFormat detect(String firstLine) {
+        return firstLine != null && firstLine.length() >= 75 && firstLine.charAt(0) == '1' ? SSIM : CSV;
+    }
+}
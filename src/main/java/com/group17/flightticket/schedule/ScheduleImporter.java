@@ -0,0 +1,438 @@
+package com.group17.flightticket.schedule;
+
+import com.group17.flightticket.entity.AirlineCompany;
+import com.group17.flightticket.entity.Flight;
+import com.group17.flightticket.entity.Terminal;
+import com.group17.flightticket.identity.FlightKey;
+import com.group17.flightticket.identity.Registries;
+import com.group17.flightticket.schedule.ScheduleSnapshot.ScheduledFlight;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * The {@code ScheduleImporter} class loads a CSV or SSIM timetable into flights, streaming it in chunks,
+ * so the memory it takes besides the flights it builds depends on the chunk size only, not on the file.
+ * <p>
+ * Rows are parsed on the calling thread into {@link ScheduledFlight}s until a chunk is full. Terminals and
+ * airlines are looked up once per code for the whole import, and created if they are not registered: a
+ * terminal named after its code, at the location its code starts with (e.g. "PVG" for "PVG-T1"), an airline
+ * named after its SSIM designator or CSV name. The flights of a chunk are then built on several threads,
+ * {@link Flight#unlisted unlisted} from their terminals, and added to their terminals and airlines at once,
+ * one list growth per terminal and airline and chunk.
+ * <p>
+ * A flight whose airline, number and date are already registered, or already read, is counted as a duplicate
+ * and left out. In SSIM that includes the later legs of a multi-leg flight number, since a flight is
+ * identified by its date and not its leg. Times are taken as local times, the UTC variations are not read.
+ */
+public class ScheduleImporter {
+    /** The number of errors kept for the report */
+    private static final int MAX_ERRORS = 10;
+    private static final DateTimeFormatter SSIM_DATE = new DateTimeFormatterBuilder()
+            .parseCaseInsensitive().appendPattern("ddMMMyy").toFormatter(Locale.ENGLISH);
+
+    private final int chunkSize;
+    private final int parallelism;
+    private final int defaultCapacity;
+
+    /**
+     * Constructs an importer with chunks of 8,192 flights, one thread per processor and 180 seats for the
+     * flights whose capacity is not given.
+     */
+    public ScheduleImporter() {
+        this(8192, Runtime.getRuntime().availableProcessors(), 180);
+    }
+
+    /**
+     * Constructs an importer.
+     *
+     * @param chunkSize       The number of flights parsed before they are built.
+     * @param parallelism     The number of threads building the flights of a chunk.
+     * @param defaultCapacity The capacity of the flights whose timetable row has none.
+     */
+    public ScheduleImporter(int chunkSize, int parallelism, int defaultCapacity) {
+        if (chunkSize <= 0 || parallelism <= 0 || defaultCapacity <= 0) {
+            throw new IllegalArgumentException("Invalid chunk size " + chunkSize + ", parallelism " + parallelism
+                    + " or capacity " + defaultCapacity);
+        }
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+        this.defaultCapacity = defaultCapacity;
+    }
+
+    /**
+     * Imports a timetable file, telling its format from its first line.
+     *
+     * @param file The timetable, in UTF-8.
+     * @return What was imported.
+     * @throws IOException if the file cannot be read.
+     */
+    public ImportStats importFile(Path file) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            reader.mark(1024);
+            ScheduleFormat format = ScheduleFormat.detect(reader.readLine());
+            reader.reset();
+            return importFrom(reader, format);
+        }
+    }
+
+    /**
+     * Imports a timetable.
+     *
+     * @param reader The timetable, read to its end.
+     * @param format The format of the timetable.
+     * @return What was imported.
+     * @throws IOException if the timetable cannot be read.
+     */
+    public ImportStats importFrom(BufferedReader reader, ScheduleFormat format) throws IOException {
+        long started = System.nanoTime();
+        try (ExecutorService workers = parallelism > 1 ? Executors.newFixedThreadPool(parallelism) : null) {
+            Run run = new Run(workers);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                run.lineNumber++;
+                if (format == ScheduleFormat.SSIM) {
+                    run.readSsim(line);
+                } else {
+                    run.readCsv(line);
+                }
+            }
+            run.flush();
+            return new ImportStats(format, run.rows, run.flights, run.duplicates, run.rejected,
+                    List.copyOf(run.errors), System.nanoTime() - started);
+        }
+    }
+
+    /**
+     * Imports a timetable file and prints what was imported, e.g. to size a season load.
+     * <p>
+     * Options, with their defaults: {@code --chunk 8192 --threads <processors> --capacity 180},
+     * then the timetable file.
+     */
+    public static void main(String[] args) throws IOException {
+        int chunk = 8192;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int capacity = 180;
+        Path file = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--chunk" -> chunk = Integer.parseInt(args[++i]);
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                case "--capacity" -> capacity = Integer.parseInt(args[++i]);
+                default -> file = Path.of(args[i]);
+            }
+        }
+        if (file == null) {
+            throw new IllegalArgumentException("No timetable file given");
+        }
+        System.out.print(new ScheduleImporter(chunk, threads, capacity).importFile(file).format());
+    }
+
+    /**
+     * The state of one import.
+     */
+    private final class Run {
+        private final ExecutorService workers;
+        private final Map<String, Terminal> terminals = new HashMap<>();
+        private final Map<String, AirlineCompany> airlines = new HashMap<>();
+        private final List<ScheduledFlight> chunk = new ArrayList<>(chunkSize);
+        /** The keys of the flights of the chunk, to leave out the ones read twice */
+        private final Set<FlightKey> chunkKeys = new HashSet<>();
+        private final List<String> errors = new ArrayList<>();
+        private long lineNumber;
+        private long rows;
+        private long flights;
+        private long duplicates;
+        private long rejected;
+
+        Run(ExecutorService workers) {
+            this.workers = workers;
+        }
+
+        void readCsv(String line) {
+            if (line.isBlank() || line.startsWith("#") || (lineNumber == 1 && line.regionMatches(true, 0, "airline", 0, 7))) {
+                return;
+            }
+            rows++;
+            try {
+                String[] fields = splitCsv(line);
+                if (fields.length < 6) {
+                    throw new IllegalArgumentException("expected at least 6 fields, found " + fields.length);
+                }
+                String capacity = fields.length > 6 ? fields[6].trim() : "";
+                add(new ScheduledFlight(airline(fields[0].trim()), fields[1].trim(), terminal(fields[2].trim()),
+                        terminal(fields[3].trim()), LocalDateTime.parse(fields[4].trim()), LocalDateTime.parse(fields[5].trim()),
+                        capacity.isEmpty() ? defaultCapacity : Integer.parseInt(capacity)));
+            } catch (RuntimeException e) {
+                reject(e);
+            }
+        }
+
+        void readSsim(String line) {
+            if (line.isEmpty() || line.charAt(0) != '3') {
+                return;
+            }
+            rows++;
+            try {
+                if (line.length() < 75) {
+                    throw new IllegalArgumentException("leg record of " + line.length() + " characters");
+                }
+                AirlineCompany airline = airline(field(line, 3, 5));
+                String flightNumber = airline.getCompanyName() + stripZeros(field(line, 6, 9)) + field(line, 2, 2);
+                LocalDate periodFrom = LocalDate.parse(field(line, 15, 21), SSIM_DATE);
+                LocalDate periodTo = LocalDate.parse(field(line, 22, 28), SSIM_DATE);
+                boolean[] operating = new boolean[8];
+                for (char day : field(line, 29, 35).toCharArray()) {
+                    if (day >= '1' && day <= '7') {
+                        operating[day - '0'] = true;
+                    }
+                }
+                boolean fortnightly = field(line, 36, 36).equals("2");
+                Terminal origin = terminal(stationTerminal(field(line, 37, 39), field(line, 53, 54)));
+                int departureMinutes = minutes(field(line, 40, 43));
+                Terminal destination = terminal(stationTerminal(field(line, 55, 57), field(line, 71, 72)));
+                int arrivalMinutes = minutes(field(line, 62, 65));
+                int capacity = line.length() >= 192 ? seats(field(line, 173, 192)) : 0;
+                int departureVariation = line.length() >= 193 ? dayVariation(line.charAt(192)) : 0;
+                int arrivalVariation = line.length() >= 194 ? dayVariation(line.charAt(193)) : 0;
+                for (LocalDate date = periodFrom; !date.isAfter(periodTo); date = date.plusDays(1)) {
+                    if (!operating[date.getDayOfWeek().getValue()]
+                            || (fortnightly && (date.toEpochDay() - periodFrom.toEpochDay()) / 7 % 2 != 0)) {
+                        continue;
+                    }
+                    LocalDateTime departure = date.plusDays(departureVariation).atStartOfDay().plusMinutes(departureMinutes);
+                    LocalDateTime arrival = date.plusDays(arrivalVariation).atStartOfDay().plusMinutes(arrivalMinutes);
+                    if (!arrival.isAfter(departure) && arrivalVariation == departureVariation) {
+                        arrival = arrival.plusDays(1);
+                    }
+                    add(new ScheduledFlight(airline, flightNumber, origin, destination, departure, arrival,
+                            capacity > 0 ? capacity : defaultCapacity));
+                }
+            } catch (RuntimeException e) {
+                reject(e);
+            }
+        }
+
+        /**
+         * Queues a flight, building the chunk once it is full.
+         */
+        private void add(ScheduledFlight flight) {
+            FlightKey key = FlightKey.of(flight.airline().getCompanyName(), flight.flightNumber(),
+                    flight.departureTime().toLocalDate());
+            if (Registries.flights().getIfPresent(key) != null || !chunkKeys.add(key)) {
+                duplicates++;
+                return;
+            }
+            chunk.add(flight);
+            if (chunk.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        /**
+         * Builds the flights of the chunk, then adds them to their terminals and airlines.
+         */
+        void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            Flight[] built = new Flight[chunk.size()];
+            if (workers == null) {
+                build(0, built.length, built);
+            } else {
+                int slice = (built.length + parallelism - 1) / parallelism;
+                List<Callable<Void>> tasks = new ArrayList<>(parallelism);
+                for (int start = 0; start < built.length; start += slice) {
+                    int from = start;
+                    int to = Math.min(start + slice, built.length);
+                    tasks.add(() -> {
+                        build(from, to, built);
+                        return null;
+                    });
+                }
+                try {
+                    for (Future<Void> task : workers.invokeAll(tasks)) {
+                        task.get();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while building flights", e);
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Could not build flights", e.getCause());
+                }
+            }
+
+            Map<Terminal, List<Flight>> departing = new IdentityHashMap<>();
+            Map<Terminal, List<Flight>> arriving = new IdentityHashMap<>();
+            Map<AirlineCompany, List<Flight>> operated = new IdentityHashMap<>();
+            for (Flight flight : built) {
+                departing.computeIfAbsent(flight.getOrigin(), terminal -> new ArrayList<>()).add(flight);
+                arriving.computeIfAbsent(flight.getDestination(), terminal -> new ArrayList<>()).add(flight);
+                operated.computeIfAbsent(flight.getAirlineCompany(), airline -> new ArrayList<>()).add(flight);
+            }
+            departing.forEach(Terminal::addDepartingFlights);
+            arriving.forEach(Terminal::addArrivingFlights);
+            operated.forEach(AirlineCompany::addFlights);
+            flights += built.length;
+            chunk.clear();
+            chunkKeys.clear();
+        }
+
+        private void build(int from, int to, Flight[] built) {
+            for (int i = from; i < to; i++) {
+                ScheduledFlight flight = chunk.get(i);
+                built[i] = Flight.unlisted(flight.flightNumber(), flight.origin(), flight.airline(), flight.destination(),
+                        flight.departureTime(), flight.arrivalTime(), flight.capacity());
+            }
+        }
+
+        private Terminal terminal(String code) {
+            if (code.isEmpty()) {
+                throw new IllegalArgumentException("missing terminal code");
+            }
+            return terminals.computeIfAbsent(code, c -> {
+                Terminal terminal = Registries.terminals().get(c);
+                if (terminal != null) {
+                    return terminal;
+                }
+                int separator = c.indexOf('-');
+                return new Terminal(c, c, separator > 0 ? c.substring(0, separator) : c);
+            });
+        }
+
+        private AirlineCompany airline(String name) {
+            if (name.isEmpty()) {
+                throw new IllegalArgumentException("missing airline");
+            }
+            return airlines.computeIfAbsent(name, n -> {
+                AirlineCompany airline = Registries.airlines().get(n);
+                return airline != null ? airline : new AirlineCompany(n);
+            });
+        }
+
+        private void reject(RuntimeException e) {
+            rejected++;
+            if (errors.size() < MAX_ERRORS) {
+                errors.add("line " + lineNumber + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Splits a CSV line in its fields. A field may be quoted to hold commas, with a quote inside written
+     * twice; a quoted field cannot span lines.
+     */
+    private static String[] splitCsv(String line) {
+        if (line.indexOf('"') < 0) {
+            return line.split(",", -1);
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields.toArray(new String[0]);
+    }
+
+    /**
+     * Gets a field of a SSIM record by its 1-based, inclusive positions, trimmed.
+     */
+    private static String field(String line, int from, int to) {
+        return line.substring(from - 1, Math.min(to, line.length())).trim();
+    }
+
+    /**
+     * Names the terminal of a station, e.g. "PVG-T1" for terminal "1" of "PVG", or "PVG" without a terminal.
+     */
+    private static String stationTerminal(String station, String terminal) {
+        return terminal.isEmpty() ? station : station + "-T" + terminal;
+    }
+
+    private static String stripZeros(String number) {
+        int start = 0;
+        while (start < number.length() - 1 && number.charAt(start) == '0') {
+            start++;
+        }
+        return number.substring(start);
+    }
+
+    /**
+     * Reads a SSIM time, "HHMM", as minutes after midnight; "2400" is the next midnight.
+     */
+    private static int minutes(String time) {
+        if (time.length() != 4) {
+            throw new IllegalArgumentException("invalid time '" + time + "'");
+        }
+        return Integer.parseInt(time.substring(0, 2)) * 60 + Integer.parseInt(time.substring(2));
+    }
+
+    /**
+     * Reads a SSIM date variation: a digit for the days after the period date, or "A" for the day before.
+     */
+    private static int dayVariation(char variation) {
+        if (variation == 'A') {
+            return -1;
+        }
+        return variation >= '0' && variation <= '9' ? variation - '0' : 0;
+    }
+
+    /**
+     * Adds up the seats of a SSIM aircraft configuration, e.g. 174 for "J12W24Y138".
+     */
+    private static int seats(String configuration) {
+        int total = 0;
+        int current = 0;
+        for (int i = 0; i < configuration.length(); i++) {
+            char c = configuration.charAt(i);
+            if (c >= '0' && c <= '9') {
+                current = current * 10 + (c - '0');
+            } else {
+                total += current;
+                current = 0;
+            }
+        }
+        return total + current;
+    }
+}
@@ -0,0 +1,329 @@
+package com.group17.flightticket.schedule;
+
+import com.group17.flightticket.entity.AirlineCompany;
+import com.group17.flightticket.entity.Flight;
+import com.group17.flightticket.entity.Terminal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes and opens compact binary snapshots of a flight schedule, read through a memory-mapped file
+ * by a {@link LazySchedule}.
+ * <p>
+ * Airlines, locations and terminals are written once in tables at the start of the file and read when
+ * it is opened. Flights are fixed-size records of 40 bytes that reference them by index, ordered by
+ * airline, flight number and departure date so a flight key is found by binary search. A route table
+ * and a permutation of the records ordered by route and departure time let a search find its window
+ * the same way, and a second permutation ordered by origin location and departure time, with the start
+ * of every origin, lets a connection search find the departures of a stop. Flight numbers are kept apart in one UTF-8 heap. Nothing but the tables is read when a
+ * snapshot is opened, so opening costs the same for a day or a season of flights.
+ * <p>
+ * The file is written under a temporary name then moved in place. It has no checksum, since checking
+ * one would read every page of the file when it is opened.
+ */
+public final class ScheduleSnapshot {
+    static final int MAGIC = 0x46545343;
+    static final int VERSION = 2;
+    /** Magic, version, six counts and the offset of the records */
+    static final int HEADER_BYTES = 4 + 4 + 6 * 4 + 4;
+    static final int RECORD_BYTES = 40;
+    static final int ROUTE_BYTES = 16;
+
+    /** Offsets inside a flight record */
+    static final int AIRLINE = 0;
+    static final int ORIGIN = 4;
+    static final int DESTINATION = 8;
+    static final int CAPACITY = 12;
+    static final int DEPARTURE = 16;
+    static final int ARRIVAL = 24;
+    static final int NUMBER_OFFSET = 32;
+    static final int NUMBER_LENGTH = 36;
+
+    /** Offsets inside a route entry */
+    static final int ROUTE_ORIGIN = 0;
+    static final int ROUTE_DESTINATION = 4;
+    static final int ROUTE_START = 8;
+    static final int ROUTE_COUNT = 12;
+
+    private ScheduleSnapshot() {
+    }
+
+    /**
+     * One flight of a schedule, as the arguments of the {@link Flight} constructor.
+     *
+     * @param airline       The operating airline, or {@code null}.
+     * @param flightNumber  The flight number.
+     * @param origin        The departure terminal.
+     * @param destination   The arrival terminal.
+     * @param departureTime The scheduled departure time.
+     * @param arrivalTime   The scheduled arrival time.
+     * @param capacity      The number of seats.
+     */
+    public record ScheduledFlight(AirlineCompany airline, String flightNumber, Terminal origin, Terminal destination,
+                                  LocalDateTime departureTime, LocalDateTime arrivalTime, int capacity) {
+
+        /**
+         * Describes a flight as it is now scheduled.
+         *
+         * @param flight The flight.
+         * @return The scheduled flight.
+         */
+        public static ScheduledFlight of(Flight flight) {
+            return new ScheduledFlight(flight.getAirlineCompany(), flight.getFlightNumber(), flight.getOrigin(),
+                    flight.getDestination(), flight.getDepartureTime(), flight.getArrivalTime(), flight.getCapacity());
+        }
+    }
+
+    /**
+     * Writes a snapshot of existing flights.
+     *
+     * @param file    The snapshot file to create.
+     * @param flights The flights.
+     * @throws IOException if the file cannot be written.
+     */
+    public static void writeFlights(Path file, Collection<Flight> flights) throws IOException {
+        List<ScheduledFlight> schedule = new ArrayList<>(flights.size());
+        for (Flight flight : flights) {
+            schedule.add(ScheduledFlight.of(flight));
+        }
+        write(file, schedule);
+    }
+
+    /**
+     * Writes a snapshot of a schedule.
+     *
+     * @param file     The snapshot file to create.
+     * @param schedule The flights of the schedule.
+     * @throws IOException              if the file cannot be written.
+     * @throws IllegalArgumentException if two flights have the same airline, number and departure date.
+     */
+    public static void write(Path file, List<ScheduledFlight> schedule) throws IOException {
+        Map<String, Integer> airlines = new LinkedHashMap<>();
+        Map<String, Integer> locations = new LinkedHashMap<>();
+        Map<String, Terminal> terminals = new LinkedHashMap<>();
+        for (ScheduledFlight flight : schedule) {
+            if (flight.airline() != null) {
+                airlines.putIfAbsent(flight.airline().getCompanyName(), airlines.size());
+            }
+            for (Terminal terminal : new Terminal[]{flight.origin(), flight.destination()}) {
+                terminals.putIfAbsent(terminal.getCode(), terminal);
+                locations.putIfAbsent(terminal.getLocation(), locations.size());
+            }
+        }
+        Map<String, Integer> terminalIndex = new LinkedHashMap<>();
+        for (String code : terminals.keySet()) {
+            terminalIndex.put(code, terminalIndex.size());
+        }
+
+        // Order the records by flight key
+        int count = schedule.size();
+        byte[][] numbers = new byte[count][];
+        int[] airlineOf = new int[count];
+        for (int i = 0; i < count; i++) {
+            ScheduledFlight flight = schedule.get(i);
+            numbers[i] = flight.flightNumber().getBytes(StandardCharsets.UTF_8);
+            airlineOf[i] = flight.airline() == null ? -1 : airlines.get(flight.airline().getCompanyName());
+        }
+        Comparator<Integer> byKey = Comparator.<Integer>comparingInt(i -> airlineOf[i])
+                .thenComparing((i, j) -> Arrays.compareUnsigned(numbers[i], numbers[j]))
+                .thenComparing(i -> schedule.get(i).departureTime().toLocalDate());
+        Integer[] records = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            records[i] = i;
+        }
+        Arrays.sort(records, byKey);
+        for (int r = 1; r < count; r++) {
+            if (byKey.compare(records[r - 1], records[r]) == 0) {
+                throw new IllegalArgumentException("Flight scheduled twice: " + schedule.get(records[r]).flightNumber()
+                        + " on " + schedule.get(records[r]).departureTime().toLocalDate());
+            }
+        }
+
+        // Order the records again by route and departure time
+        int[] originLocation = new int[count];
+        int[] destinationLocation = new int[count];
+        for (int r = 0; r < count; r++) {
+            ScheduledFlight flight = schedule.get(records[r]);
+            originLocation[r] = locations.get(flight.origin().getLocation());
+            destinationLocation[r] = locations.get(flight.destination().getLocation());
+        }
+        Integer[] byRoute = new Integer[count];
+        for (int r = 0; r < count; r++) {
+            byRoute[r] = r;
+        }
+        Arrays.sort(byRoute, Comparator.<Integer>comparingInt(r -> originLocation[r])
+                .thenComparingInt(r -> destinationLocation[r])
+                .thenComparing(r -> schedule.get(records[r]).departureTime()));
+        // And by origin and departure time, with where each origin starts
+        Integer[] byOrigin = new Integer[count];
+        for (int r = 0; r < count; r++) {
+            byOrigin[r] = r;
+        }
+        Arrays.sort(byOrigin, Comparator.<Integer>comparingInt(r -> originLocation[r])
+                .thenComparing(r -> schedule.get(records[r]).departureTime()));
+        int[] originStart = new int[locations.size() + 1];
+        for (int r = 0; r < count; r++) {
+            originStart[originLocation[r] + 1]++;
+        }
+        for (int l = 0; l < locations.size(); l++) {
+            originStart[l + 1] += originStart[l];
+        }
+        List<int[]> routes = new ArrayList<>();
+        for (int p = 0; p < count; p++) {
+            int r = byRoute[p];
+            int[] last = routes.isEmpty() ? null : routes.get(routes.size() - 1);
+            if (last != null && last[0] == originLocation[r] && last[1] == destinationLocation[r]) {
+                last[3]++;
+            } else {
+                routes.add(new int[]{originLocation[r], destinationLocation[r], p, 1});
+            }
+        }
+
+        // Size the file before mapping it
+        long size = HEADER_BYTES;
+        for (String airline : airlines.keySet()) {
+            size += 4 + utf8Length(airline);
+        }
+        for (String location : locations.keySet()) {
+            size += 4 + utf8Length(location);
+        }
+        for (Terminal terminal : terminals.values()) {
+            size += 4 + utf8Length(terminal.getCode()) + 4 + utf8Length(terminal.getName()) + 4;
+        }
+        long recordsOffset = align(size);
+        long numbersLength = 0;
+        for (byte[] number : numbers) {
+            numbersLength += number.length;
+        }
+        size = recordsOffset + (long) count * RECORD_BYTES + (long) routes.size() * ROUTE_BYTES + 4L * count
+                + 4L * originStart.length + 4L * count + numbersLength;
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Schedule too large for one snapshot: " + count + " flights");
+        }
+
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer out = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            out.putInt(MAGIC).putInt(VERSION).putInt(airlines.size()).putInt(locations.size())
+                    .putInt(terminals.size()).putInt(count).putInt(routes.size()).putInt((int) numbersLength)
+                    .putInt((int) recordsOffset);
+            for (String airline : airlines.keySet()) {
+                putString(out, airline);
+            }
+            for (String location : locations.keySet()) {
+                putString(out, location);
+            }
+            for (Terminal terminal : terminals.values()) {
+                putString(out, terminal.getCode());
+                putString(out, terminal.getName());
+                out.putInt(locations.get(terminal.getLocation()));
+            }
+
+            out.position((int) recordsOffset);
+            int numberOffset = 0;
+            for (int r = 0; r < count; r++) {
+                ScheduledFlight flight = schedule.get(records[r]);
+                byte[] number = numbers[records[r]];
+                out.putInt(airlineOf[records[r]])
+                        .putInt(terminalIndex.get(flight.origin().getCode()))
+                        .putInt(terminalIndex.get(flight.destination().getCode()))
+                        .putInt(flight.capacity())
+                        .putLong(toEpochSecond(flight.departureTime()))
+                        .putLong(toEpochSecond(flight.arrivalTime()))
+                        .putInt(numberOffset).putInt(number.length);
+                numberOffset += number.length;
+            }
+            for (int[] route : routes) {
+                out.putInt(route[0]).putInt(route[1]).putInt(route[2]).putInt(route[3]);
+            }
+            for (Integer r : byRoute) {
+                out.putInt(r);
+            }
+            for (int start : originStart) {
+                out.putInt(start);
+            }
+            for (Integer r : byOrigin) {
+                out.putInt(r);
+            }
+            for (int r = 0; r < count; r++) {
+                out.put(numbers[records[r]]);
+            }
+            out.force();
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Opens a snapshot and attaches it to the flight registry and the search index, so its flights
+     * are built the first time they are looked up or searched.
+     *
+     * @param file The snapshot file.
+     * @return The schedule of the snapshot.
+     * @throws IOException if the file cannot be read or is not a schedule snapshot.
+     */
+    public static LazySchedule open(Path file) throws IOException {
+        ByteBuffer in;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mapping stays valid once the channel is closed
+            in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (in.limit() < HEADER_BYTES || in.getInt(0) != MAGIC || in.getInt(4) != VERSION) {
+            throw new IOException("Not a schedule snapshot " + file);
+        }
+        LazySchedule schedule = new LazySchedule(file, in);
+        schedule.attach();
+        return schedule;
+    }
+
+    /**
+     * Converts a time to the seconds stored in the file. The offset only scales the time, the schedule
+     * keeps local times like the flights do.
+     */
+    static long toEpochSecond(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    /**
+     * Converts seconds stored in the file back to a time.
+     */
+    static LocalDateTime fromEpochSecond(long seconds) {
+        return LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC);
+    }
+
+    static String getString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void putString(ByteBuffer out, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.putInt(bytes.length).put(bytes);
+    }
+
+    private static int utf8Length(String value) {
+        return value.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static long align(long offset) {
+        return (offset + 7) & ~7L;
+    }
+}
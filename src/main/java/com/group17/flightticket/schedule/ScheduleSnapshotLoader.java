@@ -0,0 +1,46 @@
+package com.group17.flightticket.schedule;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Opens the schedule snapshot named by {@code flightticket.schedule.snapshot} when the application starts,
+ * before it serves requests, and detaches it when the application stops. Opening maps the file and builds
+ * the airlines and terminals only, the flights are built as they are searched or looked up.
+ * <p>
+ * The property is read at run time rather than through a condition on the bean, so an application built
+ * ahead of time with Spring AOT can still be started with or without a snapshot.
+ */
+@Component
+public class ScheduleSnapshotLoader implements AutoCloseable {
+    private final LazySchedule schedule;
+
+    /**
+     * Opens the configured snapshot, if any.
+     *
+     * @param snapshot The path of the snapshot file, or an empty string for none.
+     * @throws IOException if the snapshot cannot be read.
+     */
+    public ScheduleSnapshotLoader(@Value("${flightticket.schedule.snapshot:}") String snapshot) throws IOException {
+        this.schedule = snapshot.isBlank() ? null : ScheduleSnapshot.open(Path.of(snapshot));
+    }
+
+    /**
+     * Gets the schedule opened at startup.
+     *
+     * @return The schedule, or {@code null} if no snapshot is configured.
+     */
+    public LazySchedule getSchedule() {
+        return schedule;
+    }
+
+    @Override
+    public void close() {
+        if (schedule != null) {
+            schedule.close();
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.group17.flightticket.search;
+
+import com.group17.flightticket.entity.Flight;
+import com.group17.flightticket.entity.Terminal;
+import com.group17.flightticket.search.FlightSearchIndex.DepartureKey;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The {@code ConnectionSearch} class finds itineraries with connecting flights between two terminals.
+ * <p>
+ * It is a connection scan over the timetable of {@link FlightSearchIndex}: flights are visited once,
+ * in departure order, starting at the earliest departure. Every terminal keeps the best partial
+ * itineraries that reach it, and a flight extends the best one that arrives early enough to make
+ * the connection. The scan stops as soon as no later flight can beat the k itineraries found so far,
+ * so a query touches only the part of the timetable between departure and the k-th best arrival.
+ * The timetable is maintained incrementally by the index, nothing is precomputed per query. Flights of
+ * the sources of the index are built stop by stop, for the origin and each stop the scan reaches.
+ */
+public class ConnectionSearch {
+    /** Default minimum time between the arrival of a leg and the departure of the next one */
+    public static final Duration DEFAULT_MIN_CONNECTION_TIME = Duration.ofMinutes(45);
+    /** Default maximum number of flights in an itinerary */
+    public static final int DEFAULT_MAX_LEGS = 3;
+    /** How far after the earliest departure the timetable is scanned */
+    public static final Duration SEARCH_HORIZON = Duration.ofHours(48);
+
+    /** Best itineraries first: earliest arrival, then fewest legs, then latest departure */
+    private static final Comparator<Label> RANKING = Comparator.comparing((Label label) -> label.arrival)
+            .thenComparingInt(label -> label.legs)
+            .thenComparing(label -> label.departure, Comparator.reverseOrder());
+
+    private final FlightSearchIndex index;
+
+    /**
+     * Constructs a connection search over the global flight search index.
+     */
+    public ConnectionSearch() {
+        this(FlightSearchIndex.global());
+    }
+
+    /**
+     * Constructs a connection search over the given flight search index.
+     *
+     * @param index The index whose timetable is scanned.
+     */
+    public ConnectionSearch(FlightSearchIndex index) {
+        this.index = index;
+    }
+
+    /**
+     * Finds the k best itineraries with the default connection time and number of legs.
+     *
+     * @param origin            The terminal the journey starts from.
+     * @param destination       The terminal the journey ends at.
+     * @param earliestDeparture The earliest time the first leg may depart.
+     * @param k                 The maximum number of itineraries to return.
+     * @return The best itineraries, best first.
+     */
+    public List<Itinerary> findConnections(Terminal origin, Terminal destination, LocalDateTime earliestDeparture, int k) {
+        return findConnections(origin, destination, earliestDeparture, k, DEFAULT_MIN_CONNECTION_TIME, DEFAULT_MAX_LEGS);
+    }
+
+    /**
+     * Finds the k best itineraries between two terminals. Itineraries are ranked by arrival time,
+     * then by number of legs, then by latest departure. Only flights open for reservation with
+     * at least one seat left are used.
+     *
+     * @param origin            The terminal the journey starts from.
+     * @param destination       The terminal the journey ends at.
+     * @param earliestDeparture The earliest time the first leg may depart.
+     * @param k                 The maximum number of itineraries to return.
+     * @param minConnectionTime The minimum time between an arrival and the next departure.
+     * @param maxLegs           The maximum number of flights in an itinerary.
+     * @return The best itineraries, best first.
+     */
+    public List<Itinerary> findConnections(Terminal origin, Terminal destination, LocalDateTime earliestDeparture,
+                                           int k, Duration minConnectionTime, int maxLegs) {
+        if (k < 1 || maxLegs < 1 || origin == destination) {
+            return Collections.emptyList();
+        }
+        Map<Terminal, List<Label>> reached = new IdentityHashMap<>();
+        List<Label> results = new ArrayList<>(k + 1);
+        LocalDateTime horizon = earliestDeparture.plus(SEARCH_HORIZON);
+        // Flights not built yet are built stop by stop: the origin first, then every stop reached
+        Set<String> loaded = new HashSet<>();
+        loaded.add(origin.getLocation());
+        index.loadDepartures(origin.getLocation(), earliestDeparture, horizon);
+
+        Iterator<Map.Entry<DepartureKey, Flight>> departures = index.scanFrom(earliestDeparture);
+        while (departures.hasNext()) {
+            Map.Entry<DepartureKey, Flight> entry = departures.next();
+            Flight flight = entry.getValue();
+            LocalDateTime departure = flight.getDepartureTime();
+            if (departure.isAfter(horizon)) {
+                break;
+            }
+            // Every later flight departs after the k-th best arrival, so it cannot improve the results
+            if (results.size() == k && !departure.isBefore(results.get(k - 1).arrival)) {
+                break;
+            }
+            if (!flight.isBOpenForReservation() || flight.getRemainSeatCount() < 1) {
+                continue;
+            }
+            Terminal from = flight.getOrigin();
+            Terminal to = flight.getDestination();
+            if (to == origin) {
+                continue;
+            }
+
+            Label label;
+            if (from == origin) {
+                label = new Label(flight, null);
+            } else {
+                Label feeder = bestFeeder(reached.get(from), departure.minus(minConnectionTime), maxLegs);
+                if (feeder == null) {
+                    continue;
+                }
+                label = new Label(flight, feeder);
+            }
+
+            if (to == destination) {
+                insertRanked(results, label, k);
+            } else if (label.legs < maxLegs) {
+                insertRanked(reached.computeIfAbsent(to, terminal -> new ArrayList<>()), label, k * maxLegs);
+                if (loaded.add(to.getLocation())) {
+                    // Every later connection from this stop departs after this flight
+                    index.loadDepartures(to.getLocation(), departure, horizon);
+                    departures = index.scanAfter(entry.getKey());
+                }
+            }
+        }
+
+        List<Itinerary> itineraries = new ArrayList<>(results.size());
+        for (Label label : results) {
+            itineraries.add(label.toItinerary());
+        }
+        return itineraries;
+    }
+
+    /**
+     * Picks the partial itinerary that can feed a flight: it must arrive before the latest
+     * connecting time and leave room for one more leg. Fewer legs win, then the later departure.
+     */
+    private static Label bestFeeder(List<Label> labels, LocalDateTime latestArrival, int maxLegs) {
+        if (labels == null) {
+            return null;
+        }
+        Label best = null;
+        for (Label label : labels) {
+            if (label.legs >= maxLegs || label.arrival.isAfter(latestArrival)) {
+                continue;
+            }
+            if (best == null || label.legs < best.legs
+                    || (label.legs == best.legs && label.departure.isAfter(best.departure))) {
+                best = label;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Inserts a label in a list kept sorted by ranking and bounded to the given size.
+     */
+    private static void insertRanked(List<Label> labels, Label label, int limit) {
+        int position = Collections.binarySearch(labels, label, RANKING);
+        if (position < 0) {
+            position = -position - 1;
+        }
+        if (position >= limit) {
+            return;
+        }
+        labels.add(position, label);
+        if (labels.size() > limit) {
+            labels.remove(labels.size() - 1);
+        }
+    }
+
+    /**
+     * A partial itinerary ending with a flight, linked to the partial itinerary it extends.
+     */
+    private static final class Label {
+        private final Flight flight;
+        private final Label previous;
+        private final int legs;
+        private final LocalDateTime departure;
+        private final LocalDateTime arrival;
+
+        Label(Flight flight, Label previous) {
+            this.flight = flight;
+            this.previous = previous;
+            this.legs = previous == null ? 1 : previous.legs + 1;
+            this.departure = previous == null ? flight.getDepartureTime() : previous.departure;
+            this.arrival = flight.getArrivalTime();
+        }
+
+        Itinerary toItinerary() {
+            Deque<Flight> legs = new ArrayDeque<>();
+            for (Label label = this; label != null; label = label.previous) {
+                legs.addFirst(label.flight);
+            }
+            return new Itinerary(new ArrayList<>(legs));
+        }
+    }
+}
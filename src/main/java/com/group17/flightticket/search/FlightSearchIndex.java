@@ -0,0 +1,264 @@
+package com.group17.flightticket.search;
+
+import com.group17.flightticket.entity.Flight;
+import com.group17.flightticket.entity.Passenger;
+import com.group17.flightticket.entity.Terminal;
+import com.group17.flightticket.enums.SeatCategory;
+import com.group17.flightticket.pricing.FareQuote;
+import com.group17.flightticket.pricing.FareQuoteCache;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The {@code FlightSearchIndex} class indexes flights by route and departure time.
+ * Every route (origin location, destination location) owns a skip list ordered by
+ * departure time, so a search for a time window costs a logarithmic lookup plus the
+ * flights in the window, instead of a walk over every flight of every airline.
+ * <p>
+ * All flights are also kept in one timetable ordered by departure time, which is
+ * what {@link ConnectionSearch} scans to build multi-leg itineraries.
+ * <p>
+ * A single global index is shared by all airlines. It is kept current by the
+ * {@link Flight} constructor, {@link Flight#delayFlight} and
+ * {@link com.group17.flightticket.entity.AirlineCompany#cancelFlight}. Flights not built yet are
+ * reached through the attached {@link FlightSource}s, which build them before a search reads the index.
+ */
+public class FlightSearchIndex {
+    private static final FlightSearchIndex GLOBAL = new FlightSearchIndex();
+
+    /** Flights of every route, ordered by departure time */
+    private final Map<RouteKey, ConcurrentSkipListMap<DepartureKey, Flight>> routes = new ConcurrentHashMap<>();
+    /** Flights of all routes, ordered by departure time */
+    private final ConcurrentSkipListMap<DepartureKey, Flight> timetable = new ConcurrentSkipListMap<>();
+    /** Sources of the flights not built yet */
+    private final List<FlightSource> sources = new CopyOnWriteArrayList<>();
+
+    /**
+     * Gets the index shared by all airlines.
+     *
+     * @return The global flight search index.
+     */
+    public static FlightSearchIndex global() {
+        return GLOBAL;
+    }
+
+    /**
+     * Attaches a source of flights not built yet, asked for the flights of every search from now on.
+     *
+     * @param source The source.
+     */
+    public void addSource(FlightSource source) {
+        sources.add(source);
+    }
+
+    /**
+     * Detaches a source of flights. The flights it has built stay indexed.
+     *
+     * @param source The source.
+     */
+    public void removeSource(FlightSource source) {
+        sources.remove(source);
+    }
+
+    /**
+     * Adds a flight to the index under its current route and departure time.
+     *
+     * @param flight The flight to index.
+     */
+    public void add(Flight flight) {
+        DepartureKey departureKey = DepartureKey.of(flight);
+        routes.computeIfAbsent(RouteKey.of(flight), key -> new ConcurrentSkipListMap<>())
+                .put(departureKey, flight);
+        timetable.put(departureKey, flight);
+    }
+
+    /**
+     * Removes a flight from the index. This must be called before the route or the
+     * departure time of the flight changes, since the flight is found by them.
+     *
+     * @param flight The flight to remove.
+     */
+    public void remove(Flight flight) {
+        DepartureKey departureKey = DepartureKey.of(flight);
+        ConcurrentSkipListMap<DepartureKey, Flight> departures = routes.get(RouteKey.of(flight));
+        if (departures != null) {
+            removeEntry(departures, departureKey, flight);
+        }
+        removeEntry(timetable, departureKey, flight);
+    }
+
+    /**
+     * Gets all flights departing at or after the given time, in departure order.
+     * The returned view is live and weakly consistent, it is not a copy. Flights of the attached
+     * sources are only in it once built, see {@link #loadDepartures}.
+     *
+     * @param from The earliest departure time, inclusive.
+     * @return The flights of all routes ordered by departure time.
+     */
+    public Collection<Flight> departuresFrom(LocalDateTime from) {
+        return timetable.tailMap(DepartureKey.lowest(from), true).values();
+    }
+
+    /**
+     * Has the attached sources build the flights departing from a location inside a time window.
+     *
+     * @param originLocation The location of the departure terminal.
+     * @param from           The earliest departure time, inclusive.
+     * @param to             The latest departure time, inclusive.
+     */
+    public void loadDepartures(String originLocation, LocalDateTime from, LocalDateTime to) {
+        for (FlightSource source : sources) {
+            source.loadDepartures(originLocation, from, to);
+        }
+    }
+
+    /**
+     * Scans the timetable from a departure time on.
+     *
+     * @param from The earliest departure time, inclusive.
+     * @return The flights of all routes by departure key.
+     */
+    Iterator<Map.Entry<DepartureKey, Flight>> scanFrom(LocalDateTime from) {
+        return timetable.tailMap(DepartureKey.lowest(from), true).entrySet().iterator();
+    }
+
+    /**
+     * Scans the timetable again after a departure, so the flights indexed since a scan started after it are seen.
+     *
+     * @param after The key of the last departure scanned.
+     * @return The flights of all routes by departure key.
+     */
+    Iterator<Map.Entry<DepartureKey, Flight>> scanAfter(DepartureKey after) {
+        return timetable.tailMap(after, false).entrySet().iterator();
+    }
+
+    /**
+     * Removes an entry only if it still belongs to this very flight.
+     */
+    private static void removeEntry(ConcurrentSkipListMap<DepartureKey, Flight> map, DepartureKey key, Flight flight) {
+        map.computeIfPresent(key, (k, indexed) -> indexed == flight ? null : indexed);
+    }
+
+    /**
+     * Finds the flights between two locations that depart inside a time window.
+     *
+     * @param originLocation      The location of the departure terminal, e.g. "Shanghai".
+     * @param destinationLocation The location of the arrival terminal, e.g. "Guangzhou".
+     * @param from                The earliest departure time, inclusive.
+     * @param to                  The latest departure time, inclusive.
+     * @param requireSeats        Whether to only return flights open for reservation with seats left.
+     * @return The matching flights ordered by departure time.
+     */
+    public List<Flight> search(String originLocation, String destinationLocation,
+                               LocalDateTime from, LocalDateTime to, boolean requireSeats) {
+        if (from.isAfter(to)) {
+            return Collections.emptyList();
+        }
+        for (FlightSource source : sources) {
+            source.loadRoute(originLocation, destinationLocation, from, to);
+        }
+        ConcurrentSkipListMap<DepartureKey, Flight> departures = routes.get(new RouteKey(originLocation, destinationLocation));
+        if (departures == null) {
+            return Collections.emptyList();
+        }
+        NavigableMap<DepartureKey, Flight> window = departures.subMap(
+                DepartureKey.lowest(from), true, DepartureKey.lowest(to.plusNanos(1)), false);
+        List<Flight> result = new ArrayList<>();
+        for (Flight flight : window.values()) {
+            if (!requireSeats || (flight.isBOpenForReservation() && flight.getRemainSeatCount() > 0)) {
+                result.add(flight);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Quotes a seat category on the flights between two locations that depart inside a time window.
+     * Quotes come from the {@link FareQuoteCache}, so repeated searches do not read the seat inventories.
+     *
+     * @param originLocation      The location of the departure terminal, e.g. "Shanghai".
+     * @param destinationLocation The location of the arrival terminal, e.g. "Guangzhou".
+     * @param from                The earliest departure time, inclusive.
+     * @param to                  The latest departure time, inclusive.
+     * @param category            The seat category to quote.
+     * @param passenger           The passenger searching, or {@code null} for an anonymous search.
+     * @return The quotes of the flights that can be booked, ordered by departure time.
+     */
+    public List<FareQuote> searchFares(String originLocation, String destinationLocation, LocalDateTime from,
+                                       LocalDateTime to, SeatCategory category, Passenger passenger) {
+        FareQuoteCache cache = FareQuoteCache.global();
+        List<FareQuote> result = new ArrayList<>();
+        for (Flight flight : search(originLocation, destinationLocation, from, to, false)) {
+            FareQuote quote = cache.quote(flight, category, passenger);
+            if (quote.isBookable()) {
+                result.add(quote);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds the flights between two terminals that depart inside a time window.
+     *
+     * @param origin       The departure terminal.
+     * @param destination  The arrival terminal.
+     * @param from         The earliest departure time, inclusive.
+     * @param to           The latest departure time, inclusive.
+     * @param requireSeats Whether to only return flights open for reservation with seats left.
+     * @return The matching flights ordered by departure time.
+     */
+    public List<Flight> search(Terminal origin, Terminal destination,
+                               LocalDateTime from, LocalDateTime to, boolean requireSeats) {
+        List<Flight> result = search(origin.getLocation(), destination.getLocation(), from, to, requireSeats);
+        // Several terminals can serve the same location, keep the ones asked for
+        result.removeIf(flight -> flight.getOrigin() != origin || flight.getDestination() != destination);
+        return result;
+    }
+
+    /**
+     * Identifies a route by the locations of its terminals.
+     */
+    private record RouteKey(String origin, String destination) {
+        static RouteKey of(Flight flight) {
+            return new RouteKey(flight.getOrigin().getLocation(), flight.getDestination().getLocation());
+        }
+    }
+
+    /**
+     * Orders flights of a route by departure time, then airline and flight number.
+     */
+    record DepartureKey(LocalDateTime departureTime, String airline, String flightNumber)
+            implements Comparable<DepartureKey> {
+
+        static DepartureKey of(Flight flight) {
+            String airline = flight.getAirlineCompany() == null ? "" : flight.getAirlineCompany().getCompanyName();
+            return new DepartureKey(flight.getDepartureTime(), airline, flight.getFlightNumber());
+        }
+
+        static DepartureKey lowest(LocalDateTime departureTime) {
+            return new DepartureKey(departureTime, "", "");
+        }
+
+        @Override
+        public int compareTo(DepartureKey other) {
+            int result = departureTime.compareTo(other.departureTime);
+            if (result == 0) {
+                result = airline.compareTo(other.airline);
+            }
+            if (result == 0) {
+                result = flightNumber.compareTo(other.flightNumber);
+            }
+            return result;
+        }
+    }
+}
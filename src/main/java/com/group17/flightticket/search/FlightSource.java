@@ -0,0 +1,30 @@
+package com.group17.flightticket.search;
+
+import java.time.LocalDateTime;
+
+/**
+ * A {@code FlightSource} holds flights that are not built yet, e.g. the flights of a memory-mapped
+ * schedule, and builds them when a search reaches them. A flight built by a source indexes itself
+ * in the {@link FlightSearchIndex} like any other, so a source only has to build the flights asked for.
+ */
+public interface FlightSource {
+
+    /**
+     * Builds the flights of a route that depart inside a time window, if they are not built yet.
+     *
+     * @param originLocation      The location of the departure terminal.
+     * @param destinationLocation The location of the arrival terminal.
+     * @param from                The earliest departure time, inclusive.
+     * @param to                  The latest departure time, inclusive.
+     */
+    void loadRoute(String originLocation, String destinationLocation, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Builds the flights of all routes from a location that depart inside a time window, if they are not built yet.
+     *
+     * @param originLocation The location of the departure terminal.
+     * @param from           The earliest departure time, inclusive.
+     * @param to             The latest departure time, inclusive.
+     */
+    void loadDepartures(String originLocation, LocalDateTime from, LocalDateTime to);
+}
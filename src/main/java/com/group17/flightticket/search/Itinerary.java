@@ -0,0 +1,100 @@
+package com.group17.flightticket.search;
+
+import com.group17.flightticket.entity.Flight;
+import com.group17.flightticket.entity.Terminal;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * The {@code Itinerary} class represents a journey made of one or more connecting flights,
+ * as returned by {@link ConnectionSearch}.
+ */
+public class Itinerary {
+    private final List<Flight> legs;
+
+    /**
+     * Constructs an itinerary from its flights in travel order.
+     *
+     * @param legs The flights of the itinerary, first leg first.
+     */
+    public Itinerary(List<Flight> legs) {
+        this.legs = List.copyOf(legs);
+    }
+
+    /**
+     * Gets the flights of the itinerary in travel order.
+     *
+     * @return An unmodifiable list of the legs.
+     */
+    public List<Flight> getLegs() {
+        return legs;
+    }
+
+    /**
+     * Gets the terminal where the itinerary starts.
+     *
+     * @return The origin of the first leg.
+     */
+    public Terminal getOrigin() {
+        return legs.get(0).getOrigin();
+    }
+
+    /**
+     * Gets the terminal where the itinerary ends.
+     *
+     * @return The destination of the last leg.
+     */
+    public Terminal getDestination() {
+        return legs.get(legs.size() - 1).getDestination();
+    }
+
+    /**
+     * Gets the departure time of the first leg.
+     *
+     * @return The departure time of the itinerary.
+     */
+    public LocalDateTime getDepartureTime() {
+        return legs.get(0).getDepartureTime();
+    }
+
+    /**
+     * Gets the arrival time of the last leg.
+     *
+     * @return The arrival time of the itinerary.
+     */
+    public LocalDateTime getArrivalTime() {
+        return legs.get(legs.size() - 1).getArrivalTime();
+    }
+
+    /**
+     * Gets the number of times the traveller changes flights.
+     *
+     * @return The number of legs minus one.
+     */
+    public int getTransfers() {
+        return legs.size() - 1;
+    }
+
+    /**
+     * Gets the time between the first departure and the last arrival.
+     *
+     * @return The total travel time.
+     */
+    public Duration getTotalDuration() {
+        return Duration.between(getDepartureTime(), getArrivalTime());
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("Itinerary{");
+        for (int i = 0; i < legs.size(); i++) {
+            if (i > 0) {
+                builder.append(" -> ");
+            }
+            builder.append(legs.get(i).getFlightNumber());
+        }
+        return builder.append(", arrival=").append(getArrivalTime()).append('}').toString();
+    }
+}
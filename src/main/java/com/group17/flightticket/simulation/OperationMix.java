@@ -0,0 +1,41 @@
+package com.group17.flightticket.simulation;
+
+/**
+ * The share of each {@link OperationType} in a workload, outside of the booking bursts. The weights
+ * need not add up to 1, each operation is drawn with probability weight / total.
+ *
+ * @param reserve The weight of reservations.
+ * @param modify  The weight of seat category changes.
+ * @param cancel  The weight of cancellations.
+ * @param delay   The weight of flight delays.
+ * @param board   The weight of boardings.
+ */
+public record OperationMix(double reserve, double modify, double cancel, double delay, double board) {
+
+    public OperationMix {
+        if (reserve < 0 || modify < 0 || cancel < 0 || delay < 0 || board < 0
+                || reserve + modify + cancel + delay + board <= 0) {
+            throw new IllegalArgumentException("Invalid operation mix");
+        }
+    }
+
+    /**
+     * Gets the mix of a typical booking day: mostly reservations, some changes and cancellations,
+     * and rare delays and boardings.
+     *
+     * @return The standard mix.
+     */
+    public static OperationMix standard() {
+        return new OperationMix(0.70, 0.10, 0.18, 0.015, 0.005);
+    }
+
+    double weight(OperationType type) {
+        return switch (type) {
+            case RESERVE -> reserve;
+            case MODIFY -> modify;
+            case CANCEL -> cancel;
+            case DELAY -> delay;
+            case BOARD -> board;
+        };
+    }
+}
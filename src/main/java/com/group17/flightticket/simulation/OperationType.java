@@ -0,0 +1,17 @@
+package com.group17.flightticket.simulation;
+
+/**
+ * The operations of a simulated {@link Workload}.
+ */
+public enum OperationType {
+    /** A passenger books a seat of a category */
+    RESERVE,
+    /** A passenger moves a reservation to another seat category */
+    MODIFY,
+    /** A passenger cancels a reservation */
+    CANCEL,
+    /** The airline delays a flight by some minutes */
+    DELAY,
+    /** The passengers of a flight board */
+    BOARD
+}
@@ -0,0 +1,127 @@
+package com.group17.flightticket.simulation;
+
+import com.group17.flightticket.entity.AirlineCompany;
+import com.group17.flightticket.entity.Flight;
+import com.group17.flightticket.entity.Passenger;
+import com.group17.flightticket.entity.Terminal;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+
+/**
+ * The {@code SimulatedNetwork} class builds the airlines, terminals, flights and passengers of a
+ * {@link WorkloadSpec}, through the same constructors as the rest of the system, so they are registered,
+ * indexed and priced like any other.
+ * <p>
+ * The schedule starts tomorrow. Each day has the spec's number of flights, in the order of their index,
+ * between two distinct random terminals, operated by a random airline, departing between 05:00 and 23:00
+ * and flying for one to twelve hours, with 150, 180 or 300 seats. Passengers have a balance of 2,000 to
+ * 22,000. Apart from the dates, the same spec always gives the same network.
+ */
+public final class SimulatedNetwork {
+    /** Keeps the random stream of the network apart from the one of the operations */
+    private static final long NETWORK_STREAM = 0x2545F4914F6CDD1DL;
+    private static final int[] CAPACITIES = {150, 180, 180, 300};
+
+    private final WorkloadSpec spec;
+    private final AirlineCompany[] airlines;
+    private final Terminal[] terminals;
+    private final Flight[] flights;
+    private final Passenger[] passengers;
+
+    private SimulatedNetwork(WorkloadSpec spec) {
+        this.spec = spec;
+        this.airlines = new AirlineCompany[spec.airlines()];
+        this.terminals = new Terminal[spec.terminals()];
+        this.flights = new Flight[spec.flights()];
+        this.passengers = new Passenger[spec.passengers()];
+    }
+
+    /**
+     * Builds the network of a spec.
+     *
+     * @param spec The spec.
+     * @return The network.
+     */
+    public static SimulatedNetwork build(WorkloadSpec spec) {
+        SplittableRandom random = new SplittableRandom(spec.seed() ^ NETWORK_STREAM);
+        SimulatedNetwork network = new SimulatedNetwork(spec);
+        String prefix = "SIM" + Long.toHexString(spec.seed()).toUpperCase();
+        for (int i = 0; i < network.airlines.length; i++) {
+            network.airlines[i] = new AirlineCompany(prefix + "-A" + i);
+        }
+        for (int i = 0; i < network.terminals.length; i++) {
+            network.terminals[i] = new Terminal(prefix + "-T" + i, "Terminal " + i, prefix + "-City" + i);
+        }
+        LocalDate firstDay = LocalDate.now().plusDays(1);
+        for (int i = 0; i < network.flights.length; i++) {
+            int day = i / spec.flightsPerDay();
+            AirlineCompany airline = network.airlines[random.nextInt(network.airlines.length)];
+            int origin = random.nextInt(network.terminals.length);
+            int destination = random.nextInt(network.terminals.length - 1);
+            if (destination >= origin) {
+                destination++;
+            }
+            LocalDateTime departure = firstDay.plusDays(day).atTime(5, 0).plusMinutes(random.nextInt(18 * 60));
+            LocalDateTime arrival = departure.plusMinutes(60 + random.nextInt(11 * 60));
+            Flight flight = new Flight("S" + i, network.terminals[origin], airline, network.terminals[destination],
+                    departure, arrival, CAPACITIES[random.nextInt(CAPACITIES.length)]);
+            airline.addFlight(flight);
+            network.flights[i] = flight;
+        }
+        for (int i = 0; i < network.passengers.length; i++) {
+            network.passengers[i] = new Passenger("P" + i, 2000 + random.nextInt(20_000));
+        }
+        return network;
+    }
+
+    /**
+     * Gets the spec the network was built from.
+     *
+     * @return The spec.
+     */
+    public WorkloadSpec getSpec() {
+        return spec;
+    }
+
+    /**
+     * Gets a flight by index; the flights of day {@code d} are {@code d * flightsPerDay} onwards.
+     *
+     * @param index The index of the flight.
+     * @return The flight.
+     */
+    public Flight flight(int index) {
+        return flights[index];
+    }
+
+    /**
+     * Gets a passenger by index.
+     *
+     * @param index The index of the passenger.
+     * @return The passenger.
+     */
+    public Passenger passenger(int index) {
+        return passengers[index];
+    }
+
+    /**
+     * Gets an airline by index.
+     *
+     * @param index The index of the airline.
+     * @return The airline.
+     */
+    public AirlineCompany airline(int index) {
+        return airlines[index];
+    }
+
+    /**
+     * Gets a terminal by index.
+     *
+     * @param index The index of the terminal.
+     * @return The terminal.
+     */
+    public Terminal terminal(int index) {
+        return terminals[index];
+    }
+}
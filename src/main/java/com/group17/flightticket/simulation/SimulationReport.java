@@ -0,0 +1,89 @@
+package com.group17.flightticket.simulation;
+
+import com.group17.flightticket.metrics.HistogramSnapshot;
+
+import java.util.Map;
+
+/**
+ * The outcome of a {@link WorkloadReplayer replay}.
+ *
+ * @param threads       The threads the operations ran on.
+ * @param targetRate    The operations per second asked for, or 0 for as fast as possible.
+ * @param elapsedNanos  The time from the first operation to the last.
+ * @param serviceTimes  The time each type of operation took to run, failures included.
+ * @param failures      The operations of each type the system refused.
+ * @param responseTimes The time from when each operation was due to when it finished, which includes
+ *                      the wait behind late operations; only kept at a target rate.
+ * @param heapUsedBytes The heap in use after the replay, once collected.
+ */
+public record SimulationReport(int threads, double targetRate, long elapsedNanos,
+                               Map<OperationType, HistogramSnapshot> serviceTimes,
+                               Map<OperationType, Long> failures, HistogramSnapshot responseTimes,
+                               long heapUsedBytes) {
+
+    /**
+     * Counts the operations run.
+     *
+     * @return The number of operations.
+     */
+    public long operations() {
+        long operations = 0;
+        for (HistogramSnapshot snapshot : serviceTimes.values()) {
+            operations += snapshot.count();
+        }
+        return operations;
+    }
+
+    /**
+     * Counts the operations the system refused.
+     *
+     * @return The number of failures.
+     */
+    public long failed() {
+        long failed = 0;
+        for (long count : failures.values()) {
+            failed += count;
+        }
+        return failed;
+    }
+
+    /**
+     * Gets the operations run per second.
+     *
+     * @return The throughput.
+     */
+    public double throughput() {
+        return elapsedNanos == 0 ? 0 : operations() * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Formats the report as a table, latencies in microseconds.
+     *
+     * @return The report.
+     */
+    public String format() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%d operations in %.2f s on %d threads: %.0f ops/s%s, %d refused%n",
+                operations(), elapsedNanos / 1e9, threads, throughput(),
+                targetRate > 0 ? String.format(" (target %.0f)", targetRate) : "", failed()));
+        report.append(String.format("%-8s %10s %9s %10s %10s %10s %10s%n",
+                "op", "count", "refused", "p50 us", "p99 us", "p99.9 us", "max us"));
+        for (Map.Entry<OperationType, HistogramSnapshot> entry : serviceTimes.entrySet()) {
+            HistogramSnapshot latency = entry.getValue();
+            if (latency.count() > 0) {
+                row(report, entry.getKey().name(), latency, failures.getOrDefault(entry.getKey(), 0L));
+            }
+        }
+        if (responseTimes != null && responseTimes.count() > 0) {
+            row(report, "RESPONSE", responseTimes, failed());
+        }
+        report.append(String.format("heap in use after the replay: %.1f MB%n", heapUsedBytes / 1048576.0));
+        return report.toString();
+    }
+
+    private static void row(StringBuilder report, String name, HistogramSnapshot latency, long refused) {
+        report.append(String.format("%-8s %10d %9d %10.1f %10.1f %10.1f %10.1f%n", name, latency.count(), refused,
+                latency.valueAtPercentile(50) / 1e3, latency.valueAtPercentile(99) / 1e3,
+                latency.valueAtPercentile(99.9) / 1e3, latency.maxNanos() / 1e3));
+    }
+}
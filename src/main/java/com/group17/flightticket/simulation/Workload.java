@@ -0,0 +1,212 @@
+package com.group17.flightticket.simulation;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * The {@code Workload} class is a recorded sequence of operations on a {@link SimulatedNetwork}.
+ * Operations name their passenger and flight by index in the network, so a workload is replayed on the
+ * network built again from its {@link WorkloadSpec}.
+ * <p>
+ * Operations are kept in parallel arrays, ten bytes each, and written to a file as they are, after the
+ * spec: a file of ten million operations takes about 100 MB and is read back with one memory mapping.
+ */
+public final class Workload {
+    private static final int MAGIC = 0x4654574C;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 4 * 6 + 8 * 5 + 8 * 3;
+    private static final int OPERATION_SIZE = 1 + 4 + 4 + 1;
+    /** Set in the type byte of the operations of a booking burst */
+    private static final int BURST = 0x80;
+    private static final OperationType[] TYPES = OperationType.values();
+
+    private final WorkloadSpec spec;
+    private final byte[] types;
+    private final int[] passengers;
+    private final int[] flights;
+    private final byte[] arguments;
+    private int size;
+
+    Workload(WorkloadSpec spec, int capacity) {
+        this.spec = spec;
+        this.types = new byte[capacity];
+        this.passengers = new int[capacity];
+        this.flights = new int[capacity];
+        this.arguments = new byte[capacity];
+    }
+
+    void add(OperationType type, boolean burst, int passenger, int flight, int argument) {
+        types[size] = (byte) (type.ordinal() | (burst ? BURST : 0));
+        passengers[size] = passenger;
+        flights[size] = flight;
+        arguments[size] = (byte) argument;
+        size++;
+    }
+
+    /**
+     * Gets the spec the workload was generated from.
+     *
+     * @return The spec.
+     */
+    public WorkloadSpec getSpec() {
+        return spec;
+    }
+
+    /**
+     * Counts the operations.
+     *
+     * @return The number of operations.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the type of an operation.
+     *
+     * @param index The index of the operation.
+     * @return The operation type.
+     */
+    public OperationType type(int index) {
+        return TYPES[types[index] & ~BURST & 0xFF];
+    }
+
+    /**
+     * Checks if an operation belongs to the burst that follows the publication of a day of the schedule.
+     *
+     * @param index The index of the operation.
+     * @return {@code true} for a burst operation.
+     */
+    public boolean isBurst(int index) {
+        return (types[index] & BURST) != 0;
+    }
+
+    /**
+     * Gets the passenger of an operation.
+     *
+     * @param index The index of the operation.
+     * @return The index of the passenger in the network, meaningless for delays and boardings.
+     */
+    public int passenger(int index) {
+        return passengers[index];
+    }
+
+    /**
+     * Gets the flight of an operation.
+     *
+     * @param index The index of the operation.
+     * @return The index of the flight in the network.
+     */
+    public int flight(int index) {
+        return flights[index];
+    }
+
+    /**
+     * Gets the argument of an operation: the seat category ordinal of a reservation or a change,
+     * the delay of a flight in steps of {@link WorkloadGenerator#DELAY_STEP_MINUTES} minutes.
+     *
+     * @param index The index of the operation.
+     * @return The argument.
+     */
+    public int argument(int index) {
+        return arguments[index];
+    }
+
+    /**
+     * Writes the workload to a file, under a temporary name first and then moved in place.
+     *
+     * @param file The file to create.
+     * @throws IOException if the file cannot be written.
+     */
+    public void write(Path file) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        long length = HEADER_SIZE + (long) size * OPERATION_SIZE;
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer out = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+            OperationMix mix = spec.mix();
+            out.putInt(MAGIC).putInt(VERSION).putLong(spec.seed())
+                    .putInt(spec.airlines()).putInt(spec.terminals()).putInt(spec.flightsPerDay())
+                    .putInt(spec.days()).putInt(spec.passengers()).putInt(size)
+                    .putDouble(mix.reserve()).putDouble(mix.modify()).putDouble(mix.cancel())
+                    .putDouble(mix.delay()).putDouble(mix.board())
+                    .putDouble(spec.burstShare()).putDouble(spec.burstFactor()).putDouble(spec.hotFlightSkew());
+            for (int i = 0; i < size; i++) {
+                out.put(types[i]).putInt(passengers[i]).putInt(flights[i]).put(arguments[i]);
+            }
+            out.force();
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads a workload written by {@link #write(Path)}.
+     *
+     * @param file The file to read.
+     * @return The workload.
+     * @throws IOException if the file cannot be read or is not a workload.
+     */
+    public static Workload read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                throw new IOException("Not a workload file: " + file);
+            }
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (in.getInt() != MAGIC || in.getInt() != VERSION) {
+                throw new IOException("Not a workload file, or of another version: " + file);
+            }
+            long seed = in.getLong();
+            int airlines = in.getInt();
+            int terminals = in.getInt();
+            int flightsPerDay = in.getInt();
+            int days = in.getInt();
+            int passengerCount = in.getInt();
+            int operations = in.getInt();
+            OperationMix mix = new OperationMix(in.getDouble(), in.getDouble(), in.getDouble(), in.getDouble(), in.getDouble());
+            WorkloadSpec spec = new WorkloadSpec(seed, airlines, terminals, flightsPerDay, days, passengerCount,
+                    operations, mix, in.getDouble(), in.getDouble(), in.getDouble());
+            if (channel.size() != HEADER_SIZE + (long) operations * OPERATION_SIZE) {
+                throw new IOException("Truncated workload file: " + file);
+            }
+            Workload workload = new Workload(spec, operations);
+            for (int i = 0; i < operations; i++) {
+                workload.types[i] = in.get();
+                workload.passengers[i] = in.getInt();
+                workload.flights[i] = in.getInt();
+                workload.arguments[i] = in.get();
+            }
+            workload.size = operations;
+            return workload;
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Workload other)) {
+            return false;
+        }
+        return spec.equals(other.spec) && size == other.size
+                && Arrays.equals(types, 0, size, other.types, 0, size)
+                && Arrays.equals(passengers, 0, size, other.passengers, 0, size)
+                && Arrays.equals(flights, 0, size, other.flights, 0, size)
+                && Arrays.equals(arguments, 0, size, other.arguments, 0, size);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = spec.hashCode();
+        for (int i = 0; i < size; i++) {
+            hash = hash * 31 + flights[i];
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,177 @@
+package com.group17.flightticket.simulation;
+
+import com.group17.flightticket.enums.SeatCategory;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * The {@code WorkloadGenerator} class draws the operations of a {@link WorkloadSpec} from its seed.
+ * <p>
+ * The schedule is published one day at a time: the operations are split in as many periods as there
+ * are days, and each period opens with a burst of reservations on the flights of the day just published.
+ * The rest of a period follows the {@link OperationMix} over every published day. Reservations favor
+ * a few hot flights of each day, as set by the spec's skew, and pick economy most of the time. Changes
+ * and cancellations only name reservations generated before and not canceled since, and a change is always
+ * to another category; flights board in departure order, each once. Replayed concurrently, some of these
+ * operations may still be refused, e.g. a reservation on a full flight, which the replay counts as failures.
+ */
+public final class WorkloadGenerator {
+    /** The unit of the delay argument of a {@link OperationType#DELAY} operation */
+    public static final int DELAY_STEP_MINUTES = 5;
+    /** Delays are drawn from 1 to this many steps */
+    private static final int MAX_DELAY_STEPS = 36;
+    private static final SeatCategory[] CATEGORIES = SeatCategory.values();
+    /** The share of each seat category among reservations, in the order of {@link SeatCategory} */
+    private static final double[] CATEGORY_SHARES = {0.75, 0.10, 0.10, 0.05};
+    private static final OperationType[] TYPES = OperationType.values();
+    /** Keeps the random stream of the operations apart from the one of the network */
+    static final long OPERATIONS_STREAM = 0x5DEECE66DL;
+
+    private WorkloadGenerator() {
+    }
+
+    /**
+     * Generates the operations of a spec. The same spec always gives the same operations.
+     *
+     * @param spec The spec.
+     * @return The workload.
+     */
+    public static Workload generate(WorkloadSpec spec) {
+        SplittableRandom random = new SplittableRandom(spec.seed() ^ OPERATIONS_STREAM);
+        Workload workload = new Workload(spec, spec.operations());
+        int flightsPerDay = spec.flightsPerDay();
+        long perDay = Math.max(1, (spec.operations() + (long) spec.days() - 1) / spec.days());
+        long burstPerDay = (long) (perDay * spec.burstShare());
+        double[] cumulativeMix = cumulativeMix(spec.mix());
+        Bookings bookings = new Bookings();
+        int nextToBoard = 0;
+
+        for (int i = 0; i < spec.operations(); i++) {
+            int day = (int) Math.min(i / perDay, spec.days() - 1);
+            if (i - day * perDay < burstPerDay) {
+                int flight = day * flightsPerDay + hotFlight(random, flightsPerDay, spec.hotFlightSkew());
+                reserve(workload, bookings, random, spec, flight, true);
+                continue;
+            }
+            OperationType type = TYPES[draw(random, cumulativeMix)];
+            if ((type == OperationType.MODIFY || type == OperationType.CANCEL) && bookings.size == 0
+                    || type == OperationType.BOARD && nextToBoard >= (day + 1) * flightsPerDay) {
+                type = OperationType.RESERVE;
+            }
+            switch (type) {
+                case RESERVE -> {
+                    int publishedDay = random.nextInt(day + 1);
+                    int flight = publishedDay * flightsPerDay + hotFlight(random, flightsPerDay, spec.hotFlightSkew());
+                    reserve(workload, bookings, random, spec, flight, false);
+                }
+                case MODIFY -> {
+                    int index = random.nextInt(bookings.size);
+                    long booking = bookings.get(index);
+                    // Move to another category, drawn like the reservations are
+                    SeatCategory category = category(random);
+                    while (category.ordinal() == bookings.categories[index]) {
+                        category = category(random);
+                    }
+                    bookings.categories[index] = (byte) category.ordinal();
+                    workload.add(type, false, Bookings.passenger(booking), Bookings.flight(booking), category.ordinal());
+                }
+                case CANCEL -> {
+                    long booking = bookings.remove(random.nextInt(bookings.size));
+                    workload.add(type, false, Bookings.passenger(booking), Bookings.flight(booking), 0);
+                }
+                case DELAY -> workload.add(type, false, 0, random.nextInt((day + 1) * flightsPerDay),
+                        1 + random.nextInt(MAX_DELAY_STEPS));
+                case BOARD -> workload.add(type, false, 0, nextToBoard++, 0);
+            }
+        }
+        return workload;
+    }
+
+    private static void reserve(Workload workload, Bookings bookings, SplittableRandom random, WorkloadSpec spec,
+                                int flight, boolean burst) {
+        int passenger = random.nextInt(spec.passengers());
+        SeatCategory category = category(random);
+        workload.add(OperationType.RESERVE, burst, passenger, flight, category.ordinal());
+        bookings.add(passenger, flight, category);
+    }
+
+    /**
+     * Picks a flight of a day, the first flights of the day being the hottest.
+     */
+    private static int hotFlight(SplittableRandom random, int flightsPerDay, double skew) {
+        return Math.min((int) (flightsPerDay * Math.pow(random.nextDouble(), skew)), flightsPerDay - 1);
+    }
+
+    private static SeatCategory category(SplittableRandom random) {
+        double r = random.nextDouble();
+        for (int i = 0; i < CATEGORIES.length - 1; i++) {
+            r -= CATEGORY_SHARES[i];
+            if (r < 0) {
+                return CATEGORIES[i];
+            }
+        }
+        return CATEGORIES[CATEGORIES.length - 1];
+    }
+
+    private static double[] cumulativeMix(OperationMix mix) {
+        double[] cumulative = new double[TYPES.length];
+        double total = 0;
+        for (OperationType type : TYPES) {
+            total += mix.weight(type);
+            cumulative[type.ordinal()] = total;
+        }
+        for (int i = 0; i < cumulative.length; i++) {
+            cumulative[i] /= total;
+        }
+        return cumulative;
+    }
+
+    private static int draw(SplittableRandom random, double[] cumulative) {
+        double r = random.nextDouble();
+        for (int i = 0; i < cumulative.length - 1; i++) {
+            if (r < cumulative[i]) {
+                return i;
+            }
+        }
+        return cumulative.length - 1;
+    }
+
+    /**
+     * The reservations generated and not canceled, as passenger and flight packed in a long, with their category.
+     */
+    private static final class Bookings {
+        private long[] pairs = new long[1024];
+        private byte[] categories = new byte[1024];
+        private int size;
+
+        void add(int passenger, int flight, SeatCategory category) {
+            if (size == pairs.length) {
+                pairs = Arrays.copyOf(pairs, size * 2);
+                categories = Arrays.copyOf(categories, size * 2);
+            }
+            categories[size] = (byte) category.ordinal();
+            pairs[size++] = (long) passenger << 32 | flight & 0xFFFFFFFFL;
+        }
+
+        long get(int index) {
+            return pairs[index];
+        }
+
+        /** Removes a booking by moving the last one in its place */
+        long remove(int index) {
+            long pair = pairs[index];
+            pairs[index] = pairs[--size];
+            categories[index] = categories[size];
+            return pair;
+        }
+
+        static int passenger(long pair) {
+            return (int) (pair >>> 32);
+        }
+
+        static int flight(long pair) {
+            return (int) pair;
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.group17.flightticket.simulation;
+
+import com.group17.flightticket.entity.Flight;
+import com.group17.flightticket.entity.Passenger;
+import com.group17.flightticket.entity.Reservation;
+import com.group17.flightticket.enums.SeatCategory;
+import com.group17.flightticket.metrics.HistogramSnapshot;
+import com.group17.flightticket.metrics.LatencyHistogram;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The {@code WorkloadReplayer} class runs a {@link Workload} on its {@link SimulatedNetwork} from
+ * several threads, as fast as possible or at a target rate.
+ * <p>
+ * The operations of a passenger always run on the same thread, in their recorded order, so a
+ * cancellation never overtakes its reservation; delays and boardings run on the thread of their flight.
+ * At a target rate, each operation is due at its place in the schedule, burst operations arriving
+ * {@link WorkloadSpec#burstFactor()} times faster, and a thread waits until its next operation is due.
+ * The service time of every operation is recorded per type, and at a target rate the response time too,
+ * from when the operation was due, so a stall shows in the operations queued behind it.
+ */
+public final class WorkloadReplayer {
+    private static final SeatCategory[] CATEGORIES = SeatCategory.values();
+    private static final OperationType[] TYPES = OperationType.values();
+
+    private final Workload workload;
+    private final SimulatedNetwork network;
+    private final int threads;
+    private final double rate;
+    private final LatencyHistogram[] serviceTimes = new LatencyHistogram[TYPES.length];
+    private final LongAdder[] failures = new LongAdder[TYPES.length];
+    private final LatencyHistogram responseTimes = new LatencyHistogram();
+
+    /**
+     * Constructs a replayer.
+     *
+     * @param workload The operations to run.
+     * @param network  The network built from the workload's spec.
+     * @param threads  The number of threads to run them on.
+     * @param rate     The operations per second, or 0 to run them as fast as possible.
+     */
+    public WorkloadReplayer(Workload workload, SimulatedNetwork network, int threads, double rate) {
+        if (!workload.getSpec().equals(network.getSpec())) {
+            throw new IllegalArgumentException("The network was not built from the workload's spec");
+        }
+        if (threads <= 0 || rate < 0) {
+            throw new IllegalArgumentException("Invalid threads " + threads + " or rate " + rate);
+        }
+        this.workload = workload;
+        this.network = network;
+        this.threads = threads;
+        this.rate = rate;
+        for (int i = 0; i < TYPES.length; i++) {
+            serviceTimes[i] = new LatencyHistogram();
+            failures[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Runs every operation once and waits for the last one.
+     *
+     * @return The throughput, latencies and failures of the run.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public SimulationReport replay() throws InterruptedException {
+        int[][] partitions = partition();
+        long[] due = rate > 0 ? schedule() : null;
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            List<Future<?>> runs = new ArrayList<>(threads);
+            for (int[] partition : partitions) {
+                runs.add(executor.submit(() -> run(partition, due, start)));
+            }
+            for (Future<?> run : runs) {
+                try {
+                    run.get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Replay failed", e.getCause());
+                }
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        Map<OperationType, HistogramSnapshot> latencies = new EnumMap<>(OperationType.class);
+        Map<OperationType, Long> refused = new EnumMap<>(OperationType.class);
+        for (OperationType type : TYPES) {
+            latencies.put(type, serviceTimes[type.ordinal()].snapshot());
+            refused.put(type, failures[type.ordinal()].sum());
+        }
+        return new SimulationReport(threads, rate, elapsed, latencies, refused,
+                rate > 0 ? responseTimes.snapshot() : null, usedHeapAfterGc());
+    }
+
+    /**
+     * Gets the heap in use once unreachable objects are collected, as far as a collection can be asked for.
+     *
+     * @return The heap in use in bytes.
+     */
+    public static long usedHeapAfterGc() {
+        System.gc();
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private void run(int[] partition, long[] due, long start) {
+        for (int index : partition) {
+            long dueAt = 0;
+            if (due != null) {
+                dueAt = start + due[index];
+                long wait = dueAt - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+            }
+            OperationType type = workload.type(index);
+            long begin = System.nanoTime();
+            boolean done = execute(type, index);
+            long end = System.nanoTime();
+            serviceTimes[type.ordinal()].record(end - begin);
+            if (!done) {
+                failures[type.ordinal()].increment();
+            }
+            if (due != null) {
+                responseTimes.record(end - dueAt);
+            }
+        }
+    }
+
+    private boolean execute(OperationType type, int index) {
+        Flight flight = network.flight(workload.flight(index));
+        switch (type) {
+            case RESERVE -> {
+                Passenger passenger = network.passenger(workload.passenger(index));
+                return passenger.makeReservationV4(flight, CATEGORIES[workload.argument(index)]) != null;
+            }
+            case MODIFY -> {
+                Passenger passenger = network.passenger(workload.passenger(index));
+                Reservation reservation = passenger.findReservation(flight);
+                return reservation != null && passenger.modifySeatCategoryV2(reservation, CATEGORIES[workload.argument(index)]);
+            }
+            case CANCEL -> {
+                Passenger passenger = network.passenger(workload.passenger(index));
+                return passenger.cancelReservationV2(flight, flight.getAirlineCompany());
+            }
+            case DELAY -> {
+                long minutes = (long) workload.argument(index) * WorkloadGenerator.DELAY_STEP_MINUTES;
+                flight.getAirlineCompany().delayFlight(flight, flight.getDepartureTime().plusMinutes(minutes),
+                        flight.getArrivalTime().plusMinutes(minutes));
+                return true;
+            }
+            case BOARD -> {
+                flight.boardPassengers();
+                return true;
+            }
+            default -> throw new IllegalStateException("Unknown operation " + type);
+        }
+    }
+
+    /**
+     * Splits the operations by thread: a passenger's on the thread of the passenger, a flight's on the
+     * thread of the flight, each in recorded order.
+     */
+    private int[][] partition() {
+        int[] counts = new int[threads];
+        for (int i = 0; i < workload.size(); i++) {
+            counts[owner(i)]++;
+        }
+        int[][] partitions = new int[threads][];
+        for (int t = 0; t < threads; t++) {
+            partitions[t] = new int[counts[t]];
+            counts[t] = 0;
+        }
+        for (int i = 0; i < workload.size(); i++) {
+            int owner = owner(i);
+            partitions[owner][counts[owner]++] = i;
+        }
+        return partitions;
+    }
+
+    private int owner(int index) {
+        OperationType type = workload.type(index);
+        int key = type == OperationType.DELAY || type == OperationType.BOARD
+                ? workload.flight(index) : workload.passenger(index);
+        return Math.floorMod(key, threads);
+    }
+
+    /**
+     * Gets when each operation is due, in nanoseconds from the start of the replay.
+     */
+    private long[] schedule() {
+        long[] due = new long[workload.size()];
+        double interval = 1e9 / rate;
+        double burstInterval = interval / workload.getSpec().burstFactor();
+        double at = 0;
+        for (int i = 0; i < due.length; i++) {
+            due[i] = (long) at;
+            at += workload.isBurst(i) ? burstInterval : interval;
+        }
+        return due;
+    }
+}
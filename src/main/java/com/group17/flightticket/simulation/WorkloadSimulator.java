@@ -0,0 +1,130 @@
+package com.group17.flightticket.simulation;
+
+import com.group17.flightticket.event.BookingEventBus;
+import com.group17.flightticket.event.BookingEventSink;
+import com.group17.flightticket.notification.NotificationDispatcher;
+import com.group17.flightticket.notification.NotificationSink;
+import com.group17.flightticket.schedule.ScheduleSnapshot;
+import com.group17.flightticket.schedule.ScheduleSnapshot.ScheduledFlight;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generates or loads a workload, builds its network and replays it, then prints the throughput, the
+ * latencies and the heap used by the network and the bookings, for capacity planning.
+ * <p>
+ * Options, with their defaults:
+ * <pre>
+ *   --seed 1 --flights-per-day 20000 --days 7 --passengers 2000000 --operations 5000000
+ *   --threads &lt;processors&gt; --rate 0 (as fast as possible)
+ *   --record &lt;file&gt;    write the generated workload to a file
+ *   --replay &lt;file&gt;    replay a recorded workload instead of generating one
+ *   --schedule &lt;file&gt;  write the flights of the network to a schedule snapshot
+ *   --no-run           only generate and record, and build the network if a schedule is written
+ *   --events           keep the booking event and notification sinks attached
+ * </pre>
+ * A full-size run needs a heap of several gigabytes, e.g. {@code -Xmx8g}.
+ */
+public final class WorkloadSimulator {
+
+    private WorkloadSimulator() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        long seed = 1;
+        int flightsPerDay = 20_000;
+        int days = 7;
+        int passengers = 2_000_000;
+        int operations = 5_000_000;
+        int threads = Runtime.getRuntime().availableProcessors();
+        double rate = 0;
+        Path record = null;
+        Path replay = null;
+        Path schedule = null;
+        boolean run = true;
+        boolean events = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--seed" -> seed = Long.parseLong(args[++i]);
+                case "--flights-per-day" -> flightsPerDay = Integer.parseInt(args[++i]);
+                case "--days" -> days = Integer.parseInt(args[++i]);
+                case "--passengers" -> passengers = Integer.parseInt(args[++i]);
+                case "--operations" -> operations = Integer.parseInt(args[++i]);
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                case "--rate" -> rate = Double.parseDouble(args[++i]);
+                case "--record" -> record = Path.of(args[++i]);
+                case "--replay" -> replay = Path.of(args[++i]);
+                case "--schedule" -> schedule = Path.of(args[++i]);
+                case "--no-run" -> run = false;
+                case "--events" -> events = true;
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        if (!events) {
+            detachSinks();
+        }
+
+        long started = System.nanoTime();
+        Workload workload = replay != null ? Workload.read(replay)
+                : WorkloadGenerator.generate(WorkloadSpec.of(seed, flightsPerDay, days, passengers, operations));
+        WorkloadSpec spec = workload.getSpec();
+        System.out.printf("%s %d operations in %.2f s: %s%n", replay != null ? "Read" : "Generated",
+                workload.size(), (System.nanoTime() - started) / 1e9, spec);
+        if (record != null) {
+            workload.write(record);
+            System.out.println("Recorded to " + record);
+        }
+        if (!run && schedule == null) {
+            return;
+        }
+
+        long baseline = WorkloadReplayer.usedHeapAfterGc();
+        started = System.nanoTime();
+        SimulatedNetwork network = SimulatedNetwork.build(spec);
+        long built = WorkloadReplayer.usedHeapAfterGc();
+        System.out.printf("Built %d flights and %d passengers in %.2f s, %.1f MB of heap (%.0f bytes per passenger)%n",
+                spec.flights(), spec.passengers(), (System.nanoTime() - started) / 1e9, (built - baseline) / 1048576.0,
+                (double) (built - baseline) / spec.passengers());
+        if (schedule != null) {
+            writeSchedule(network, schedule);
+        }
+        if (!run) {
+            return;
+        }
+
+        SimulationReport report = new WorkloadReplayer(workload, network, threads, rate).replay();
+        System.out.print(report.format());
+        System.out.printf("heap used by the bookings: %.1f MB%n", (report.heapUsedBytes() - built) / 1048576.0);
+    }
+
+    /**
+     * Writes the flights of a network to a schedule snapshot.
+     */
+    private static void writeSchedule(SimulatedNetwork network, Path file) throws Exception {
+        long started = System.nanoTime();
+        List<ScheduledFlight> flights = new ArrayList<>(network.getSpec().flights());
+        for (int i = 0; i < network.getSpec().flights(); i++) {
+            flights.add(ScheduledFlight.of(network.flight(i)));
+        }
+        ScheduleSnapshot.write(file, flights);
+        System.out.printf("Wrote the schedule of %d flights to %s in %.2f s%n", flights.size(), file,
+                (System.nanoTime() - started) / 1e9);
+    }
+
+    /**
+     * Detaches every booking event and notification sink, so the replay measures the booking paths
+     * instead of console output.
+     */
+    private static void detachSinks() {
+        BookingEventBus bus = BookingEventBus.global();
+        for (BookingEventSink sink : bus.getSinks()) {
+            bus.removeSink(sink);
+        }
+        NotificationDispatcher notifications = NotificationDispatcher.global();
+        for (NotificationSink sink : notifications.getSinks()) {
+            notifications.removeSink(sink);
+        }
+    }
+}
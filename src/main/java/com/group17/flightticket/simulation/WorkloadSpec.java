@@ -0,0 +1,54 @@
+package com.group17.flightticket.simulation;
+
+/**
+ * Everything a simulated workload is generated from. The same spec always gives the same network
+ * and the same operations.
+ *
+ * @param seed          The seed of every random choice.
+ * @param airlines      The number of airlines operating the flights.
+ * @param terminals     The number of terminals, one per city.
+ * @param flightsPerDay The flights departing each day.
+ * @param days          The days of the schedule; one day is published at a time.
+ * @param passengers    The number of passengers.
+ * @param operations    The number of operations.
+ * @param mix           The share of each operation outside of the bursts.
+ * @param burstShare    The share of each day's operations booked in the burst that follows its publication.
+ * @param burstFactor   How much faster than the replay rate the burst operations arrive.
+ * @param hotFlightSkew How much bookings favor a few hot flights: 1 is uniform, larger is more skewed.
+ */
+public record WorkloadSpec(long seed, int airlines, int terminals, int flightsPerDay, int days, int passengers,
+                           int operations, OperationMix mix, double burstShare, double burstFactor,
+                           double hotFlightSkew) {
+
+    public WorkloadSpec {
+        if (airlines <= 0 || terminals < 2 || flightsPerDay <= 0 || days <= 0 || passengers <= 0 || operations < 0
+                || burstShare < 0 || burstShare > 1 || burstFactor < 1 || hotFlightSkew < 1 || mix == null) {
+            throw new IllegalArgumentException("Invalid workload spec");
+        }
+    }
+
+    /**
+     * Creates a spec with 20 airlines, 200 terminals, the {@link OperationMix#standard() standard mix},
+     * a fifth of each day's operations in a burst ten times faster than the rate, and moderately hot flights.
+     *
+     * @param seed          The seed of every random choice.
+     * @param flightsPerDay The flights departing each day.
+     * @param days          The days of the schedule.
+     * @param passengers    The number of passengers.
+     * @param operations    The number of operations.
+     * @return The spec.
+     */
+    public static WorkloadSpec of(long seed, int flightsPerDay, int days, int passengers, int operations) {
+        return new WorkloadSpec(seed, 20, 200, flightsPerDay, days, passengers, operations,
+                OperationMix.standard(), 0.2, 10, 2);
+    }
+
+    /**
+     * Gets the number of flights in the schedule.
+     *
+     * @return The flights of every day.
+     */
+    public int flights() {
+        return flightsPerDay * days;
+    }
+}
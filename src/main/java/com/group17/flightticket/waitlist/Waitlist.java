@@ -0,0 +1,271 @@
+package com.group17.flightticket.waitlist;
+
+import com.group17.flightticket.entity.AirlineCompany;
+import com.group17.flightticket.entity.Flight;
+import com.group17.flightticket.entity.Passenger;
+import com.group17.flightticket.entity.Reservation;
+import com.group17.flightticket.enums.LoyaltyTier;
+import com.group17.flightticket.enums.SeatCategory;
+import com.group17.flightticket.event.BookingEvent.WaitlistJoined;
+import com.group17.flightticket.event.BookingEvent.WaitlistPromoted;
+import com.group17.flightticket.event.BookingEventBus;
+import com.group17.flightticket.inventory.InventoryChange;
+import com.group17.flightticket.inventory.InventoryListener;
+import com.group17.flightticket.inventory.SeatHold;
+import com.group17.flightticket.inventory.SeatInventory;
+import com.group17.flightticket.inventory.SeatPreference;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The {@code Waitlist} class queues the passengers waiting for a seat on one full flight, one
+ * priority queue per {@link SeatCategory}, ordered by loyalty tier and then by request time.
+ * <p>
+ * While anybody waits for a category, the flight refuses to hold seats of that category for new
+ * bookings, so freed seats only go to the waitlist. The waitlist listens to the flight's
+ * {@link SeatInventory}: a cancellation marks it as having work and starts a promotion round on a
+ * virtual thread, unless one is already running. A round holds a seat for the head of each queue
+ * through the inventory, like any booking, and books the passenger on it, until a queue is empty or
+ * its category is full. Only one round runs per flight, and a change seen during a round makes it
+ * go round again, so no freed seat is missed and no entry is promoted twice.
+ */
+public class Waitlist implements InventoryListener {
+    private static final SeatCategory[] CATEGORIES = SeatCategory.values();
+    private static final BookingEventBus EVENTS = BookingEventBus.global();
+    /** Runs the promotion rounds of every flight, each on its own virtual thread */
+    private static final ExecutorService PROMOTER = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final Flight flight;
+    private final List<PriorityBlockingQueue<WaitlistEntry>> queues = new ArrayList<>(CATEGORIES.length);
+    /** The entries still waiting, per passenger, so a passenger waits at most once per flight */
+    private final Map<Passenger, WaitlistEntry> entries = new ConcurrentHashMap<>();
+    private final AtomicIntegerArray waitingByCategory = new AtomicIntegerArray(CATEGORIES.length);
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+    /** Set when seats may have been freed since the last round looked */
+    private final AtomicBoolean pending = new AtomicBoolean();
+    /** Set while a promotion round runs */
+    private final AtomicBoolean promoting = new AtomicBoolean();
+    /** When the oldest change not yet looked at by a round happened */
+    private volatile long pendingSince;
+
+    private final LongAdder joined = new LongAdder();
+    private final LongAdder promoted = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder left = new LongAdder();
+    private final AtomicLong maxPromotionLag = new AtomicLong();
+    private final LongAdder totalPromotionLag = new LongAdder();
+
+    /**
+     * Constructs an empty waitlist. The flight registers it with its seat inventory.
+     *
+     * @param flight The flight waited for.
+     */
+    public Waitlist(Flight flight) {
+        this.flight = flight;
+        for (int i = 0; i < CATEGORIES.length; i++) {
+            queues.add(new PriorityBlockingQueue<>(11, WaitlistEntry.PRIORITY));
+        }
+    }
+
+    /**
+     * Adds a passenger to the waitlist. If seats of the category are free already, the passenger is
+     * booked on one right away by a promotion round.
+     *
+     * @param passenger  The passenger.
+     * @param category   The seat category wanted.
+     * @param preference The kind of seat wanted once one is free.
+     * @return The entry of the passenger, or {@code null} if the passenger is already waiting for the flight.
+     */
+    public WaitlistEntry join(Passenger passenger, SeatCategory category, SeatPreference preference) {
+        AirlineCompany airline = flight.getAirlineCompany();
+        LoyaltyTier tier = airline == null ? LoyaltyTier.BASIC : airline.getLoyalScheme().getTier(passenger);
+        WaitlistEntry entry = new WaitlistEntry(passenger, category, preference, tier, sequence.incrementAndGet(), Instant.now());
+        if (entries.putIfAbsent(passenger, entry) != null) {
+            return null;
+        }
+        // Count the entry before queuing it, so new bookings are refused before it can be served
+        waitingByCategory.incrementAndGet(category.ordinal());
+        int waitingNow = waiting.incrementAndGet();
+        queues.get(category.ordinal()).add(entry);
+        joined.increment();
+        if (EVENTS.isListening()) {
+            EVENTS.publish(new WaitlistJoined(passenger.getPassengerId(), passenger.getName(), flight.getFlightNumber(),
+                    category, tier, waitingNow));
+        }
+        promote();
+        return entry;
+    }
+
+    /**
+     * Takes a waiting passenger off the waitlist.
+     *
+     * @param passenger The passenger.
+     * @return {@code true} if the passenger was waiting, {@code false} if not, or already given a seat.
+     */
+    public boolean leave(Passenger passenger) {
+        WaitlistEntry entry = entries.get(passenger);
+        if (entry == null || !entry.leave()) {
+            return false;
+        }
+        entries.remove(passenger, entry);
+        queues.get(entry.getCategory().ordinal()).remove(entry);
+        stopWaiting(entry);
+        left.increment();
+        return true;
+    }
+
+    /**
+     * Checks if anybody waits for a seat category. The flight refuses new bookings of the category meanwhile.
+     *
+     * @param category The seat category.
+     * @return {@code true} if a passenger is waiting for the category.
+     */
+    public boolean isWaiting(SeatCategory category) {
+        return waitingByCategory.get(category.ordinal()) > 0;
+    }
+
+    /**
+     * Counts the passengers waiting for a seat category.
+     *
+     * @param category The seat category.
+     * @return The number of passengers waiting.
+     */
+    public int getWaitingCount(SeatCategory category) {
+        return waitingByCategory.get(category.ordinal());
+    }
+
+    /**
+     * Gets the passengers waiting for a seat category, in the order they will be served.
+     *
+     * @param category The seat category.
+     * @return A snapshot of the waiting entries.
+     */
+    public List<WaitlistEntry> getWaiting(SeatCategory category) {
+        List<WaitlistEntry> waitingEntries = new ArrayList<>(queues.get(category.ordinal()));
+        waitingEntries.removeIf(entry -> entry.getStatus() != WaitlistEntry.Status.WAITING);
+        waitingEntries.sort(WaitlistEntry.PRIORITY);
+        return waitingEntries;
+    }
+
+    /**
+     * Gets the counters of the waitlist.
+     *
+     * @return A snapshot of the counters.
+     */
+    public WaitlistStats stats() {
+        return new WaitlistStats(joined.sum(), promoted.sum(), failed.sum(), left.sum(), waiting.get(),
+                maxPromotionLag.get() / 1000, totalPromotionLag.sum() / 1000);
+    }
+
+    /**
+     * Starts a promotion round once seats may have been freed.
+     *
+     * @param inventory The inventory that changed.
+     * @param change    How the counters changed.
+     */
+    @Override
+    public void onInventoryChanged(SeatInventory inventory, InventoryChange change) {
+        if (waiting.get() == 0) {
+            return;
+        }
+        for (SeatCategory category : CATEGORIES) {
+            if (isWaiting(category) && inventory.getRemainSeatCount(category) > 0) {
+                promote();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Hands the free seats to the waiting passengers, on a virtual thread. Called when seats may have been
+     * freed, and by the flight when it opens again.
+     */
+    public void promote() {
+        if (!pending.get()) {
+            pendingSince = System.nanoTime();
+            pending.set(true);
+        }
+        if (promoting.compareAndSet(false, true)) {
+            PROMOTER.execute(this::runRounds);
+        }
+    }
+
+    private void runRounds() {
+        do {
+            try {
+                while (pending.getAndSet(false)) {
+                    promoteOnce(pendingSince);
+                }
+            } finally {
+                promoting.set(false);
+            }
+            // A change may have come in after the last round looked and before the flag was cleared
+        } while (pending.get() && promoting.compareAndSet(false, true));
+    }
+
+    private void promoteOnce(long freedAt) {
+        for (SeatCategory category : CATEGORIES) {
+            PriorityBlockingQueue<WaitlistEntry> queue = queues.get(category.ordinal());
+            while (!queue.isEmpty()) {
+                WaitlistEntry head = queue.peek();
+                if (head == null) {
+                    break;
+                }
+                double fee = flight.quoteFare(category);
+                SeatHold hold = flight.holdSeatForWaitlist(category, head.getPreference());
+                if (hold == null) {
+                    break;
+                }
+                WaitlistEntry entry = queue.poll();
+                while (entry != null && !entry.claim()) {
+                    entry = queue.poll();
+                }
+                if (entry == null) {
+                    hold.release();
+                    break;
+                }
+                entries.remove(entry.getPassenger(), entry);
+                stopWaiting(entry);
+                book(entry, hold, fee, freedAt);
+            }
+        }
+    }
+
+    private void book(WaitlistEntry entry, SeatHold hold, double fee, long freedAt) {
+        Passenger passenger = entry.getPassenger();
+        Reservation reservation = passenger.reserveHeldSeat(flight, hold, fee, false, 0, false);
+        entry.complete(reservation);
+        if (reservation == null) {
+            failed.increment();
+            return;
+        }
+        long lag = System.nanoTime() - freedAt;
+        promoted.increment();
+        totalPromotionLag.add(lag);
+        maxPromotionLag.accumulateAndGet(lag, Math::max);
+        if (EVENTS.isListening()) {
+            EVENTS.publish(new WaitlistPromoted(reservation.getReservationId(), passenger.getPassengerId(),
+                    passenger.getName(), flight.getFlightNumber(), entry.getCategory(),
+                    Duration.between(entry.getRequestedAt(), Instant.now()).toMillis()));
+        }
+    }
+
+    private void stopWaiting(WaitlistEntry entry) {
+        waitingByCategory.decrementAndGet(entry.getCategory().ordinal());
+        waiting.decrementAndGet();
+    }
+}
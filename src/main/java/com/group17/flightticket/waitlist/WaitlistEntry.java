@@ -0,0 +1,154 @@
+package com.group17.flightticket.waitlist;
+
+import com.group17.flightticket.entity.Passenger;
+import com.group17.flightticket.entity.Reservation;
+import com.group17.flightticket.enums.LoyaltyTier;
+import com.group17.flightticket.enums.SeatCategory;
+import com.group17.flightticket.inventory.SeatPreference;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The {@code WaitlistEntry} class is one passenger waiting for a seat category of a full flight.
+ * Entries are served by loyalty tier, highest first, then in the order they joined.
+ * An entry leaves the waiting state exactly once, with a compare-and-set: promoted, failed or left.
+ */
+public final class WaitlistEntry {
+    /** Highest tier first, then first come first served */
+    static final Comparator<WaitlistEntry> PRIORITY = Comparator
+            .comparing(WaitlistEntry::getTier, Comparator.reverseOrder())
+            .thenComparingLong(entry -> entry.sequence);
+
+    /**
+     * The states of an entry.
+     */
+    public enum Status {
+        /** Waiting for a seat */
+        WAITING,
+        /** Given a seat, being booked */
+        PROMOTING,
+        /** Booked on the flight */
+        PROMOTED,
+        /** Given a seat, but the booking failed, e.g. for lack of balance */
+        FAILED,
+        /** Left the waitlist before getting a seat */
+        LEFT
+    }
+
+    private final Passenger passenger;
+    private final SeatCategory category;
+    private final SeatPreference preference;
+    private final LoyaltyTier tier;
+    private final long sequence;
+    private final Instant requestedAt;
+    private final AtomicReference<Status> status = new AtomicReference<>(Status.WAITING);
+    private volatile Reservation reservation;
+
+    WaitlistEntry(Passenger passenger, SeatCategory category, SeatPreference preference, LoyaltyTier tier,
+                  long sequence, Instant requestedAt) {
+        this.passenger = passenger;
+        this.category = category;
+        this.preference = preference;
+        this.tier = tier;
+        this.sequence = sequence;
+        this.requestedAt = requestedAt;
+    }
+
+    /**
+     * Takes the entry out of the waiting state to book it.
+     *
+     * @return {@code true} if the entry was still waiting.
+     */
+    boolean claim() {
+        return status.compareAndSet(Status.WAITING, Status.PROMOTING);
+    }
+
+    /**
+     * Takes the entry out of the waiting state because the passenger left.
+     *
+     * @return {@code true} if the entry was still waiting.
+     */
+    boolean leave() {
+        return status.compareAndSet(Status.WAITING, Status.LEFT);
+    }
+
+    /**
+     * Records the outcome of the booking of a claimed entry.
+     *
+     * @param reservation The reservation made, or {@code null} if the booking failed.
+     */
+    void complete(Reservation reservation) {
+        this.reservation = reservation;
+        status.set(reservation == null ? Status.FAILED : Status.PROMOTED);
+    }
+
+    /**
+     * Gets the waiting passenger.
+     *
+     * @return The passenger.
+     */
+    public Passenger getPassenger() {
+        return passenger;
+    }
+
+    /**
+     * Gets the seat category waited for.
+     *
+     * @return The seat category.
+     */
+    public SeatCategory getCategory() {
+        return category;
+    }
+
+    /**
+     * Gets the kind of seat wanted once one is free.
+     *
+     * @return The seat preference.
+     */
+    public SeatPreference getPreference() {
+        return preference;
+    }
+
+    /**
+     * Gets the loyalty tier of the passenger when they joined.
+     *
+     * @return The loyalty tier.
+     */
+    public LoyaltyTier getTier() {
+        return tier;
+    }
+
+    /**
+     * Gets the time the passenger joined the waitlist.
+     *
+     * @return The time of the request.
+     */
+    public Instant getRequestedAt() {
+        return requestedAt;
+    }
+
+    /**
+     * Gets the current state of the entry.
+     *
+     * @return The status.
+     */
+    public Status getStatus() {
+        return status.get();
+    }
+
+    /**
+     * Gets the reservation made once the entry was promoted.
+     *
+     * @return The reservation, or {@code null} if the entry has not been promoted.
+     */
+    public Reservation getReservation() {
+        return reservation;
+    }
+
+    @Override
+    public String toString() {
+        return "WaitlistEntry{" + passenger.getName() + ", " + category + ", " + tier + ", " + status.get() + "}";
+    }
+}
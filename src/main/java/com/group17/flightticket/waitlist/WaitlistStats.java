@@ -0,0 +1,25 @@
+package com.group17.flightticket.waitlist;
+
+/**
+ * A snapshot of the counters of a {@link Waitlist}.
+ *
+ * @param joined                Passengers who joined the waitlist.
+ * @param promoted              Passengers booked on a freed seat.
+ * @param failed                Passengers given a seat whose booking failed, e.g. for lack of balance.
+ * @param left                  Passengers who left before getting a seat.
+ * @param waiting               Passengers currently waiting.
+ * @param maxPromotionLagMicros The longest time between a seat being freed and a waiting passenger booked on it.
+ * @param totalPromotionLagMicros The sum of those times over all promotions.
+ */
+public record WaitlistStats(long joined, long promoted, long failed, long left, int waiting,
+                            long maxPromotionLagMicros, long totalPromotionLagMicros) {
+
+    /**
+     * Gets the average time between a seat being freed and a waiting passenger booked on it.
+     *
+     * @return The average promotion lag in microseconds, {@code 0} before the first promotion.
+     */
+    public double averagePromotionLagMicros() {
+        return promoted == 0 ? 0 : (double) totalPromotionLagMicros / promoted;
+    }
+}
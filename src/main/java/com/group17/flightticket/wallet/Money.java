@@ -0,0 +1,48 @@
+package com.group17.flightticket.wallet;
+
+/**
+ * Converts between the decimal amounts of the booking API and the minor units, cents, in which
+ * wallets keep their balances. Amounts are rounded to the nearest cent once, where they enter a
+ * wallet, so sums of minor units never drift.
+ */
+public final class Money {
+    /** The minor units in one unit of currency */
+    public static final int MINOR_PER_MAJOR = 100;
+
+    private Money() {
+    }
+
+    /**
+     * Converts an amount to minor units, rounded half up to the nearest cent.
+     *
+     * @param amount The amount in units of currency.
+     * @return The amount in minor units.
+     */
+    public static long toMinor(double amount) {
+        if (!Double.isFinite(amount)) {
+            throw new IllegalArgumentException("Amount is not finite: " + amount);
+        }
+        return Math.round(amount * MINOR_PER_MAJOR);
+    }
+
+    /**
+     * Converts minor units back to an amount.
+     *
+     * @param minor The amount in minor units.
+     * @return The amount in units of currency.
+     */
+    public static double toMajor(long minor) {
+        return (double) minor / MINOR_PER_MAJOR;
+    }
+
+    /**
+     * Takes a percentage of an amount, rounded half up to the nearest cent.
+     *
+     * @param minor   The amount in minor units.
+     * @param percent The percentage to take.
+     * @return The share of the amount in minor units.
+     */
+    public static long percentOf(long minor, int percent) {
+        return Math.floorDiv(minor * percent + 50, 100);
+    }
+}
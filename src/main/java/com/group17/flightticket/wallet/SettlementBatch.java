@@ -0,0 +1,26 @@
+package com.group17.flightticket.wallet;
+
+/**
+ * The movements of one wallet settled together by {@link WalletSettlement}, in minor units.
+ *
+ * @param walletId      The passenger id of the wallet.
+ * @param firstSequence The lowest sequence settled, 0 for an empty batch.
+ * @param lastSequence  The highest sequence settled, 0 for an empty batch.
+ * @param transactions  The number of movements settled.
+ * @param paid          The payments taken from the wallet.
+ * @param refunded      The refunds given to the wallet.
+ * @param toppedUp      The money paid into the wallet.
+ * @param adjusted      The signed sum of the corrections.
+ */
+public record SettlementBatch(long walletId, long firstSequence, long lastSequence, int transactions,
+                              long paid, long refunded, long toppedUp, long adjusted) {
+
+    /**
+     * Gets the change of the wallet's balance over the batch.
+     *
+     * @return The signed change in minor units.
+     */
+    public long net() {
+        return toppedUp + refunded + adjusted - paid;
+    }
+}
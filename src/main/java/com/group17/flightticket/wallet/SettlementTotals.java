@@ -0,0 +1,24 @@
+package com.group17.flightticket.wallet;
+
+/**
+ * The running totals of every batch settled by a {@link WalletSettlement}, in minor units.
+ *
+ * @param batches      The number of non-empty batches settled.
+ * @param transactions The number of movements settled.
+ * @param paid         The payments taken from the wallets.
+ * @param refunded     The refunds given to the wallets.
+ * @param toppedUp     The money paid into the wallets.
+ * @param adjusted     The signed sum of the corrections.
+ */
+public record SettlementTotals(long batches, long transactions, long paid, long refunded, long toppedUp,
+                               long adjusted) {
+
+    /**
+     * Gets what the wallets took in, net of what they gave back.
+     *
+     * @return The net revenue in minor units.
+     */
+    public long netRevenue() {
+        return paid - refunded;
+    }
+}
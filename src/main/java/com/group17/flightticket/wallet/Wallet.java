@@ -0,0 +1,249 @@
+package com.group17.flightticket.wallet;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The {@code Wallet} class holds the balance of one passenger in minor units, so every payment and
+ * refund is exact to the cent however many are applied.
+ * <p>
+ * The balance is a single {@link AtomicLong}: a payment is a compare-and-set loop that refuses to go
+ * below zero, a refund is one atomic add. Each passenger has their own wallet, so bookings of
+ * different passengers never touch the same counter, and concurrent bookings and refunds of one
+ * passenger are applied exactly once each without a lock.
+ * <p>
+ * Every movement is appended to the wallet's journal until it is settled. Once a batch of movements
+ * is waiting, the movement that completes the batch hands it to the {@link WalletSettlement}, so
+ * settlement runs once per batch rather than once per booking and the journal stays small.
+ */
+public class Wallet {
+    private final long walletId;
+    private final WalletSettlement settlement;
+    private final AtomicLong balance;
+    private final AtomicLong sequence = new AtomicLong();
+    private final Queue<WalletTransaction> unsettled = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger unsettledCount = new AtomicInteger();
+    /** Set while a full batch is being handed over, so other movements do not wait for it */
+    private final AtomicBoolean settling = new AtomicBoolean();
+
+    /**
+     * Constructs a wallet settled by the global settlement.
+     *
+     * @param walletId       The passenger id of the wallet.
+     * @param openingBalance The opening balance in minor units, not journaled.
+     */
+    public Wallet(long walletId, long openingBalance) {
+        this(walletId, openingBalance, WalletSettlement.global());
+    }
+
+    /**
+     * Constructs a wallet.
+     *
+     * @param walletId       The passenger id of the wallet.
+     * @param openingBalance The opening balance in minor units, not journaled.
+     * @param settlement     Where the journaled movements are settled.
+     */
+    public Wallet(long walletId, long openingBalance, WalletSettlement settlement) {
+        this.walletId = walletId;
+        this.balance = new AtomicLong(openingBalance);
+        this.settlement = settlement;
+    }
+
+    /**
+     * Gets the passenger id of the wallet.
+     *
+     * @return The wallet id.
+     */
+    public long getWalletId() {
+        return walletId;
+    }
+
+    /**
+     * Gets the current balance.
+     *
+     * @return The balance in minor units.
+     */
+    public long getBalance() {
+        return balance.get();
+    }
+
+    /**
+     * Takes a payment from the wallet, only if the balance covers it.
+     *
+     * @param amount    The amount in minor units.
+     * @param reference What the payment is for, e.g. a flight number, or {@code null}.
+     * @return {@code true} if the payment was taken, {@code false} if the balance is too low.
+     */
+    public boolean debit(long amount, String reference) {
+        requireNonNegative(amount);
+        long current;
+        do {
+            current = balance.get();
+            if (current < amount) {
+                return false;
+            }
+        } while (!balance.compareAndSet(current, current - amount));
+        if (amount > 0) {
+            record(WalletTransaction.Type.PAYMENT, -amount, current - amount, reference);
+        }
+        return true;
+    }
+
+    /**
+     * Takes several payments at once, only if the balance is still the one the caller validated them
+     * against. Each payment is journaled on its own; either all are taken or none is.
+     *
+     * @param expectedBalance The balance the payments were validated against, in minor units.
+     * @param reference       What the payments are for, e.g. a flight number, or {@code null}.
+     * @param amounts         The amounts in minor units.
+     * @return {@code true} if the payments were taken, {@code false} if the balance changed in between.
+     */
+    public boolean tryDebit(long expectedBalance, String reference, long... amounts) {
+        long total = 0;
+        for (long amount : amounts) {
+            requireNonNegative(amount);
+            total += amount;
+        }
+        if (expectedBalance < total || !balance.compareAndSet(expectedBalance, expectedBalance - total)) {
+            return false;
+        }
+        long after = expectedBalance;
+        for (long amount : amounts) {
+            if (amount > 0) {
+                after -= amount;
+                record(WalletTransaction.Type.PAYMENT, -amount, after, reference);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Pays money into the wallet.
+     *
+     * @param amount    The amount in minor units.
+     * @param type      {@link WalletTransaction.Type#TOP_UP TOP_UP} or {@link WalletTransaction.Type#REFUND REFUND}.
+     * @param reference What the money is for, e.g. a flight number, or {@code null}.
+     * @return The balance after the credit, in minor units.
+     */
+    public long credit(long amount, WalletTransaction.Type type, String reference) {
+        requireNonNegative(amount);
+        if (type != WalletTransaction.Type.TOP_UP && type != WalletTransaction.Type.REFUND) {
+            throw new IllegalArgumentException("Not a credit: " + type);
+        }
+        long after = balance.addAndGet(amount);
+        if (amount > 0) {
+            record(type, amount, after, reference);
+        }
+        return after;
+    }
+
+    /**
+     * Corrects the balance by a signed amount, which may take it below zero.
+     *
+     * @param delta     The signed amount in minor units.
+     * @param reference Why the balance is corrected, or {@code null}.
+     * @return The balance after the correction, in minor units.
+     */
+    public long adjust(long delta, String reference) {
+        long after = balance.addAndGet(delta);
+        if (delta != 0) {
+            record(WalletTransaction.Type.ADJUSTMENT, delta, after, reference);
+        }
+        return after;
+    }
+
+    /**
+     * Sets the balance, journaling the difference as a correction.
+     *
+     * @param newBalance The new balance in minor units.
+     * @param reference  Why the balance is set, or {@code null}.
+     */
+    public void adjustTo(long newBalance, String reference) {
+        long previous = balance.getAndSet(newBalance);
+        if (previous != newBalance) {
+            record(WalletTransaction.Type.ADJUSTMENT, newBalance - previous, newBalance, reference);
+        }
+    }
+
+    /**
+     * Gets the movements not settled yet, in sequence order.
+     *
+     * @return A snapshot of the unsettled movements.
+     */
+    public List<WalletTransaction> getUnsettled() {
+        List<WalletTransaction> snapshot = new ArrayList<>(unsettled);
+        snapshot.sort(Comparator.comparingLong(WalletTransaction::sequence));
+        return snapshot;
+    }
+
+    /**
+     * Gets the number of movements not settled yet.
+     *
+     * @return The unsettled count.
+     */
+    public int getUnsettledCount() {
+        return unsettledCount.get();
+    }
+
+    /**
+     * Takes the movements journaled so far out of the journal, as one batch.
+     * Only the settlement calls it; batches of one wallet are drained one at a time.
+     *
+     * @return The batch, empty if nothing was waiting.
+     */
+    synchronized SettlementBatch drain() {
+        long upTo = sequence.get();
+        long first = 0;
+        long last = 0;
+        int count = 0;
+        long paid = 0;
+        long refunded = 0;
+        long toppedUp = 0;
+        long adjusted = 0;
+        WalletTransaction transaction;
+        // Movements are appended right after their sequence is taken, so stop at the first one past the batch
+        while ((transaction = unsettled.peek()) != null && transaction.sequence() <= upTo) {
+            unsettled.poll();
+            first = count == 0 ? transaction.sequence() : Math.min(first, transaction.sequence());
+            last = Math.max(last, transaction.sequence());
+            count++;
+            switch (transaction.type()) {
+                case PAYMENT -> paid -= transaction.amount();
+                case REFUND -> refunded += transaction.amount();
+                case TOP_UP -> toppedUp += transaction.amount();
+                case ADJUSTMENT -> adjusted += transaction.amount();
+            }
+        }
+        unsettledCount.addAndGet(-count);
+        return new SettlementBatch(walletId, first, last, count, paid, refunded, toppedUp, adjusted);
+    }
+
+    private void record(WalletTransaction.Type type, long amount, long balanceAfter, String reference) {
+        unsettled.add(new WalletTransaction(sequence.incrementAndGet(), System.currentTimeMillis(), type, walletId,
+                amount, balanceAfter, reference));
+        if (unsettledCount.incrementAndGet() >= settlement.getBatchSize() && settling.compareAndSet(false, true)) {
+            try {
+                settlement.settle(this);
+            } finally {
+                settling.set(false);
+            }
+        }
+    }
+
+    private static void requireNonNegative(long amount) {
+        if (amount < 0) {
+            throw new IllegalArgumentException("Amount must not be negative: " + amount);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Wallet{" + walletId + ", " + Money.toMajor(balance.get()) + "}";
+    }
+}
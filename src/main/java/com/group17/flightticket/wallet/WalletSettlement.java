@@ -0,0 +1,100 @@
+package com.group17.flightticket.wallet;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The {@code WalletSettlement} class settles the journaled movements of wallets in batches and keeps
+ * the running totals of everything settled. A wallet hands over its journal once a full batch is
+ * waiting; {@link #settleAll} settles whatever is left, e.g. at the end of the day.
+ */
+public class WalletSettlement {
+    /** The number of movements a wallet journals before it is settled, by default */
+    public static final int DEFAULT_BATCH_SIZE = 256;
+    private static final WalletSettlement GLOBAL = new WalletSettlement(DEFAULT_BATCH_SIZE);
+
+    private final int batchSize;
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder transactions = new LongAdder();
+    private final LongAdder paid = new LongAdder();
+    private final LongAdder refunded = new LongAdder();
+    private final LongAdder toppedUp = new LongAdder();
+    private final LongAdder adjusted = new LongAdder();
+
+    /**
+     * Constructs a settlement with no totals.
+     *
+     * @param batchSize The number of movements a wallet journals before it is settled.
+     */
+    public WalletSettlement(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Gets the settlement of every passenger's wallet.
+     *
+     * @return The global settlement.
+     */
+    public static WalletSettlement global() {
+        return GLOBAL;
+    }
+
+    /**
+     * Gets the number of movements a wallet journals before it is settled.
+     *
+     * @return The batch size.
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Settles the movements a wallet has journaled so far.
+     *
+     * @param wallet The wallet.
+     * @return The settled batch, empty if nothing was waiting.
+     */
+    public SettlementBatch settle(Wallet wallet) {
+        SettlementBatch batch = wallet.drain();
+        if (batch.transactions() > 0) {
+            batches.increment();
+            transactions.add(batch.transactions());
+            paid.add(batch.paid());
+            refunded.add(batch.refunded());
+            toppedUp.add(batch.toppedUp());
+            adjusted.add(batch.adjusted());
+        }
+        return batch;
+    }
+
+    /**
+     * Settles the movements of several wallets.
+     *
+     * @param wallets The wallets.
+     * @return The batches that were not empty.
+     */
+    public List<SettlementBatch> settleAll(Iterable<Wallet> wallets) {
+        List<SettlementBatch> settled = new ArrayList<>();
+        for (Wallet wallet : wallets) {
+            SettlementBatch batch = settle(wallet);
+            if (batch.transactions() > 0) {
+                settled.add(batch);
+            }
+        }
+        return settled;
+    }
+
+    /**
+     * Gets the running totals of the settled batches.
+     *
+     * @return A snapshot of the totals.
+     */
+    public SettlementTotals totals() {
+        return new SettlementTotals(batches.sum(), transactions.sum(), paid.sum(), refunded.sum(), toppedUp.sum(),
+                adjusted.sum());
+    }
+}
@@ -0,0 +1,30 @@
+package com.group17.flightticket.wallet;
+
+/**
+ * One balance movement recorded in the journal of a {@link Wallet}.
+ *
+ * @param sequence     The position of the movement in the wallet's journal, starting at 1.
+ * @param timestamp    When the movement happened, in epoch milliseconds.
+ * @param type         The kind of movement.
+ * @param walletId     The passenger id of the wallet.
+ * @param amount       The signed amount applied in minor units, negative when money was taken.
+ * @param balanceAfter The balance in minor units right after the movement.
+ * @param reference    What the movement was for, e.g. a flight number, or {@code null}.
+ */
+public record WalletTransaction(long sequence, long timestamp, Type type, long walletId, long amount,
+                                long balanceAfter, String reference) {
+
+    /**
+     * The kinds of balance movements.
+     */
+    public enum Type {
+        /** Money paid into the wallet */
+        TOP_UP,
+        /** A fare, an insurance or an extra paid from the wallet */
+        PAYMENT,
+        /** Money given back for a cancellation or a cheaper seat */
+        REFUND,
+        /** A correction of the balance, e.g. restored from storage */
+        ADJUSTMENT
+    }
+}
@@ -1,15 +1,108 @@
 package com.group17.flightticket;
 
+import com.group17.flightticket.boarding.BoardingGroup;
+import com.group17.flightticket.boarding.BoardingSession;
+import com.group17.flightticket.boarding.ScanResult;
 import com.group17.flightticket.entity.*;
+import com.group17.flightticket.enums.FlightStatus;
+import com.group17.flightticket.enums.LoyaltyTier;
 import com.group17.flightticket.enums.SeatCategory;
+import com.group17.flightticket.event.BookingEvent;
+import com.group17.flightticket.event.BookingEventBus;
+import com.group17.flightticket.event.ConsoleEventSink;
+import com.group17.flightticket.event.InMemoryEventSink;
+import com.group17.flightticket.identity.FlightKey;
+import com.group17.flightticket.identity.Registries;
+import com.group17.flightticket.inventory.Cabin;
+import com.group17.flightticket.inventory.CabinLayout;
+import com.group17.flightticket.inventory.Seat;
+import com.group17.flightticket.inventory.SeatHold;
+import com.group17.flightticket.inventory.SeatPreference;
+import com.group17.flightticket.lifecycle.FlightLifecycleScheduler;
+import com.group17.flightticket.lifecycle.TimingWheel;
+import com.group17.flightticket.metrics.BookingFailure;
+import com.group17.flightticket.metrics.BookingMetrics;
+import com.group17.flightticket.metrics.BookingMetricsBinder;
+import com.group17.flightticket.metrics.BookingOperation;
+import com.group17.flightticket.metrics.HistogramSnapshot;
+import com.group17.flightticket.metrics.LatencyHistogram;
+import com.group17.flightticket.loyalty.PointsJournal;
+import com.group17.flightticket.loyalty.PointsJournalEntry;
+import com.group17.flightticket.loyalty.PointsLedger;
+import com.group17.flightticket.notification.Notification;
+import com.group17.flightticket.notification.NotificationDispatcher;
+import com.group17.flightticket.notification.NotificationStats;
+import com.group17.flightticket.persistence.RecoveryStats;
+import com.group17.flightticket.persistence.ReservationStore;
+import com.group17.flightticket.pricing.FareQuote;
+import com.group17.flightticket.pricing.FareQuoteCache;
+import com.group17.flightticket.pricing.PricingPolicy;
+import com.group17.flightticket.pricing.QuoteCacheStats;
+import com.group17.flightticket.revenue.InventoryAggregates;
+import com.group17.flightticket.revenue.InventorySnapshot;
+import com.group17.flightticket.revenue.NoShowStats;
+import com.group17.flightticket.schedule.ImportStats;
+import com.group17.flightticket.schedule.LazySchedule;
+import com.group17.flightticket.schedule.ScheduleFormat;
+import com.group17.flightticket.schedule.ScheduleImporter;
+import com.group17.flightticket.schedule.ScheduleSnapshot;
+import com.group17.flightticket.schedule.ScheduleSnapshot.ScheduledFlight;
+import com.group17.flightticket.search.ConnectionSearch;
+import com.group17.flightticket.simulation.OperationType;
+import com.group17.flightticket.simulation.SimulatedNetwork;
+import com.group17.flightticket.simulation.SimulationReport;
+import com.group17.flightticket.simulation.Workload;
+import com.group17.flightticket.simulation.WorkloadGenerator;
+import com.group17.flightticket.simulation.WorkloadReplayer;
+import com.group17.flightticket.simulation.WorkloadSpec;
+import com.group17.flightticket.search.FlightSearchIndex;
+import com.group17.flightticket.search.Itinerary;
+import com.group17.flightticket.waitlist.WaitlistEntry;
+import com.group17.flightticket.waitlist.WaitlistStats;
+import com.group17.flightticket.wallet.Money;
+import com.group17.flightticket.wallet.SettlementBatch;
+import com.group17.flightticket.wallet.SettlementTotals;
+import com.group17.flightticket.wallet.Wallet;
+import com.group17.flightticket.wallet.WalletSettlement;
+import com.group17.flightticket.wallet.WalletTransaction;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
 
+import java.nio.file.Path;
+import java.time.Clock;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest(classes = FlightTicketSystemApplication.class)
 public class TestCases {
@@ -172,4 +265,1278 @@ public class TestCases {
 
     }
 
+    @Test
+    void testConcurrentBookingNeverOversells() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Reservation>> results = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Passenger passenger = new Passenger("Passenger" + i, 1000);
+            results.add(executor.submit(() -> passenger.makeReservationV4(flightAbroad, SeatCategory.ECONOMY)));
+        }
+        int booked = 0;
+        for (Future<Reservation> result : results) {
+            if (result.get() != null) {
+                booked++;
+            }
+        }
+        executor.shutdown();
+
+        //flightAbroad only has 10 seats
+        assertEquals(10, booked);
+        assertEquals(0, flightAbroad.getRemainSeatCount());
+        assertEquals(10, flightAbroad.getPassengerList().size());
+
+        //Cancel gives the seat back to the inventory
+        Passenger first = flightAbroad.getPassengerList().get(0);
+        assertTrue(first.cancelReservationV2(flightAbroad, easternAirlines));
+        assertEquals(1, flightAbroad.getRemainSeatCount(SeatCategory.ECONOMY));
+    }
+
+    @Test
+    void testSearchIndex() {
+        FlightSearchIndex index = FlightSearchIndex.global();
+        LocalDateTime morning = LocalDateTime.of(2024, 11, 20, 8, 0);
+        LocalDateTime noon = LocalDateTime.of(2024, 11, 20, 14, 0);
+
+        //flightDomestic departs from Shanghai to Guangzhou at 10:00
+        List<Flight> found = index.search("Shanghai", "Guangzhou", morning, noon, true);
+        assertTrue(found.contains(flightDomestic));
+        assertEquals(List.of(flightDomestic), index.search(ShanghaiTerminal, GuangzhouTerminal, morning, noon, true));
+
+        //Delay it to the evening, it leaves the window
+        easternAirlines.delayFlight(flightDomestic, flightDomestic.getDepartureTime().plusHours(8),
+                flightDomestic.getArrivalTime().plusHours(8));
+        assertTrue(index.search(ShanghaiTerminal, GuangzhouTerminal, morning, noon, true).isEmpty());
+        assertEquals(1, index.search(ShanghaiTerminal, GuangzhouTerminal, morning, noon.plusHours(8), true).size());
+
+        //Canceled flights can no longer be found
+        assertTrue(easternAirlines.cancelFlight(flightDomestic));
+        assertTrue(index.search(ShanghaiTerminal, GuangzhouTerminal, morning, noon.plusHours(8), false).isEmpty());
+    }
+
+    @Test
+    void testConnectionSearch() {
+        //NewYork -> Shanghai lands at 08:00, flightDomestic leaves Shanghai for Guangzhou at 10:00
+        Flight feeder = new Flight("MU58801", NewYorkTerminal, easternAirlines, ShanghaiTerminal,
+                LocalDateTime.of(2024, 11, 19, 20, 0),
+                LocalDateTime.of(2024, 11, 20, 8, 0),
+                5);
+        easternAirlines.addFlight(feeder);
+        ConnectionSearch search = new ConnectionSearch();
+        LocalDateTime earliest = LocalDateTime.of(2024, 11, 19, 0, 0);
+
+        List<Itinerary> itineraries = search.findConnections(NewYorkTerminal, GuangzhouTerminal, earliest, 3);
+        assertEquals(1, itineraries.size());
+        assertEquals(List.of(feeder, flightDomestic), itineraries.get(0).getLegs());
+        assertEquals(1, itineraries.get(0).getTransfers());
+
+        //Two hours is not enough when three are required
+        assertTrue(search.findConnections(NewYorkTerminal, GuangzhouTerminal, earliest, 3, Duration.ofHours(3), 3).isEmpty());
+        //A single leg is not enough either
+        assertTrue(search.findConnections(NewYorkTerminal, GuangzhouTerminal, earliest, 3, Duration.ofMinutes(45), 1).isEmpty());
+    }
+
+    @Test
+    void testLoyalSchemeLedger() throws Exception {
+        LoyalScheme loyalScheme = easternAirlines.getLoyalScheme();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> results = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            results.add(executor.submit(() -> loyalScheme.addPointsV2(passengerAlice, 1)));
+        }
+        for (Future<?> result : results) {
+            result.get();
+        }
+        executor.shutdown();
+        //No update is lost under concurrent writers
+        assertEquals(1000, loyalScheme.getPointsV2(passengerAlice));
+
+        //Redeem up to the fee, the rest is paid in money
+        assertEquals(0.0, loyalScheme.redeemPointsV2(passengerAlice, 600));
+        assertEquals(200.0, loyalScheme.redeemPointsV2(passengerAlice, 600));
+        assertEquals(0, loyalScheme.getPointsV2(passengerAlice));
+
+        //The journal replays to the same balances
+        List<PointsJournalEntry> entries = loyalScheme.getJournal().getEntries(passengerAlice.getPassengerId());
+        assertEquals(1002, entries.size());
+        assertEquals(PointsJournalEntry.Type.REDEEMED, entries.get(1001).type());
+        loyalScheme.addPointsV2(passengerBob, 42);
+        LoyalScheme replayed = LoyalScheme.replay(loyalScheme.getJournal());
+        assertEquals(0, replayed.getPointsV2(passengerAlice));
+        assertEquals(42, replayed.getPointsV2(passengerBob));
+
+        //A bounded journal keeps the latest entries, per account too, and refuses to replay
+        PointsJournal journal = new PointsJournal(3);
+        for (int i = 0; i < 4; i++) {
+            journal.append(PointsJournalEntry.Type.EARNED, passengerAlice.getPassengerId(), 10, 10 * (i + 1), null);
+        }
+        journal.append(PointsJournalEntry.Type.EARNED, passengerBob.getPassengerId(), 5, 5, null);
+        assertEquals(5, journal.size());
+        assertEquals(2, journal.getDroppedCount());
+        assertEquals(3, journal.getEntries().get(0).sequence());
+        assertEquals(List.of(3L, 4L), journal.getEntries(passengerAlice.getPassengerId()).stream()
+                .map(PointsJournalEntry::sequence).toList());
+        assertEquals(1, journal.getEntries(passengerBob.getPassengerId()).size());
+        assertThrows(IllegalStateException.class, () -> journal.replay(new PointsLedger()));
+
+        //Large and sparse ids take a page of their own, not an array sized by the id
+        PointsLedger ledger = new PointsLedger();
+        ledger.add(1L << 40, 7);
+        ledger.add(Long.MAX_VALUE, 9);
+        assertEquals(7, ledger.get(1L << 40));
+        assertEquals(new PointsLedger.Taken(9, 0), ledger.takeUpTo(Long.MAX_VALUE, 100));
+        assertEquals(0, ledger.get((1L << 40) + 1024));
+        assertThrows(IllegalArgumentException.class, () -> ledger.add(-1, 1));
+    }
+
+    @Test
+    void testIdentityAndRegistries() {
+        //Flights can be hashed even though terminals and flights reference each other
+        Set<Flight> flights = new HashSet<>(List.of(flightDomestic, flightAbroad));
+        assertTrue(flights.contains(flightDomestic));
+
+        //The flight key does not move when the flight is delayed
+        FlightKey key = flightDomestic.getFlightKey();
+        easternAirlines.delayFlight(flightDomestic, flightDomestic.getDepartureTime().plusHours(1),
+                flightDomestic.getArrivalTime().plusHours(1));
+        assertEquals(key, flightDomestic.getFlightKey());
+        assertEquals(key, FlightKey.parse(key.toString()));
+        assertSame(flightDomestic, Registries.flights().get(key));
+
+        //A canceled flight leaves the registry
+        Flight canceled = new Flight("MU9005", ShanghaiTerminal, easternAirlines, GuangzhouTerminal,
+                flightDomestic.getDepartureTime(), flightDomestic.getArrivalTime(), 10);
+        easternAirlines.addFlight(canceled);
+        assertSame(canceled, Registries.flights().get(canceled.getFlightKey()));
+        assertTrue(easternAirlines.cancelFlight(canceled));
+        assertNull(Registries.flights().get(canceled.getFlightKey()));
+
+        //Passengers keep their identity while their balance changes
+        Set<Passenger> passengers = new HashSet<>(List.of(passengerAlice));
+        passengerAlice.makeReservationV4(flightDomestic, SeatCategory.ECONOMY);
+        assertTrue(passengers.contains(passengerAlice));
+        assertSame(passengerAlice, Registries.passengers().get(passengerAlice.getPassengerId()));
+        assertSame(ShanghaiTerminal, Registries.terminals().get("Shanghai Terminal"));
+
+        //A passenger leaves the registry only once they hold no reservation
+        assertFalse(passengerAlice.unregister());
+        assertSame(passengerAlice, Registries.passengers().get(passengerAlice.getPassengerId()));
+        Passenger leaving = new Passenger("Leaving Passenger", 0);
+        assertTrue(leaving.unregister());
+        assertNull(Registries.passengers().get(leaving.getPassengerId()));
+    }
+
+    @Test
+    void testReservationIndex() {
+        //Haru books flightDomestic (20th) after flightAbroad (18th)
+        Reservation domestic = passengerHaru.makeReservationV4(flightDomestic, SeatCategory.ECONOMY);
+        Reservation abroad = passengerHaru.makeReservationV4(flightAbroad, SeatCategory.ECONOMY);
+        assertNotNull(domestic);
+        assertNotNull(abroad);
+
+        //Booking the same flight twice is a conflict, and the seat is given back
+        assertNull(passengerHaru.makeReservationV4(flightDomestic, SeatCategory.BUSINESS));
+        assertEquals(2, flightDomestic.getRemainSeatCount());
+
+        //Reservations are listed in departure order, and found by flight
+        assertEquals(List.of(abroad, domestic), passengerHaru.getReservations());
+        assertSame(domestic, passengerHaru.findReservation(flightDomestic));
+
+        assertTrue(passengerHaru.modifySeatCategory(flightDomestic.getFlightNumber(), SeatCategory.BUSINESS));
+        assertEquals(SeatCategory.BUSINESS, domestic.getSeatCategory());
+        assertTrue(passengerHaru.modifySeatCategoryV2(abroad, SeatCategory.FIRST_CLASS));
+
+        assertTrue(passengerHaru.cancelReservationV2(flightDomestic, easternAirlines));
+        assertFalse(passengerHaru.cancelReservationV2(flightDomestic, easternAirlines));
+        assertFalse(passengerHaru.modifySeatCategory(flightDomestic.getFlightNumber(), SeatCategory.FIRST_CLASS));
+        assertEquals(List.of(abroad), passengerHaru.getReservations());
+
+        //The same flight number on another day: removing the latest falls back to the earlier one
+        Flight nextDay = new Flight("MU45613", ShanghaiTerminal, easternAirlines, GuangzhouTerminal,
+                LocalDateTime.of(2024, 11, 21, 10, 0),
+                LocalDateTime.of(2024, 11, 21, 13, 0),
+                3);
+        ReservationBook book = new ReservationBook();
+        Reservation first = new Reservation(flightDomestic, SeatCategory.ECONOMY);
+        Reservation second = new Reservation(nextDay, SeatCategory.ECONOMY);
+        assertTrue(book.add(first));
+        assertTrue(book.add(second));
+        assertFalse(book.add(new Reservation(nextDay, SeatCategory.BUSINESS)));
+        assertSame(second, book.findByFlightNumber("MU45613"));
+        assertSame(second, book.removeByFlight(nextDay));
+        assertSame(first, book.findByFlightNumber("MU45613"));
+        assertSame(first, book.removeByFlight(flightDomestic));
+        assertNull(book.findByFlightNumber("MU45613"));
+        assertEquals(0, book.size());
+    }
+
+    @Test
+    void testNotificationDispatcherCoalescesDelays() throws Exception {
+        NotificationDispatcher dispatcher = new NotificationDispatcher(2, 16);
+        List<Notification> received = new CopyOnWriteArrayList<>();
+        dispatcher.addSink(received::addAll);
+
+        //Three delays of the same flight wait as one notification
+        for (int i = 1; i <= 3; i++) {
+            flightAbroad.setArrivalTime(flightAbroad.getArrivalTime().plusHours(i));
+            dispatcher.publish(Notification.flightDelayed(flightAbroad));
+        }
+        dispatcher.publish(Notification.terminalMessage(flightDomestic, ShanghaiTerminal, "Boarding started"));
+        //The queue holds two notifications, the third one runs on the caller
+        dispatcher.publish(Notification.terminalMessage(flightDomestic, ShanghaiTerminal, "Boarding completed"));
+        assertEquals(1, received.size());
+
+        dispatcher.start();
+        assertTrue(dispatcher.awaitIdle(Duration.ofSeconds(5)));
+        assertEquals(3, received.size());
+        assertEquals(Notification.Type.FLIGHT_DELAYED, received.get(1).type());
+
+        NotificationStats stats = dispatcher.getStats();
+        assertEquals(5, stats.published());
+        assertEquals(2, stats.coalesced());
+        assertEquals(1, stats.callerRuns());
+        assertEquals(3, stats.delivered());
+    }
+
+    @Test
+    void testBookingEvents() {
+        InMemoryEventSink sink = new InMemoryEventSink();
+        BookingEventBus events = BookingEventBus.global();
+        events.addSink(sink);
+        try {
+            passengerHaru.makeReservationV4(flightDomestic, SeatCategory.FIRST_CLASS, true, 200, true);
+            //Jack cannot afford first class
+            passengerJack.makeReservationV4(flightDomestic, SeatCategory.FIRST_CLASS);
+            passengerHaru.cancelReservationV2(flightDomestic, easternAirlines);
+            assertTrue(events.awaitDrained(Duration.ofSeconds(5)));
+        } finally {
+            events.removeSink(sink);
+        }
+
+        List<BookingEvent.ReservationCreated> created = sink.getEvents(BookingEvent.ReservationCreated.class);
+        assertEquals(1, created.size());
+        assertEquals(passengerHaru.getPassengerId(), created.get(0).passengerId());
+        assertEquals(1, sink.getEvents(BookingEvent.InsurancePurchased.class).size());
+        assertEquals(1, sink.getEvents(BookingEvent.PriorityBoardingPurchased.class).size());
+        assertEquals(BookingEvent.Purpose.FARE, sink.getEvents(BookingEvent.InsufficientBalance.class).get(0).purpose());
+        assertEquals(1, sink.getEvents(BookingEvent.ReservationCancelled.class).size());
+        //Nothing prints events unless asked to
+        assertTrue(events.getSinks().stream().noneMatch(ConsoleEventSink.class::isInstance));
+
+        //Publishers wait for a slow sink on a full ring, and no event is lost
+        List<BookingEvent> received = new CopyOnWriteArrayList<>();
+        try (BookingEventBus small = new BookingEventBus(2)) {
+            small.addSink(event -> {
+                LockSupport.parkNanos(200_000);
+                received.add(event);
+            });
+            for (int i = 0; i < 50; i++) {
+                small.publish(new BookingEvent.FlightStatusChanged(flightDomestic.getFlightKey(), FlightStatus.SCHEDULED));
+            }
+            assertTrue(small.awaitDrained(Duration.ofSeconds(5)));
+            assertEquals(50, received.size());
+            assertTrue(small.getFullWaitCount() > 0);
+
+            //Closing delivers what was published, then ignores new events
+            small.publish(new BookingEvent.FlightStatusChanged(flightDomestic.getFlightKey(), FlightStatus.DEPARTED));
+            small.close();
+            assertEquals(51, received.size());
+            small.publish(new BookingEvent.FlightStatusChanged(flightDomestic.getFlightKey(), FlightStatus.SCHEDULED));
+            assertEquals(51, received.size());
+        }
+    }
+
+
+    @Test
+    void testGroupBooking() {
+        //The group does not fit on flightDomestic (3 seats), nothing is taken
+        List<Passenger> group = List.of(passengerAlice, passengerBob, passengerHaru, passengerMary);
+        assertNull(GroupBooking.book(flightDomestic, SeatCategory.ECONOMY, group));
+        assertEquals(3, flightDomestic.getRemainSeatCount());
+
+        //Jack cannot afford first class, so nobody in the group is booked or charged
+        List<Passenger> withJack = List.of(passengerAlice, passengerBob, passengerJack);
+        assertNull(GroupBooking.book(flightAbroad, SeatCategory.FIRST_CLASS, withJack));
+        assertEquals(10, flightAbroad.getRemainSeatCount());
+        assertEquals(2000, passengerAlice.getBalance());
+        assertTrue(passengerAlice.getReservations().isEmpty());
+
+        //A passenger already booked on the flight rejects the whole group
+        passengerMary.makeReservationV4(flightAbroad, SeatCategory.ECONOMY);
+        assertNull(GroupBooking.book(flightAbroad, SeatCategory.ECONOMY, List.of(passengerAlice, passengerMary)));
+        assertTrue(passengerAlice.getReservations().isEmpty());
+        assertEquals(9, flightAbroad.getRemainSeatCount());
+
+        //The whole group is booked and each member pays their own fare
+        GroupBooking booking = GroupBooking.book(flightAbroad, SeatCategory.BUSINESS, withJack);
+        assertNotNull(booking);
+        assertEquals(3, booking.size());
+        assertEquals(900, booking.getTotalFee());
+        assertEquals(6, flightAbroad.getRemainSeatCount());
+        assertEquals(1700, passengerAlice.getBalance());
+        assertEquals(0, passengerJack.getBalance());
+        assertEquals(30, easternAirlines.getLoyalScheme().getPointsV2(passengerJack));
+        assertTrue(flightAbroad.getPassengerList().containsAll(withJack));
+        assertSame(booking.getReservations().get(1), passengerBob.getReservations().get(0));
+    }
+
+    @Test
+    void testBoardingSession() throws Exception {
+        passengerAlice.enablePriorityBoarding();
+        passengerAlice.makeReservationV4(flightAbroad, SeatCategory.ECONOMY);
+        passengerBob.makeReservationV4(flightAbroad, SeatCategory.BUSINESS);
+        passengerHaru.makeReservationV4(flightAbroad, SeatCategory.ECONOMY);
+        passengerJack.makeReservationV4(flightAbroad, SeatCategory.ECONOMY);
+        passengerMary.makeReservationV4(flightAbroad, SeatCategory.FIRST_CLASS);
+
+        BoardingSession session = flightAbroad.startBoarding();
+        assertEquals(5, session.getRemainingCount());
+        assertEquals(List.of(passengerHaru, passengerJack), session.getWaiting(BoardingGroup.GENERAL));
+
+        //Groups board in order, each pass is only accepted once
+        assertEquals(ScanResult.GROUP_NOT_CALLED, session.scan(passengerHaru));
+        assertEquals(BoardingGroup.PRIORITY, session.callNextGroup());
+        assertEquals(ScanResult.BOARDED, session.scan(passengerAlice));
+        assertEquals(ScanResult.ALREADY_BOARDED, session.scan(passengerAlice));
+        session.callUpTo(BoardingGroup.GENERAL);
+
+        //Gate agents scan from several threads, every passenger boards exactly once
+        List<Passenger> atGate = List.of(passengerMary, passengerBob, passengerHaru);
+        ExecutorService executor = Executors.newFixedThreadPool(6);
+        List<Future<ScanResult>> results = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            for (Passenger passenger : atGate) {
+                results.add(executor.submit(() -> session.scan(passenger)));
+            }
+        }
+        int boarded = 0;
+        for (Future<ScanResult> result : results) {
+            if (result.get() == ScanResult.BOARDED) {
+                boarded++;
+            }
+        }
+        executor.shutdown();
+        assertEquals(3, boarded);
+        assertEquals(4, session.getBoardedCount());
+        assertEquals(1, session.getRemainingCount());
+
+        //Jack did not show up, he is reported instead of being dropped from the flight
+        assertEquals(List.of(passengerJack), session.close());
+        assertEquals(ScanResult.CLOSED, session.scan(passengerJack));
+        assertTrue(flightAbroad.getPassengerList().contains(passengerJack));
+        assertEquals(4, flightAbroad.getBoardedPassengers().size());
+    }
+
+    @Test
+    void testReservationStoreRecovery(@TempDir Path storeDirectory) throws Exception {
+        BookingEventBus events = BookingEventBus.global();
+        ReservationStore store = ReservationStore.open(storeDirectory);
+        events.addSink(store);
+        try {
+            passengerAlice.makeReservationV4(flightAbroad, SeatCategory.ECONOMY, true, 200, false);
+            passengerBob.makeReservationV4(flightAbroad, SeatCategory.BUSINESS);
+            passengerBob.modifySeatCategory("MU12322", SeatCategory.ECONOMY);
+            passengerBob.selectSeat(flightAbroad, Seat.parse("2C"));
+            passengerMary.makeReservationV4(flightDomestic, SeatCategory.FIRST_CLASS);
+            passengerMary.cancelReservationV2(flightDomestic, easternAirlines);
+            assertTrue(events.awaitDrained(Duration.ofSeconds(5)));
+            store.snapshot();
+            //Logged after the snapshot
+            passengerHaru.makeReservationV4(flightDomestic, SeatCategory.ECONOMY, false, 0, true);
+            assertTrue(events.awaitDrained(Duration.ofSeconds(5)));
+        } finally {
+            events.removeSink(store);
+            store.close();
+        }
+        assertEquals(store.getSequence(), store.getDurableSequence());
+        //The snapshot was written off the bus thread and replaced the log before it, only the new segment is left
+        try (Stream<Path> files = Files.list(storeDirectory)) {
+            assertEquals(2, files.count());
+        }
+
+        //Restart: the airline, flights and passengers are created again with the same ids
+        ChinaEasternAirlines airline = new ChinaEasternAirlines();
+        Flight abroad = new Flight("MU12322", new Terminal("NewYork Terminal", "NewYork"), airline,
+                new Terminal("Paris Terminal", "Paris"), flightAbroad.getDepartureTime(), flightAbroad.getArrivalTime(), 10);
+        Flight domestic = new Flight("MU45613", new Terminal("Shanghai Terminal", "Shanghai"), airline,
+                new Terminal("Guangzhou Terminal", "Guangzhou"), flightDomestic.getDepartureTime(), flightDomestic.getArrivalTime(), 3);
+        Passenger alice = new Passenger(passengerAlice.getPassengerId(), "Alice", 2000);
+        Passenger bob = new Passenger(passengerBob.getPassengerId(), "Bob", 3000);
+        Passenger haru = new Passenger(passengerHaru.getPassengerId(), "Haru", 10000);
+        Passenger mary = new Passenger(passengerMary.getPassengerId(), "Mary", 5000);
+
+        RecoveryStats stats;
+        try (ReservationStore recovered = ReservationStore.open(storeDirectory)) {
+            assertEquals(3, recovered.getReservationCount());
+            stats = recovered.restore();
+        }
+        assertEquals(3, stats.restoredReservations());
+        assertEquals(0, stats.unresolvedReservations());
+        assertTrue(stats.snapshotSequence() > 0);
+        assertTrue(stats.replayedRecords() > 0);
+
+        assertEquals(1700, alice.getBalance());
+        assertEquals("INS-MU12322-Alice", alice.getReservations().get(0).getInsurance().getPolicyNumber());
+        assertEquals(2900, bob.getBalance());
+        assertEquals(SeatCategory.ECONOMY, bob.getReservations().get(0).getSeatCategory());
+        assertEquals(Seat.parse("2C"), abroad.getSeat(bob));
+        assertEquals(Seat.parse("1A"), alice.getReservations().get(0).getSeat());
+        assertEquals(4900, mary.getBalance());
+        assertTrue(mary.getReservations().isEmpty());
+        assertEquals(90, airline.getLoyalScheme().getPointsV2(mary));
+        assertEquals(9850, haru.getBalance());
+        assertTrue(haru.hasPriorityBoarding());
+        assertEquals(List.of(alice, bob), abroad.getPassengerList());
+        assertEquals(List.of(haru), domestic.getPassengerList());
+        assertEquals(8, abroad.getRemainSeatCount());
+    }
+
+    @Test
+    void testSeatMap() {
+        //Flights with only a capacity share one cabin between all categories
+        assertEquals(new Seat(1, 'A'), passengerMary.makeReservationV4(flightAbroad, SeatCategory.FIRST_CLASS).getSeat());
+        assertEquals(new Seat(1, 'B'), passengerJack.makeReservationV4(flightAbroad, SeatCategory.ECONOMY).getSeat());
+
+        //First class 1A 1D, business rows 2-3, economy rows 10-11, no premium economy cabin
+        Flight flight = new Flight("MU77701", ShanghaiTerminal, easternAirlines, ParisTerminal,
+                LocalDateTime.of(2024, 12, 1, 8, 0),
+                LocalDateTime.of(2024, 12, 1, 20, 0),
+                100);
+        flight.setCabinLayout(CabinLayout.of(
+                new Cabin(SeatCategory.ECONOMY, 10, 2, "ABC DEF"),
+                new Cabin(SeatCategory.FIRST_CLASS, 1, 1, "A D"),
+                new Cabin(SeatCategory.BUSINESS, 2, 2, "AC DF")));
+        assertEquals(22, flight.getCapacity());
+        assertNull(passengerAlice.makeReservationV4(flight, SeatCategory.PREMIUM_ECONOMY));
+
+        //Seats are given front to back, the preferred kind first
+        Reservation alice = passengerAlice.makeReservationV4(flight, SeatCategory.ECONOMY);
+        Reservation bob = passengerBob.makeReservationV4(flight, SeatCategory.ECONOMY, SeatPreference.AISLE);
+        Reservation haru = passengerHaru.makeReservationV4(flight, SeatCategory.ECONOMY, SeatPreference.WINDOW);
+        assertEquals(Seat.parse("10A"), alice.getSeat());
+        assertEquals(Seat.parse("10C"), bob.getSeat());
+        assertEquals(Seat.parse("10F"), haru.getSeat());
+        assertThrows(IllegalStateException.class, () -> flight.setCabinLayout(CabinLayout.uniform(20)));
+
+        //A group is seated side by side, never across the aisle
+        assertEquals(List.of(Seat.parse("10D"), Seat.parse("10E")), flight.getSeatMap().findAdjacent(SeatCategory.ECONOMY, 2));
+        Passenger lily = new Passenger("Lily", 1000);
+        GroupBooking group = GroupBooking.book(flight, SeatCategory.ECONOMY, List.of(passengerMary, passengerJack, lily));
+        assertNotNull(group);
+        assertEquals(Seat.parse("11A"), group.getReservations().get(0).getSeat());
+        assertEquals(Seat.parse("11C"), group.getReservations().get(2).getSeat());
+        assertEquals(6, flight.getSeatMap().getFreeSeatCount(SeatCategory.ECONOMY));
+
+        //Passengers can move to a free seat of their own cabin only
+        assertTrue(passengerAlice.selectSeat(flight, Seat.parse("10D")));
+        assertEquals(Seat.parse("10D"), flight.getSeat(passengerAlice));
+        assertTrue(flight.getSeatMap().isFree(Seat.parse("10A")));
+        assertFalse(passengerAlice.selectSeat(flight, Seat.parse("11B")));
+        assertFalse(passengerAlice.selectSeat(flight, Seat.parse("1A")));
+        assertFalse(passengerAlice.selectSeat(flight, Seat.parse("12A")));
+
+        //Upgrading moves the passenger to the business cabin, cancelling frees the seat
+        assertTrue(passengerBob.modifySeatCategory("MU77701", SeatCategory.BUSINESS));
+        assertEquals(Seat.parse("2A"), bob.getSeat());
+        assertTrue(flight.getSeatMap().isFree(Seat.parse("10C")));
+        assertTrue(passengerHaru.cancelReservationV2(flight, easternAirlines));
+        assertTrue(flight.getSeatMap().isFree(Seat.parse("10F")));
+        assertEquals(8, flight.getSeatMap().getFreeSeatCount(SeatCategory.ECONOMY));
+        assertEquals(7, flight.getSeatMap().getFreeSeatCount(SeatCategory.BUSINESS));
+    }
+
+    @Test
+    void testInventoryAggregates() {
+        InventoryAggregates aggregates = easternAirlines.getInventoryAggregates();
+        List<BookingEvent.FlightCapacityAlert> alerts = new CopyOnWriteArrayList<>();
+        aggregates.subscribe(alerts::add);
+
+        InventorySnapshot snapshot = aggregates.snapshot();
+        assertEquals(2, snapshot.flights());
+        assertEquals(13, snapshot.capacity());
+        assertEquals(13, snapshot.remainingSeats());
+        //flightDomestic only has 3 seats, so it is near full capacity from the start
+        assertEquals(Set.of(flightDomestic.getFlightKey()), snapshot.nearCapacity());
+
+        //The fifth booking leaves 5 seats on flightAbroad and pushes one alert
+        for (Passenger passenger : List.of(passengerAlice, passengerBob, passengerHaru, passengerMary)) {
+            passenger.makeReservationV4(flightAbroad, SeatCategory.ECONOMY);
+        }
+        assertTrue(alerts.isEmpty());
+        passengerJack.makeReservationV4(flightAbroad, SeatCategory.BUSINESS);
+        assertEquals(1, alerts.size());
+        assertEquals(flightAbroad.getFlightKey(), alerts.get(0).flightKey());
+        assertEquals(5, alerts.get(0).remainingSeats());
+        assertTrue(alerts.get(0).nearCapacity());
+        assertTrue(aggregates.isNearCapacity(flightAbroad));
+
+        //A cancellation moves the flight back above the threshold
+        passengerMary.cancelReservationV2(flightAbroad, easternAirlines);
+        assertEquals(2, alerts.size());
+        assertFalse(alerts.get(1).nearCapacity());
+
+        snapshot = aggregates.snapshot();
+        assertEquals(9, snapshot.remainingSeats());
+        assertEquals(4.0 / 13, snapshot.loadFactor(), 1e-9);
+        assertEquals(9, snapshot.remainingByCategory().get(SeatCategory.FIRST_CLASS));
+        assertEquals(6, aggregates.getRoute("NewYork", "Paris").remainingSeats());
+        assertEquals(0.4, aggregates.getRoute("NewYork", "Paris").loadFactor(), 1e-9);
+
+        //A canceled flight leaves the totals
+        easternAirlines.cancelFlight(flightDomestic);
+        snapshot = aggregates.snapshot();
+        assertEquals(1, snapshot.flights());
+        assertEquals(10, snapshot.capacity());
+        assertEquals(1, snapshot.routes().size());
+        assertTrue(snapshot.nearCapacity().isEmpty());
+
+        //Concurrent holds and releases settle on the live counters
+        AirlineCompany busy = new AirlineCompany("Aggregates Airlines");
+        Flight hot = new Flight("AG1", ShanghaiTerminal, busy, ParisTerminal,
+                flightAbroad.getDepartureTime(), flightAbroad.getArrivalTime(), 64);
+        busy.addFlight(hot);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> results = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            results.add(executor.submit(() -> {
+                for (int i = 0; i < 5_000; i++) {
+                    SeatHold hold = hot.holdSeat(SeatCategory.ECONOMY);
+                    if (hold != null && i % 7 != 0) {
+                        hold.release();
+                    }
+                }
+            }));
+        }
+        for (Future<?> result : results) {
+            assertDoesNotThrow(() -> result.get());
+        }
+        executor.shutdown();
+        snapshot = busy.getInventoryAggregates().snapshot();
+        assertEquals(hot.getRemainSeatCount(), snapshot.remainingSeats());
+        assertEquals(hot.getRemainSeatCount(SeatCategory.ECONOMY), snapshot.remainingByCategory().get(SeatCategory.ECONOMY));
+        assertEquals(hot.getRemainSeatCount() <= busy.getInventoryAggregates().getCapacityThreshold(),
+                busy.getInventoryAggregates().isNearCapacity(hot));
+
+        //A capacity change is added as a difference too
+        hot.setCapacity(80);
+        snapshot = busy.getInventoryAggregates().snapshot();
+        assertEquals(80, snapshot.capacity());
+        assertEquals(hot.getRemainSeatCount(), snapshot.remainingSeats());
+        assertFalse(busy.getInventoryAggregates().isNearCapacity(hot));
+    }
+
+    @Test
+    void testFarePricing() {
+        //Three days before flightAbroad departs
+        Clock clock = Clock.fixed(Instant.parse("2024-11-15T12:00:00Z"), ZoneOffset.UTC);
+        PricingPolicy policy = PricingPolicy.flat()
+                .withLoadStep(0.5, 1.5)
+                .withLoadStep(0.8, 2.0)
+                .withLeadTimeStep(Duration.ofDays(7), 1.2)
+                .withLeadTimeStep(Duration.ofDays(1), 1.5)
+                .withClock(clock);
+        assertEquals(100.0, flightAbroad.quoteFare(SeatCategory.ECONOMY));
+        easternAirlines.setPricingPolicy(policy);
+        assertEquals(120.0, flightAbroad.quoteFare(SeatCategory.ECONOMY));
+        assertEquals(360.0, flightAbroad.quoteFare(SeatCategory.BUSINESS));
+
+        //Every booking pays the fare quoted before its seat was taken
+        for (Passenger passenger : List.of(passengerAlice, passengerBob, passengerHaru, passengerMary, passengerJack)) {
+            assertEquals(120.0, passenger.makeReservationV4(flightAbroad, SeatCategory.ECONOMY).getFee());
+        }
+        assertEquals(1880.0, passengerAlice.getBalance());
+        assertEquals(180.0, passengerJack.getBalance());
+        //Half the seats are taken
+        assertEquals(180.0, flightAbroad.quoteFare(SeatCategory.ECONOMY));
+
+        //An upgrade pays the current business fare minus what was paid
+        assertTrue(passengerBob.modifySeatCategory("MU12322", SeatCategory.BUSINESS));
+        assertEquals(2460.0, passengerBob.getBalance());
+        assertEquals(540.0, passengerBob.getReservations().get(0).getFee());
+
+        //A cancellation refunds what was paid, and moves the flight back down the ladder
+        assertTrue(passengerMary.cancelReservationV2(flightAbroad, easternAirlines));
+        assertEquals(4976.0, passengerMary.getBalance());
+        assertEquals(120.0, flightAbroad.quoteFare(SeatCategory.ECONOMY));
+
+        //A delay moves the flight out of the lead-time window
+        easternAirlines.delayFlight(flightAbroad, LocalDateTime.of(2024, 11, 30, 12, 0), LocalDateTime.of(2024, 12, 1, 0, 0));
+        assertEquals(100.0, flightAbroad.quoteFare(SeatCategory.ECONOMY));
+
+        //A flight created later starts with the airline's policy
+        Flight redEye = new Flight("MU77001", ShanghaiTerminal, easternAirlines, GuangzhouTerminal,
+                LocalDateTime.of(2024, 11, 16, 0, 0), LocalDateTime.of(2024, 11, 16, 3, 0), 4);
+        assertEquals(150.0, redEye.quoteFare(SeatCategory.ECONOMY));
+        assertEquals(1500.0, policy.fare(SeatCategory.FIRST_CLASS, 0.9, Duration.ofHours(2)));
+        assertEquals(500.0, PricingPolicy.flat().fare(SeatCategory.FIRST_CLASS, 0.9, Duration.ofHours(2)));
+        easternAirlines.setPricingPolicy(PricingPolicy.flat());
+    }
+
+    @Test
+    void testFareQuoteCache() {
+        FareQuoteCache cache = new FareQuoteCache(32, 100);
+        FareQuote quote = cache.quote(flightAbroad, SeatCategory.ECONOMY, passengerAlice);
+        assertEquals(100.0, quote.fare());
+        assertEquals(10, quote.seatsLeft());
+        assertTrue(quote.isBookable());
+        //Passengers of the same points bucket share the quote
+        assertSame(quote, cache.quote(flightAbroad, SeatCategory.ECONOMY, passengerAlice));
+        assertSame(quote, cache.quote(flightAbroad, SeatCategory.ECONOMY, passengerBob));
+        FareQuote withPoints = cache.quote(flightAbroad, SeatCategory.BUSINESS, 250);
+        assertEquals(2, withPoints.pointsBucket());
+        assertEquals(100.0, withPoints.maxAmountDue());
+
+        //A booking, a delay and closing the flight each replace the quote; a booking leaves the version alone
+        long version = flightAbroad.getQuoteVersion();
+        passengerAlice.makeReservationV4(flightAbroad, SeatCategory.ECONOMY);
+        assertEquals(version, flightAbroad.getQuoteVersion());
+        assertEquals(9, cache.quote(flightAbroad, SeatCategory.ECONOMY, passengerAlice).seatsLeft());
+        easternAirlines.delayFlight(flightAbroad, LocalDateTime.of(2024, 11, 18, 14, 0), LocalDateTime.of(2024, 11, 19, 2, 0));
+        assertTrue(cache.quote(flightAbroad, SeatCategory.ECONOMY, passengerAlice).isBookable());
+        flightAbroad.setBOpenForReservation(false);
+        assertFalse(cache.quote(flightAbroad, SeatCategory.ECONOMY, passengerAlice).isBookable());
+        assertTrue(FlightSearchIndex.global().searchFares("NewYork", "Paris", LocalDateTime.of(2024, 11, 18, 0, 0),
+                LocalDateTime.of(2024, 11, 19, 0, 0), SeatCategory.ECONOMY, null).stream()
+                .noneMatch(fare -> fare.flightKey().equals(flightAbroad.getFlightKey())));
+        flightAbroad.setBOpenForReservation(true);
+        assertTrue(FlightSearchIndex.global().searchFares("NewYork", "Paris", LocalDateTime.of(2024, 11, 18, 0, 0),
+                LocalDateTime.of(2024, 11, 19, 0, 0), SeatCategory.ECONOMY, null).stream()
+                .anyMatch(fare -> fare.flightKey().equals(flightAbroad.getFlightKey()) && fare.seatsLeft() == 9));
+
+        QuoteCacheStats stats = cache.stats();
+        assertEquals(2, stats.hits());
+        assertEquals(2, stats.misses());
+        assertEquals(3, stats.invalidations());
+        assertEquals(0, stats.evictions());
+        assertEquals(2, stats.size());
+
+        //The cache stays within its size
+        for (int points = 0; points < 10_000; points += 100) {
+            cache.quote(flightDomestic, SeatCategory.ECONOMY, points);
+        }
+        stats = cache.stats();
+        assertTrue(stats.size() <= 32);
+        assertTrue(stats.evictions() > 0);
+    }
+
+    @Test
+    void testWaitlistAndOverbooking() throws Exception {
+        passengerAlice.makeReservationV4(flightDomestic, SeatCategory.ECONOMY);
+        passengerBob.makeReservationV4(flightDomestic, SeatCategory.ECONOMY);
+        passengerHaru.makeReservationV4(flightDomestic, SeatCategory.ECONOMY);
+
+        //Gold members are served before earlier basic members
+        easternAirlines.getLoyalScheme().addPointsV2(passengerMary, 600);
+        WaitlistEntry jackEntry = passengerJack.joinWaitlist(flightDomestic, SeatCategory.ECONOMY);
+        WaitlistEntry maryEntry = passengerMary.joinWaitlist(flightDomestic, SeatCategory.ECONOMY);
+        assertNull(passengerMary.joinWaitlist(flightDomestic, SeatCategory.ECONOMY));
+        assertEquals(LoyaltyTier.GOLD, maryEntry.getTier());
+        assertEquals(List.of(maryEntry, jackEntry), flightDomestic.getWaitlist().getWaiting(SeatCategory.ECONOMY));
+
+        //A cancellation hands the freed seat to the head of the waitlist, not to a new booking
+        passengerBob.cancelReservationV2(flightDomestic, easternAirlines);
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (maryEntry.getStatus() != WaitlistEntry.Status.PROMOTED && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(WaitlistEntry.Status.PROMOTED, maryEntry.getStatus());
+        assertNotNull(maryEntry.getReservation());
+        assertNotNull(flightDomestic.getSeat(passengerMary));
+        assertEquals(WaitlistEntry.Status.WAITING, jackEntry.getStatus());
+        assertEquals(0, flightDomestic.getRemainSeatCount());
+        assertNull(passengerBob.makeReservationV4(flightDomestic, SeatCategory.ECONOMY));
+
+        assertTrue(flightDomestic.getWaitlist().leave(passengerJack));
+        assertFalse(flightDomestic.getWaitlist().leave(passengerJack));
+        WaitlistStats stats = flightDomestic.getWaitlist().stats();
+        assertEquals(2, stats.joined());
+        assertEquals(1, stats.promoted());
+        assertEquals(1, stats.left());
+        assertEquals(0, stats.waiting());
+
+        //Overbooking sells a seat on top of the capacity, without a seat until one is freed
+        flightDomestic.setOverbookingRatio(0.34);
+        assertEquals(1, flightDomestic.getRemainSeatCount());
+        assertNotNull(passengerJack.makeReservationV4(flightDomestic, SeatCategory.ECONOMY));
+        assertNull(flightDomestic.getSeat(passengerJack));
+        assertNull(passengerBob.makeReservationV4(flightDomestic, SeatCategory.ECONOMY));
+
+        //Jack does not show up at the gate
+        passengerAlice.setCurrentTerminal(ShanghaiTerminal);
+        passengerHaru.setCurrentTerminal(ShanghaiTerminal);
+        passengerMary.setCurrentTerminal(ShanghaiTerminal);
+        flightDomestic.boardPassengers();
+        NoShowStats noShows = easternAirlines.getNoShowStatistics().snapshot("Shanghai", "Guangzhou");
+        assertEquals(1, noShows.flights());
+        assertEquals(4, noShows.booked());
+        assertEquals(1, noShows.noShows());
+        assertEquals(0.25, noShows.noShowRate());
+        flightDomestic.getBoardingSession().close();
+        assertEquals(1, easternAirlines.getNoShowStatistics().snapshot().flights());
+    }
+
+    @Test
+    void testWalletLedger() throws Exception {
+        //Cents never drift, however many payments are applied
+        WalletSettlement settlement = new WalletSettlement(100_000);
+        Wallet wallet = new Wallet(1, 0, settlement);
+        for (int i = 0; i < 10; i++) {
+            wallet.credit(Money.toMinor(0.1), WalletTransaction.Type.TOP_UP, null);
+        }
+        assertEquals(100, wallet.getBalance());
+        assertFalse(wallet.debit(101, "MU1"));
+        assertTrue(wallet.debit(30, "MU1"));
+        assertEquals(33, Money.percentOf(Money.toMinor(0.65), 50));
+
+        //Concurrent payments and refunds of one wallet are each applied exactly once, never below zero
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            results.add(pool.submit(() -> {
+                int debited = 0;
+                for (int i = 0; i < 1000; i++) {
+                    if (wallet.debit(7, "MU2")) {
+                        debited++;
+                    }
+                    wallet.credit(3, WalletTransaction.Type.REFUND, "MU2");
+                }
+                return debited;
+            }));
+        }
+        int debited = 0;
+        for (Future<Integer> result : results) {
+            debited += result.get();
+        }
+        pool.shutdown();
+        assertEquals(70 - 7L * debited + 3L * 8000, wallet.getBalance());
+
+        //Settlement drains the journal in one batch
+        assertEquals(10 + 1 + debited + 8000, wallet.getUnsettledCount());
+        SettlementBatch batch = settlement.settle(wallet);
+        assertEquals(10 + 1 + debited + 8000, batch.transactions());
+        assertEquals(wallet.getBalance(), batch.net());
+        assertEquals(0, wallet.getUnsettledCount());
+        assertEquals(0, settlement.settle(wallet).transactions());
+        SettlementTotals totals = settlement.totals();
+        assertEquals(1, totals.batches());
+        assertEquals(30 + 7L * debited, totals.paid());
+        assertEquals(24000, totals.refunded());
+
+        //A full batch is settled by the movement that completes it
+        WalletSettlement small = new WalletSettlement(4);
+        Wallet busy = new Wallet(2, 0, small);
+        for (int i = 0; i < 10; i++) {
+            busy.credit(100, WalletTransaction.Type.TOP_UP, null);
+        }
+        assertEquals(2, busy.getUnsettledCount());
+        assertEquals(2, small.totals().batches());
+        assertEquals(800, small.totals().toppedUp());
+
+        //Bookings, insurance and refunds go through the passenger's wallet
+        Reservation reservation = passengerJack.makeReservationV4(flightAbroad, SeatCategory.ECONOMY, true, 100.55, false);
+        assertNotNull(reservation);
+        assertEquals(99.45, passengerJack.getBalance());
+        assertEquals(List.of(reservation.getInsurance()), passengerJack.getInsurancePolicies());
+        assertTrue(passengerJack.cancelReservationV2(flightAbroad, easternAirlines));
+        assertTrue(passengerJack.getInsurancePolicies().isEmpty());
+        assertEquals(99.45 + 80 + 50.28, passengerJack.getBalance(), 1e-9);
+        assertEquals(Money.toMinor(229.73), passengerJack.getWallet().getBalance());
+        List<WalletTransaction> journal = passengerJack.getWallet().getUnsettled();
+        assertEquals(List.of(WalletTransaction.Type.PAYMENT, WalletTransaction.Type.PAYMENT,
+                        WalletTransaction.Type.REFUND, WalletTransaction.Type.REFUND),
+                journal.stream().map(WalletTransaction::type).toList());
+        assertEquals(-10055, journal.get(1).amount());
+
+        //Priority boarding is refunded once, however many of its reservations are canceled at once
+        Reservation domestic = passengerHaru.makeReservationV4(flightDomestic, SeatCategory.ECONOMY, false, 0, true);
+        Reservation abroad = passengerHaru.makeReservationV4(flightAbroad, SeatCategory.ECONOMY, false, 0, true);
+        long expected = passengerHaru.getWallet().getBalance() + Money.toMinor(domestic.getRefundFee())
+                + Money.toMinor(abroad.getRefundFee()) + Money.toMinor(50);
+        ExecutorService cancels = Executors.newFixedThreadPool(2);
+        Future<Boolean> first = cancels.submit(() -> passengerHaru.cancelReservationV2(flightDomestic, easternAirlines));
+        Future<Boolean> second = cancels.submit(() -> passengerHaru.cancelReservationV2(flightAbroad, easternAirlines));
+        assertTrue(first.get());
+        assertTrue(second.get());
+        cancels.shutdown();
+        assertFalse(passengerHaru.hasPriorityBoarding());
+        assertEquals(expected, passengerHaru.getWallet().getBalance());
+    }
+
+    @Test
+    void testBookingTransactionRollback() {
+        BookingTransactionStats before = BookingTransaction.stats();
+
+        //Jack can pay the fare but not the insurance, so nothing is booked or charged
+        BookingTransaction transaction = BookingTransaction.begin(passengerJack, flightDomestic, SeatCategory.ECONOMY)
+                .insurance(250);
+        assertNull(transaction.commit());
+        assertEquals(BookingTransaction.AbortReason.INSUFFICIENT_BALANCE, transaction.getAbortReason());
+        assertEquals(BookingEvent.Purpose.INSURANCE, transaction.getShortfall());
+        assertThrows(IllegalStateException.class, transaction::commit);
+        assertEquals(300, passengerJack.getBalance());
+        assertEquals(3, flightDomestic.getRemainSeatCount());
+        //Exactly enough for the fare, the insurance and priority boarding
+        assertNotNull(passengerJack.makeReservationV4(flightDomestic, SeatCategory.ECONOMY, true, 150, true));
+        assertEquals(1, passengerJack.getInsurancePolicies().size());
+        assertEquals(0, passengerJack.getBalance());
+        assertTrue(passengerJack.hasPriorityBoarding());
+
+        //Redeemed points are given back when an extra cannot be paid for
+        easternAirlines.getLoyalScheme().addPointsV2(passengerBob, 50);
+        passengerBob.setBalance(60);
+        assertNull(passengerBob.makeReservationV4(flightDomestic, SeatCategory.ECONOMY, true, 20, false));
+        assertEquals(50, easternAirlines.getLoyalScheme().getPointsV2(passengerBob));
+        assertEquals(60, passengerBob.getBalance());
+        assertFalse(passengerBob.hasPriorityBoarding());
+        assertEquals(2, flightDomestic.getRemainSeatCount());
+
+        //A second booking of the same flight is refused before anything is paid
+        assertNotNull(passengerHaru.makeReservationV4(flightDomestic, SeatCategory.ECONOMY));
+        transaction = BookingTransaction.begin(passengerHaru, flightDomestic, SeatCategory.ECONOMY);
+        assertNull(transaction.commit());
+        assertEquals(BookingTransaction.AbortReason.ALREADY_BOOKED, transaction.getAbortReason());
+        assertEquals(9900, passengerHaru.getBalance());
+        assertEquals(1, flightDomestic.getRemainSeatCount());
+
+        BookingTransactionStats after = BookingTransaction.stats();
+        assertEquals(2, after.commits() - before.commits());
+        assertEquals(3, after.aborts() - before.aborts());
+        assertTrue(after.maxCommitMicros() >= 0 && after.averageCommitMicros() >= 0);
+    }
+
+    @Test
+    void testHttpApi(@Autowired WebApplicationContext context) throws Exception {
+        MockMvc api = MockMvcBuilders.webAppContextSetup(context).build();
+        FlightKey key = flightDomestic.getFlightKey();
+        String reservationPath = "/api/reservations/{passengerId}/{airline}/{flightNumber}/{date}";
+
+        //Passengers are created and read by id
+        api.perform(post("/api/passengers").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Kim\",\"balance\":-1}"))
+                .andExpect(status().isBadRequest());
+        api.perform(get("/api/passengers/{id}", passengerAlice.getPassengerId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Alice"))
+                .andExpect(jsonPath("$.balance").value(2000.0));
+        api.perform(get("/api/passengers/{id}", -1)).andExpect(status().isNotFound());
+        long kim = new Passenger("Kim", 10).getPassengerId();
+        api.perform(delete("/api/passengers/{id}", kim)).andExpect(status().isNoContent());
+        api.perform(get("/api/passengers/{id}", kim)).andExpect(status().isNotFound());
+
+        //Search quotes the flights in the window
+        api.perform(get("/api/flights").param("origin", "Shanghai").param("destination", "Guangzhou")
+                        .param("from", "2024-11-20T00:00:00").param("to", "2024-11-21T00:00:00")
+                        .param("category", "BUSINESS"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].flightKey").value(key.toString()))
+                .andExpect(jsonPath("$[0].seatsLeft").value(3));
+
+        //Reserve, modify and cancel
+        String reservation = "{\"passengerId\":" + passengerAlice.getPassengerId() + ",\"flightKey\":\"" + key
+                + "\",\"category\":\"ECONOMY\",\"priorityBoarding\":true}";
+        api.perform(post("/api/reservations").contentType(MediaType.APPLICATION_JSON).content(reservation))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.category").value("ECONOMY"));
+        assertTrue(passengerAlice.hasPriorityBoarding());
+        api.perform(post("/api/reservations").contentType(MediaType.APPLICATION_JSON).content(reservation))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("ALREADY_BOOKED"));
+        api.perform(patch(reservationPath, passengerAlice.getPassengerId(), key.getAirline(), key.getFlightNumber(),
+                        key.getDepartureDate()).contentType(MediaType.APPLICATION_JSON).content("{\"category\":\"FIRST_CLASS\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.category").value("FIRST_CLASS"));
+        double balance = passengerAlice.getBalance();
+        assertTrue(balance < 2000);
+        api.perform(delete(reservationPath, passengerAlice.getPassengerId(), key.getAirline(), key.getFlightNumber(),
+                        key.getDepartureDate()))
+                .andExpect(status().isOk());
+        assertTrue(passengerAlice.getBalance() > balance);
+        assertEquals(3, flightDomestic.getRemainSeatCount());
+        api.perform(delete(reservationPath, passengerAlice.getPassengerId(), key.getAirline(), key.getFlightNumber(),
+                        key.getDepartureDate()))
+                .andExpect(status().isNotFound());
+
+        //Boarding: Bob is booked, Jack is not
+        assertNotNull(passengerBob.makeReservationV4(flightDomestic, SeatCategory.ECONOMY));
+        String boardingPath = "/api/flights/{airline}/{flightNumber}/{date}/boarding";
+        Object[] flightPath = {key.getAirline(), key.getFlightNumber(), key.getDepartureDate()};
+        api.perform(post(boardingPath + "/scans", flightPath).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"passengerId\":" + passengerBob.getPassengerId() + "}"))
+                .andExpect(status().isConflict());
+        api.perform(post(boardingPath, flightPath)).andExpect(status().isOk())
+                .andExpect(jsonPath("$.remaining").value(1));
+        api.perform(post(boardingPath + "/scans", flightPath).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"passengerId\":" + passengerJack.getPassengerId() + "}"))
+                .andExpect(jsonPath("$.result").value(ScanResult.NOT_ON_FLIGHT.name()));
+        api.perform(post(boardingPath + "/scans", flightPath).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"passengerId\":" + passengerBob.getPassengerId() + "}"))
+                .andExpect(jsonPath("$.result").value(ScanResult.GROUP_NOT_CALLED.name()));
+        for (int i = 1; i < BoardingGroup.values().length; i++) {
+            api.perform(post(boardingPath + "/groups", flightPath)).andExpect(status().isOk());
+        }
+        api.perform(post(boardingPath + "/groups", flightPath))
+                .andExpect(jsonPath("$.calledGroup").value(BoardingGroup.GENERAL.name()));
+        api.perform(post(boardingPath + "/scans", flightPath).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"passengerId\":" + passengerBob.getPassengerId() + "}"))
+                .andExpect(jsonPath("$.result").value(ScanResult.BOARDED.name()))
+                .andExpect(jsonPath("$.boarded").value(1));
+        api.perform(post(boardingPath + "/close", flightPath)).andExpect(status().isOk())
+                .andExpect(jsonPath("$.remaining").value(0));
+    }
+
+    @Test
+    void testBookingMetrics(@Autowired MeterRegistry registry, @Autowired BookingMetricsBinder binder) {
+        //Percentiles are within a bucket, about 3%, of the exact value
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 1000; micros++) {
+            histogram.record(micros * 1000);
+        }
+        HistogramSnapshot snapshot = histogram.snapshot();
+        assertEquals(1000, snapshot.count());
+        assertEquals(500_000, snapshot.valueAtPercentile(50), 500_000 * 0.035);
+        assertEquals(990_000, snapshot.valueAtPercentile(99), 990_000 * 0.035);
+        assertEquals(1_000_000, snapshot.valueAtPercentile(100));
+        assertEquals(500_500, snapshot.mean(), 1e-9);
+
+        //Threads count in stripes of their own, a snapshot adds them up
+        LatencyHistogram shared = new LatencyHistogram();
+        List<Thread> recorders = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            recorders.add(Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    shared.record(1_000);
+                }
+            }));
+        }
+        recorders.forEach(recorder -> assertDoesNotThrow(() -> recorder.join()));
+        assertEquals(40_000, shared.snapshot().count());
+        assertEquals(1_000, shared.snapshot().valueAtPercentile(99), 1_000 * 0.035);
+
+        BookingMetrics metrics = BookingMetrics.global();
+        long reserves = metrics.getLatencies(BookingOperation.RESERVE).getCount();
+        long cancels = metrics.getLatencies(BookingOperation.CANCEL).getCount();
+        long closed = metrics.getFailures(BookingFailure.FLIGHT_CLOSED);
+        long noSeats = metrics.getFailures(BookingFailure.NO_SEATS);
+        long poor = metrics.getFailures(BookingFailure.INSUFFICIENT_BALANCE);
+        long notBooked = metrics.getFailures(BookingFailure.NOT_BOOKED);
+
+        assertNotNull(passengerAlice.makeReservationV4(flightDomestic, SeatCategory.ECONOMY));
+        assertNotNull(passengerBob.makeReservationV4(flightDomestic, SeatCategory.ECONOMY));
+        assertNotNull(passengerHaru.makeReservationV4(flightDomestic, SeatCategory.ECONOMY));
+        assertNull(passengerMary.makeReservationV4(flightDomestic, SeatCategory.ECONOMY));
+        assertNull(passengerJack.makeReservationV4(flightAbroad, SeatCategory.FIRST_CLASS, true, 1000, false));
+        flightAbroad.setBOpenForReservation(false);
+        assertNull(passengerMary.makeReservationV4(flightAbroad, SeatCategory.ECONOMY));
+        assertTrue(passengerAlice.cancelReservationV2(flightDomestic, easternAirlines));
+        assertFalse(passengerAlice.cancelReservationV2(flightDomestic, easternAirlines));
+
+        assertEquals(6, metrics.getLatencies(BookingOperation.RESERVE).getCount() - reserves);
+        assertEquals(2, metrics.getLatencies(BookingOperation.CANCEL).getCount() - cancels);
+        assertEquals(1, metrics.getFailures(BookingFailure.NO_SEATS) - noSeats);
+        assertEquals(1, metrics.getFailures(BookingFailure.FLIGHT_CLOSED) - closed);
+        assertEquals(1, metrics.getFailures(BookingFailure.INSUFFICIENT_BALANCE) - poor);
+        assertEquals(1, metrics.getFailures(BookingFailure.NOT_BOOKED) - notBooked);
+
+        //Nothing is recorded while disabled
+        metrics.setEnabled(false);
+        try {
+            assertNotNull(passengerAlice.makeReservationV4(flightDomestic, SeatCategory.ECONOMY));
+            assertEquals(6, metrics.getLatencies(BookingOperation.RESERVE).getCount() - reserves);
+        } finally {
+            metrics.setEnabled(true);
+        }
+
+        //Exported through Micrometer, with the seats of the open flights
+        assertTrue(registry.get("booking.operation").tag("operation", "reserve").functionTimer().count() >= 6);
+        assertTrue(registry.get("booking.operation.latency").tags("operation", "reserve", "percentile", "99.0")
+                .gauge().value() > 0);
+        assertTrue(registry.get("booking.failures").tag("reason", "no_seats").functionCounter().count() >= 1);
+        binder.refreshFlightGauges();
+        String domestic = flightDomestic.getFlightKey().toString();
+        assertEquals(0, registry.get("flight.seats.remaining").tag("flight", domestic).gauge().value());
+        assertEquals(1.0, registry.get("flight.load.factor").tag("flight", domestic).gauge().value());
+        assertNull(registry.find("flight.seats.remaining").tag("flight", flightAbroad.getFlightKey().toString()).gauge());
+    }
+
+    @Test
+    void testWorkloadSimulation(@TempDir Path directory) throws Exception {
+        WorkloadSpec spec = WorkloadSpec.of(17, 40, 3, 500, 6000);
+
+        //The same seed gives the same operations, another seed others
+        Workload workload = WorkloadGenerator.generate(spec);
+        assertEquals(6000, workload.size());
+        assertEquals(workload, WorkloadGenerator.generate(spec));
+        assertNotEquals(workload, WorkloadGenerator.generate(WorkloadSpec.of(18, 40, 3, 500, 6000)));
+        //Each day opens with a burst of reservations on its own flights
+        assertTrue(workload.isBurst(0) && workload.isBurst(2000) && !workload.isBurst(1999));
+        assertEquals(OperationType.RESERVE, workload.type(2000));
+        assertTrue(workload.flight(2000) >= 40 && workload.flight(2000) < 80);
+        Set<OperationType> types = new HashSet<>();
+        for (int i = 0; i < workload.size(); i++) {
+            types.add(workload.type(i));
+        }
+        assertEquals(Set.of(OperationType.values()), types);
+
+        //Recorded and read back unchanged
+        Path file = directory.resolve("workload.bin");
+        workload.write(file);
+        Workload recorded = Workload.read(file);
+        assertEquals(workload, recorded);
+        assertEquals(spec, recorded.getSpec());
+
+        //Replayed on its network, every operation runs once
+        SimulatedNetwork network = SimulatedNetwork.build(spec);
+        assertEquals(network.flight(0).getDepartureTime().toLocalDate().plusDays(1),
+                network.flight(spec.flightsPerDay()).getDepartureTime().toLocalDate());
+        SimulationReport report = new WorkloadReplayer(recorded, network, 2, 0).replay();
+        assertEquals(6000, report.operations());
+        assertTrue(report.failed() < report.operations() / 2);
+        assertTrue(report.throughput() > 0 && report.heapUsedBytes() > 0);
+        assertNull(report.responseTimes());
+        assertTrue(report.format().contains("RESERVE"));
+        assertThrows(IllegalArgumentException.class,
+                () -> new WorkloadReplayer(WorkloadGenerator.generate(WorkloadSpec.of(18, 40, 3, 500, 10)), network, 1, 0));
+    }
+
+    @Test
+    void testLazyScheduleSnapshot(@TempDir Path directory) throws Exception {
+        AirlineCompany airline = new AirlineCompany("Snapshot Airlines");
+        Terminal terminalA = new Terminal("SNAP-A", "Snap A", "Snapcity A");
+        Terminal terminalB = new Terminal("SNAP-B", "Snap B", "Snapcity B");
+        Terminal terminalC = new Terminal("SNAP-C", "Snap C", "Snapcity C");
+        LocalDateTime firstDeparture = LocalDate.now().plusDays(1).atTime(6, 0);
+        List<ScheduledFlight> flights = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            Terminal destination = i % 3 == 2 ? terminalC : terminalB;
+            LocalDateTime departure = firstDeparture.plusHours(i);
+            flights.add(new ScheduledFlight(airline, "SN" + i, terminalA, destination, departure, departure.plusHours(2), 120 + i));
+        }
+        Terminal terminalD = new Terminal("SNAP-D", "Snap D", "Snapcity D");
+        Terminal terminalE = new Terminal("SNAP-E", "Snap E", "Snapcity E");
+        flights.add(new ScheduledFlight(airline, "SD0", terminalB, terminalD, firstDeparture.plusHours(3),
+                firstDeparture.plusHours(5), 100));
+        flights.add(new ScheduledFlight(airline, "SE0", terminalE, terminalD, firstDeparture.plusHours(1),
+                firstDeparture.plusHours(2), 100));
+        flights.add(new ScheduledFlight(airline, "SN100", terminalA, terminalB, firstDeparture.plusDays(3),
+                firstDeparture.plusDays(3).plusHours(2), 100));
+        Path file = directory.resolve("schedule.bin");
+        ScheduleSnapshot.write(file, flights);
+
+        //Opening the snapshot builds no flight
+        FlightKey key = FlightKey.of("Snapshot Airlines", "SN4", firstDeparture.plusHours(4).toLocalDate());
+        LazySchedule schedule = ScheduleSnapshot.open(file);
+        try {
+            assertEquals(33, schedule.size());
+            assertEquals(0, schedule.getBuiltCount());
+            assertNull(Registries.flights().getIfPresent(key));
+
+            //A lookup by key builds the flight once, like the constructor would
+            Flight flight = Registries.flights().get(key);
+            assertNotNull(flight);
+            assertEquals("SN4", flight.getFlightNumber());
+            assertSame(terminalA, flight.getOrigin());
+            assertSame(terminalB, flight.getDestination());
+            assertEquals(firstDeparture.plusHours(4), flight.getDepartureTime());
+            assertEquals(124, flight.getCapacity());
+            assertTrue(airline.getFlights().contains(flight));
+            assertSame(flight, Registries.flights().get(key));
+            assertEquals(1, schedule.getBuiltCount());
+            assertNull(Registries.flights().get(FlightKey.of("Snapshot Airlines", "SN4", key.getDepartureDate().plusDays(1))));
+            assertNull(Registries.flights().get(FlightKey.of("Snapshot Airlines", "SN99", key.getDepartureDate())));
+
+            //A search builds the flights of its route and window only
+            List<Flight> found = FlightSearchIndex.global().search("Snapcity A", "Snapcity B",
+                    firstDeparture.plusHours(3), firstDeparture.plusHours(9), true);
+            assertEquals(List.of("SN3", "SN4", "SN6", "SN7", "SN9"), found.stream().map(Flight::getFlightNumber).toList());
+            assertEquals(5, schedule.getBuiltCount());
+            assertTrue(found.get(0).getWaitlist() != null && found.get(0).getRemainSeatCount() == 123);
+
+            //A connection search builds the departures of the stops it reaches inside its horizon only
+            List<Itinerary> itineraries = new ConnectionSearch().findConnections(terminalA, terminalD, firstDeparture, 1);
+            assertEquals(List.of("SN0", "SD0"), itineraries.get(0).getLegs().stream().map(Flight::getFlightNumber).toList());
+            assertEquals(31, schedule.getBuiltCount());
+            assertNull(Registries.flights().getIfPresent(FlightKey.of("Snapshot Airlines", "SE0", firstDeparture.toLocalDate())));
+            assertNull(Registries.flights().getIfPresent(FlightKey.of("Snapshot Airlines", "SN100",
+                    firstDeparture.plusDays(3).toLocalDate())));
+            assertTrue(terminalB.getDepartingFlights().stream().anyMatch(departing -> departing.getFlightNumber().equals("SD0")));
+
+            //A canceled flight is not brought back by the schedule
+            Flight canceled = found.get(0);
+            assertTrue(airline.cancelFlight(canceled));
+            assertNull(Registries.flights().get(canceled.getFlightKey()));
+        } finally {
+            schedule.close();
+        }
+
+        //Once closed, the flights not built are out of reach, the built ones stay
+        assertNotNull(Registries.flights().get(key));
+        assertNull(Registries.flights().get(FlightKey.of("Snapshot Airlines", "SE0", firstDeparture.toLocalDate())));
+        flights.add(flights.get(0));
+        assertThrows(IllegalArgumentException.class, () -> ScheduleSnapshot.write(directory.resolve("twice.bin"), flights));
+        Path notASnapshot = Files.write(directory.resolve("other.bin"), new byte[64]);
+        assertThrows(IOException.class, () -> ScheduleSnapshot.open(notASnapshot));
+    }
+
+    @Test
+    void testScheduleImporter(@TempDir Path directory) throws Exception {
+        //A CSV timetable, in chunks of two flights built on two threads
+        LocalDate day = LocalDate.now().plusDays(2);
+        Path csv = directory.resolve("timetable.csv");
+        Files.write(csv, List.of(
+                "airline,flightNumber,origin,destination,departure,arrival,capacity",
+                "Import Airlines,IM1,IMP-T1,IMQ-T2," + day.atTime(8, 0) + "," + day.atTime(10, 0) + ",150",
+                "Import Airlines,IM2,IMQ-T2,IMP-T1," + day.atTime(12, 0) + "," + day.atTime(14, 0) + ",",
+                "Import Airlines,IM3,IMP-T1,IMR," + day.atTime(16, 0) + "," + day.atTime(19, 30) + ",90",
+                "Import Airlines,IM1,IMP-T1,IMQ-T2," + day.atTime(9, 0) + "," + day.atTime(11, 0) + ",150",
+                "Import Airlines,IM4,IMP-T1,IMQ-T2,tomorrow," + day.atTime(11, 0) + ",150",
+                "\"Import, \"\"Quoted\"\" Airlines\",IQ1,IMQ-T2,IMR," + day.atTime(7, 0) + "," + day.atTime(9, 0),
+                "Import Airlines,IM5,IMP-T1,IMQ-T2," + day.atTime(7, 0)));
+        ImportStats stats = new ScheduleImporter(2, 2, 180).importFile(csv);
+        assertEquals(ScheduleFormat.CSV, stats.scheduleFormat());
+        assertEquals(7, stats.rows());
+        assertEquals(4, stats.flights());
+        assertEquals(1, stats.duplicates());
+        assertEquals(2, stats.rejected());
+        assertTrue(stats.errors().get(0).startsWith("line 6:"));
+        assertEquals("line 8: expected at least 6 fields, found 5", stats.errors().get(1));
+        assertNotNull(Registries.flights().get(FlightKey.of("Import, \"Quoted\" Airlines", "IQ1", day)));
+        assertTrue(stats.rowsPerSecond() > 0);
+
+        //Terminals are created once per code, at the location their code starts with, and list their flights
+        Terminal terminal = Registries.terminals().get("IMP-T1");
+        assertEquals("IMP", terminal.getLocation());
+        assertEquals(2, terminal.getDepartingFlights().size());
+        assertEquals(1, terminal.getArrivingFlights().size());
+        AirlineCompany airline = Registries.airlines().get("Import Airlines");
+        assertEquals(3, airline.getFlights().size());
+        Flight flight = Registries.flights().get(FlightKey.of("Import Airlines", "IM2", day));
+        assertEquals(180, flight.getCapacity());
+        assertEquals(List.of(flight), FlightSearchIndex.global().search("IMQ", "IMP", day.atStartOfDay(), day.atTime(23, 59), true));
+        assertEquals(3, airline.getInventoryAggregates().snapshot().flights());
+
+        //A SSIM leg flown on Monday, Wednesday and Friday of one week, landing the next day
+        LocalDate monday = day.plusDays(7 - day.getDayOfWeek().getValue() + 1);
+        String period = DateTimeFormatter.ofPattern("ddMMMyy", Locale.ENGLISH).format(monday).toUpperCase()
+                + DateTimeFormatter.ofPattern("ddMMMyy", Locale.ENGLISH).format(monday.plusDays(6)).toUpperCase();
+        StringBuilder leg = new StringBuilder(" ".repeat(200));
+        leg.replace(0, 14, "3 XI 00710101J").replace(14, 28, period).replace(28, 35, "1 3 5  ")
+                .replace(36, 54, "SSA23002300+08001 ").replace(54, 72, "SSB06000600+0100  ")
+                .replace(172, 179, "J12Y150").replace(192, 194, "01");
+        Path ssim = directory.resolve("timetable.ssim");
+        Files.write(ssim, List.of("1AIRLINE STANDARD SCHEDULE DATA SET" + " ".repeat(165), leg.toString(),
+                "5 XI" + " ".repeat(196)));
+        stats = new ScheduleImporter().importFile(ssim);
+        assertEquals(ScheduleFormat.SSIM, stats.scheduleFormat());
+        assertEquals(1, stats.rows());
+        assertEquals(3, stats.flights());
+        flight = Registries.flights().get(FlightKey.of("XI", "XI71", monday.plusDays(2)));
+        assertEquals("SSA-T1", flight.getOrigin().getCode());
+        assertEquals("SSB", flight.getDestination().getCode());
+        assertEquals(monday.plusDays(2).atTime(23, 0), flight.getDepartureTime());
+        assertEquals(monday.plusDays(3).atTime(6, 0), flight.getArrivalTime());
+        assertEquals(162, flight.getCapacity());
+        assertNull(Registries.flights().get(FlightKey.of("XI", "XI71", monday.plusDays(1))));
+        assertThrows(IllegalArgumentException.class, () -> new ScheduleImporter(0, 1, 180));
+    }
+
+    @Test
+    void testFlightLifecycleScheduler() {
+        //Timers spread over every level of the wheel expire in order, never early and never a step late
+        TimingWheel wheel = new TimingWheel(1, 0);
+        Random random = new Random(25);
+        long[] deadlines = new long[20_000];
+        List<long[]> expired = new ArrayList<>();
+        for (int i = 0; i < deadlines.length; i++) {
+            deadlines[i] = 1 + (i % 2 == 0 ? random.nextInt(5_000) : random.nextInt(20_000_000));
+            long deadline = deadlines[i];
+            wheel.schedule(new TimingWheel.Timer() {
+                @Override
+                protected void expire(long nowMillis) {
+                    expired.add(new long[]{deadline, nowMillis});
+                }
+            }, deadline);
+        }
+        assertEquals(deadlines.length, wheel.size());
+        long now = 0;
+        while (now < 20_000_000) {
+            long previous = now;
+            now += 1 + random.nextInt(50_000);
+            int before = expired.size();
+            wheel.advanceTo(now);
+            for (long[] timer : expired.subList(before, expired.size())) {
+                assertTrue(timer[0] <= now && timer[0] > previous);
+            }
+        }
+        assertEquals(deadlines.length, expired.size());
+        assertEquals(0, wheel.size());
+        for (int i = 1; i < expired.size(); i++) {
+            assertTrue(expired.get(i - 1)[0] <= expired.get(i)[0]);
+        }
+
+        //Catching up after a long pause jumps over the empty ticks, and a timer that throws does not stop the others
+        TimingWheel paused = new TimingWheel(1, 0);
+        long later = 1_000_000_000_000L;
+        List<String> fired = new ArrayList<>();
+        paused.schedule(new TimingWheel.Timer() {
+            @Override
+            protected void expire(long nowMillis) {
+                throw new IllegalStateException("Broken timer");
+            }
+        }, later);
+        for (String name : List.of("same tick", "next tick")) {
+            paused.schedule(new TimingWheel.Timer() {
+                @Override
+                protected void expire(long nowMillis) {
+                    fired.add(name);
+                }
+            }, name.equals("same tick") ? later : later + 1);
+        }
+        assertEquals(0, paused.advanceTo(later - 1));
+        assertEquals(3, paused.advanceTo(later + 1));
+        assertEquals(List.of("same tick", "next tick"), fired);
+        assertEquals(0, paused.size());
+
+        //A flight closes, boards, departs and lands as the clock of its scheduler passes its times
+        LocalDateTime departure = LocalDateTime.of(1990, 1, 2, 10, 0);
+        Clock clock = Clock.fixed(departure.minusDays(1).toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        ChinaEasternAirlines airline = new ChinaEasternAirlines();
+        Flight flight = new Flight("MU1990", new Terminal("Lifecycle Terminal", "Shanghai"), airline,
+                new Terminal("Lifecycle Arrival Terminal", "Guangzhou"), departure, departure.plusHours(2), 10);
+        Flight canceled = new Flight("MU1991", flight.getOrigin(), airline, flight.getDestination(),
+                departure, departure.plusHours(2), 10);
+        assertEquals(FlightStatus.SCHEDULED, flight.getStatus());
+        FlightLifecycleScheduler scheduler = new FlightLifecycleScheduler(clock, Duration.ofMinutes(45),
+                Duration.ofMinutes(40), Duration.ofSeconds(1));
+        scheduler.start(false);
+        int pending = scheduler.getPendingCount();
+        scheduler.untrack(canceled);
+        assertEquals(pending - 1, scheduler.getPendingCount());
+        assertTrue(flight.isBOpenForReservation());
+
+        scheduler.advanceTo(departure.minusMinutes(45).minusSeconds(1).toInstant(ZoneOffset.UTC).toEpochMilli());
+        assertEquals(FlightStatus.SCHEDULED, flight.getStatus());
+        scheduler.advanceTo(departure.minusMinutes(45).toInstant(ZoneOffset.UTC).toEpochMilli());
+        assertEquals(FlightStatus.BOOKING_CLOSED, flight.getStatus());
+        assertFalse(flight.isBOpenForReservation());
+        assertNull(flight.holdSeat(SeatCategory.ECONOMY));
+
+        //A delay moves the timer, boarding now opens 40 minutes before the new departure
+        flight.delayFlight(departure.plusHours(1), departure.plusHours(3));
+        scheduler.reschedule(flight);
+        scheduler.advanceTo(departure.toInstant(ZoneOffset.UTC).toEpochMilli());
+        assertEquals(FlightStatus.BOOKING_CLOSED, flight.getStatus());
+        assertNull(flight.getBoardingSession());
+        scheduler.advanceTo(departure.plusMinutes(20).toInstant(ZoneOffset.UTC).toEpochMilli());
+        assertEquals(FlightStatus.BOARDING, flight.getStatus());
+        assertNotNull(flight.getBoardingSession());
+
+        //Statuses passed while the scheduler was not advanced are applied in one go
+        scheduler.advanceTo(departure.plusHours(3).toInstant(ZoneOffset.UTC).toEpochMilli());
+        assertEquals(FlightStatus.ARRIVED, flight.getStatus());
+        assertTrue(flight.getBoardingSession().isClosed());
+        assertFalse(flight.advanceStatus(FlightStatus.DEPARTED));
+        assertEquals(FlightStatus.SCHEDULED, canceled.getStatus());
+        scheduler.stop();
+        assertEquals(0, scheduler.getPendingCount());
+    }
 }
@@ -0,0 +1,78 @@
+package com.group17.flightticket.benchmark;
+
+import com.group17.flightticket.entity.AirlineCompany;
+import com.group17.flightticket.entity.Flight;
+import com.group17.flightticket.entity.Passenger;
+import com.group17.flightticket.entity.Terminal;
+import com.group17.flightticket.event.BookingEventBus;
+import com.group17.flightticket.event.BookingEventSink;
+import com.group17.flightticket.notification.NotificationDispatcher;
+import com.group17.flightticket.notification.NotificationSink;
+
+import java.time.LocalDateTime;
+
+/**
+ * Shared set-up for the JMH benchmarks.
+ */
+final class BenchmarkFixtures {
+    /** A balance no benchmark can spend during one iteration */
+    static final double UNLIMITED_BALANCE = 1e12;
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * Detaches every booking event and notification sink, so the benchmarks measure the booking
+     * paths instead of console output.
+     */
+    static void silence() {
+        BookingEventBus events = BookingEventBus.global();
+        for (BookingEventSink sink : events.getSinks()) {
+            events.removeSink(sink);
+        }
+        NotificationDispatcher notifications = NotificationDispatcher.global();
+        for (NotificationSink sink : notifications.getSinks()) {
+            notifications.removeSink(sink);
+        }
+    }
+
+    /**
+     * Creates a flight departing tomorrow from Shanghai to Paris.
+     *
+     * @param airline      The airline operating the flight.
+     * @param flightNumber The flight number.
+     * @param capacity     The number of seats.
+     * @return The new flight, already added to the airline.
+     */
+    static Flight flight(AirlineCompany airline, String flightNumber, int capacity) {
+        return flight(airline, flightNumber, capacity,
+                new Terminal("PVG", "Shanghai Terminal", "Shanghai"), new Terminal("CDG", "Paris Terminal", "Paris"));
+    }
+
+    /**
+     * Creates a flight departing tomorrow between the given terminals.
+     *
+     * @param airline      The airline operating the flight.
+     * @param flightNumber The flight number.
+     * @param capacity     The number of seats.
+     * @param origin       The departure terminal.
+     * @param destination  The arrival terminal.
+     * @return The new flight, already added to the airline.
+     */
+    static Flight flight(AirlineCompany airline, String flightNumber, int capacity, Terminal origin, Terminal destination) {
+        LocalDateTime departure = LocalDateTime.now().plusDays(1).withHour(8).withMinute(0).withSecond(0).withNano(0);
+        Flight flight = new Flight(flightNumber, origin, airline, destination, departure, departure.plusHours(12), capacity);
+        airline.addFlight(flight);
+        return flight;
+    }
+
+    /**
+     * Creates a passenger who can afford anything the benchmarks book.
+     *
+     * @param name The passenger's name.
+     * @return The new passenger.
+     */
+    static Passenger passenger(String name) {
+        return new Passenger(name, UNLIMITED_BALANCE);
+    }
+}
@@ -0,0 +1,91 @@
+package com.group17.flightticket.benchmark;
+
+import com.group17.flightticket.entity.AirlineCompany;
+import com.group17.flightticket.entity.Flight;
+import com.group17.flightticket.entity.Passenger;
+import com.group17.flightticket.entity.Terminal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link Flight#boardPassengers} for small, typical and wide-body manifests.
+ * A flight is boarded only once, so every iteration books a batch of {@value #BATCH} flights beforehand
+ * and times boarding all of them, one flight per operation; one in ten passengers has priority
+ * boarding and one in twenty is not at the gate.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, batchSize = BoardingBenchmark.BATCH)
+@Measurement(iterations = 20, batchSize = BoardingBenchmark.BATCH)
+@Fork(1)
+@State(Scope.Thread)
+public class BoardingBenchmark {
+    static final int BATCH = 100;
+
+    @Param({"10", "300", "850"})
+    public int manifestSize;
+
+    private AirlineCompany airline;
+    private final List<Passenger> passengers = new ArrayList<>();
+    private final List<Flight> flights = new ArrayList<>(BATCH);
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkFixtures.silence();
+        airline = new AirlineCompany("Benchmark Airlines");
+        for (int i = 0; i < manifestSize; i++) {
+            Passenger passenger = BenchmarkFixtures.passenger("Boarding Benchmark " + i);
+            if (i % 10 == 0) {
+                passenger.enablePriorityBoarding();
+            }
+            passengers.add(passenger);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void book() {
+        // The boarded flights of the previous batch are canceled, and new terminals replace the previous
+        // ones, so boarded flights do not pile up anywhere
+        for (Flight boarded : flights) {
+            airline.cancelFlight(boarded);
+        }
+        flights.clear();
+        Terminal origin = new Terminal("PVG", "Shanghai Terminal", "Shanghai");
+        Terminal destination = new Terminal("CDG", "Paris Terminal", "Paris");
+        for (int i = 0; i < passengers.size(); i++) {
+            passengers.get(i).setCurrentTerminal(i % 20 == 19 ? destination : origin);
+        }
+        for (int f = 0; f < BATCH; f++) {
+            Flight flight = BenchmarkFixtures.flight(airline, "BM3" + f, manifestSize, origin, destination);
+            for (Passenger passenger : passengers) {
+                flight.addPassenger(passenger);
+            }
+            flights.add(flight);
+        }
+        next = 0;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int board() {
+        Flight flight = flights.get(next++);
+        flight.boardPassengers();
+        return flight.getBoardedPassengers().size();
+    }
+}
@@ -0,0 +1,125 @@
+package com.group17.flightticket.benchmark;
+
+import com.group17.flightticket.entity.AirlineCompany;
+import com.group17.flightticket.entity.Flight;
+import com.group17.flightticket.entity.Passenger;
+import com.group17.flightticket.entity.Reservation;
+import com.group17.flightticket.enums.SeatCategory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link Passenger#makeReservationV4} with and without its add-ons, and
+ * {@link Passenger#cancelReservationV2} on its own.
+ * <p>
+ * A passenger can hold one reservation per flight, so the booking benchmarks cancel what they
+ * booked; the cost of a booking alone is the difference with {@link #cancel}. That one runs in
+ * batches of {@value #CANCEL_BATCH} cancellations of passengers booked before the batch, so no
+ * fixture work is timed with it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BookingBenchmark {
+    static final int CANCEL_BATCH = 10_000;
+
+    private AirlineCompany airline;
+    private Flight flight;
+    private Passenger passenger;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkFixtures.silence();
+        airline = new AirlineCompany("Benchmark Airlines");
+        flight = BenchmarkFixtures.flight(airline, "BM100", 1_000_000);
+        passenger = BenchmarkFixtures.passenger("Booking Benchmark");
+    }
+
+    @Setup(Level.Iteration)
+    public void topUp() {
+        passenger.setBalance(BenchmarkFixtures.UNLIMITED_BALANCE);
+    }
+
+    @Benchmark
+    public Reservation reserveAndCancel() {
+        Reservation reservation = passenger.makeReservationV4(flight, SeatCategory.ECONOMY);
+        passenger.cancelReservationV2(flight, airline);
+        return reservation;
+    }
+
+    @Benchmark
+    public Reservation reserveWithInsuranceAndCancel() {
+        Reservation reservation = passenger.makeReservationV4(flight, SeatCategory.ECONOMY, true, 100, false);
+        passenger.cancelReservationV2(flight, airline);
+        return reservation;
+    }
+
+    @Benchmark
+    public Reservation reserveWithPriorityBoardingAndCancel() {
+        Reservation reservation = passenger.makeReservationV4(flight, SeatCategory.ECONOMY, false, 0, true);
+        passenger.cancelReservationV2(flight, airline);
+        return reservation;
+    }
+
+    @Benchmark
+    public Reservation reserveWithAllAddOnsAndCancel() {
+        Reservation reservation = passenger.makeReservationV4(flight, SeatCategory.BUSINESS, true, 100, true);
+        passenger.cancelReservationV2(flight, airline);
+        return reservation;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 5, batchSize = CANCEL_BATCH)
+    @Measurement(iterations = 20, batchSize = CANCEL_BATCH)
+    @OperationsPerInvocation(CANCEL_BATCH)
+    public boolean cancel(Booked booked) {
+        return booked.passengers[booked.next++].cancelReservationV2(booked.flight, booked.airline);
+    }
+
+    /**
+     * A batch of passengers who each hold a reservation, booked before every iteration.
+     */
+    @State(Scope.Thread)
+    public static class Booked {
+        private AirlineCompany airline;
+        private Flight flight;
+        private final Passenger[] passengers = new Passenger[CANCEL_BATCH];
+        private int next;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            BenchmarkFixtures.silence();
+            airline = new AirlineCompany("Benchmark Airlines");
+            flight = BenchmarkFixtures.flight(airline, "BM200", CANCEL_BATCH);
+            for (int i = 0; i < CANCEL_BATCH; i++) {
+                passengers[i] = BenchmarkFixtures.passenger("Cancel Benchmark " + i);
+            }
+        }
+
+        @Setup(Level.Iteration)
+        public void book() {
+            for (Passenger passenger : passengers) {
+                passenger.setBalance(BenchmarkFixtures.UNLIMITED_BALANCE);
+                passenger.makeReservationV4(flight, SeatCategory.ECONOMY);
+            }
+            next = 0;
+        }
+    }
+}
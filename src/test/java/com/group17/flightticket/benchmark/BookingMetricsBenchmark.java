@@ -0,0 +1,89 @@
+package com.group17.flightticket.benchmark;
+
+import com.group17.flightticket.entity.AirlineCompany;
+import com.group17.flightticket.entity.Flight;
+import com.group17.flightticket.entity.Passenger;
+import com.group17.flightticket.entity.Reservation;
+import com.group17.flightticket.enums.SeatCategory;
+import com.group17.flightticket.metrics.BookingMetrics;
+import com.group17.flightticket.metrics.BookingOperation;
+import com.group17.flightticket.metrics.LatencyHistogram;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures what the {@link BookingMetrics} add to the booking path: {@link #reserveAndCancel} books
+ * and cancels a seat with the metrics recording or disabled, the difference being their overhead.
+ * {@link #timeOperation} and {@link #recordLatency} measure one timed operation and one histogram
+ * update on their own.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BookingMetricsBenchmark {
+
+    @Param({"true", "false"})
+    public boolean enabled;
+
+    private AirlineCompany airline;
+    private Flight flight;
+    private Passenger passenger;
+    private final BookingMetrics metrics = new BookingMetrics();
+    private final LatencyHistogram histogram = new LatencyHistogram();
+    private long latency;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkFixtures.silence();
+        BookingMetrics.global().setEnabled(enabled);
+        metrics.setEnabled(enabled);
+        airline = new AirlineCompany("Benchmark Airlines");
+        flight = BenchmarkFixtures.flight(airline, "BM700", 180);
+        passenger = BenchmarkFixtures.passenger("Metrics Benchmark");
+    }
+
+    @Setup(Level.Iteration)
+    public void topUp() {
+        passenger.setBalance(BenchmarkFixtures.UNLIMITED_BALANCE);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BookingMetrics.global().setEnabled(true);
+    }
+
+    @Benchmark
+    public Reservation reserveAndCancel() {
+        Reservation reservation = passenger.makeReservationV4(flight, SeatCategory.ECONOMY);
+        passenger.cancelReservationV2(flight, airline);
+        return reservation;
+    }
+
+    @Benchmark
+    public void timeOperation() {
+        metrics.success(BookingOperation.CANCEL, metrics.start());
+    }
+
+    @Benchmark
+    public void recordLatency() {
+        // Spread the values over the buckets a booking path would hit
+        latency = (latency + 7919) & 0xFFFFF;
+        histogram.record(latency);
+    }
+}
@@ -0,0 +1,68 @@
+package com.group17.flightticket.benchmark;
+
+import com.group17.flightticket.entity.AirlineCompany;
+import com.group17.flightticket.entity.BookingTransaction;
+import com.group17.flightticket.entity.Flight;
+import com.group17.flightticket.entity.Passenger;
+import com.group17.flightticket.entity.Reservation;
+import com.group17.flightticket.enums.SeatCategory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a {@link BookingTransaction} with insurance and priority boarding on a 180-seat flight:
+ * committed and then canceled again, and aborted because the insurance cannot be paid for, after
+ * the seat was checked and before anything was taken.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BookingTransactionBenchmark {
+    private static final int SEATS = 180;
+
+    private AirlineCompany airline;
+    private Flight flight;
+    private Passenger passenger;
+    private Passenger poorPassenger;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkFixtures.silence();
+        airline = new AirlineCompany("Benchmark Airlines");
+        flight = BenchmarkFixtures.flight(airline, "BM700", SEATS);
+        passenger = BenchmarkFixtures.passenger("Transaction Benchmark");
+        poorPassenger = new Passenger("Poor Benchmark", 150);
+    }
+
+    @Setup(Level.Iteration)
+    public void topUp() {
+        passenger.setBalance(BenchmarkFixtures.UNLIMITED_BALANCE);
+    }
+
+    @Benchmark
+    public Reservation commitAndCancel() {
+        Reservation reservation = BookingTransaction.begin(passenger, flight, SeatCategory.ECONOMY)
+                .insurance(100).priorityBoarding().commit();
+        passenger.cancelReservationV2(flight, airline);
+        return reservation;
+    }
+
+    @Benchmark
+    public Reservation abortOnInsurance() {
+        return BookingTransaction.begin(poorPassenger, flight, SeatCategory.ECONOMY).insurance(100).commit();
+    }
+}
@@ -0,0 +1,88 @@
+package com.group17.flightticket.benchmark;
+
+import com.group17.flightticket.entity.AirlineCompany;
+import com.group17.flightticket.entity.Flight;
+import com.group17.flightticket.entity.Passenger;
+import com.group17.flightticket.entity.Reservation;
+import com.group17.flightticket.enums.SeatCategory;
+import com.group17.flightticket.pricing.FareQuote;
+import com.group17.flightticket.pricing.FareQuoteCache;
+import com.group17.flightticket.pricing.PricingPolicy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures fare quotes on a 180-seat flight priced flat or with a yield policy of three load steps
+ * and three lead-time steps. The flight is one seat short of its first load step, so every booking
+ * of {@link #reserveAndCancel} moves the fare ladder up and its cancellation moves it back down.
+ * {@link #cachedQuote} serves the same quote from a {@link FareQuoteCache}, as a search would.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FareQuoteBenchmark {
+    private static final int SEATS = 180;
+
+    @Param({"flat", "yield"})
+    public String policy;
+
+    private AirlineCompany airline;
+    private Flight flight;
+    private Passenger passenger;
+    private final FareQuoteCache cache = new FareQuoteCache(1024, 100);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkFixtures.silence();
+        airline = new AirlineCompany("Benchmark Airlines");
+        if (policy.equals("yield")) {
+            airline.setPricingPolicy(PricingPolicy.flat()
+                    .withLoadStep(0.5, 1.25).withLoadStep(0.75, 1.5).withLoadStep(0.9, 2.0)
+                    .withLeadTimeStep(Duration.ofDays(21), 1.1).withLeadTimeStep(Duration.ofDays(7), 1.3)
+                    .withLeadTimeStep(Duration.ofDays(2), 1.6));
+        }
+        flight = BenchmarkFixtures.flight(airline, "BM300", SEATS);
+        for (int i = 0; i < SEATS / 2 - 1; i++) {
+            BenchmarkFixtures.passenger("Filler " + i).makeReservationV4(flight, SeatCategory.ECONOMY);
+        }
+        passenger = BenchmarkFixtures.passenger("Fare Benchmark");
+    }
+
+    @Setup(Level.Iteration)
+    public void topUp() {
+        passenger.setBalance(BenchmarkFixtures.UNLIMITED_BALANCE);
+    }
+
+    @Benchmark
+    public double quote() {
+        return flight.quoteFare(SeatCategory.BUSINESS);
+    }
+
+    @Benchmark
+    public FareQuote cachedQuote() {
+        return cache.quote(flight, SeatCategory.BUSINESS, passenger);
+    }
+
+    @Benchmark
+    public Reservation reserveAndCancel() {
+        Reservation reservation = passenger.makeReservationV4(flight, SeatCategory.ECONOMY);
+        passenger.cancelReservationV2(flight, airline);
+        return reservation;
+    }
+}
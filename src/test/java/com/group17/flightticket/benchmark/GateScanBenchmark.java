@@ -0,0 +1,108 @@
+package com.group17.flightticket.benchmark;
+
+import com.group17.flightticket.boarding.BoardingGroup;
+import com.group17.flightticket.boarding.BoardingSession;
+import com.group17.flightticket.entity.AirlineCompany;
+import com.group17.flightticket.entity.Flight;
+import com.group17.flightticket.entity.Passenger;
+import com.group17.flightticket.entity.Terminal;
+import com.group17.flightticket.enums.SeatCategory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Several wide-body flights boarding at the same terminal at once, one benchmark thread per gate.
+ * Every operation scans all passengers of the flight into a new {@link BoardingSession}; the sessions
+ * of a batch of {@value #BATCH} operations are opened before the batch, so opening them is not timed.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, batchSize = GateScanBenchmark.BATCH)
+@Measurement(iterations = 20, batchSize = GateScanBenchmark.BATCH)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class GateScanBenchmark {
+    static final int BATCH = 50;
+    private static final int MANIFEST_SIZE = 850;
+    private static final SeatCategory[] CATEGORIES = SeatCategory.values();
+
+    private AirlineCompany airline;
+    private Terminal origin;
+    private Terminal destination;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkFixtures.silence();
+        airline = new AirlineCompany("Benchmark Airlines");
+        origin = new Terminal("PVG", "Shanghai Terminal", "Shanghai");
+        destination = new Terminal("CDG", "Paris Terminal", "Paris");
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int scanAll(Gate gate) {
+        BoardingSession session = gate.sessions[gate.next++];
+        for (BoardingGroup group : BoardingGroup.values()) {
+            session.callUpTo(group);
+            for (Passenger passenger : session.getWaiting(group)) {
+                session.scan(passenger);
+            }
+        }
+        return session.getBoardedCount();
+    }
+
+    /**
+     * The flight boarding at one gate.
+     */
+    @State(Scope.Thread)
+    public static class Gate {
+        private Flight flight;
+        private final List<Passenger> passengers = new ArrayList<>();
+        private final List<SeatCategory> categories = new ArrayList<>();
+        private final BoardingSession[] sessions = new BoardingSession[BATCH];
+        private int next;
+
+        @Setup(Level.Trial)
+        public void setUp(GateScanBenchmark terminal) {
+            String flightNumber = "BM6" + Thread.currentThread().threadId();
+            flight = BenchmarkFixtures.flight(terminal.airline, flightNumber, MANIFEST_SIZE,
+                    terminal.origin, terminal.destination);
+            for (int i = 0; i < MANIFEST_SIZE; i++) {
+                Passenger passenger = BenchmarkFixtures.passenger(flightNumber + " Passenger " + i);
+                if (i % 10 == 0) {
+                    passenger.enablePriorityBoarding();
+                }
+                passengers.add(passenger);
+                categories.add(CATEGORIES[i % CATEGORIES.length]);
+            }
+        }
+
+        @Setup(Level.Iteration)
+        public void openBoarding() {
+            for (int s = 0; s < BATCH; s++) {
+                BoardingSession session = new BoardingSession(flight, MANIFEST_SIZE);
+                for (int i = 0; i < MANIFEST_SIZE; i++) {
+                    session.add(passengers.get(i), categories.get(i));
+                }
+                sessions[s] = session;
+            }
+            next = 0;
+        }
+    }
+}
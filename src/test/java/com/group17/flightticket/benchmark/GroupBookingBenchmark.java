@@ -0,0 +1,82 @@
+package com.group17.flightticket.benchmark;
+
+import com.group17.flightticket.entity.AirlineCompany;
+import com.group17.flightticket.entity.Flight;
+import com.group17.flightticket.entity.GroupBooking;
+import com.group17.flightticket.entity.Passenger;
+import com.group17.flightticket.enums.SeatCategory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares booking a group with {@link GroupBooking#book} against booking the same passengers one by one
+ * with {@link Passenger#makeReservationV4(Flight, SeatCategory)}. Both benchmarks cancel the group
+ * afterwards the same way, so the difference between them is the difference in booking cost.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GroupBookingBenchmark {
+    @Param({"10", "40"})
+    public int groupSize;
+
+    private AirlineCompany airline;
+    private Flight flight;
+    private final List<Passenger> group = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkFixtures.silence();
+        airline = new AirlineCompany("Benchmark Airlines");
+        flight = BenchmarkFixtures.flight(airline, "BM500", 1_000_000);
+        for (int i = 0; i < groupSize; i++) {
+            group.add(BenchmarkFixtures.passenger("Group Benchmark " + i));
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void topUp() {
+        for (Passenger passenger : group) {
+            passenger.setBalance(BenchmarkFixtures.UNLIMITED_BALANCE);
+        }
+    }
+
+    @Benchmark
+    public GroupBooking groupBooking() {
+        GroupBooking booking = GroupBooking.book(flight, SeatCategory.ECONOMY, group);
+        cancelGroup();
+        return booking;
+    }
+
+    @Benchmark
+    public void sequentialBookings(Blackhole blackhole) {
+        for (Passenger passenger : group) {
+            blackhole.consume(passenger.makeReservationV4(flight, SeatCategory.ECONOMY));
+        }
+        cancelGroup();
+    }
+
+    private void cancelGroup() {
+        for (Passenger passenger : group) {
+            passenger.cancelReservationV2(flight, airline);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.group17.flightticket.benchmark;
+
+import com.group17.flightticket.entity.AirlineCompany;
+import com.group17.flightticket.entity.Flight;
+import com.group17.flightticket.entity.Passenger;
+import com.group17.flightticket.entity.Reservation;
+import com.group17.flightticket.enums.SeatCategory;
+import com.group17.flightticket.inventory.SeatHold;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Many threads booking and cancelling seats on one flight at once. With a small capacity most
+ * attempts find the flight full, which measures the rejection path under contention.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class HotFlightBenchmark {
+    @Param({"4", "1000000"})
+    public int capacity;
+
+    private AirlineCompany airline;
+    private Flight flight;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkFixtures.silence();
+        airline = new AirlineCompany("Benchmark Airlines");
+        flight = BenchmarkFixtures.flight(airline, "BM400", capacity);
+    }
+
+    @Benchmark
+    public Reservation reserveAndCancel(Booker booker) {
+        Reservation reservation = booker.passenger.makeReservationV4(flight, SeatCategory.ECONOMY);
+        if (reservation != null) {
+            booker.passenger.cancelReservationV2(flight, airline);
+        }
+        return reservation;
+    }
+
+    @Benchmark
+    public boolean holdAndRelease() {
+        SeatHold hold = flight.holdSeat(SeatCategory.ECONOMY);
+        return hold != null && hold.release();
+    }
+
+    /**
+     * The passenger booking from one benchmark thread.
+     */
+    @State(Scope.Thread)
+    public static class Booker {
+        private Passenger passenger;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            passenger = BenchmarkFixtures.passenger("Hot Flight Benchmark " + Thread.currentThread().getName());
+        }
+
+        @Setup(Level.Iteration)
+        public void topUp() {
+            passenger.setBalance(BenchmarkFixtures.UNLIMITED_BALANCE);
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.group17.flightticket.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.group17.flightticket.FlightTicketSystemApplication;
+import com.group17.flightticket.entity.AirlineCompany;
+import com.group17.flightticket.entity.Flight;
+import com.group17.flightticket.entity.Terminal;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Drives the HTTP API of an in-process server over localhost with many concurrent clients, each on its
+ * own virtual thread with its own connection. Every client creates its passenger, then loops over
+ * search, reserve and cancel until the run ends. After an unreported warm-up run, for each number of clients the harness reports the
+ * requests served, the throughput and the p50, p99 and p99.9 latencies.
+ * <p>
+ * Run it with {@code mvn -Pload verify -DskipTests}, and change the runs with
+ * {@code -Dload.args="--clients 1000,10000,50000 --duration 30 --warmup 30 --flights 200"}. Tens of thousands of
+ * clients need as many open files ({@code ulimit -n}) and, on one host, enough ephemeral ports.
+ */
+public final class HttpLoadHarness {
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final String AIRLINE = "LoadAirlines";
+
+    private final String baseUrl;
+    private final List<String> flightKeys;
+    private final String searchQuery;
+    private final HttpClient client;
+
+    private HttpLoadHarness(String baseUrl, List<String> flightKeys, String searchQuery, HttpClient client) {
+        this.baseUrl = baseUrl;
+        this.flightKeys = flightKeys;
+        this.searchQuery = searchQuery;
+        this.client = client;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int[] clientCounts = {1000, 10_000, 50_000};
+        int durationSeconds = 30;
+        int warmupSeconds = 30;
+        int flightCount = 200;
+        int port = 0;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--clients" -> clientCounts = Arrays.stream(args[i + 1].split(",")).mapToInt(Integer::parseInt).toArray();
+                case "--duration" -> durationSeconds = Integer.parseInt(args[i + 1]);
+                case "--warmup" -> warmupSeconds = Integer.parseInt(args[i + 1]);
+                case "--flights" -> flightCount = Integer.parseInt(args[i + 1]);
+                case "--port" -> port = Integer.parseInt(args[i + 1]);
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        ServletWebServerApplicationContext context = (ServletWebServerApplicationContext) SpringApplication.run(
+                FlightTicketSystemApplication.class, "--server.port=" + port, "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN");
+        BenchmarkFixtures.silence();
+        LocalDateTime departure = LocalDateTime.now().plusDays(1).withHour(8).withMinute(0).withSecond(0).withNano(0);
+        List<String> flightKeys = seed(flightCount);
+        String searchQuery = "?origin=Shanghai&destination=Paris&category=ECONOMY"
+                + "&from=" + departure.minusHours(1).format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)
+                + "&to=" + departure.plusHours(1).format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+
+        try (ExecutorService httpExecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(30))
+                    .executor(httpExecutor)
+                    .build();
+            HttpLoadHarness harness = new HttpLoadHarness(
+                    "http://localhost:" + context.getWebServer().getPort(), flightKeys, searchQuery, client);
+            if (warmupSeconds > 0) {
+                // Let the JIT compile the server and client paths before anything is measured
+                harness.run(Math.min(clientCounts[0], 100), Duration.ofSeconds(warmupSeconds), false);
+            }
+            System.out.printf("%8s %10s %8s %8s %12s %10s %10s %10s%n",
+                    "clients", "requests", "refused", "errors", "req/s", "p50 ms", "p99 ms", "p99.9 ms");
+            for (int clients : clientCounts) {
+                harness.run(clients, Duration.ofSeconds(durationSeconds), true);
+            }
+        } finally {
+            context.close();
+        }
+    }
+
+    /**
+     * Creates the flights the clients book, from Shanghai to Paris tomorrow morning, with room for every client.
+     */
+    private static List<String> seed(int flightCount) {
+        AirlineCompany airline = new AirlineCompany(AIRLINE);
+        Terminal origin = new Terminal("PVG", "Shanghai Terminal", "Shanghai");
+        Terminal destination = new Terminal("CDG", "Paris Terminal", "Paris");
+        List<String> flightKeys = new ArrayList<>(flightCount);
+        for (int i = 0; i < flightCount; i++) {
+            Flight flight = BenchmarkFixtures.flight(airline, "LT" + i, 1000, origin, destination);
+            flightKeys.add(flight.getFlightKey().toString());
+        }
+        return flightKeys;
+    }
+
+    private void run(int clients, Duration duration, boolean report) throws InterruptedException {
+        Recorder[] recorders = new Recorder[clients];
+        LongAdder refused = new LongAdder();
+        LongAdder errors = new LongAdder();
+        CountDownLatch ready = new CountDownLatch(clients);
+        CountDownLatch start = new CountDownLatch(1);
+        long[] window = new long[2];
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                Recorder recorder = new Recorder();
+                recorders[i] = recorder;
+                String flightKey = flightKeys.get(i % flightKeys.size());
+                executor.execute(() -> runClient(flightKey, recorder, refused, errors, ready, start, window));
+            }
+            ready.await();
+            window[0] = System.nanoTime();
+            window[1] = window[0] + duration.toNanos();
+            start.countDown();
+        }
+        double seconds = (System.nanoTime() - window[0]) / 1e9;
+        if (!report) {
+            return;
+        }
+
+        int total = 0;
+        for (Recorder recorder : recorders) {
+            total += recorder.size;
+        }
+        long[] latencies = new long[total];
+        int offset = 0;
+        for (Recorder recorder : recorders) {
+            System.arraycopy(recorder.latencies, 0, latencies, offset, recorder.size);
+            offset += recorder.size;
+        }
+        Arrays.sort(latencies);
+        System.out.printf("%8d %10d %8d %8d %12.0f %10.2f %10.2f %10.2f%n", clients, total, refused.sum(), errors.sum(),
+                total / seconds, percentile(latencies, 0.50), percentile(latencies, 0.99), percentile(latencies, 0.999));
+    }
+
+    private void runClient(String flightKey, Recorder recorder, LongAdder refused, LongAdder errors,
+                           CountDownLatch ready, CountDownLatch start, long[] window) {
+        long passengerId;
+        try {
+            HttpResponse<String> created = send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/passengers"))
+                    .POST(json("{\"name\":\"Load Client\",\"balance\":1e12}")), null);
+            passengerId = JSON.readTree(created.body()).get("passengerId").asLong();
+        } catch (Exception e) {
+            errors.increment();
+            ready.countDown();
+            return;
+        }
+        ready.countDown();
+        try {
+            start.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        String reservationPath = baseUrl + "/api/reservations/" + passengerId + "/" + flightKey;
+        String reservation = "{\"passengerId\":" + passengerId + ",\"flightKey\":\"" + flightKey + "\",\"category\":\"ECONOMY\"}";
+        while (System.nanoTime() < window[1]) {
+            try {
+                send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/flights" + searchQuery)).GET(), recorder);
+                HttpResponse<String> booked = send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/reservations"))
+                        .POST(json(reservation)), recorder);
+                if (booked.statusCode() == 409) {
+                    refused.increment();
+                    continue;
+                }
+                if (booked.statusCode() != 201) {
+                    errors.increment();
+                    continue;
+                }
+                HttpResponse<String> canceled = send(HttpRequest.newBuilder(URI.create(reservationPath)).DELETE(), recorder);
+                if (canceled.statusCode() != 200) {
+                    errors.increment();
+                }
+            } catch (Exception e) {
+                errors.increment();
+            }
+        }
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request, Recorder recorder) throws Exception {
+        long started = System.nanoTime();
+        HttpResponse<String> response = client.send(request.header("Content-Type", "application/json").build(), HttpResponse.BodyHandlers.ofString());
+        if (recorder != null) {
+            recorder.add(System.nanoTime() - started);
+        }
+        return response;
+    }
+
+    private static HttpRequest.BodyPublisher json(String body) {
+        return HttpRequest.BodyPublishers.ofString(body);
+    }
+
+    private static double percentile(long[] sorted, double fraction) {
+        if (sorted.length == 0) {
+            return Double.NaN;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(fraction * sorted.length) - 1)] / 1e6;
+    }
+
+    /**
+     * The latencies of one client, in nanoseconds. Only its own virtual thread writes to it.
+     */
+    private static final class Recorder {
+        private long[] latencies = new long[256];
+        private int size;
+
+        void add(long latency) {
+            if (size == latencies.length) {
+                latencies = Arrays.copyOf(latencies, size * 2);
+            }
+            latencies[size++] = latency;
+        }
+    }
+}
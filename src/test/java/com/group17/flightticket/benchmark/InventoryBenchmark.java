@@ -0,0 +1,84 @@
+package com.group17.flightticket.benchmark;
+
+import com.group17.flightticket.entity.AirlineCompany;
+import com.group17.flightticket.entity.ChinaEasternAirlines;
+import com.group17.flightticket.entity.Terminal;
+import com.group17.flightticket.event.BookingEventBus;
+import com.group17.flightticket.event.BookingEventSink;
+import com.group17.flightticket.revenue.InventoryAggregates;
+import com.group17.flightticket.revenue.InventorySnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the inventory reports of {@link AirlineCompany} and {@link ChinaEasternAirlines}
+ * over 10k flights, with and without a sink listening to the reports, against reading the
+ * same totals from the airline's {@link InventoryAggregates}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InventoryBenchmark {
+    private static final int FLIGHT_COUNT = 10_000;
+
+    @Param({"true", "false"})
+    public boolean listening;
+
+    private final BookingEventSink discardingSink = event -> { };
+    private AirlineCompany airline;
+    private ChinaEasternAirlines chinaEastern;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkFixtures.silence();
+        Terminal origin = new Terminal("PVG", "Shanghai Terminal", "Shanghai");
+        Terminal destination = new Terminal("CDG", "Paris Terminal", "Paris");
+        airline = new AirlineCompany("Benchmark Airlines");
+        chinaEastern = new ChinaEasternAirlines();
+        for (int i = 0; i < FLIGHT_COUNT; i++) {
+            BenchmarkFixtures.flight(airline, String.format("BA%05d", i), 180, origin, destination);
+            BenchmarkFixtures.flight(chinaEastern, String.format("MU%05d", i), 180, origin, destination);
+        }
+        if (listening) {
+            BookingEventBus.global().addSink(discardingSink);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BookingEventBus.global().awaitDrained(Duration.ofSeconds(10));
+        BookingEventBus.global().removeSink(discardingSink);
+    }
+
+    @Benchmark
+    public void airlineInventory() {
+        airline.inventory();
+    }
+
+    @Benchmark
+    public void chinaEasternInventory() {
+        chinaEastern.inventory();
+    }
+
+    @Benchmark
+    public InventorySnapshot aggregateSnapshot() {
+        return chinaEastern.getInventoryAggregates().snapshot();
+    }
+}
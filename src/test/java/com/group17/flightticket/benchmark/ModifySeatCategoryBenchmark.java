@@ -0,0 +1,71 @@
+package com.group17.flightticket.benchmark;
+
+import com.group17.flightticket.entity.AirlineCompany;
+import com.group17.flightticket.entity.Flight;
+import com.group17.flightticket.entity.Passenger;
+import com.group17.flightticket.entity.Reservation;
+import com.group17.flightticket.enums.SeatCategory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link Passenger#modifySeatCategory}, which finds the reservation by flight number,
+ * with {@link Passenger#modifySeatCategoryV2}, which finds it by reservation id, for passengers
+ * holding few or many reservations. Every call moves the seat between economy and business, so
+ * the balance and the seat counts stay level.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ModifySeatCategoryBenchmark {
+    @Param({"1", "100"})
+    public int reservationCount;
+
+    private Passenger passenger;
+    private Reservation reservation;
+    private String flightNumber;
+    private boolean upgraded;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkFixtures.silence();
+        AirlineCompany airline = new AirlineCompany("Benchmark Airlines");
+        passenger = BenchmarkFixtures.passenger("Modify Benchmark");
+        for (int i = 0; i < reservationCount; i++) {
+            Flight flight = BenchmarkFixtures.flight(airline, String.format("BM%04d", i), 1_000);
+            reservation = passenger.makeReservationV4(flight, SeatCategory.ECONOMY);
+            flightNumber = flight.getFlightNumber();
+        }
+        upgraded = false;
+    }
+
+    @Benchmark
+    public boolean byFlightNumber() {
+        return passenger.modifySeatCategory(flightNumber, nextCategory());
+    }
+
+    @Benchmark
+    public boolean byReservation() {
+        return passenger.modifySeatCategoryV2(reservation, nextCategory());
+    }
+
+    private SeatCategory nextCategory() {
+        upgraded = !upgraded;
+        return upgraded ? SeatCategory.BUSINESS : SeatCategory.ECONOMY;
+    }
+}
@@ -0,0 +1,107 @@
+package com.group17.flightticket.benchmark;
+
+import com.group17.flightticket.entity.AirlineCompany;
+import com.group17.flightticket.entity.Flight;
+import com.group17.flightticket.entity.Passenger;
+import com.group17.flightticket.entity.Terminal;
+import com.group17.flightticket.enums.SeatCategory;
+import com.group17.flightticket.event.BookingEvent.ReservationCreated;
+import com.group17.flightticket.persistence.RecoveryStats;
+import com.group17.flightticket.persistence.ReservationStore;
+import com.group17.flightticket.wallet.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Recovers one million reservations, 1000 passengers on each of 1000 flights, either by replaying
+ * the write-ahead log or by loading a snapshot, then restores them on freshly created entities.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@State(Scope.Benchmark)
+public class RecoveryBenchmark {
+    private static final int FLIGHT_COUNT = 1000;
+    private static final int PASSENGER_COUNT = 1000;
+    private static final long PASSENGER_ID_BASE = 1_000_000_000L;
+
+    @Param({"log", "snapshot"})
+    public String source;
+
+    private Path directory;
+    private AirlineCompany airline;
+    private final List<Flight> flights = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        BenchmarkFixtures.silence();
+        directory = Files.createTempDirectory("reservation-store");
+        createEntities();
+        long reservationId = PASSENGER_ID_BASE;
+        try (ReservationStore store = ReservationStore.open(directory, Long.MAX_VALUE)) {
+            for (Flight flight : flights) {
+                for (int i = 0; i < PASSENGER_COUNT; i++) {
+                    store.onEvent(new ReservationCreated(++reservationId, PASSENGER_ID_BASE + i, null,
+                            flight.getFlightKey(), SeatCategory.ECONOMY, Money.toMinor(100), Money.toMinor(100), 10, 0, null));
+                }
+                store.flush();
+            }
+            if (source.equals("snapshot")) {
+                store.snapshot();
+            }
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void createEntities() {
+        // New flights and passengers with the same keys and ids replace the ones restored last time
+        flights.clear();
+        airline = new AirlineCompany("Benchmark Airlines");
+        Terminal origin = new Terminal("PVG", "Shanghai Terminal", "Shanghai");
+        Terminal destination = new Terminal("CDG", "Paris Terminal", "Paris");
+        for (int i = 0; i < FLIGHT_COUNT; i++) {
+            flights.add(BenchmarkFixtures.flight(airline, String.format("BM%04d", i), PASSENGER_COUNT, origin, destination));
+        }
+        for (int i = 0; i < PASSENGER_COUNT; i++) {
+            new Passenger(PASSENGER_ID_BASE + i, "Recovery Benchmark " + i, 0);
+        }
+    }
+
+    @Benchmark
+    public RecoveryStats recover() throws IOException {
+        try (ReservationStore store = ReservationStore.open(directory, Long.MAX_VALUE)) {
+            return store.restore();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+}
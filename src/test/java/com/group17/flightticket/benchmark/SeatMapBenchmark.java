@@ -0,0 +1,85 @@
+package com.group17.flightticket.benchmark;
+
+import com.group17.flightticket.enums.SeatCategory;
+import com.group17.flightticket.inventory.Seat;
+import com.group17.flightticket.inventory.SeatHold;
+import com.group17.flightticket.inventory.SeatInventory;
+import com.group17.flightticket.inventory.SeatMap;
+import com.group17.flightticket.inventory.SeatPreference;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures seat assignment on a 180-seat, six-abreast aircraft whose free seats are scattered at random,
+ * from an empty cabin to one with a handful of seats left. Every benchmark holds seats and releases them
+ * again, so the occupancy stays the same from one call to the next.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SeatMapBenchmark {
+    private static final int SEATS = 180;
+
+    @Param({"0", "120", "170"})
+    public int seatsTaken;
+
+    private SeatInventory inventory;
+    private SeatMap seatMap;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        inventory = new SeatInventory(SEATS);
+        seatMap = inventory.getSeatMap();
+        List<SeatHold> holds = new ArrayList<>();
+        for (int i = 0; i < SEATS; i++) {
+            holds.add(inventory.tryHold(SeatCategory.ECONOMY));
+        }
+        Collections.shuffle(holds, new Random(42));
+        for (SeatHold hold : holds.subList(seatsTaken, SEATS)) {
+            hold.release();
+        }
+    }
+
+    @Benchmark
+    public boolean holdAnySeat() {
+        return inventory.tryHold(SeatCategory.ECONOMY).release();
+    }
+
+    @Benchmark
+    public boolean holdWindowSeat() {
+        return inventory.tryHold(SeatCategory.ECONOMY, SeatPreference.WINDOW).release();
+    }
+
+    @Benchmark
+    public int holdGroupOfThree() {
+        List<SeatHold> holds = inventory.tryHold(SeatCategory.ECONOMY, 3);
+        for (SeatHold hold : holds) {
+            hold.release();
+        }
+        return holds.size();
+    }
+
+    @Benchmark
+    public List<Seat> findThreeAdjacent() {
+        return seatMap.findAdjacent(SeatCategory.ECONOMY, 3);
+    }
+}
@@ -0,0 +1,72 @@
+package com.group17.flightticket.benchmark;
+
+import com.group17.flightticket.lifecycle.TimingWheel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures moving one timer of a wheel holding a million pending flight timers, the work a flight
+ * delay costs the lifecycle scheduler, and advancing the wheel by one second of one-second ticks.
+ * The timers are spread over the next 90 days, as a published schedule is.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@State(Scope.Thread)
+public class TimingWheelBenchmark {
+    private static final long TICK = 1000;
+    private static final long HORIZON = TimeUnit.DAYS.toMillis(90);
+
+    @Param("1000000")
+    private int pending;
+
+    private TimingWheel wheel;
+    private TimingWheel.Timer[] timers;
+    private SplittableRandom random;
+    private long now;
+
+    private static final class NoOpTimer extends TimingWheel.Timer {
+        @Override
+        protected void expire(long nowMillis) {
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        wheel = new TimingWheel(TICK, 0);
+        timers = new TimingWheel.Timer[pending];
+        random = new SplittableRandom(25);
+        for (int i = 0; i < pending; i++) {
+            timers[i] = new NoOpTimer();
+            wheel.schedule(timers[i], TICK + random.nextLong(HORIZON));
+        }
+    }
+
+    @Benchmark
+    public TimingWheel.Timer reschedule() {
+        TimingWheel.Timer timer = timers[random.nextInt(pending)];
+        wheel.schedule(timer, now + TICK + random.nextLong(HORIZON));
+        return timer;
+    }
+
+    @Benchmark
+    public int advance() {
+        now += TICK;
+        return wheel.advanceTo(now);
+    }
+}
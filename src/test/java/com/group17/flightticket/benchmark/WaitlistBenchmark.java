@@ -0,0 +1,74 @@
+package com.group17.flightticket.benchmark;
+
+import com.group17.flightticket.entity.AirlineCompany;
+import com.group17.flightticket.entity.Flight;
+import com.group17.flightticket.entity.Passenger;
+import com.group17.flightticket.enums.SeatCategory;
+import com.group17.flightticket.waitlist.WaitlistEntry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long a waiting passenger waits for a seat once one is freed on a full 180-seat flight:
+ * a booked passenger cancels, and the benchmark spins until the promotion round has booked the
+ * waiting passenger on the seat. The promoted passenger then cancels, the first passenger books the
+ * seat again and the promoted passenger joins the waitlist again, outside of the measured part.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WaitlistBenchmark {
+    private static final int SEATS = 180;
+
+    private AirlineCompany airline;
+    private Flight flight;
+    private Passenger booked;
+    private Passenger waiting;
+    private WaitlistEntry entry;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkFixtures.silence();
+        airline = new AirlineCompany("Benchmark Airlines");
+        flight = BenchmarkFixtures.flight(airline, "BM500", SEATS);
+        for (int i = 0; i < SEATS - 1; i++) {
+            BenchmarkFixtures.passenger("Filler " + i).makeReservationV4(flight, SeatCategory.ECONOMY);
+        }
+        booked = BenchmarkFixtures.passenger("Booked");
+        waiting = BenchmarkFixtures.passenger("Waiting");
+    }
+
+    @Setup(Level.Invocation)
+    public void fill() {
+        if (entry != null) {
+            waiting.cancelReservationV2(flight, airline);
+        }
+        booked.setBalance(BenchmarkFixtures.UNLIMITED_BALANCE);
+        waiting.setBalance(BenchmarkFixtures.UNLIMITED_BALANCE);
+        booked.makeReservationV4(flight, SeatCategory.ECONOMY);
+        entry = waiting.joinWaitlist(flight, SeatCategory.ECONOMY);
+    }
+
+    @Benchmark
+    public WaitlistEntry cancelToPromotion() {
+        booked.cancelReservationV2(flight, airline);
+        while (entry.getStatus() != WaitlistEntry.Status.PROMOTED) {
+            Thread.onSpinWait();
+        }
+        return entry;
+    }
+}
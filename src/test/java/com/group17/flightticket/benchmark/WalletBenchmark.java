@@ -0,0 +1,56 @@
+package com.group17.flightticket.benchmark;
+
+import com.group17.flightticket.wallet.Wallet;
+import com.group17.flightticket.wallet.WalletSettlement;
+import com.group17.flightticket.wallet.WalletTransaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a payment and its refund through a {@link Wallet}, journal and batched settlement
+ * included, from four threads: each on the wallet of its own passenger, as bookings of different
+ * passengers are, and all on the wallet of one passenger.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class WalletBenchmark {
+
+    @State(Scope.Thread)
+    public static class OwnWallet {
+        final Wallet wallet = new Wallet(1, 1_000_000, new WalletSettlement(WalletSettlement.DEFAULT_BATCH_SIZE));
+    }
+
+    @State(Scope.Benchmark)
+    public static class SharedWallet {
+        final Wallet wallet = new Wallet(2, 1_000_000, new WalletSettlement(WalletSettlement.DEFAULT_BATCH_SIZE));
+    }
+
+    @Benchmark
+    public long ownWallet(OwnWallet state) {
+        return payAndRefund(state.wallet);
+    }
+
+    @Benchmark
+    public long sharedWallet(SharedWallet state) {
+        return payAndRefund(state.wallet);
+    }
+
+    private static long payAndRefund(Wallet wallet) {
+        wallet.debit(12_345, "BM600");
+        return wallet.credit(12_345, WalletTransaction.Type.REFUND, "BM600");
+    }
+}